@@ -933,6 +933,7 @@ public abstract class AbstractBDBMessageStore implements MessageStore
         private final int _contentSize;
         private final int _metadataSize;
         private MessageDataRef<T> _messageDataRef;
+        private boolean _unloaded;
 
         StoredBDBMessage(long messageId, T metaData, boolean isRecovered)
         {
@@ -1085,7 +1086,7 @@ public abstract class AbstractBDBMessageStore implements MessageStore
         {
             checkMessageStoreOpen();
             _messages.remove(this);
-            if(stored())
+            if(stored() && !_unloaded)
             {
                 removeMessage(_messageId, false);
                 storedSizeChangeOccurred(-getContentSize());
@@ -1109,7 +1110,7 @@ public abstract class AbstractBDBMessageStore implements MessageStore
             }
             _messageDataRef = null;
             _inMemorySize.addAndGet(-bytesCleared);
-            if (!_messageDeleteListeners.isEmpty())
+            if (!_unloaded && !_messageDeleteListeners.isEmpty())
             {
                 for (final MessageDeleteListener messageDeleteListener : _messageDeleteListeners)
                 {
@@ -1158,6 +1159,23 @@ public abstract class AbstractBDBMessageStore implements MessageStore
             }
         }
 
+        @Override
+        public synchronized boolean unload()
+        {
+            if (!stored())
+            {
+                return false;
+            }
+            if (!_unloaded)
+            {
+                _unloaded = true;
+                _messages.remove(this);
+                final long bytesCleared = _messageDataRef.clear();
+                _inMemorySize.addAndGet(-bytesCleared);
+            }
+            return true;
+        }
+
         public synchronized void clear()
         {
             if (_messageDataRef != null)
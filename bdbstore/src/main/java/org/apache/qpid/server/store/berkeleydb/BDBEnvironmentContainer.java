@@ -49,6 +49,11 @@ public interface BDBEnvironmentContainer<X extends ConfiguredObject<X>> extends
             changesConfiguredObjectState = false)
     Map<String, Object> transactionStatistics(@Param(name="reset", defaultValue = "false", description = "If true, reset the statistics")boolean reset);
 
+    @ManagedOperation(description = "Get the statistics of the log flushes coalescing transaction commits",
+            nonModifying = true,
+            changesConfiguredObjectState = false)
+    Map<String, Object> commitStatistics(@Param(name="reset", defaultValue = "false", description = "If true, reset the statistics") boolean reset);
+
     @ManagedOperation(description = "Get the BDB database statistics", nonModifying = true,
             changesConfiguredObjectState = false)
     Map<String, Object> databaseStatistics(@Param(name="database", description = "database table for which to retrieve statistics", mandatory = true)String database, @Param(name="reset", defaultValue = "false", description = "If true, reset the statistics") boolean reset);
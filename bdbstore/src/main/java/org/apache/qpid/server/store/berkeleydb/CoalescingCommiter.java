@@ -21,7 +21,9 @@
 package org.apache.qpid.server.store.berkeleydb;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
@@ -29,6 +31,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -36,13 +39,32 @@ import com.sleepycat.je.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.qpid.server.stats.Histogram;
+
 public class CoalescingCommiter implements Committer
 {
     private final CommitThread _commitThread;
 
     public CoalescingCommiter(String name, EnvironmentFacade environmentFacade)
     {
-        _commitThread = new CommitThread("Commit-Thread-" + name, environmentFacade);
+        this(name,
+             EnvironmentFacade.DEFAULT_COMMIT_BATCHING_POLICY,
+             EnvironmentFacade.DEFAULT_COMMIT_MAX_LINGER_MICROS,
+             environmentFacade);
+    }
+
+    /**
+     * @param maxLingerMicros upper bound of the time spent accumulating jobs before a flush when lingering
+     */
+    public CoalescingCommiter(String name,
+                              CommitBatchingPolicy batchingPolicy,
+                              long maxLingerMicros,
+                              EnvironmentFacade environmentFacade)
+    {
+        _commitThread = new CommitThread("Commit-Thread-" + name,
+                                         batchingPolicy,
+                                         TimeUnit.MICROSECONDS.toNanos(maxLingerMicros),
+                                         environmentFacade);
     }
 
     @Override
@@ -90,6 +112,12 @@ public class CoalescingCommiter implements Committer
         return future;
     }
 
+    @Override
+    public Map<String, Object> getStatistics(final boolean reset)
+    {
+        return _commitThread.getStatistics(reset);
+    }
+
 
     private static final class BDBCommitFutureResult<X> implements CommitThreadJob
     {
@@ -138,15 +166,28 @@ public class CoalescingCommiter implements Committer
 
         private final AtomicBoolean _stopped = new AtomicBoolean(false);
         private final Queue<CommitThreadJob> _jobQueue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger _queuedJobs = new AtomicInteger();
         private final Object _lock = new Object();
         private final EnvironmentFacade _environmentFacade;
+        private final CommitBatchingPolicy _batchingPolicy;
+        private final long _maxLingerNanos;
 
         private final List<CommitThreadJob> _inProcessJobs = new ArrayList<>(256);
 
-        public CommitThread(String name, EnvironmentFacade environmentFacade)
+        private int _lastBatchSize;
+        private long _averageFlushNanos;
+
+        private volatile CommitStatistics _statistics = new CommitStatistics();
+
+        public CommitThread(String name,
+                            CommitBatchingPolicy batchingPolicy,
+                            long maxLingerNanos,
+                            EnvironmentFacade environmentFacade)
         {
             super(name);
             _environmentFacade = environmentFacade;
+            _batchingPolicy = batchingPolicy == null ? CommitBatchingPolicy.IMMEDIATE : batchingPolicy;
+            _maxLingerNanos = Math.max(0L, maxLingerNanos);
         }
 
         public void explicitNotify()
@@ -176,34 +217,70 @@ public class CoalescingCommiter implements Committer
                         {
                         }
                     }
+                    linger();
                 }
                 processJobs();
             }
         }
 
+        private void linger()
+        {
+            final long lingerNanos = getLingerNanos();
+            if (lingerNanos > 0)
+            {
+                final long deadline = System.nanoTime() + lingerNanos;
+                long remaining;
+                while (!_stopped.get() && (remaining = deadline - System.nanoTime()) > 0)
+                {
+                    try
+                    {
+                        TimeUnit.NANOSECONDS.timedWait(_lock, remaining);
+                    }
+                    catch (InterruptedException e)
+                    {
+                    }
+                }
+            }
+        }
+
+        private long getLingerNanos()
+        {
+            switch (_batchingPolicy)
+            {
+                case FIXED_LINGER:
+                    return _maxLingerNanos;
+                case ADAPTIVE_LINGER:
+                    return _lastBatchSize > 1 ? Math.min(_maxLingerNanos, _averageFlushNanos) : 0L;
+                default:
+                    return 0L;
+            }
+        }
+
         private void processJobs()
         {
             CommitThreadJob job;
             while((job = _jobQueue.poll()) != null)
             {
+                _queuedJobs.decrementAndGet();
                 _inProcessJobs.add(job);
             }
 
             int completedJobsIndex = 0;
             try
             {
-                long startTime = 0;
-                if(LOGGER.isDebugEnabled())
-                {
-                    startTime = System.currentTimeMillis();
-                }
+                final long startTime = System.nanoTime();
 
                 _environmentFacade.flushLog();
 
+                final long duration = System.nanoTime() - startTime;
+                // exponentially weighted average of the flush duration, used by the adaptive linger policy
+                _averageFlushNanos = _averageFlushNanos == 0 ? duration : (_averageFlushNanos * 7 + duration) / 8;
+                _lastBatchSize = _inProcessJobs.size();
+                _statistics.recordFlush(_inProcessJobs.size(), duration);
+
                 if(LOGGER.isDebugEnabled())
                 {
-                    long duration = System.currentTimeMillis() - startTime;
-                    LOGGER.debug("flushLog completed in " + duration  + " ms");
+                    LOGGER.debug("flushLog completed in " + TimeUnit.NANOSECONDS.toMillis(duration)  + " ms");
                 }
 
                 while(completedJobsIndex < _inProcessJobs.size())
@@ -248,7 +325,8 @@ public class CoalescingCommiter implements Committer
                 throw new IllegalStateException("Commit thread is stopped");
             }
             _jobQueue.add(commit);
-            if(sync || _jobQueue.size() >= JOB_QUEUE_NOTIFY_THRESHOLD)
+            final int queuedJobs = _queuedJobs.incrementAndGet();
+            if(sync || queuedJobs >= JOB_QUEUE_NOTIFY_THRESHOLD)
             {
                 synchronized (_lock)
                 {
@@ -269,6 +347,7 @@ public class CoalescingCommiter implements Committer
                     _environmentFacade.flushLog();
                     while ((commit = _jobQueue.poll()) != null)
                     {
+                        _queuedJobs.decrementAndGet();
                         commit.complete();
                     }
                 }
@@ -278,6 +357,7 @@ public class CoalescingCommiter implements Committer
                     int abortedCommits = 0;
                     while ((commit = _jobQueue.poll()) != null)
                     {
+                        _queuedJobs.decrementAndGet();
                         abortedCommits++;
                         commit.abort(e);
                     }
@@ -290,6 +370,52 @@ public class CoalescingCommiter implements Committer
                 _lock.notifyAll();
             }
         }
+
+        Map<String, Object> getStatistics(final boolean reset)
+        {
+            final CommitStatistics statistics = _statistics;
+            if (reset)
+            {
+                _statistics = new CommitStatistics();
+            }
+            final Map<String, Object> values = statistics.toMap();
+            values.put("batchingPolicy", _batchingPolicy.name());
+            values.put("maxLingerMicros", TimeUnit.NANOSECONDS.toMicros(_maxLingerNanos));
+            values.put("queuedJobs", _queuedJobs.get());
+            return values;
+        }
+    }
+
+    /**
+     * Statistics of the log flushes performed by the commit thread since creation or the last reset.
+     */
+    private static final class CommitStatistics
+    {
+        private final long _startTime = System.nanoTime();
+        private final Histogram _jobsPerCommit = new Histogram();
+        private final Histogram _flushLatencyMicros = new Histogram();
+
+        void recordFlush(final int jobs, final long durationNanos)
+        {
+            _jobsPerCommit.record(jobs);
+            _flushLatencyMicros.record(TimeUnit.NANOSECONDS.toMicros(durationNanos));
+        }
+
+        Map<String, Object> toMap()
+        {
+            final long commits = _flushLatencyMicros.getCount();
+            final long elapsedNanos = Math.max(1L, System.nanoTime() - _startTime);
+            final Map<String, Object> values = new LinkedHashMap<>();
+            values.put("commits", commits);
+            values.put("commitsPerSecond", commits * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+            values.put("jobsPerCommitMedian", _jobsPerCommit.getValueAtPercentile(50.0));
+            values.put("jobsPerCommit99thPercentile", _jobsPerCommit.getValueAtPercentile(99.0));
+            values.put("jobsPerCommitMaximum", _jobsPerCommit.getMaximum());
+            values.put("flushLatencyMicrosMedian", _flushLatencyMicros.getValueAtPercentile(50.0));
+            values.put("flushLatencyMicros99thPercentile", _flushLatencyMicros.getValueAtPercentile(99.0));
+            values.put("flushLatencyMicrosMaximum", _flushLatencyMicros.getMaximum());
+            return values;
+        }
     }
 
     private final class ThreadNotifyingSettableFuture<X> extends AbstractFuture<X>
@@ -0,0 +1,37 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store.berkeleydb;
+
+/**
+ * Policies used by {@link CoalescingCommiter} to decide how long to accumulate commit jobs before flushing the log.
+ */
+public enum CommitBatchingPolicy
+{
+    /** Flush as soon as the commit thread is woken with pending jobs. */
+    IMMEDIATE,
+    /** Wait for the maximum linger time before flushing, so that jobs arriving meanwhile join the batch. */
+    FIXED_LINGER,
+    /**
+     * Linger only when the previous flush coalesced more than one job, waiting no longer than the recent average
+     * flush duration, capped by the maximum linger time. An idle or single client is never delayed.
+     */
+    ADAPTIVE_LINGER
+}
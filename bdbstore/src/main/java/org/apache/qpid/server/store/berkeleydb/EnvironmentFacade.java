@@ -55,6 +55,10 @@ public interface EnvironmentFacade
     String LOG_HANDLER_CLEANER_PROTECTED_FILES_LIMIT_PROPERTY_NAME = "qpid.bdb.je.cleaner_protected_files_limit";
     int DEFAULT_LOG_HANDLER_CLEANER_PROTECTED_FILES_LIMIT = 10;
     String JUL_LOGGER_LEVEL_OVERRIDE = "qpid.bdb.je.jul_logger_level_override";
+    String COMMIT_BATCHING_POLICY_PROPERTY_NAME = "qpid.bdb.commit.batching_policy";
+    CommitBatchingPolicy DEFAULT_COMMIT_BATCHING_POLICY = CommitBatchingPolicy.IMMEDIATE;
+    String COMMIT_MAX_LINGER_MICROS_PROPERTY_NAME = "qpid.bdb.commit.max_linger_micros";
+    long DEFAULT_COMMIT_MAX_LINGER_MICROS = 500L;
 
 
     void upgradeIfNecessary(ConfiguredObject<?> parent);
@@ -95,6 +99,8 @@ public interface EnvironmentFacade
 
     Map<String, Object> getTransactionStatistics(boolean reset);
 
+    Map<String, Object> getCommitStatistics(boolean reset);
+
     Map<String,Object> getDatabaseStatistics(String database, boolean reset);
 
     void deleteDatabase(String databaseName);
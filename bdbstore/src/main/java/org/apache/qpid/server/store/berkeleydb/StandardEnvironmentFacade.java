@@ -154,7 +154,14 @@ public class StandardEnvironmentFacade implements EnvironmentFacade
             }
         }
 
-        _committer =  new CoalescingCommiter(name, this);
+        _committer =  new CoalescingCommiter(name,
+                                             configuration.getFacadeParameter(CommitBatchingPolicy.class,
+                                                                              COMMIT_BATCHING_POLICY_PROPERTY_NAME,
+                                                                              DEFAULT_COMMIT_BATCHING_POLICY),
+                                             configuration.getFacadeParameter(Long.class,
+                                                                              COMMIT_MAX_LINGER_MICROS_PROPERTY_NAME,
+                                                                              DEFAULT_COMMIT_MAX_LINGER_MICROS),
+                                             this);
         _committer.start();
     }
 
@@ -319,6 +326,12 @@ public class StandardEnvironmentFacade implements EnvironmentFacade
         return EnvironmentUtils.getTransactionStatistics(getEnvironment(), reset);
     }
 
+    @Override
+    public Map<String, Object> getCommitStatistics(final boolean reset)
+    {
+        return _committer.getStatistics(reset);
+    }
+
     private void closeSequences()
     {
         RuntimeException firstThrownException = null;
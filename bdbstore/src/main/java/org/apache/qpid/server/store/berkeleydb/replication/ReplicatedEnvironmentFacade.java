@@ -72,6 +72,7 @@ import org.apache.qpid.server.model.ConfiguredObject;
 import org.apache.qpid.server.store.StoreException;
 import org.apache.qpid.server.store.berkeleydb.BDBUtils;
 import org.apache.qpid.server.store.berkeleydb.CoalescingCommiter;
+import org.apache.qpid.server.store.berkeleydb.CommitBatchingPolicy;
 import org.apache.qpid.server.store.berkeleydb.EnvHomeRegistry;
 import org.apache.qpid.server.store.berkeleydb.EnvironmentFacade;
 import org.apache.qpid.server.store.berkeleydb.EnvironmentUtils;
@@ -865,6 +866,17 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
         return submitEnvironmentTask(timeout, task, "get transaction statistics");
     }
 
+    @Override
+    public Map<String, Object> getCommitStatistics(final boolean reset)
+    {
+        final CoalescingCommiter coalescingCommiter = _coalescingCommiter;
+        if (coalescingCommiter == null)
+        {
+            return Collections.emptyMap();
+        }
+        return coalescingCommiter.getStatistics(reset);
+    }
+
     @Override
     public Map<String,Object> getDatabaseStatistics(final String database, final boolean reset)
     {
@@ -1678,7 +1690,14 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
             if (localTransactionSynchronizationPolicy == LOCAL_TRANSACTION_SYNCHRONIZATION_POLICY)
             {
                 localTransactionSynchronizationPolicy = SyncPolicy.NO_SYNC;
-                _coalescingCommiter = new CoalescingCommiter(_configuration.getGroupName(), this);
+                _coalescingCommiter = new CoalescingCommiter(_configuration.getGroupName(),
+                                                             _configuration.getFacadeParameter(CommitBatchingPolicy.class,
+                                                                                               COMMIT_BATCHING_POLICY_PROPERTY_NAME,
+                                                                                               DEFAULT_COMMIT_BATCHING_POLICY),
+                                                             _configuration.getFacadeParameter(Long.class,
+                                                                                               COMMIT_MAX_LINGER_MICROS_PROPERTY_NAME,
+                                                                                               DEFAULT_COMMIT_MAX_LINGER_MICROS),
+                                                             this);
                 _coalescingCommiter.start();
             }
             _realMessageStoreDurability = new Durability(localTransactionSynchronizationPolicy, remoteTransactionSynchronizationPolicy, replicaAcknowledgmentPolicy);
@@ -168,6 +168,21 @@ public class BDBVirtualHostImpl extends AbstractVirtualHost<BDBVirtualHostImpl>
         return Collections.emptyMap();
     }
 
+    @Override
+    public Map<String, Object> commitStatistics(final boolean reset)
+    {
+        BDBMessageStore bdbMessageStore = (BDBMessageStore) getMessageStore();
+        if (bdbMessageStore != null)
+        {
+            EnvironmentFacade environmentFacade = bdbMessageStore.getEnvironmentFacade();
+            if (environmentFacade != null)
+            {
+                return environmentFacade.getCommitStatistics(reset);
+            }
+        }
+        return Collections.emptyMap();
+    }
+
     @Override
     public Map<String, Object> databaseStatistics(String database, final boolean reset)
     {
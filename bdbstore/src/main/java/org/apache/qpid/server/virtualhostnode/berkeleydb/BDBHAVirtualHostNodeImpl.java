@@ -1448,6 +1448,20 @@ public class BDBHAVirtualHostNodeImpl extends AbstractVirtualHostNode<BDBHAVirtu
             return Collections.emptyMap();
         }
     }
+    @Override
+    public Map<String, Object> commitStatistics(final boolean reset)
+    {
+        ReplicatedEnvironmentFacade environmentFacade = getReplicatedEnvironmentFacade();
+        if (environmentFacade != null)
+        {
+            return environmentFacade.getCommitStatistics(reset);
+        }
+        else
+        {
+            return Collections.emptyMap();
+        }
+    }
+
     @Override
     public Map<String, Object> databaseStatistics(String database, final boolean reset)
     {
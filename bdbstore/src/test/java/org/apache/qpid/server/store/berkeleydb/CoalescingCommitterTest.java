@@ -26,6 +26,9 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -112,4 +115,44 @@ public class CoalescingCommitterTest extends QpidTestCase
         verify(_environmentFacade, times(2)).flushLog();
         verify(_environmentFacade, times(1)).flushLogFailed(testFailure);
     }
-}
\ No newline at end of file
+
+    public void testCommitStatistics() throws Exception
+    {
+        _coalescingCommitter.commit(null, true);
+
+        Map<String, Object> statistics = _coalescingCommitter.getStatistics(true);
+        assertEquals("Unexpected number of commits", 1L, statistics.get("commits"));
+        assertEquals("Unexpected maximum jobs per commit", 1L, statistics.get("jobsPerCommitMaximum"));
+        assertEquals("Unexpected batching policy", CommitBatchingPolicy.IMMEDIATE.name(), statistics.get("batchingPolicy"));
+
+        statistics = _coalescingCommitter.getStatistics(false);
+        assertEquals("Unexpected number of commits after reset", 0L, statistics.get("commits"));
+    }
+
+    public void testFixedLingerCoalescesJobsIntoSingleLogFlush() throws Exception
+    {
+        final CoalescingCommiter committer =
+                new CoalescingCommiter("Test", CommitBatchingPolicy.FIXED_LINGER, 200000L, _environmentFacade);
+        committer.start();
+        try
+        {
+            final List<ListenableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++)
+            {
+                futures.add(committer.commitAsync(null, i));
+            }
+            for (ListenableFuture<Integer> future : futures)
+            {
+                future.get(5000, TimeUnit.MILLISECONDS);
+            }
+
+            verify(_environmentFacade, times(1)).flushLog();
+            assertEquals("Unexpected maximum jobs per commit",
+                         3L, committer.getStatistics(false).get("jobsPerCommitMaximum"));
+        }
+        finally
+        {
+            committer.stop();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.qpid.server.configuration.updater.CurrentThreadTaskExecutor;
+import org.apache.qpid.server.configuration.updater.TaskExecutor;
+import org.apache.qpid.server.model.Broker;
+import org.apache.qpid.server.model.BrokerTestHelper;
+import org.apache.qpid.server.model.ConfiguredObjectFactory;
+import org.apache.qpid.server.model.Queue;
+import org.apache.qpid.server.model.UUIDGenerator;
+import org.apache.qpid.server.model.VirtualHost;
+import org.apache.qpid.server.model.VirtualHostNode;
+import org.apache.qpid.server.store.DurableConfigurationStore;
+import org.apache.qpid.server.store.preferences.PreferenceStore;
+import org.apache.qpid.server.virtualhost.AbstractVirtualHost;
+import org.apache.qpid.server.virtualhost.QueueManagingVirtualHost;
+import org.apache.qpid.server.virtualhost.TestMemoryVirtualHost;
+
+/**
+ * Creates a real in-memory virtual host beneath mocked broker and virtual host node objects, so that
+ * benchmarks exercise the genuine queue and message code without standing up a whole broker.
+ *
+ * This mirrors {@link BrokerTestHelper} but does not depend on a running {@code QpidTestCase}; callers are
+ * responsible for closing the virtual host from their JMH tear down.
+ */
+public final class VirtualHostFixture
+{
+    private static final Principal SYSTEM_PRINCIPAL = new Principal()
+    {
+        @Override
+        public String getName()
+        {
+            return "BENCHMARK";
+        }
+    };
+
+    private static final TaskExecutor TASK_EXECUTOR = new CurrentThreadTaskExecutor();
+
+    static
+    {
+        TASK_EXECUTOR.start();
+    }
+
+    private VirtualHostFixture()
+    {
+    }
+
+    public static QueueManagingVirtualHost<?> createVirtualHost(final String name)
+    {
+        final Broker<?> broker = BrokerTestHelper.createBrokerMock();
+        final ConfiguredObjectFactory objectFactory = broker.getObjectFactory();
+
+        final VirtualHostNode virtualHostNode =
+                BrokerTestHelper.mockWithSystemPrincipalAndAccessControl(VirtualHostNode.class,
+                                                                         SYSTEM_PRINCIPAL,
+                                                                         BrokerTestHelper.createAccessControlMock());
+        when(virtualHostNode.getName()).thenReturn(name + "_node");
+        when(virtualHostNode.getParent()).thenReturn(broker);
+        when(virtualHostNode.getConfigurationStore()).thenReturn(mock(DurableConfigurationStore.class));
+        when(virtualHostNode.getModel()).thenReturn(objectFactory.getModel());
+        when(virtualHostNode.getObjectFactory()).thenReturn(objectFactory);
+        when(virtualHostNode.getCategoryClass()).thenReturn(VirtualHostNode.class);
+        when(virtualHostNode.getTaskExecutor()).thenReturn(TASK_EXECUTOR);
+        when(virtualHostNode.getChildExecutor()).thenReturn(TASK_EXECUTOR);
+        when(virtualHostNode.createPreferenceStore()).thenReturn(mock(PreferenceStore.class));
+        when(broker.getVirtualHostNodes()).thenReturn(Collections.singletonList(virtualHostNode));
+
+        final Map<String, Object> attributes = new HashMap<>();
+        attributes.put(VirtualHost.TYPE, TestMemoryVirtualHost.VIRTUAL_HOST_TYPE);
+        attributes.put(VirtualHost.NAME, name);
+
+        final AbstractVirtualHost<?> host =
+                (AbstractVirtualHost<?>) objectFactory.create(VirtualHost.class, attributes, virtualHostNode);
+        host.start();
+        when(virtualHostNode.getVirtualHost()).thenReturn(host);
+        return host;
+    }
+
+    public static <Q extends Queue<?>> Q createQueue(final QueueManagingVirtualHost<?> virtualHost,
+                                                     final String name,
+                                                     final Map<String, Object> arguments)
+    {
+        final Map<String, Object> attributes = new HashMap<>(arguments);
+        attributes.put(Queue.ID, UUIDGenerator.generateRandomUUID());
+        attributes.put(Queue.NAME, name);
+        return (Q) virtualHost.createChild(Queue.class, attributes);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.bytebuffer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the reference counted slicing and duplication of pooled direct {@link QpidByteBuffer}s, which the
+ * network layer performs for every frame read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QpidByteBufferBenchmark
+{
+    private static final int POOLED_BUFFER_SIZE = 256 * 1024;
+
+    @Param({"64", "4096", "1000000"})
+    public int bufferSize;
+
+    private QpidByteBuffer _buffer;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        QpidByteBuffer.deinitialisePool();
+        QpidByteBuffer.initialisePool(POOLED_BUFFER_SIZE, 1024, 0.5);
+        _buffer = QpidByteBuffer.allocateDirect(bufferSize);
+        while (_buffer.hasRemaining())
+        {
+            _buffer.put((byte) _buffer.position());
+        }
+        _buffer.flip();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        _buffer.dispose();
+        QpidByteBuffer.deinitialisePool();
+    }
+
+    @Benchmark
+    public int duplicate()
+    {
+        try (QpidByteBuffer duplicate = _buffer.duplicate())
+        {
+            return duplicate.remaining();
+        }
+    }
+
+    @Benchmark
+    public int slice()
+    {
+        try (QpidByteBuffer slice = _buffer.slice())
+        {
+            return slice.remaining();
+        }
+    }
+
+    @Benchmark
+    public int view()
+    {
+        try (QpidByteBuffer view = _buffer.view(bufferSize / 2, bufferSize / 4))
+        {
+            return view.remaining();
+        }
+    }
+
+    @Benchmark
+    public int allocateDirectAndDispose()
+    {
+        try (QpidByteBuffer buffer = QpidByteBuffer.allocateDirect(bufferSize))
+        {
+            return buffer.capacity();
+        }
+    }
+}
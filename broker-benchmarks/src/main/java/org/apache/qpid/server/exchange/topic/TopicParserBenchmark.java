@@ -0,0 +1,106 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.exchange.topic;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures routing key matching through the {@link TopicMatcherDFAState} state machine built by
+ * {@link TopicParser}, which is the per-message cost of routing through a topic exchange.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopicParserBenchmark
+{
+    private static final String[] VENUES = {"nyse", "nasdaq", "lse", "xetra", "tse"};
+
+    @Param({"100", "10000"})
+    public int bindingCount;
+
+    @Param({"0", "4096"})
+    public int routingKeyCacheSize;
+
+    private TopicParser _parser;
+    private String[] _routingKeys;
+    private int _nextKey;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        _parser = new TopicParser();
+        _parser.setRoutingKeyCacheSize(routingKeyCacheSize);
+        for (int i = 0; i < bindingCount; i++)
+        {
+            final String venue = VENUES[i % VENUES.length];
+            final String bindingKey;
+            switch (i % 4)
+            {
+                case 0:
+                    bindingKey = "stock." + venue + ".sym" + i;
+                    break;
+                case 1:
+                    bindingKey = "stock.*.sym" + i;
+                    break;
+                case 2:
+                    bindingKey = "stock." + venue + ".#";
+                    break;
+                default:
+                    bindingKey = "#.sym" + i;
+                    break;
+            }
+            _parser.addBinding(bindingKey, new TopicMatcherResult()
+            {
+            });
+        }
+
+        _routingKeys = new String[1024];
+        for (int i = 0; i < _routingKeys.length; i++)
+        {
+            _routingKeys[i] = "stock." + VENUES[i % VENUES.length] + ".sym" + (i % bindingCount);
+        }
+    }
+
+    @Benchmark
+    public Collection<TopicMatcherResult> route()
+    {
+        final String routingKey = _routingKeys[_nextKey];
+        _nextKey = (_nextKey + 1) % _routingKeys.length;
+        return _parser.parse(routingKey);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.filter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.qpid.server.message.AMQMessageHeader;
+import org.apache.qpid.server.message.internal.InternalMessageHeader;
+
+/**
+ * Measures evaluation of a parsed JMS selector against a message carrying application properties, both
+ * interpreted and compiled by {@link SelectorCompiler}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JMSSelectorFilterBenchmark
+{
+    @Param({"region = 'EMEA'",
+            "region IN ('APAC', 'EMEA', 'AMER') AND price > 100.5",
+            "symbol LIKE 'IB%' OR (volume BETWEEN 1000 AND 5000 AND NOT urgent)",
+            "JMSPriority > 3 AND quantity * price >= 1000"})
+    public String selector;
+
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    private JMSSelectorFilter _filter;
+    private Filterable _message;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        _filter = new JMSSelectorFilter(selector, compiled);
+
+        final Map<String, Object> headers = new HashMap<>();
+        headers.put("region", "EMEA");
+        headers.put("symbol", "IBM");
+        headers.put("price", 123.45d);
+        headers.put("quantity", 20);
+        headers.put("volume", 2500L);
+        headers.put("urgent", Boolean.FALSE);
+        _message = new BenchmarkFilterable(new InternalMessageHeader(headers, "correlation", 0L, "user", "app",
+                                                                     "message-id", "text/plain", null, (byte) 4,
+                                                                     System.currentTimeMillis(), 0L, "type",
+                                                                     "replyTo", System.currentTimeMillis()));
+    }
+
+    @Benchmark
+    public boolean matches()
+    {
+        return _filter.matches(_message);
+    }
+
+    private static final class BenchmarkFilterable implements Filterable
+    {
+        private final AMQMessageHeader _header;
+
+        private BenchmarkFilterable(final AMQMessageHeader header)
+        {
+            _header = header;
+        }
+
+        @Override
+        public AMQMessageHeader getMessageHeader()
+        {
+            return _header;
+        }
+
+        @Override
+        public boolean isPersistent()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isRedelivered()
+        {
+            return false;
+        }
+
+        @Override
+        public Object getConnectionReference()
+        {
+            return null;
+        }
+
+        @Override
+        public long getMessageNumber()
+        {
+            return 1L;
+        }
+
+        @Override
+        public long getArrivalTime()
+        {
+            return 0L;
+        }
+
+        @Override
+        public Object getHeader(final String name)
+        {
+            return _header.getHeader(name);
+        }
+
+        @Override
+        public String getReplyTo()
+        {
+            return _header.getReplyTo();
+        }
+
+        @Override
+        public String getType()
+        {
+            return _header.getType();
+        }
+
+        @Override
+        public byte getPriority()
+        {
+            return _header.getPriority();
+        }
+
+        @Override
+        public String getMessageId()
+        {
+            return _header.getMessageId();
+        }
+
+        @Override
+        public long getTimestamp()
+        {
+            return _header.getTimestamp();
+        }
+
+        @Override
+        public String getCorrelationId()
+        {
+            return _header.getCorrelationId();
+        }
+
+        @Override
+        public long getExpiration()
+        {
+            return _header.getExpiration();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.protocol.v1_0.messaging;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.protocol.v1_0.type.AmqpErrorException;
+import org.apache.qpid.server.protocol.v1_0.type.Binary;
+import org.apache.qpid.server.protocol.v1_0.type.codec.AMQPDescribedTypeRegistry;
+import org.apache.qpid.server.protocol.v1_0.type.messaging.ApplicationProperties;
+import org.apache.qpid.server.protocol.v1_0.type.messaging.Data;
+import org.apache.qpid.server.protocol.v1_0.type.messaging.EncodingRetainingSection;
+import org.apache.qpid.server.protocol.v1_0.type.messaging.Header;
+import org.apache.qpid.server.protocol.v1_0.type.messaging.Properties;
+
+/**
+ * Measures decoding of the sections of an AMQP 1.0 message through the {@link SectionDecoderImpl} and the
+ * described type constructors held in the {@code SectionDecoderRegistry}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SectionDecoderBenchmark
+{
+    @Param({"0", "10", "50"})
+    public int applicationPropertyCount;
+
+    @Param({"256"})
+    public int payloadSize;
+
+    private SectionDecoderImpl _sectionDecoder;
+    private QpidByteBuffer _encodedMessage;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        final AMQPDescribedTypeRegistry registry = AMQPDescribedTypeRegistry.newInstance()
+                                                                            .registerTransportLayer()
+                                                                            .registerMessagingLayer()
+                                                                            .registerTransactionLayer()
+                                                                            .registerSecurityLayer();
+        _sectionDecoder = new SectionDecoderImpl(registry.getSectionDecoderRegistry());
+
+        final Header header = new Header();
+        header.setDurable(Boolean.TRUE);
+
+        final Properties properties = new Properties();
+        properties.setMessageId("message-id");
+        properties.setTo("queue");
+        properties.setSubject("subject");
+
+        final Map<String, Object> applicationProperties = new HashMap<>();
+        for (int i = 0; i < applicationPropertyCount; i++)
+        {
+            applicationProperties.put("property" + i, i % 2 == 0 ? "value" + i : (Object) i);
+        }
+
+        final List<EncodingRetainingSection<?>> sections = new ArrayList<>();
+        sections.add(header.createEncodingRetainingSection());
+        sections.add(properties.createEncodingRetainingSection());
+        sections.add(new ApplicationProperties(applicationProperties).createEncodingRetainingSection());
+        sections.add(new Data(new Binary(new byte[payloadSize])).createEncodingRetainingSection());
+
+        final List<QpidByteBuffer> encodedSections = new ArrayList<>();
+        for (EncodingRetainingSection<?> section : sections)
+        {
+            encodedSections.add(section.getEncodedForm());
+            section.dispose();
+        }
+        _encodedMessage = QpidByteBuffer.concatenate(encodedSections);
+        for (QpidByteBuffer encodedSection : encodedSections)
+        {
+            encodedSection.dispose();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        _encodedMessage.dispose();
+    }
+
+    @Benchmark
+    public int parseAll() throws AmqpErrorException
+    {
+        try (QpidByteBuffer buffer = _encodedMessage.duplicate())
+        {
+            final List<EncodingRetainingSection<?>> sections = _sectionDecoder.parseAll(buffer);
+            for (EncodingRetainingSection<?> section : sections)
+            {
+                section.dispose();
+            }
+            return sections.size();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.apache.qpid.server.consumer.ConsumerTarget;
+import org.apache.qpid.server.message.MessageContainer;
+import org.apache.qpid.server.message.MessageInstance;
+import org.apache.qpid.server.message.MessageInstanceConsumer;
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.session.AMQPSession;
+import org.apache.qpid.server.transport.AMQPConnection;
+
+/**
+ * A consumer target with unlimited credit which acknowledges (deletes) every message as soon as it is sent.
+ */
+class BenchmarkConsumerTarget implements ConsumerTarget<BenchmarkConsumerTarget>
+{
+    private final AMQPSession<?, BenchmarkConsumerTarget> _session;
+    private MessageInstanceConsumer<BenchmarkConsumerTarget> _consumer;
+    private State _state = State.OPEN;
+    private long _delivered;
+
+    BenchmarkConsumerTarget()
+    {
+        _session = mock(AMQPSession.class);
+        when(_session.getChannelId()).thenReturn(0);
+        when(_session.getAMQPConnection()).thenReturn(mock(AMQPConnection.class));
+    }
+
+    @Override
+    public boolean processPending()
+    {
+        final MessageContainer messageContainer = _consumer.pullMessage();
+        if (messageContainer == null)
+        {
+            return false;
+        }
+        send(_consumer, messageContainer.getMessageInstance(), false);
+        return true;
+    }
+
+    @Override
+    public void send(final MessageInstanceConsumer<BenchmarkConsumerTarget> consumer,
+                     final MessageInstance entry,
+                     final boolean batch)
+    {
+        _delivered++;
+        entry.delete();
+    }
+
+    long getDelivered()
+    {
+        return _delivered;
+    }
+
+    @Override
+    public void acquisitionRemoved(final MessageInstance node)
+    {
+    }
+
+    @Override
+    public String getTargetAddress()
+    {
+        return "benchmark";
+    }
+
+    @Override
+    public boolean isMultiQueue()
+    {
+        return false;
+    }
+
+    @Override
+    public void notifyWork()
+    {
+    }
+
+    @Override
+    public void updateNotifyWorkDesired()
+    {
+    }
+
+    @Override
+    public boolean isNotifyWorkDesired()
+    {
+        return _state == State.OPEN;
+    }
+
+    @Override
+    public State getState()
+    {
+        return _state;
+    }
+
+    @Override
+    public void consumerAdded(final MessageInstanceConsumer<BenchmarkConsumerTarget> sub)
+    {
+        _consumer = sub;
+    }
+
+    @Override
+    public ListenableFuture<Void> consumerRemoved(final MessageInstanceConsumer<BenchmarkConsumerTarget> sub)
+    {
+        close();
+        return Futures.immediateFuture(null);
+    }
+
+    @Override
+    public long getUnacknowledgedBytes()
+    {
+        return 0;
+    }
+
+    @Override
+    public long getUnacknowledgedMessages()
+    {
+        return 0;
+    }
+
+    @Override
+    public AMQPSession<?, BenchmarkConsumerTarget> getSession()
+    {
+        return _session;
+    }
+
+    @Override
+    public boolean sendNextMessage()
+    {
+        return false;
+    }
+
+    @Override
+    public void flushBatched()
+    {
+    }
+
+    @Override
+    public void noMessagesAvailable()
+    {
+    }
+
+    @Override
+    public boolean allocateCredit(final ServerMessage msg)
+    {
+        return true;
+    }
+
+    @Override
+    public void restoreCredit(final ServerMessage queueEntry)
+    {
+    }
+
+    @Override
+    public boolean isSuspended()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean close()
+    {
+        _state = State.CLOSED;
+        return true;
+    }
+}
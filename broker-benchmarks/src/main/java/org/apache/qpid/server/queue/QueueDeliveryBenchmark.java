@@ -0,0 +1,105 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.qpid.server.benchmark.VirtualHostFixture;
+import org.apache.qpid.server.consumer.ConsumerOption;
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.message.internal.InternalMessage;
+import org.apache.qpid.server.message.internal.InternalMessageHeader;
+import org.apache.qpid.server.virtualhost.QueueManagingVirtualHost;
+
+/**
+ * Measures a single enqueue followed by a consumer pulling the message, which drives
+ * {@code AbstractQueue.deliverSingleMessage} and {@code AbstractQueue.attemptDelivery}.  Consumers are polled
+ * round-robin so that the cost of the consumer manager and of skipping entries acquired by other consumers is
+ * included as the number of consumers grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueDeliveryBenchmark
+{
+    @Param({"1", "16", "256"})
+    public int consumerCount;
+
+    private QueueManagingVirtualHost<?> _virtualHost;
+    private AbstractQueue<?> _queue;
+    private BenchmarkConsumerTarget[] _targets;
+    private ServerMessage<?> _message;
+    private int _nextTarget;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        _virtualHost = VirtualHostFixture.createVirtualHost("benchmark");
+        _queue = VirtualHostFixture.createQueue(_virtualHost, "delivery", Collections.<String, Object>emptyMap());
+        _message = InternalMessage.createBytesMessage(_virtualHost.getMessageStore(),
+                                                      new InternalMessageHeader(Collections.<String, Object>emptyMap(),
+                                                                                null, 0L, null, null, null, null,
+                                                                                null, (byte) 4, 0L, 0L, null, null,
+                                                                                System.currentTimeMillis()),
+                                                      new byte[256]);
+        _targets = new BenchmarkConsumerTarget[consumerCount];
+        for (int i = 0; i < consumerCount; i++)
+        {
+            _targets[i] = new BenchmarkConsumerTarget();
+            _queue.addConsumer(_targets[i], null, InternalMessage.class, "consumer-" + i,
+                               EnumSet.of(ConsumerOption.ACQUIRES, ConsumerOption.SEES_REQUEUES), 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        _virtualHost.close();
+    }
+
+    @Benchmark
+    public boolean enqueueAndDeliver()
+    {
+        _queue.enqueue(_message, null, null);
+        final BenchmarkConsumerTarget target = _targets[_nextTarget];
+        _nextTarget = (_nextTarget + 1) % _targets.length;
+        return target.processPending();
+    }
+}
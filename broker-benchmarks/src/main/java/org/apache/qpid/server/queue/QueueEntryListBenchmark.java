@@ -0,0 +1,113 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.qpid.server.benchmark.VirtualHostFixture;
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.message.internal.InternalMessage;
+import org.apache.qpid.server.message.internal.InternalMessageHeader;
+import org.apache.qpid.server.virtualhost.QueueManagingVirtualHost;
+
+/**
+ * Measures the lock-free append ({@link OrderedQueueEntryList#add}) and traversal
+ * ({@link OrderedQueueEntryList#next}) of the list backing a standard queue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueEntryListBenchmark
+{
+    @Param({"100", "10000"})
+    public int queueDepth;
+
+    private QueueManagingVirtualHost<?> _virtualHost;
+    private StandardQueueEntryList _entries;
+    private ServerMessage<?> _message;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        _virtualHost = VirtualHostFixture.createVirtualHost("benchmark");
+        final StandardQueueImpl queue = VirtualHostFixture.createQueue(_virtualHost,
+                                                                       "queueEntryList",
+                                                                       Collections.<String, Object>emptyMap());
+        _entries = queue.getEntries();
+        _message = InternalMessage.createBytesMessage(_virtualHost.getMessageStore(),
+                                                      new InternalMessageHeader(Collections.<String, Object>emptyMap(),
+                                                                                null, 0L, null, null, null, null,
+                                                                                null, (byte) 4, 0L, 0L, null, null,
+                                                                                System.currentTimeMillis()),
+                                                      new byte[256]);
+        for (int i = 0; i < queueDepth; i++)
+        {
+            _entries.add(_message, null);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        _virtualHost.close();
+    }
+
+    @Benchmark
+    public QueueEntry addAndDelete()
+    {
+        final QueueEntry entry = _entries.add(_message, null);
+        if (entry.acquire())
+        {
+            entry.delete();
+        }
+        return entry;
+    }
+
+    @Benchmark
+    public int next()
+    {
+        int count = 0;
+        QueueEntry entry = _entries.getHead();
+        while ((entry = _entries.next(entry)) != null)
+        {
+            count++;
+        }
+        return count;
+    }
+}
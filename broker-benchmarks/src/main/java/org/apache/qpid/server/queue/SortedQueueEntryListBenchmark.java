@@ -0,0 +1,150 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.qpid.server.benchmark.VirtualHostFixture;
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.message.internal.InternalMessage;
+import org.apache.qpid.server.message.internal.InternalMessageHeader;
+import org.apache.qpid.server.model.Queue;
+import org.apache.qpid.server.virtualhost.QueueManagingVirtualHost;
+
+/**
+ * Compares the red-black tree ({@link SortedQueueEntryList}) and the concurrent skip list
+ * ({@link ConcurrentSortedQueueEntryList}) backing a sorted queue, for inserts by one and by several publishers
+ * and for traversal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortedQueueEntryListBenchmark
+{
+    private static final String SORT_KEY = "sortKey";
+    private static final int NUMBER_OF_KEYS = 1024;
+
+    @Param({"tree", "skipList"})
+    public String listType;
+
+    @Param({"100", "10000"})
+    public int queueDepth;
+
+    private QueueManagingVirtualHost<?> _virtualHost;
+    private QueueEntryList _entries;
+    private ServerMessage<?>[] _messages;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        _virtualHost = VirtualHostFixture.createVirtualHost("benchmark");
+
+        final Map<String, Object> arguments = new HashMap<>();
+        arguments.put(Queue.TYPE, SortedQueue.SORTED_QUEUE_TYPE);
+        arguments.put(SortedQueue.SORT_KEY, SORT_KEY);
+        arguments.put(Queue.CONTEXT,
+                      Collections.singletonMap(SortedQueue.SORTED_QUEUE_CONCURRENT_ENTRY_LIST_ENABLED,
+                                               String.valueOf("skipList".equals(listType))));
+        final SortedQueueImpl queue = VirtualHostFixture.createQueue(_virtualHost, "sortedQueueEntryList", arguments);
+        _entries = queue.getEntries();
+
+        final Random random = new Random(0);
+        _messages = new ServerMessage<?>[NUMBER_OF_KEYS];
+        for (int i = 0; i < NUMBER_OF_KEYS; i++)
+        {
+            final String key = String.format("%08d", random.nextInt(100000000));
+            _messages[i] = InternalMessage.createBytesMessage(_virtualHost.getMessageStore(),
+                                                              new InternalMessageHeader(Collections.<String, Object>singletonMap(SORT_KEY, key),
+                                                                                        null, 0L, null, null, null, null,
+                                                                                        null, (byte) 4, 0L, 0L, null, null,
+                                                                                        System.currentTimeMillis()),
+                                                              new byte[256]);
+        }
+        for (int i = 0; i < queueDepth; i++)
+        {
+            _entries.add(_messages[i % NUMBER_OF_KEYS], null);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        _virtualHost.close();
+    }
+
+    @Benchmark
+    public QueueEntry addAndDelete()
+    {
+        return addAndDeleteRandomMessage();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public QueueEntry addAndDeleteFourPublishers()
+    {
+        return addAndDeleteRandomMessage();
+    }
+
+    @Benchmark
+    public int next()
+    {
+        int count = 0;
+        QueueEntry entry = _entries.getHead();
+        while ((entry = _entries.next(entry)) != null)
+        {
+            count++;
+        }
+        return count;
+    }
+
+    private QueueEntry addAndDeleteRandomMessage()
+    {
+        final QueueEntry entry = _entries.add(_messages[ThreadLocalRandom.current().nextInt(NUMBER_OF_KEYS)], null);
+        if (entry.acquire())
+        {
+            entry.delete();
+        }
+        return entry;
+    }
+}
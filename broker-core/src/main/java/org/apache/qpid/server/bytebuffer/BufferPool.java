@@ -20,39 +20,182 @@
  */
 package org.apache.qpid.server.bytebuffer;
 
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Pool of direct buffers of a single size class. A small per-thread cache sits in front of the shared queue so that
+ * IO threads which repeatedly take and return buffers rarely touch shared state.
+ * <p>
+ * Buffers held in thread caches count towards the maximum pool size. The cache of a thread which has terminated is
+ * handed back to the shared queue the next time the pool misses or another thread creates its cache.
+ */
 class BufferPool
 {
+    private final int _bufferSize;
     private final int _maxSize;
+    private final int _threadCacheSize;
     private final ConcurrentLinkedQueue<ByteBuffer> _pooledBuffers = new ConcurrentLinkedQueue<>();
     private final AtomicInteger _size = new AtomicInteger();
+    private final AtomicInteger _sharedSize = new AtomicInteger();
+    private final ThreadLocal<ThreadCache> _threadCache = new ThreadLocal<>();
+    private final Set<ThreadCache> _threadCaches = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean _reclaimingThreadCaches = new AtomicBoolean();
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _threadCacheHits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+    private final LongAdder _allocations = new LongAdder();
 
-    BufferPool(final int maxSize)
+    BufferPool(final int bufferSize, final int maxSize, final int threadCacheSize)
     {
+        _bufferSize = bufferSize;
         _maxSize = maxSize;
+        _threadCacheSize = threadCacheSize;
     }
 
+    /**
+     * Returns a pooled buffer, or a newly allocated direct buffer if none is available.
+     */
     ByteBuffer getBuffer()
+    {
+        _allocations.increment();
+        final ThreadCache threadCache = _threadCache.get();
+        if (threadCache != null)
+        {
+            final ByteBuffer buffer = threadCache.poll();
+            if (buffer != null)
+            {
+                _size.decrementAndGet();
+                _threadCacheHits.increment();
+                _hits.increment();
+                return buffer;
+            }
+        }
+
+        ByteBuffer buffer = pollSharedPool();
+        if (buffer == null && reclaimTerminatedThreadCaches())
+        {
+            buffer = pollSharedPool();
+        }
+        if (buffer != null)
+        {
+            _hits.increment();
+            return buffer;
+        }
+        _misses.increment();
+        return ByteBuffer.allocateDirect(_bufferSize);
+    }
+
+    void returnBuffer(ByteBuffer buf)
+    {
+        buf.clear();
+        if (_size.incrementAndGet() > _maxSize)
+        {
+            _size.decrementAndGet();
+            return;
+        }
+        if (_threadCacheSize > 0)
+        {
+            ThreadCache threadCache = _threadCache.get();
+            if (threadCache == null)
+            {
+                reclaimTerminatedThreadCaches();
+                threadCache = new ThreadCache(Thread.currentThread(), _threadCacheSize);
+                _threadCaches.add(threadCache);
+                _threadCache.set(threadCache);
+            }
+            if (threadCache.offer(buf))
+            {
+                return;
+            }
+        }
+        _pooledBuffers.add(buf);
+        _sharedSize.incrementAndGet();
+    }
+
+    /**
+     * Hands the buffers cached by the current thread back to the shared pool. Called by pool aware threads when they
+     * terminate; the caches of other threads are reclaimed once the pool notices that their thread has terminated.
+     */
+    void releaseThreadCache()
+    {
+        final ThreadCache threadCache = _threadCache.get();
+        if (threadCache != null)
+        {
+            _threadCache.remove();
+            if (_threadCaches.remove(threadCache))
+            {
+                moveToSharedPool(threadCache);
+            }
+        }
+    }
+
+    void recordSubAllocation()
+    {
+        _allocations.increment();
+    }
+
+    private ByteBuffer pollSharedPool()
     {
         final ByteBuffer buffer = _pooledBuffers.poll();
         if (buffer != null)
         {
+            _sharedSize.decrementAndGet();
             _size.decrementAndGet();
         }
         return buffer;
     }
 
-    void returnBuffer(ByteBuffer buf)
+    /**
+     * Moves the buffers cached by threads which have terminated to the shared pool. The buffers are already counted
+     * against the maximum pool size. Returns true if any buffers were reclaimed.
+     */
+    private boolean reclaimTerminatedThreadCaches()
     {
-        buf.clear();
-        if (size() < _maxSize)
+        boolean reclaimed = false;
+        if (!_threadCaches.isEmpty() && _reclaimingThreadCaches.compareAndSet(false, true))
         {
-            _pooledBuffers.add(buf);
-            _size.incrementAndGet();
+            try
+            {
+                for (ThreadCache threadCache : _threadCaches)
+                {
+                    if (threadCache.isThreadTerminated() && _threadCaches.remove(threadCache))
+                    {
+                        reclaimed |= moveToSharedPool(threadCache);
+                    }
+                }
+            }
+            finally
+            {
+                _reclaimingThreadCaches.set(false);
+            }
         }
+        return reclaimed;
+    }
+
+    private boolean moveToSharedPool(final ThreadCache threadCache)
+    {
+        boolean moved = false;
+        ByteBuffer buffer;
+        while ((buffer = threadCache.poll()) != null)
+        {
+            _pooledBuffers.add(buffer);
+            _sharedSize.incrementAndGet();
+            moved = true;
+        }
+        return moved;
+    }
+
+    public int getBufferSize()
+    {
+        return _bufferSize;
     }
 
     public int getMaxSize()
@@ -60,8 +203,69 @@ class BufferPool
         return _maxSize;
     }
 
+    public int getThreadCacheSize()
+    {
+        return _threadCacheSize;
+    }
+
     public int size()
+    {
+        return _sharedSize.get();
+    }
+
+    public long getBuffersHeld()
     {
         return _size.get();
     }
+
+    BufferPoolStatistics getStatistics()
+    {
+        final long buffersHeld = getBuffersHeld();
+        return new BufferPoolStatistics(_bufferSize,
+                                        _hits.sum(),
+                                        _threadCacheHits.sum(),
+                                        _misses.sum(),
+                                        _allocations.sum(),
+                                        buffersHeld,
+                                        buffersHeld * _bufferSize);
+    }
+
+    /**
+     * Buffers cached by one thread. Only the owning thread touches the deque until the thread has terminated, after
+     * which its termination happens-before {@link #isThreadTerminated()} returning true.
+     */
+    private static final class ThreadCache
+    {
+        private final WeakReference<Thread> _thread;
+        private final int _capacity;
+        private final ArrayDeque<ByteBuffer> _buffers;
+
+        private ThreadCache(final Thread thread, final int capacity)
+        {
+            _thread = new WeakReference<>(thread);
+            _capacity = capacity;
+            _buffers = new ArrayDeque<>(capacity);
+        }
+
+        private ByteBuffer poll()
+        {
+            return _buffers.pollFirst();
+        }
+
+        private boolean offer(final ByteBuffer buffer)
+        {
+            if (_buffers.size() < _capacity)
+            {
+                _buffers.addFirst(buffer);
+                return true;
+            }
+            return false;
+        }
+
+        private boolean isThreadTerminated()
+        {
+            final Thread thread = _thread.get();
+            return thread == null || !thread.isAlive();
+        }
+    }
 }
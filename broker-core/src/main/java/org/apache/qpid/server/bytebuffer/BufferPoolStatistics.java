@@ -0,0 +1,93 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.bytebuffer;
+
+/**
+ * Point in time statistics of one size class of the direct buffer pool.
+ */
+public final class BufferPoolStatistics
+{
+    private final int _bufferSize;
+    private final long _hits;
+    private final long _threadCacheHits;
+    private final long _misses;
+    private final long _allocations;
+    private final long _buffersHeld;
+    private final long _bytesHeld;
+
+    BufferPoolStatistics(final int bufferSize,
+                         final long hits,
+                         final long threadCacheHits,
+                         final long misses,
+                         final long allocations,
+                         final long buffersHeld,
+                         final long bytesHeld)
+    {
+        _bufferSize = bufferSize;
+        _hits = hits;
+        _threadCacheHits = threadCacheHits;
+        _misses = misses;
+        _allocations = allocations;
+        _buffersHeld = buffersHeld;
+        _bytesHeld = bytesHeld;
+    }
+
+    /** Capacity of the buffers of this size class. */
+    public int getBufferSize()
+    {
+        return _bufferSize;
+    }
+
+    /** Number of whole buffers taken from the pool, including those taken from a thread cache. */
+    public long getHits()
+    {
+        return _hits;
+    }
+
+    /** Number of whole buffers taken from the cache of the requesting thread. */
+    public long getThreadCacheHits()
+    {
+        return _threadCacheHits;
+    }
+
+    /** Number of whole buffers that had to be newly allocated because the pool was empty. */
+    public long getMisses()
+    {
+        return _misses;
+    }
+
+    /** Number of buffers and buffer slices handed out from this size class. */
+    public long getAllocations()
+    {
+        return _allocations;
+    }
+
+    /** Number of unused buffers held by the shared pool and the thread caches. */
+    public long getBuffersHeld()
+    {
+        return _buffersHeld;
+    }
+
+    public long getBytesHeld()
+    {
+        return _bytesHeld;
+    }
+}
@@ -32,6 +32,7 @@ class PooledByteBufferRef implements ByteBufferRef
     private static final AtomicIntegerFieldUpdater<PooledByteBufferRef> CLAIMED_UPDATER =
             AtomicIntegerFieldUpdater.newUpdater(PooledByteBufferRef.class, "_claimed");
     private static final AtomicInteger ACTIVE_BUFFERS = new AtomicInteger();
+    private static final AtomicLong ACTIVE_BUFFER_BYTES = new AtomicLong();
     private static final AtomicLong DISPOSAL_COUNTER = new AtomicLong();
     private final ByteBuffer _buffer;
 
@@ -49,6 +50,7 @@ class PooledByteBufferRef implements ByteBufferRef
         }
         _buffer = buffer;
         ACTIVE_BUFFERS.incrementAndGet();
+        ACTIVE_BUFFER_BYTES.addAndGet(buffer.capacity());
     }
 
     @Override
@@ -70,6 +72,7 @@ class PooledByteBufferRef implements ByteBufferRef
         {
             QpidByteBuffer.returnToPool(_buffer);
             ACTIVE_BUFFERS.decrementAndGet();
+            ACTIVE_BUFFER_BYTES.addAndGet(-_buffer.capacity());
         }
     }
 
@@ -90,6 +93,11 @@ class PooledByteBufferRef implements ByteBufferRef
         return ACTIVE_BUFFERS.get();
     }
 
+    static long getActiveBufferBytes()
+    {
+        return ACTIVE_BUFFER_BYTES.get();
+    }
+
     static long getDisposalCounter()
     {
         return DISPOSAL_COUNTER.get();
@@ -27,6 +27,7 @@ import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ScatteringByteChannel;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadFactory;
 
 import javax.net.ssl.SSLEngine;
@@ -104,6 +105,15 @@ public interface QpidByteBuffer extends AutoCloseable
         QpidByteBufferFactory.initialisePool(bufferSize, maxPoolSize, sparsityFraction);
     }
 
+    static void initialisePool(int bufferSize,
+                               int maxPoolSize,
+                               double sparsityFraction,
+                               int sizeClasses,
+                               int threadCacheSize)
+    {
+        QpidByteBufferFactory.initialisePool(bufferSize, maxPoolSize, sparsityFraction, sizeClasses, threadCacheSize);
+    }
+
     /**
      * Test use only
      */
@@ -137,6 +147,11 @@ public interface QpidByteBuffer extends AutoCloseable
         return QpidByteBufferFactory.getNumberOfBuffersInPool();
     }
 
+    static List<BufferPoolStatistics> getBufferPoolStatistics()
+    {
+        return QpidByteBufferFactory.getBufferPoolStatistics();
+    }
+
     static long getPooledBufferDisposalCounter()
     {
         return QpidByteBufferFactory.getPooledBufferDisposalCounter();
@@ -167,6 +182,11 @@ public interface QpidByteBuffer extends AutoCloseable
         return QpidByteBufferFactory.createQpidByteBufferTrackingThreadFactory(factory);
     }
 
+    static ForkJoinPool.ForkJoinWorkerThreadFactory createQpidByteBufferTrackingForkJoinWorkerThreadFactory()
+    {
+        return QpidByteBufferFactory.createQpidByteBufferTrackingForkJoinWorkerThreadFactory();
+    }
+
     @Override
     void close();
 
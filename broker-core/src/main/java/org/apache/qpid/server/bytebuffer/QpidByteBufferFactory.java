@@ -31,6 +31,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ThreadFactory;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -43,9 +45,11 @@ final class QpidByteBufferFactory
 {
     private static final ByteBuffer[] EMPTY_BYTE_BUFFER_ARRAY = new ByteBuffer[0];
     private static final QpidByteBuffer EMPTY_QPID_BYTE_BUFFER = QpidByteBuffer.wrap(new byte[0]);
-    private static final ThreadLocal<SingleQpidByteBuffer> _cachedBuffer = new ThreadLocal<>();
+    private static final int MINIMUM_SIZE_CLASS_BUFFER_SIZE = 1024;
+    private static final int SIZE_CLASS_SHIFT = 2;
+    private static final ThreadLocal<SingleQpidByteBuffer[]> _cachedBuffers = new ThreadLocal<>();
     private volatile static boolean _isPoolInitialized;
-    private volatile static BufferPool _bufferPool;
+    private volatile static BufferPool[] _bufferPools;
     private volatile static int _pooledBufferSize;
     private volatile static double _sparsityFraction;
     private volatile static ByteBuffer _zeroed;
@@ -292,28 +296,59 @@ final class QpidByteBufferFactory
     }
 
     static void initialisePool(int bufferSize, int maxPoolSize, double sparsityFraction)
+    {
+        initialisePool(bufferSize, maxPoolSize, sparsityFraction, 1, 0);
+    }
+
+    static void initialisePool(int bufferSize,
+                               int maxPoolSize,
+                               double sparsityFraction,
+                               int sizeClasses,
+                               int threadCacheSize)
     {
         if (_isPoolInitialized && (bufferSize != _pooledBufferSize
-                                                       || maxPoolSize != _bufferPool.getMaxSize()
-                                                       || sparsityFraction != _sparsityFraction))
+                                                       || maxPoolSize != _bufferPools[0].getMaxSize()
+                                                       || sparsityFraction != _sparsityFraction
+                                                       || sizeClasses != _bufferPools.length
+                                                       || threadCacheSize != _bufferPools[0].getThreadCacheSize()))
         {
             final String errorMessage = String.format(
-                    "QpidByteBuffer pool has already been initialised with bufferSize=%d, maxPoolSize=%d, and sparsityFraction=%f."
+                    "QpidByteBuffer pool has already been initialised with bufferSize=%d, maxPoolSize=%d, sparsityFraction=%f,"
+                    + " sizeClasses=%d and threadCacheSize=%d."
                     +
-                    "Re-initialisation with different bufferSize=%d and maxPoolSize=%d is not allowed.",
+                    "Re-initialisation with different bufferSize=%d, maxPoolSize=%d, sizeClasses=%d"
+                    + " and threadCacheSize=%d is not allowed.",
                     _pooledBufferSize,
-                    _bufferPool.getMaxSize(),
+                    _bufferPools[0].getMaxSize(),
                     _sparsityFraction,
+                    _bufferPools.length,
+                    _bufferPools[0].getThreadCacheSize(),
                     bufferSize,
-                    maxPoolSize);
+                    maxPoolSize,
+                    sizeClasses,
+                    threadCacheSize);
             throw new IllegalStateException(errorMessage);
         }
         if (bufferSize <= 0)
         {
             throw new IllegalArgumentException("Negative or zero bufferSize illegal : " + bufferSize);
         }
+        if (sizeClasses <= 0)
+        {
+            throw new IllegalArgumentException("Negative or zero sizeClasses illegal : " + sizeClasses);
+        }
 
-        _bufferPool = new BufferPool(maxPoolSize);
+        // each size class holds buffers a quarter the size of the previous one, stopping at the minimum size
+        final List<BufferPool> bufferPools = new ArrayList<>(sizeClasses);
+        int sizeClassBufferSize = bufferSize;
+        do
+        {
+            bufferPools.add(new BufferPool(sizeClassBufferSize, maxPoolSize, threadCacheSize));
+            sizeClassBufferSize >>= SIZE_CLASS_SHIFT;
+        }
+        while (bufferPools.size() < sizeClasses && sizeClassBufferSize >= MINIMUM_SIZE_CLASS_BUFFER_SIZE);
+
+        _bufferPools = bufferPools.toArray(new BufferPool[bufferPools.size()]);
         _pooledBufferSize = bufferSize;
         _zeroed = ByteBuffer.allocateDirect(_pooledBufferSize);
         _sparsityFraction = sparsityFraction;
@@ -327,13 +362,8 @@ final class QpidByteBufferFactory
     {
         if (_isPoolInitialized)
         {
-            SingleQpidByteBuffer singleQpidByteBuffer = _cachedBuffer.get();
-            if (singleQpidByteBuffer != null)
-            {
-                singleQpidByteBuffer.dispose();
-                _cachedBuffer.remove();
-            }
-            _bufferPool = null;
+            releaseThreadCachedBuffers();
+            _bufferPools = null;
             _pooledBufferSize = -1;
             _isPoolInitialized = false;
             _sparsityFraction = 1.0;
@@ -350,7 +380,11 @@ final class QpidByteBufferFactory
             final ByteBuffer duplicate = _zeroed.duplicate();
             duplicate.limit(buffer.capacity());
             buffer.put(duplicate);
-            _bufferPool.returnBuffer(buffer);
+            final BufferPool bufferPool = getBufferPool(buffer.capacity());
+            if (bufferPool != null)
+            {
+                bufferPool.returnBuffer(buffer);
+            }
         }
     }
 
@@ -366,7 +400,7 @@ final class QpidByteBufferFactory
 
     static long getAllocatedDirectMemorySize()
     {
-        return _pooledBufferSize * getNumberOfBuffersInUse();
+        return PooledByteBufferRef.getActiveBufferBytes();
     }
 
     static int getNumberOfBuffersInUse()
@@ -376,7 +410,32 @@ final class QpidByteBufferFactory
 
     static int getNumberOfBuffersInPool()
     {
-        return _bufferPool.size();
+        final BufferPool[] bufferPools = _bufferPools;
+        if (bufferPools == null)
+        {
+            return 0;
+        }
+        long buffersHeld = 0;
+        for (BufferPool bufferPool : bufferPools)
+        {
+            buffersHeld += bufferPool.getBuffersHeld();
+        }
+        return (int) buffersHeld;
+    }
+
+    static List<BufferPoolStatistics> getBufferPoolStatistics()
+    {
+        final BufferPool[] bufferPools = _bufferPools;
+        if (bufferPools == null)
+        {
+            return Collections.emptyList();
+        }
+        final List<BufferPoolStatistics> statistics = new ArrayList<>(bufferPools.length);
+        for (BufferPool bufferPool : bufferPools)
+        {
+            statistics.add(bufferPool.getStatistics());
+        }
+        return statistics;
     }
 
     static long getPooledBufferDisposalCounter()
@@ -465,14 +524,78 @@ final class QpidByteBufferFactory
             }
             finally
             {
-                final SingleQpidByteBuffer cachedThreadLocalBuffer = _cachedBuffer.get();
+                releaseThreadCachedBuffers();
+            }
+        });
+    }
+
+    static ForkJoinPool.ForkJoinWorkerThreadFactory createQpidByteBufferTrackingForkJoinWorkerThreadFactory()
+    {
+        return pool -> new ForkJoinWorkerThread(pool)
+        {
+            @Override
+            protected void onTermination(final Throwable exception)
+            {
+                try
+                {
+                    releaseThreadCachedBuffers();
+                }
+                finally
+                {
+                    super.onTermination(exception);
+                }
+            }
+        };
+    }
+
+    private static void releaseThreadCachedBuffers()
+    {
+        final SingleQpidByteBuffer[] cachedThreadLocalBuffers = _cachedBuffers.get();
+        if (cachedThreadLocalBuffers != null)
+        {
+            _cachedBuffers.remove();
+            for (SingleQpidByteBuffer cachedThreadLocalBuffer : cachedThreadLocalBuffers)
+            {
                 if (cachedThreadLocalBuffer != null)
                 {
                     cachedThreadLocalBuffer.dispose();
-                    _cachedBuffer.remove();
                 }
             }
-        });
+        }
+        final BufferPool[] bufferPools = _bufferPools;
+        if (bufferPools != null)
+        {
+            for (BufferPool bufferPool : bufferPools)
+            {
+                bufferPool.releaseThreadCache();
+            }
+        }
+    }
+
+    private static BufferPool getBufferPool(final int bufferSize)
+    {
+        final BufferPool[] bufferPools = _bufferPools;
+        if (bufferPools != null)
+        {
+            for (BufferPool bufferPool : bufferPools)
+            {
+                if (bufferPool.getBufferSize() == bufferSize)
+                {
+                    return bufferPool;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int getSizeClass(final BufferPool[] bufferPools, final int size)
+    {
+        int sizeClass = 0;
+        while (sizeClass + 1 < bufferPools.length && bufferPools[sizeClass + 1].getBufferSize() >= size)
+        {
+            sizeClass++;
+        }
+        return sizeClass;
     }
 
     private static SingleQpidByteBuffer allocateDirectSingle(int size)
@@ -487,27 +610,37 @@ final class QpidByteBufferFactory
         final ByteBufferRef ref;
         if (_isPoolInitialized && _pooledBufferSize >= size)
         {
-            if (_pooledBufferSize == size)
+            final BufferPool[] bufferPools = _bufferPools;
+            final int sizeClass = getSizeClass(bufferPools, size);
+            final BufferPool bufferPool = bufferPools[sizeClass];
+            if (bufferPool.getBufferSize() == size)
             {
-                ByteBuffer buf = _bufferPool.getBuffer();
-                if (buf == null)
-                {
-                    buf = ByteBuffer.allocateDirect(size);
-                }
-                ref = new PooledByteBufferRef(buf);
+                ref = new PooledByteBufferRef(bufferPool.getBuffer());
             }
             else
             {
-                SingleQpidByteBuffer buf = _cachedBuffer.get();
+                // smaller requests are carved out of a thread local buffer of the smallest size class that fits
+                SingleQpidByteBuffer[] cachedBuffers = _cachedBuffers.get();
+                if (cachedBuffers == null || cachedBuffers.length != bufferPools.length)
+                {
+                    if (cachedBuffers != null)
+                    {
+                        releaseThreadCachedBuffers();
+                    }
+                    cachedBuffers = new SingleQpidByteBuffer[bufferPools.length];
+                    _cachedBuffers.set(cachedBuffers);
+                }
+                SingleQpidByteBuffer buf = cachedBuffers[sizeClass];
                 if (buf == null || buf.remaining() < size)
                 {
                     if (buf != null)
                     {
                         buf.dispose();
                     }
-                    buf = allocateDirectSingle(_pooledBufferSize);
-                    _cachedBuffer.set(buf);
+                    buf = allocateDirectSingle(bufferPool.getBufferSize());
+                    cachedBuffers[sizeClass] = buf;
                 }
+                bufferPool.recordSubAllocation();
                 SingleQpidByteBuffer rVal = buf.view(0, size);
                 buf.position(buf.position() + size);
 
@@ -257,80 +257,98 @@ public abstract class AbstractConsumerTarget<T extends AbstractConsumerTarget<T>
 
         if (messageContainer != null)
         {
-            MessageInstance entry = messageContainer.getMessageInstance();
-            try
+            final int batchSize = consumer.getDeliveryBatchSize();
+            int sent = 0;
+            do
             {
-                send(consumer, entry, false);
+                sendMessage(consumer, messageContainer, ++sent < batchSize);
             }
-            catch (MessageConversionException mce)
+            while (sent < batchSize && (messageContainer = consumer.pullMessage()) != null);
+
+            if (batchSize > 1)
+            {
+                flushBatched();
+            }
+            return true;
+        }
+        else
+        {
+            return false;
+        }
+
+
+    }
+
+    private void sendMessage(final MessageInstanceConsumer consumer,
+                             final MessageContainer messageContainer,
+                             final boolean batch)
+    {
+        MessageInstance entry = messageContainer.getMessageInstance();
+        try
+        {
+            send(consumer, entry, batch);
+        }
+        catch (MessageConversionException mce)
+        {
+            restoreCredit(entry.getMessage());
+            final TransactionLogResource owningResource = entry.getOwningResource();
+            if (owningResource instanceof MessageSource)
             {
-                restoreCredit(entry.getMessage());
-                final TransactionLogResource owningResource = entry.getOwningResource();
-                if (owningResource instanceof MessageSource)
+                final MessageSource.MessageConversionExceptionHandlingPolicy handlingPolicy =
+                        ((MessageSource) owningResource).getMessageConversionExceptionHandlingPolicy();
+                switch(handlingPolicy)
                 {
-                    final MessageSource.MessageConversionExceptionHandlingPolicy handlingPolicy =
-                            ((MessageSource) owningResource).getMessageConversionExceptionHandlingPolicy();
-                    switch(handlingPolicy)
-                    {
-                        case CLOSE:
-                            entry.release(consumer);
-                            throw new ConnectionScopedRuntimeException(String.format(
-                                    "Unable to convert message %s for this consumer",
-                                    entry.getMessage()), mce);
-                        case ROUTE_TO_ALTERNATE:
-                            if (consumer.acquires())
+                    case CLOSE:
+                        entry.release(consumer);
+                        throw new ConnectionScopedRuntimeException(String.format(
+                                "Unable to convert message %s for this consumer",
+                                entry.getMessage()), mce);
+                    case ROUTE_TO_ALTERNATE:
+                        if (consumer.acquires())
+                        {
+                            int enqueues = entry.routeToAlternate(null, null);
+                            if (enqueues == 0)
                             {
-                                int enqueues = entry.routeToAlternate(null, null);
-                                if (enqueues == 0)
-                                {
-                                    LOGGER.info("Failed to convert message {} for this consumer because '{}'."
-                                                + "  Message discarded.", entry.getMessage(), mce.getMessage());
-
-                                }
-                                else
-                                {
-                                    LOGGER.info("Failed to convert message {} for this consumer because '{}'."
-                                                + "  Message routed to alternate.", entry.getMessage(), mce.getMessage());
-                                }
+                                LOGGER.info("Failed to convert message {} for this consumer because '{}'."
+                                            + "  Message discarded.", entry.getMessage(), mce.getMessage());
+
                             }
                             else
                             {
-                                LOGGER.info("Failed to convert message {} for this browser because '{}'."
-                                            + "  Message skipped.", entry.getMessage(), mce.getMessage());
+                                LOGGER.info("Failed to convert message {} for this consumer because '{}'."
+                                            + "  Message routed to alternate.", entry.getMessage(), mce.getMessage());
                             }
-                            break;
-                        case REJECT:
-                            entry.reject(consumer);
-                            entry.release(consumer);
-                            LOGGER.info("Failed to convert message {} for this consumer because '{}'."
+                        }
+                        else
+                        {
+                            LOGGER.info("Failed to convert message {} for this browser because '{}'."
                                         + "  Message skipped.", entry.getMessage(), mce.getMessage());
-                            break;
-                        default:
-                            throw new ServerScopedRuntimeException("Unrecognised policy " + handlingPolicy);
-                    }
-                }
-                else
-                {
-                    throw new ConnectionScopedRuntimeException(String.format(
-                            "Unable to convert message %s for this consumer",
-                            entry.getMessage()), mce);
+                        }
+                        break;
+                    case REJECT:
+                        entry.reject(consumer);
+                        entry.release(consumer);
+                        LOGGER.info("Failed to convert message {} for this consumer because '{}'."
+                                    + "  Message skipped.", entry.getMessage(), mce.getMessage());
+                        break;
+                    default:
+                        throw new ServerScopedRuntimeException("Unrecognised policy " + handlingPolicy);
                 }
             }
-            finally
+            else
             {
-                if (messageContainer.getMessageReference() != null)
-                {
-                    messageContainer.getMessageReference().release();
-                }
+                throw new ConnectionScopedRuntimeException(String.format(
+                        "Unable to convert message %s for this consumer",
+                        entry.getMessage()), mce);
             }
-            return true;
         }
-        else
+        finally
         {
-            return false;
+            if (messageContainer.getMessageReference() != null)
+            {
+                messageContainer.getMessageReference().release();
+            }
         }
-
-
     }
 
     @Override
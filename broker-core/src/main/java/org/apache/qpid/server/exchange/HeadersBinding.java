@@ -118,6 +118,21 @@ class HeadersBinding
         return _binding;
     }
 
+    Set<String> getRequiredHeaders()
+    {
+        return Collections.unmodifiableSet(required);
+    }
+
+    Map<String, Object> getHeaderValueMatches()
+    {
+        return Collections.unmodifiableMap(matches);
+    }
+
+    boolean isMatchAny()
+    {
+        return matchAny;
+    }
+
     /**
      * Checks whether the supplied headers match the requirements of this binding
      * @param headers the headers to check
@@ -0,0 +1,218 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.exchange;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.qpid.server.message.AMQMessageHeader;
+
+/**
+ * An inverted index of the {@link HeadersBinding}s of a headers exchange keyed on the header names, and header
+ * name and value pairs, that a message must carry for a binding to match it.
+ * <p>
+ * An {@code x-match=all} binding requires every one of its headers, so it is indexed under just one of them,
+ * preferring a name and value pair to a name alone and the key shared with the fewest other bindings. An
+ * {@code x-match=any} binding requires at least one of its headers, so it is indexed under all of them. Bindings
+ * with no header requirements at all match every message and are held apart.
+ * <p>
+ * Updates are made from the configuration thread; lookups may run concurrently from any thread.
+ */
+final class HeadersBindingIndex
+{
+    private final Map<AbstractExchange.BindingIdentifier, HeadersBinding> _bindings = new ConcurrentHashMap<>();
+    private final Set<HeadersBinding> _unconditional = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final ConcurrentMap<String, Set<HeadersBinding>> _byHeaderName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<Object, Set<HeadersBinding>>> _byHeaderValue =
+            new ConcurrentHashMap<>();
+
+    synchronized void add(final HeadersBinding binding)
+    {
+        final HeadersBinding previous = _bindings.put(binding.getBinding(), binding);
+        if (previous != null)
+        {
+            unindex(previous);
+        }
+        index(binding);
+    }
+
+    synchronized void remove(final AbstractExchange.BindingIdentifier bindingIdentifier)
+    {
+        final HeadersBinding previous = _bindings.remove(bindingIdentifier);
+        if (previous != null)
+        {
+            unindex(previous);
+        }
+    }
+
+    int size()
+    {
+        return _bindings.size();
+    }
+
+    /**
+     * Returns the bindings that could match a message with the given headers; bindings not returned cannot match.
+     */
+    Collection<HeadersBinding> getCandidates(final AMQMessageHeader headers)
+    {
+        if (headers == null)
+        {
+            return _unconditional;
+        }
+
+        Set<HeadersBinding> candidates = null;
+        for (String name : headers.getHeaderNames())
+        {
+            final Set<HeadersBinding> byName = _byHeaderName.get(name);
+            if (byName != null && !byName.isEmpty())
+            {
+                candidates = addAll(candidates, byName);
+            }
+
+            final Map<Object, Set<HeadersBinding>> byValue = _byHeaderValue.get(name);
+            if (byValue != null)
+            {
+                final Object value = headers.getHeader(name);
+                final Set<HeadersBinding> matching = value == null ? null : byValue.get(value);
+                if (matching != null && !matching.isEmpty())
+                {
+                    candidates = addAll(candidates, matching);
+                }
+            }
+        }
+
+        if (candidates == null)
+        {
+            return _unconditional;
+        }
+        candidates.addAll(_unconditional);
+        return candidates;
+    }
+
+    private static Set<HeadersBinding> addAll(Set<HeadersBinding> candidates, final Set<HeadersBinding> bindings)
+    {
+        if (candidates == null)
+        {
+            candidates = new HashSet<>();
+        }
+        candidates.addAll(bindings);
+        return candidates;
+    }
+
+    private void index(final HeadersBinding binding)
+    {
+        final Set<String> required = binding.getRequiredHeaders();
+        final Map<String, Object> valueMatches = binding.getHeaderValueMatches();
+        if (required.isEmpty() && valueMatches.isEmpty())
+        {
+            _unconditional.add(binding);
+        }
+        else if (binding.isMatchAny())
+        {
+            for (String name : required)
+            {
+                bindingsWithName(name).add(binding);
+            }
+            for (Map.Entry<String, Object> entry : valueMatches.entrySet())
+            {
+                bindingsWithValue(entry.getKey(), entry.getValue()).add(binding);
+            }
+        }
+        else if (!valueMatches.isEmpty())
+        {
+            Map.Entry<String, Object> chosen = null;
+            int chosenSize = Integer.MAX_VALUE;
+            for (Map.Entry<String, Object> entry : valueMatches.entrySet())
+            {
+                final Map<Object, Set<HeadersBinding>> byValue = _byHeaderValue.get(entry.getKey());
+                final Set<HeadersBinding> bindings = byValue == null ? null : byValue.get(entry.getValue());
+                final int size = bindings == null ? 0 : bindings.size();
+                if (size < chosenSize)
+                {
+                    chosen = entry;
+                    chosenSize = size;
+                }
+            }
+            bindingsWithValue(chosen.getKey(), chosen.getValue()).add(binding);
+        }
+        else
+        {
+            String chosen = null;
+            int chosenSize = Integer.MAX_VALUE;
+            for (String name : required)
+            {
+                final Set<HeadersBinding> bindings = _byHeaderName.get(name);
+                final int size = bindings == null ? 0 : bindings.size();
+                if (size < chosenSize)
+                {
+                    chosen = name;
+                    chosenSize = size;
+                }
+            }
+            bindingsWithName(chosen).add(binding);
+        }
+    }
+
+    private void unindex(final HeadersBinding binding)
+    {
+        _unconditional.remove(binding);
+        for (String name : binding.getRequiredHeaders())
+        {
+            final Set<HeadersBinding> bindings = _byHeaderName.get(name);
+            if (bindings != null && bindings.remove(binding) && bindings.isEmpty())
+            {
+                _byHeaderName.remove(name);
+            }
+        }
+        for (Map.Entry<String, Object> entry : binding.getHeaderValueMatches().entrySet())
+        {
+            final ConcurrentMap<Object, Set<HeadersBinding>> byValue = _byHeaderValue.get(entry.getKey());
+            if (byValue != null)
+            {
+                final Set<HeadersBinding> bindings = byValue.get(entry.getValue());
+                if (bindings != null && bindings.remove(binding) && bindings.isEmpty())
+                {
+                    byValue.remove(entry.getValue());
+                    if (byValue.isEmpty())
+                    {
+                        _byHeaderValue.remove(entry.getKey());
+                    }
+                }
+            }
+        }
+    }
+
+    private Set<HeadersBinding> bindingsWithName(final String name)
+    {
+        return _byHeaderName.computeIfAbsent(name, key -> Collections.newSetFromMap(new ConcurrentHashMap<>()));
+    }
+
+    private Set<HeadersBinding> bindingsWithValue(final String name, final Object value)
+    {
+        return _byHeaderValue.computeIfAbsent(name, key -> new ConcurrentHashMap<>())
+                             .computeIfAbsent(value, key -> Collections.newSetFromMap(new ConcurrentHashMap<>()));
+    }
+}
@@ -23,9 +23,24 @@ package org.apache.qpid.server.exchange;
 import org.apache.qpid.server.exchange.ExchangeDefaults;
 import org.apache.qpid.server.model.Exchange;
 import org.apache.qpid.server.model.ManagedObject;
+import org.apache.qpid.server.model.ManagedStatistic;
+import org.apache.qpid.server.model.StatisticType;
+import org.apache.qpid.server.model.StatisticUnit;
 
 @ManagedObject( category = false, type = ExchangeDefaults.HEADERS_EXCHANGE_CLASS,
         amqpName = "org.apache.qpid.HeadersExchange" )
 public interface HeadersExchange<X extends Exchange<X>> extends Exchange<X>
 {
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT,
+                      label = "Bindings Evaluated",
+                      description = "Total number of bindings evaluated against messages routed by this exchange.")
+    long getBindingsEvaluated();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT,
+                      label = "Bindings Evaluated Per Message",
+                      description = "Mean number of bindings evaluated for each message routed by this exchange."
+                                    + " Only bindings sharing a header with a message are evaluated.")
+    double getBindingsEvaluatedPerMessage();
 }
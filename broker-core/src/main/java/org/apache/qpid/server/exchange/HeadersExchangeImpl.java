@@ -20,10 +20,9 @@
  */
 package org.apache.qpid.server.exchange;
 
-import java.util.Collections;
+import java.util.Collection;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,7 +68,9 @@ public class HeadersExchangeImpl extends AbstractExchange<HeadersExchangeImpl> i
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HeadersExchangeImpl.class);
 
-    private final Set<HeadersBinding> _bindingHeaderMatchers = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final HeadersBindingIndex _bindingHeaderMatchers = new HeadersBindingIndex();
+    private final LongAdder _bindingsEvaluated = new LongAdder();
+    private final LongAdder _messagesEvaluated = new LongAdder();
 
     @ManagedObjectFactoryConstructor
     public HeadersExchangeImpl(final Map<String, Object> attributes, final QueueManagingVirtualHost<?> vhost)
@@ -85,9 +86,18 @@ public class HeadersExchangeImpl extends AbstractExchange<HeadersExchangeImpl> i
     {
         LOGGER.debug("Exchange {}: routing message with headers {}", getName(), payload.getMessageHeader());
 
-        for (HeadersBinding hb : _bindingHeaderMatchers)
+        final Collection<HeadersBinding> candidates = _bindingHeaderMatchers.getCandidates(payload.getMessageHeader());
+        _messagesEvaluated.increment();
+        if (candidates.isEmpty())
         {
-            if (hb.matches(Filterable.Factory.newInstance(payload,instanceProperties)))
+            return;
+        }
+        _bindingsEvaluated.add(candidates.size());
+
+        final Filterable filterable = Filterable.Factory.newInstance(payload, instanceProperties);
+        for (HeadersBinding hb : candidates)
+        {
+            if (hb.matches(filterable))
             {
                 MessageDestination destination = hb.getBinding().getDestination();
 
@@ -105,6 +115,19 @@ public class HeadersExchangeImpl extends AbstractExchange<HeadersExchangeImpl> i
     }
 
 
+    @Override
+    public long getBindingsEvaluated()
+    {
+        return _bindingsEvaluated.sum();
+    }
+
+    @Override
+    public double getBindingsEvaluatedPerMessage()
+    {
+        final long messages = _messagesEvaluated.sum();
+        return messages == 0 ? 0.0 : (double) _bindingsEvaluated.sum() / messages;
+    }
+
     @Override
     protected void onBind(final BindingIdentifier binding, Map<String,Object> arguments)
     {
@@ -120,7 +143,7 @@ public class HeadersExchangeImpl extends AbstractExchange<HeadersExchangeImpl> i
     @Override
     protected void onUnbind(final BindingIdentifier binding)
     {
-        _bindingHeaderMatchers.remove(new HeadersBinding(binding, Collections.emptyMap()));
+        _bindingHeaderMatchers.remove(binding);
     }
 
 }
@@ -21,11 +21,19 @@
 package org.apache.qpid.server.exchange;
 
 import org.apache.qpid.server.exchange.ExchangeDefaults;
+import org.apache.qpid.server.exchange.topic.TopicParser;
 import org.apache.qpid.server.model.Exchange;
+import org.apache.qpid.server.model.ManagedContextDefault;
 import org.apache.qpid.server.model.ManagedObject;
 
 @ManagedObject( category = false, type = ExchangeDefaults.TOPIC_EXCHANGE_CLASS,
         amqpName = "org.apache.qpid.TopicExchange" )
 public interface TopicExchange<X extends TopicExchange<X>> extends Exchange<X>
 {
+    String ROUTING_KEY_CACHE_SIZE = "topicExchange.routingKeyCacheSize";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = ROUTING_KEY_CACHE_SIZE,
+            description = "Maximum number of routing keys for which a topic exchange remembers the matching bindings,"
+                          + " or zero to match every message against the bindings")
+    int DEFAULT_ROUTING_KEY_CACHE_SIZE = TopicParser.DEFAULT_ROUTING_KEY_CACHE_SIZE;
 }
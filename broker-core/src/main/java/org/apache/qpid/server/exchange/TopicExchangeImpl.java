@@ -63,6 +63,13 @@ class TopicExchangeImpl extends AbstractExchange<TopicExchangeImpl> implements T
         super(attributes, vhost);
     }
 
+    @Override
+    protected void onOpen()
+    {
+        _parser.setRoutingKeyCacheSize(getContextValue(Integer.class, ROUTING_KEY_CACHE_SIZE));
+        super.onOpen();
+    }
+
     @Override
     protected synchronized void onBindingUpdated(final BindingIdentifier binding, final Map<String, Object> newArguments)
     {
@@ -20,10 +20,8 @@
  */
 package org.apache.qpid.server.exchange.topic;
 
-import java.util.Arrays;
-import java.util.Iterator;
-
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -44,7 +42,7 @@ public class TopicMatcherDFAState
 
     private final Collection<TopicMatcherResult> _results;
     private final Map<TopicWord, TopicMatcherDFAState> _nextStateMap;
-    private static final String TOPIC_DELIMITER = "\\.";
+    private volatile Transitions _transitions;
 
 
     public TopicMatcherDFAState(Map<TopicWord, TopicMatcherDFAState> nextStateMap,
@@ -67,36 +65,111 @@ public class TopicMatcherDFAState
     }
 
 
+    /**
+     * Matches the routing key against the state machine starting at this state.  The routing key is tokenized in
+     * place and each word is resolved to its dictionary id, so no objects are allocated while matching.  As with
+     * {@code routingKey.split("\\.")} trailing empty words are ignored.
+     */
     public Collection<TopicMatcherResult> parse(TopicWordDictionary dictionary, String routingKey)
     {
-        return parse(dictionary, Arrays.asList(routingKey.split(TOPIC_DELIMITER)).iterator());
-    }
-
-    private Collection<TopicMatcherResult> parse(final TopicWordDictionary dictionary,
-                                                 final Iterator<String> tokens)
-    {
-        if(!tokens.hasNext())
+        int limit = routingKey.length();
+        while (limit > 0 && routingKey.charAt(limit - 1) == '.')
+        {
+            limit--;
+        }
+        if (limit == 0 && !routingKey.isEmpty())
         {
             return _results;
         }
-        TopicWord word = dictionary.getWord(tokens.next());
-        TopicMatcherDFAState nextState = _nextStateMap.get(word);
-        if(nextState == null && word != TopicWord.ANY_WORD)
+
+        TopicMatcherDFAState state = this;
+        int start = 0;
+        while (true)
         {
-            nextState = _nextStateMap.get(TopicWord.ANY_WORD);
+            int end = routingKey.indexOf('.', start);
+            if (end < 0 || end > limit)
+            {
+                end = limit;
+            }
+
+            final Transitions transitions = state.getTransitions();
+            final TopicMatcherDFAState nextState = transitions.nextState(dictionary.getWordId(routingKey, start, end));
+            if (nextState == null)
+            {
+                return Collections.emptySet();
+            }
+            // Shortcut if we are at a looping terminal state
+            if (nextState == state && transitions.isAnyWordLoopOnly())
+            {
+                return state._results;
+            }
+            if (end == limit)
+            {
+                return nextState._results;
+            }
+            state = nextState;
+            start = end + 1;
         }
-        if(nextState == null)
+    }
+
+    private Transitions getTransitions()
+    {
+        Transitions transitions = _transitions;
+        if (transitions == null)
         {
-            return Collections.EMPTY_LIST;
+            // the transition map is not modified once the state machine has been published, so a racing
+            // thread can at worst build an identical table
+            transitions = new Transitions(this, _nextStateMap);
+            _transitions = transitions;
         }
-        // Shortcut if we are at a looping terminal state
-        if((nextState == this) && (_nextStateMap.size() == 1) && _nextStateMap.containsKey(TopicWord.ANY_WORD))
+        return transitions;
+    }
+
+    /**
+     * Array based form of the transition map: word ids sorted for binary search, with the ANY_WORD transition
+     * held separately as the fallback for unmatched words.
+     */
+    private static final class Transitions
+    {
+        private final int[] _wordIds;
+        private final TopicMatcherDFAState[] _nextStates;
+        private final TopicMatcherDFAState _anyWordState;
+        private final boolean _anyWordLoopOnly;
+
+        private Transitions(TopicMatcherDFAState state, Map<TopicWord, TopicMatcherDFAState> nextStateMap)
         {
-            return _results;
+            _anyWordState = nextStateMap.get(TopicWord.ANY_WORD);
+            _anyWordLoopOnly = _anyWordState == state && nextStateMap.size() == 1;
+
+            final List<Map.Entry<TopicWord, TopicMatcherDFAState>> entries = new ArrayList<>(nextStateMap.size());
+            for (Map.Entry<TopicWord, TopicMatcherDFAState> entry : nextStateMap.entrySet())
+            {
+                if (entry.getKey() != TopicWord.ANY_WORD)
+                {
+                    entries.add(entry);
+                }
+            }
+            entries.sort(Comparator.comparingInt(entry -> entry.getKey().getId()));
+
+            _wordIds = new int[entries.size()];
+            _nextStates = new TopicMatcherDFAState[entries.size()];
+            for (int i = 0; i < _wordIds.length; i++)
+            {
+                _wordIds[i] = entries.get(i).getKey().getId();
+                _nextStates[i] = entries.get(i).getValue();
+            }
         }
 
-        return nextState.parse(dictionary, tokens);
+        private TopicMatcherDFAState nextState(int wordId)
+        {
+            final int index = Arrays.binarySearch(_wordIds, wordId);
+            return index >= 0 ? _nextStates[index] : _anyWordState;
+        }
 
+        private boolean isAnyWordLoopOnly()
+        {
+            return _anyWordLoopOnly;
+        }
     }
 
 
@@ -28,14 +28,19 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class TopicParser
 {
     private static final String TOPIC_DELIMITER = "\\.";
+    public static final int DEFAULT_ROUTING_KEY_CACHE_SIZE = 4096;
 
     private final TopicWordDictionary _dictionary = new TopicWordDictionary();
     private final AtomicReference<TopicMatcherDFAState> _stateMachine = new AtomicReference<>();
+    private volatile int _routingKeyCacheSize = DEFAULT_ROUTING_KEY_CACHE_SIZE;
+    private volatile RoutingKeyCache _routingKeyCache;
 
     private static class Position
     {
@@ -125,10 +130,70 @@ public class TopicParser
         {
             return Collections.emptySet();
         }
-        else
+        else if (_routingKeyCacheSize <= 0)
         {
             return stateMachine.parse(_dictionary,routingKey);
         }
+        else
+        {
+            RoutingKeyCache cache = _routingKeyCache;
+            if (cache == null || cache.getStateMachine() != stateMachine)
+            {
+                cache = new RoutingKeyCache(stateMachine);
+                _routingKeyCache = cache;
+            }
+            Collection<TopicMatcherResult> results = cache.get(routingKey);
+            if (results == null)
+            {
+                results = stateMachine.parse(_dictionary, routingKey);
+                cache.put(routingKey, results, _routingKeyCacheSize);
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Sets the maximum number of routing keys whose matches are remembered, or zero to disable the cache.
+     * Remembered matches are discarded whenever a binding changes the state machine.
+     */
+    public void setRoutingKeyCacheSize(int routingKeyCacheSize)
+    {
+        _routingKeyCacheSize = routingKeyCacheSize;
+        _routingKeyCache = null;
+    }
+
+    /**
+     * Matches of recently routed keys against one version of the state machine.  When full the cache is simply
+     * cleared, which keeps the per-message cost of a hit to a single map lookup.
+     */
+    private static final class RoutingKeyCache
+    {
+        private final TopicMatcherDFAState _stateMachine;
+        private final ConcurrentMap<String, Collection<TopicMatcherResult>> _results = new ConcurrentHashMap<>();
+
+        private RoutingKeyCache(final TopicMatcherDFAState stateMachine)
+        {
+            _stateMachine = stateMachine;
+        }
+
+        private TopicMatcherDFAState getStateMachine()
+        {
+            return _stateMachine;
+        }
+
+        private Collection<TopicMatcherResult> get(final String routingKey)
+        {
+            return _results.get(routingKey);
+        }
+
+        private void put(final String routingKey, final Collection<TopicMatcherResult> results, final int maxSize)
+        {
+            if (_results.size() >= maxSize)
+            {
+                _results.clear();
+            }
+            _results.put(routingKey, results);
+        }
     }
 
 
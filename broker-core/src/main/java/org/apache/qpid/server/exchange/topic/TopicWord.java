@@ -23,13 +23,30 @@ package org.apache.qpid.server.exchange.topic;
 
 public final class TopicWord
 {
-    public static final TopicWord ANY_WORD = new TopicWord("*");
-    public static final TopicWord WILDCARD_WORD = new TopicWord("#");
+    public static final TopicWord ANY_WORD = new TopicWord("*", 0);
+    public static final TopicWord WILDCARD_WORD = new TopicWord("#", 1);
+    static final int FIRST_DICTIONARY_WORD_ID = 2;
+
     private String _word;
+    private final int _id;
 
     public TopicWord(String s)
+    {
+        this(s, -1);
+    }
+
+    TopicWord(String s, int id)
     {
         _word = s;
+        _id = id;
+    }
+
+    /**
+     * @return the id assigned to this word by its dictionary, or -1 if the word does not belong to a dictionary
+     */
+    int getId()
+    {
+        return _id;
     }
 
     @Override
@@ -20,6 +20,7 @@
 */
 package org.apache.qpid.server.exchange.topic;
 
+import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -27,6 +28,8 @@ public class TopicWordDictionary
 {
     private final ConcurrentMap<String,TopicWord> _dictionary =
             new ConcurrentHashMap<String,TopicWord>();
+    private int _nextWordId = TopicWord.FIRST_DICTIONARY_WORD_ID;
+    private volatile WordIndex _wordIndex;
 
     public TopicWordDictionary()
     {
@@ -36,10 +39,19 @@ public class TopicWordDictionary
 
     public TopicWord getOrCreateWord(String name)
     {
-        TopicWord word = _dictionary.putIfAbsent(name, new TopicWord(name));
+        TopicWord word = _dictionary.get(name);
         if(word == null)
         {
-            word = _dictionary.get(name);
+            synchronized (this)
+            {
+                word = _dictionary.get(name);
+                if (word == null)
+                {
+                    word = new TopicWord(name, _nextWordId++);
+                    _dictionary.put(name, word);
+                    _wordIndex = null;
+                }
+            }
         }
         return word;
     }
@@ -54,4 +66,92 @@ public class TopicWordDictionary
         }
         return word;
     }
+
+    /**
+     * Looks up the word formed by the characters of {@code text} between {@code start} (inclusive) and
+     * {@code end} (exclusive) without creating a substring.
+     *
+     * @return the id of the word, or the id of {@link TopicWord#ANY_WORD} if the word is unknown
+     */
+    int getWordId(String text, int start, int end)
+    {
+        WordIndex wordIndex = _wordIndex;
+        if (wordIndex == null)
+        {
+            wordIndex = createWordIndex();
+        }
+        return wordIndex.getWordId(text, start, end);
+    }
+
+    private synchronized WordIndex createWordIndex()
+    {
+        WordIndex wordIndex = _wordIndex;
+        if (wordIndex == null)
+        {
+            wordIndex = new WordIndex(_dictionary.values());
+            _wordIndex = wordIndex;
+        }
+        return wordIndex;
+    }
+
+    /**
+     * Immutable open addressing table from word text to word id, rebuilt on the first lookup after words are added.
+     */
+    private static final class WordIndex
+    {
+        private final String[] _words;
+        private final int[] _hashes;
+        private final int[] _ids;
+        private final int _mask;
+
+        private WordIndex(Collection<TopicWord> words)
+        {
+            int capacity = Integer.highestOneBit(Math.max(4, words.size() * 2) - 1) << 1;
+            _words = new String[capacity];
+            _hashes = new int[capacity];
+            _ids = new int[capacity];
+            _mask = capacity - 1;
+            for (TopicWord word : words)
+            {
+                final String text = word.toString();
+                final int hash = text.hashCode();
+                int slot = spread(hash) & _mask;
+                while (_words[slot] != null)
+                {
+                    slot = (slot + 1) & _mask;
+                }
+                _words[slot] = text;
+                _hashes[slot] = hash;
+                _ids[slot] = word.getId();
+            }
+        }
+
+        private int getWordId(String text, int start, int end)
+        {
+            final int length = end - start;
+            int hash = 0;
+            for (int i = start; i < end; i++)
+            {
+                hash = 31 * hash + text.charAt(i);
+            }
+            int slot = spread(hash) & _mask;
+            String candidate;
+            while ((candidate = _words[slot]) != null)
+            {
+                if (_hashes[slot] == hash
+                    && candidate.length() == length
+                    && text.regionMatches(start, candidate, 0, length))
+                {
+                    return _ids[slot];
+                }
+                slot = (slot + 1) & _mask;
+            }
+            return TopicWord.ANY_WORD.getId();
+        }
+
+        private static int spread(int hash)
+        {
+            return hash ^ (hash >>> 16);
+        }
+    }
 }
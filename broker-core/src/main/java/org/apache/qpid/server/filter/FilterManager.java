@@ -62,6 +62,26 @@ public class FilterManager
         return false;
     }
 
+    /**
+     * @return a property constraint satisfied by every message all of the filters allow, or null if none is known
+     */
+    public PropertyEqualityConstraint getPropertyEqualityConstraint()
+    {
+        for (MessageFilter filter : _filters.values())
+        {
+            if (filter instanceof JMSSelectorFilter)
+            {
+                final PropertyEqualityConstraint constraint =
+                        ((JMSSelectorFilter) filter).getPropertyEqualityConstraint();
+                if (constraint != null)
+                {
+                    return constraint;
+                }
+            }
+        }
+        return null;
+    }
+
     public Iterator<MessageFilter> filters()
     {
         return _filters.values().iterator();
@@ -34,15 +34,28 @@ public class JMSSelectorFilter implements MessageFilter
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(JMSSelectorFilter.class);
 
+    public static final String COMPILE_SELECTORS_PROPERTY_NAME = "qpid.filter.jmsSelector.compile";
+    private static final boolean COMPILE_SELECTORS =
+            Boolean.parseBoolean(System.getProperty(COMPILE_SELECTORS_PROPERTY_NAME, "true"));
+
     private String _selector;
     private BooleanExpression _matcher;
+    private PropertyEqualityConstraint _propertyEqualityConstraint;
 
     public JMSSelectorFilter(String selector) throws ParseException, TokenMgrError, SelectorParsingException
+    {
+        this(selector, COMPILE_SELECTORS);
+    }
+
+    public JMSSelectorFilter(String selector, boolean compile)
+            throws ParseException, TokenMgrError, SelectorParsingException
     {
         _selector = selector;
         SelectorParser<FilterableMessage> selectorParser = new SelectorParser<>();
         selectorParser.setPropertyExpressionFactory(JMSMessagePropertyExpression.FACTORY);
-        _matcher = selectorParser.parse(selector);
+        BooleanExpression<FilterableMessage> matcher = selectorParser.parse(selector);
+        _matcher = compile ? SelectorCompiler.compile(matcher) : matcher;
+        _propertyEqualityConstraint = PropertyEqualityConstraint.find(matcher);
     }
 
     @Override
@@ -74,6 +87,14 @@ public class JMSSelectorFilter implements MessageFilter
         return _selector;
     }
 
+    /**
+     * @return a constraint on a message property that every message matching this selector satisfies, or null
+     */
+    public PropertyEqualityConstraint getPropertyEqualityConstraint()
+    {
+        return _propertyEqualityConstraint;
+    }
+
     @Override
     public boolean equals(final Object o)
     {
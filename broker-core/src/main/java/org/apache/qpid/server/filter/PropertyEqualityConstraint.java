@@ -0,0 +1,120 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.filter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A conjunct of a selector requiring a message property to be one of a set of string literals, for example
+ * {@code region = 'EMEA'} or {@code region IN ('EMEA', 'APAC')}.
+ * <p>
+ * A message whose property is absent, or is a string outside of the set, can never match a selector holding
+ * such a constraint, which allows consumers to be indexed by the values they select.
+ */
+public final class PropertyEqualityConstraint
+{
+    private final JMSMessagePropertyExpression _property;
+    private final Set<String> _values;
+
+    private PropertyEqualityConstraint(final JMSMessagePropertyExpression property, final Set<String> values)
+    {
+        _property = property;
+        _values = Collections.unmodifiableSet(values);
+    }
+
+    public String getPropertyName()
+    {
+        return _property.getName();
+    }
+
+    public Set<String> getValues()
+    {
+        return _values;
+    }
+
+    public Object evaluateProperty(final FilterableMessage message)
+    {
+        return _property.evaluate(message);
+    }
+
+    static PropertyEqualityConstraint find(final Expression<FilterableMessage> expression)
+    {
+        if (expression instanceof LogicExpression.AndExpression)
+        {
+            final LogicExpression<FilterableMessage> and = (LogicExpression<FilterableMessage>) expression;
+            final PropertyEqualityConstraint constraint = find(and.getLeft());
+            return constraint == null ? find(and.getRight()) : constraint;
+        }
+        else if (expression instanceof ComparisonExpression.EqualExpression)
+        {
+            final ComparisonExpression<FilterableMessage> equal = (ComparisonExpression<FilterableMessage>) expression;
+            final PropertyEqualityConstraint constraint = fromEquality(equal.getLeft(), equal.getRight());
+            return constraint == null ? fromEquality(equal.getRight(), equal.getLeft()) : constraint;
+        }
+        else if (expression instanceof UnaryExpression.InExpression)
+        {
+            final UnaryExpression.InExpression<FilterableMessage> in =
+                    (UnaryExpression.InExpression<FilterableMessage>) expression;
+            final Collection<?> inList = in.getInList();
+            if (in.isNot() || inList == null || !(in.getRight() instanceof JMSMessagePropertyExpression))
+            {
+                return null;
+            }
+            final Set<String> values = new HashSet<>();
+            for (Object value : inList)
+            {
+                if (!(value instanceof String))
+                {
+                    return null;
+                }
+                values.add((String) value);
+            }
+            return new PropertyEqualityConstraint((JMSMessagePropertyExpression) in.getRight(), values);
+        }
+        return null;
+    }
+
+    private static PropertyEqualityConstraint fromEquality(final Expression<FilterableMessage> property,
+                                                           final Expression<FilterableMessage> constant)
+    {
+        if (property instanceof JMSMessagePropertyExpression
+            && constant instanceof ConstantExpression
+            && ((ConstantExpression<FilterableMessage>) constant).getValue() instanceof String)
+        {
+            final String value = (String) ((ConstantExpression<FilterableMessage>) constant).getValue();
+            return new PropertyEqualityConstraint((JMSMessagePropertyExpression) property,
+                                                  Collections.singleton(value));
+        }
+        return null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PropertyEqualityConstraint[" +
+               "property='" + getPropertyName() + '\'' +
+               ", values=" + _values +
+               ']';
+    }
+}
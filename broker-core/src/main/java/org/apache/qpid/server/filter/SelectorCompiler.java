@@ -0,0 +1,395 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.filter;
+
+/**
+ * Turns a parsed selector expression tree into a tree of specialised evaluation nodes.
+ * <p>
+ * Boolean results are carried between nodes as primitive three-valued logic rather than as boxed
+ * {@link Boolean}s, AND/OR short-circuit exactly as the interpreted {@link LogicExpression} does,
+ * and comparisons of a property against a numeric or string literal are performed on primitives
+ * without the type promotion search of {@link ComparisonExpression#compare(Comparable, Comparable)}.
+ * Any construct the compiler does not recognise, and any operand type a specialised node was not
+ * prepared for, is evaluated by the original interpreted expression so the result is always that
+ * of the interpreter.
+ */
+public final class SelectorCompiler
+{
+    private static final int FALSE = 0;
+    private static final int TRUE = 1;
+    private static final int UNKNOWN = 2;
+
+    private static final int NOT_COMPARABLE = Integer.MIN_VALUE;
+
+    private SelectorCompiler()
+    {
+    }
+
+    public static <E> BooleanExpression<E> compile(final BooleanExpression<E> expression)
+    {
+        if (expression instanceof CompiledExpression)
+        {
+            return expression;
+        }
+        final Node<E> node = compileNode(expression);
+        if (node instanceof InterpretedNode)
+        {
+            return expression;
+        }
+        return new CompiledExpression<>(expression, node);
+    }
+
+    interface Node<E>
+    {
+        int evaluate(E message);
+    }
+
+    private static <E> Node<E> compileNode(final Expression<E> expression)
+    {
+        if (expression instanceof LogicExpression.AndExpression)
+        {
+            final LogicExpression<E> and = (LogicExpression<E>) expression;
+            final Node<E> left = compileNode(and.getLeft());
+            final Node<E> right = compileNode(and.getRight());
+            return message ->
+            {
+                final int lv = left.evaluate(message);
+                return lv == TRUE ? right.evaluate(message) : lv;
+            };
+        }
+        else if (expression instanceof LogicExpression.OrExpression)
+        {
+            final LogicExpression<E> or = (LogicExpression<E>) expression;
+            final Node<E> left = compileNode(or.getLeft());
+            final Node<E> right = compileNode(or.getRight());
+            return message ->
+            {
+                final int lv = left.evaluate(message);
+                return lv == TRUE ? TRUE : right.evaluate(message);
+            };
+        }
+        else if (expression instanceof UnaryExpression.NotExpression)
+        {
+            final Node<E> operand = compileNode(((UnaryExpression<E>) expression).getRight());
+            return message ->
+            {
+                final int value = operand.evaluate(message);
+                return value == UNKNOWN ? UNKNOWN : value ^ 1;
+            };
+        }
+        else if (expression instanceof UnaryExpression.BooleanCastExpression)
+        {
+            final Expression<E> operand = ((UnaryExpression<E>) expression).getRight();
+            return message ->
+            {
+                final Object value = operand.evaluate(message);
+                if (value == null)
+                {
+                    return UNKNOWN;
+                }
+                return value.getClass() == Boolean.class && (Boolean) value ? TRUE : FALSE;
+            };
+        }
+        else if (expression instanceof ConstantExpression.BooleanConstantExpression)
+        {
+            final int value = toResult(((ConstantExpression<E>) expression).getValue());
+            return message -> value;
+        }
+        else if (expression instanceof ComparisonExpression.EqualExpression)
+        {
+            return compileEquality((ComparisonExpression<E>) expression);
+        }
+        else if (expression instanceof ComparisonExpression)
+        {
+            return compileRelation((ComparisonExpression<E>) expression);
+        }
+        return new InterpretedNode<>(expression);
+    }
+
+    private static <E> Node<E> compileEquality(final ComparisonExpression<E> comparison)
+    {
+        final Expression<E> left = comparison.getLeft();
+        if (!(comparison.getRight() instanceof ConstantExpression))
+        {
+            return new InterpretedNode<>(comparison);
+        }
+
+        final Object constant = ((ConstantExpression<E>) comparison.getRight()).getValue();
+        if (constant == null)
+        {
+            return message -> left.evaluate(message) == null ? TRUE : FALSE;
+        }
+        else if (constant instanceof String)
+        {
+            return message ->
+            {
+                final Object value = left.evaluate(message);
+                if (value == null)
+                {
+                    return FALSE;
+                }
+                else if (constant.equals(value))
+                {
+                    return TRUE;
+                }
+                else if (value instanceof String || !(value instanceof Comparable))
+                {
+                    return FALSE;
+                }
+                return toResult(comparison.compare((Comparable) value, (Comparable) constant));
+            };
+        }
+
+        final NumericConstant numericConstant = NumericConstant.of(constant);
+        if (numericConstant == null)
+        {
+            return new InterpretedNode<>(comparison);
+        }
+        return message ->
+        {
+            final Object value = left.evaluate(message);
+            if (value == null)
+            {
+                return FALSE;
+            }
+            else if (value.equals(constant))
+            {
+                return TRUE;
+            }
+            final int result = numericConstant.compareFrom(value);
+            if (result != NOT_COMPARABLE)
+            {
+                return result == 0 ? TRUE : FALSE;
+            }
+            else if (!(value instanceof Comparable))
+            {
+                return FALSE;
+            }
+            return toResult(comparison.compare((Comparable) value, (Comparable) constant));
+        };
+    }
+
+    private static <E> Node<E> compileRelation(final ComparisonExpression<E> comparison)
+    {
+        final Relation relation = Relation.forSymbol(comparison.getExpressionSymbol());
+        final NumericConstant numericConstant = comparison.getRight() instanceof ConstantExpression
+                ? NumericConstant.of(((ConstantExpression<E>) comparison.getRight()).getValue())
+                : null;
+        if (relation == null || numericConstant == null)
+        {
+            return new InterpretedNode<>(comparison);
+        }
+
+        final Expression<E> left = comparison.getLeft();
+        return message ->
+        {
+            final Object value = left.evaluate(message);
+            if (value == null)
+            {
+                return UNKNOWN;
+            }
+            final int result = numericConstant.compareFrom(value);
+            if (result != NOT_COMPARABLE)
+            {
+                return relation.holds(result) ? TRUE : FALSE;
+            }
+            return toResult(comparison.compare((Comparable) value, (Comparable) numericConstant._value));
+        };
+    }
+
+    private static int toResult(final Object value)
+    {
+        if (value == null)
+        {
+            return UNKNOWN;
+        }
+        return (Boolean) value ? TRUE : FALSE;
+    }
+
+    private enum Relation
+    {
+        GREATER_THAN(">")
+                {
+                    @Override
+                    boolean holds(final int comparison)
+                    {
+                        return comparison > 0;
+                    }
+                },
+        GREATER_THAN_OR_EQUAL(">=")
+                {
+                    @Override
+                    boolean holds(final int comparison)
+                    {
+                        return comparison >= 0;
+                    }
+                },
+        LESS_THAN("<")
+                {
+                    @Override
+                    boolean holds(final int comparison)
+                    {
+                        return comparison < 0;
+                    }
+                },
+        LESS_THAN_OR_EQUAL("<=")
+                {
+                    @Override
+                    boolean holds(final int comparison)
+                    {
+                        return comparison <= 0;
+                    }
+                };
+
+        private final String _symbol;
+
+        Relation(final String symbol)
+        {
+            _symbol = symbol;
+        }
+
+        abstract boolean holds(int comparison);
+
+        static Relation forSymbol(final String symbol)
+        {
+            for (Relation relation : values())
+            {
+                if (relation._symbol.equals(symbol))
+                {
+                    return relation;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * An integer, long or double literal, pre-converted to each primitive type it may be compared as.
+     * {@link #compareFrom(Object)} applies the same promotions as
+     * {@link ComparisonExpression#compare(Comparable, Comparable)} does when the literal is on the right.
+     */
+    private static final class NumericConstant
+    {
+        private final Object _value;
+        private final boolean _integral;
+        private final long _longValue;
+        private final float _floatValue;
+        private final double _doubleValue;
+
+        private NumericConstant(final Number value, final boolean integral)
+        {
+            _value = value;
+            _integral = integral;
+            _longValue = value.longValue();
+            _floatValue = value.floatValue();
+            _doubleValue = value.doubleValue();
+        }
+
+        static NumericConstant of(final Object value)
+        {
+            if (value instanceof Integer || value instanceof Long)
+            {
+                return new NumericConstant((Number) value, true);
+            }
+            else if (value instanceof Double)
+            {
+                return new NumericConstant((Number) value, false);
+            }
+            return null;
+        }
+
+        int compareFrom(final Object value)
+        {
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)
+            {
+                final Number number = (Number) value;
+                return _integral
+                        ? Long.compare(number.longValue(), _longValue)
+                        : Double.compare(number.doubleValue(), _doubleValue);
+            }
+            else if (value instanceof Double)
+            {
+                return Double.compare((Double) value, _doubleValue);
+            }
+            else if (value instanceof Float)
+            {
+                return _integral
+                        ? Float.compare((Float) value, _floatValue)
+                        : Double.compare(((Float) value).doubleValue(), _doubleValue);
+            }
+            return NOT_COMPARABLE;
+        }
+    }
+
+    private static final class InterpretedNode<E> implements Node<E>
+    {
+        private final Expression<E> _expression;
+
+        private InterpretedNode(final Expression<E> expression)
+        {
+            _expression = expression;
+        }
+
+        @Override
+        public int evaluate(final E message)
+        {
+            return toResult(_expression.evaluate(message));
+        }
+    }
+
+    private static final class CompiledExpression<E> implements BooleanExpression<E>
+    {
+        private final BooleanExpression<E> _expression;
+        private final Node<E> _node;
+
+        private CompiledExpression(final BooleanExpression<E> expression, final Node<E> node)
+        {
+            _expression = expression;
+            _node = node;
+        }
+
+        @Override
+        public boolean matches(final E message)
+        {
+            return _node.evaluate(message) == TRUE;
+        }
+
+        @Override
+        public Object evaluate(final E message)
+        {
+            switch (_node.evaluate(message))
+            {
+                case TRUE:
+                    return Boolean.TRUE;
+                case FALSE:
+                    return Boolean.FALSE;
+                default:
+                    return null;
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return _expression.toString();
+        }
+    }
+}
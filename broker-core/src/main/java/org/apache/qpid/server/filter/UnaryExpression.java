@@ -215,7 +215,7 @@ public abstract class UnaryExpression<T> implements Expression<T>
         }
     }
 
-    private static class InExpression<E> extends BooleanUnaryExpression<E>
+    static class InExpression<E> extends BooleanUnaryExpression<E>
     {
         private final Collection<?> _inList;
         private final boolean _not;
@@ -232,6 +232,16 @@ public abstract class UnaryExpression<T> implements Expression<T>
             _allowNonJms = allowNonJms;
         }
 
+        Collection<?> getInList()
+        {
+            return _inList;
+        }
+
+        boolean isNot()
+        {
+            return _not;
+        }
+
         @Override
         public Object evaluate(E expression)
         {
@@ -337,7 +347,7 @@ public abstract class UnaryExpression<T> implements Expression<T>
         }
     }
 
-    private static class NotExpression<E> extends BooleanUnaryExpression<E>
+    static class NotExpression<E> extends BooleanUnaryExpression<E>
     {
         public NotExpression(final BooleanExpression<E> left)
         {
@@ -363,7 +373,7 @@ public abstract class UnaryExpression<T> implements Expression<T>
         }
     }
 
-    private static class BooleanCastExpression<E> extends BooleanUnaryExpression<E>
+    static class BooleanCastExpression<E> extends BooleanUnaryExpression<E>
     {
         public BooleanCastExpression(final Expression<E> left)
         {
@@ -43,11 +43,15 @@ public abstract class AbstractServerMessageImpl<X extends AbstractServerMessageI
     private static final AtomicReferenceFieldUpdater<AbstractServerMessageImpl, Collection> _resourcesUpdater =
             AtomicReferenceFieldUpdater.newUpdater(AbstractServerMessageImpl.class, Collection.class,"_resources");
 
+    private static final AtomicReferenceFieldUpdater<AbstractServerMessageImpl, ConvertedMessageCache> _convertedMessageCacheUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(AbstractServerMessageImpl.class, ConvertedMessageCache.class, "_convertedMessageCache");
+
     private volatile int _referenceCount = 0;
     private final StoredMessage<T> _handle;
     private final Object _connectionReference;
     @SuppressWarnings("unused")
     private volatile Collection<UUID> _resources;
+    private volatile ConvertedMessageCache _convertedMessageCache;
 
 
     public AbstractServerMessageImpl(StoredMessage<T> handle, Object connectionReference)
@@ -116,6 +120,11 @@ public abstract class AbstractServerMessageImpl<X extends AbstractServerMessageI
                 if (updated)
                 {
                     _handle.remove();
+                    final ConvertedMessageCache convertedMessageCache = _convertedMessageCache;
+                    if (convertedMessageCache != null)
+                    {
+                        convertedMessageCache.close();
+                    }
                 }
             }
             else
@@ -127,6 +136,33 @@ public abstract class AbstractServerMessageImpl<X extends AbstractServerMessageI
         while (!updated);
     }
 
+    /**
+     * Returns the cache of conversions of this message into other formats, creating it if requested, or null if the
+     * message has already been deleted.
+     */
+    ConvertedMessageCache getConvertedMessageCache(final boolean create)
+    {
+        ConvertedMessageCache cache = _convertedMessageCache;
+        if (cache == null && create)
+        {
+            if (_refCountUpdater.get(this) < 0)
+            {
+                return null;
+            }
+            cache = new ConvertedMessageCache();
+            if (!_convertedMessageCacheUpdater.compareAndSet(this, null, cache))
+            {
+                cache = _convertedMessageCache;
+            }
+            else if (_refCountUpdater.get(this) < 0)
+            {
+                // the message was deleted concurrently and may not have seen the new cache
+                cache.close();
+            }
+        }
+        return cache;
+    }
+
     public String debugIdentity()
     {
         return "(HC:" + System.identityHashCode(this) + " ID:" + getMessageNumber() + " Ref:" + getReferenceCount() + ")";
@@ -163,6 +199,16 @@ public abstract class AbstractServerMessageImpl<X extends AbstractServerMessageI
         return resources != null && !resources.isEmpty();
     }
 
+    @Override
+    final public boolean isReferencedOnlyBy(TransactionLogResource resource)
+    {
+        Collection<UUID> resources = _resources;
+        return _referenceCount == 1
+               && resources != null
+               && resources.size() == 1
+               && resources.contains(resource.getId());
+    }
+
     @Override
     final public boolean isPersistent()
     {
@@ -0,0 +1,263 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.message;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.apache.qpid.server.model.NamedAddressSpace;
+import org.apache.qpid.server.plugin.MessageConverter;
+
+/**
+ * Holds the representations of a message converted into other formats so that delivering the message to many
+ * consumers of another protocol converts it only once per target format.
+ * <p>
+ * Each cached {@link Conversion} is reference counted: the cache holds one reference until the original message is
+ * deleted from the store, and every delivery holds one from {@link #convert} until it calls
+ * {@link Conversion#release()}. The converter disposes of the converted message when the last reference is released.
+ * <p>
+ * Other representations derived from the message, such as a compressed copy of its content, may be held in the same
+ * way through {@link #getOrCreate}.
+ */
+public final class ConvertedMessageCache
+{
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static volatile boolean _enabled;
+
+    private final ConcurrentMap<Object, Conversion<?>> _conversions =
+            new ConcurrentHashMap<>(4);
+    private volatile boolean _closed;
+
+    ConvertedMessageCache()
+    {
+    }
+
+    public static void setEnabled(final boolean enabled)
+    {
+        _enabled = enabled;
+    }
+
+    public static boolean isEnabled()
+    {
+        return _enabled;
+    }
+
+    public static long getHits()
+    {
+        return HITS.get();
+    }
+
+    public static long getMisses()
+    {
+        return MISSES.get();
+    }
+
+    /**
+     * Converts the given message, sharing the result with other deliveries of the same message to the same address
+     * space when the cache is enabled. The caller must release the returned conversion once it no longer needs the
+     * converted message.
+     */
+    public static <M extends ServerMessage, N extends ServerMessage> Conversion<N> convert(final MessageConverter<? super M, N> converter,
+                                                                                         final M message,
+                                                                                         final NamedAddressSpace addressSpace)
+    {
+        final ConvertedMessageCache cache = _enabled ? getCache(message, true) : null;
+        if (cache != null)
+        {
+            return cache.getConversion(converter, message, addressSpace);
+        }
+        return new Conversion<>(converter::dispose, converter.convert(message, addressSpace), addressSpace, 1);
+    }
+
+    /**
+     * Returns the representation of the given message identified by key, creating it with the factory if the message
+     * does not hold one yet. A newly created representation is retained by the message only if it satisfies the
+     * given predicate. Returns null if the factory returns null. The caller must release the returned conversion
+     * once it no longer needs the representation.
+     */
+    public static <N> Conversion<N> getOrCreate(final ServerMessage<?> message,
+                                                final Object key,
+                                                final Supplier<N> factory,
+                                                final Predicate<? super N> retain,
+                                                final Consumer<? super N> disposer)
+    {
+        final Conversion<N> cached = getIfPresent(message, key);
+        if (cached != null)
+        {
+            return cached;
+        }
+        final N created = factory.get();
+        if (created == null)
+        {
+            return null;
+        }
+        final ConvertedMessageCache cache = retain.test(created) ? getCache(message, true) : null;
+        return cache == null ? new Conversion<>(disposer, created, null, 1) : cache.put(key, created, null, disposer);
+    }
+
+    /**
+     * Returns the representation of the given message identified by key if the message holds one, otherwise null.
+     */
+    public static <N> Conversion<N> getIfPresent(final ServerMessage<?> message, final Object key)
+    {
+        final ConvertedMessageCache cache = getCache(message, false);
+        if (cache != null)
+        {
+            @SuppressWarnings("unchecked")
+            final Conversion<N> cached = (Conversion<N>) cache._conversions.get(key);
+            if (cached != null && cached.acquire())
+            {
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    private static ConvertedMessageCache getCache(final ServerMessage<?> message, final boolean create)
+    {
+        return message instanceof AbstractServerMessageImpl
+                ? ((AbstractServerMessageImpl<?, ?>) message).getConvertedMessageCache(create)
+                : null;
+    }
+
+    private <M extends ServerMessage, N extends ServerMessage> Conversion<N> getConversion(final MessageConverter<? super M, N> converter,
+                                                                                         final M message,
+                                                                                         final NamedAddressSpace addressSpace)
+    {
+        final Class<N> outputClass = converter.getOutputClass();
+        @SuppressWarnings("unchecked")
+        final Conversion<N> cached = (Conversion<N>) _conversions.get(outputClass);
+        if (cached != null && cached.getAddressSpace() == addressSpace && cached.acquire())
+        {
+            HITS.incrementAndGet();
+            return cached;
+        }
+
+        MISSES.incrementAndGet();
+        final N converted = converter.convert(message, addressSpace);
+        if (cached == null)
+        {
+            return put(outputClass, converted, addressSpace, converter::dispose);
+        }
+        return new Conversion<>(converter::dispose, converted, addressSpace, 1);
+    }
+
+    private <N> Conversion<N> put(final Object key,
+                                  final N converted,
+                                  final NamedAddressSpace addressSpace,
+                                  final Consumer<? super N> disposer)
+    {
+        if (!_closed)
+        {
+            // one reference is held by the cache and one by the caller
+            final Conversion<N> conversion = new Conversion<>(disposer, converted, addressSpace, 2);
+            if (_conversions.putIfAbsent(key, conversion) == null)
+            {
+                if (_closed && _conversions.remove(key, conversion))
+                {
+                    conversion.release();
+                }
+                return conversion;
+            }
+        }
+        return new Conversion<>(disposer, converted, addressSpace, 1);
+    }
+
+    int getSize()
+    {
+        return _conversions.size();
+    }
+
+    /**
+     * Releases the references held by the cache. Called when the original message is deleted; conversions still in
+     * use by deliveries are disposed of when those deliveries release them.
+     */
+    void close()
+    {
+        _closed = true;
+        for (Map.Entry<Object, Conversion<?>> entry : _conversions.entrySet())
+        {
+            if (_conversions.remove(entry.getKey(), entry.getValue()))
+            {
+                entry.getValue().release();
+            }
+        }
+    }
+
+    public static final class Conversion<N>
+    {
+        private final Consumer<? super N> _disposer;
+        private final N _message;
+        private final NamedAddressSpace _addressSpace;
+        private final AtomicInteger _references;
+
+        private Conversion(final Consumer<? super N> disposer,
+                           final N message,
+                           final NamedAddressSpace addressSpace,
+                           final int references)
+        {
+            _disposer = disposer;
+            _message = message;
+            _addressSpace = addressSpace;
+            _references = new AtomicInteger(references);
+        }
+
+        public N getMessage()
+        {
+            return _message;
+        }
+
+        private NamedAddressSpace getAddressSpace()
+        {
+            return _addressSpace;
+        }
+
+        private boolean acquire()
+        {
+            int references;
+            do
+            {
+                references = _references.get();
+                if (references <= 0)
+                {
+                    return false;
+                }
+            }
+            while (!_references.compareAndSet(references, references + 1));
+            return true;
+        }
+
+        public void release()
+        {
+            if (_references.decrementAndGet() == 0)
+            {
+                _disposer.accept(_message);
+            }
+        }
+    }
+}
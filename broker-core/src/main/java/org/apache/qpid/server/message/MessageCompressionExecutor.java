@@ -0,0 +1,147 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.message;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.util.DaemonThreadFactory;
+
+/**
+ * Runs tasks which compress message content off the IO threads. The broker owns a single instance, sized from its
+ * context, and shuts it down when it closes. At most one task is queued or running for a message at any time.
+ */
+public final class MessageCompressionExecutor
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageCompressionExecutor.class);
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private final ThreadPoolExecutor _executor;
+    private final Set<ServerMessage<?>> _pendingMessages = ConcurrentHashMap.newKeySet();
+
+    public MessageCompressionExecutor(final String threadName, final int threadCount)
+    {
+        _executor = new ThreadPoolExecutor(threadCount,
+                                           threadCount,
+                                           60L,
+                                           TimeUnit.SECONDS,
+                                           new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+                                           QpidByteBuffer.createQpidByteBufferTrackingThreadFactory(new DaemonThreadFactory(threadName)));
+        _executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs the task on a compression thread, holding a reference to the message until the task completes. Does
+     * nothing if a task for the message is already pending, if the message has been deleted, or if the executor is
+     * saturated or shut down.
+     */
+    public void execute(final ServerMessage<?> message, final Runnable task)
+    {
+        if (_pendingMessages.add(message))
+        {
+            final MessageReference<?> reference;
+            try
+            {
+                reference = message.newReference();
+            }
+            catch (MessageDeletedException e)
+            {
+                _pendingMessages.remove(message);
+                return;
+            }
+
+            final CompressionTask compressionTask = new CompressionTask(message, reference, task);
+            try
+            {
+                _executor.execute(compressionTask);
+            }
+            catch (RejectedExecutionException e)
+            {
+                LOGGER.debug("Compression pool is saturated or shut down, message will be sent uncompressed");
+                compressionTask.release();
+            }
+        }
+    }
+
+    /**
+     * Stops the compression threads, discarding the tasks which have not started yet.
+     */
+    public void shutdown()
+    {
+        for (Runnable task : _executor.shutdownNow())
+        {
+            ((CompressionTask) task).release();
+        }
+    }
+
+    public boolean isShutdown()
+    {
+        return _executor.isShutdown();
+    }
+
+    public int getThreadCount()
+    {
+        return _executor.getMaximumPoolSize();
+    }
+
+    private final class CompressionTask implements Runnable
+    {
+        private final ServerMessage<?> _message;
+        private final MessageReference<?> _reference;
+        private final Runnable _task;
+
+        private CompressionTask(final ServerMessage<?> message,
+                                final MessageReference<?> reference,
+                                final Runnable task)
+        {
+            _message = message;
+            _reference = reference;
+            _task = task;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                _task.run();
+            }
+            finally
+            {
+                release();
+            }
+        }
+
+        private void release()
+        {
+            _pendingMessages.remove(_message);
+            _reference.release();
+        }
+    }
+}
@@ -38,6 +38,11 @@ public interface MessageInstanceConsumer<T extends ConsumerTarget>
 
     MessageContainer pullMessage();
 
+    /**
+     * @return the maximum number of messages the target may pull from this consumer and send in one pass
+     */
+    int getDeliveryBatchSize();
+
     T getTarget();
 
     void setNotifyWorkDesired(boolean desired);
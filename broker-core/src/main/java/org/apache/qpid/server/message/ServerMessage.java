@@ -55,6 +55,11 @@ public interface ServerMessage<T extends StorableMessageMetaData> extends Enqueu
 
     boolean isReferenced();
 
+    /**
+     * Returns true if the only outstanding reference to this message is the one held by the given resource.
+     */
+    boolean isReferencedOnlyBy(TransactionLogResource resource);
+
     long getArrivalTime();
 
     Object getConnectionReference();
@@ -297,6 +297,12 @@ public class InternalMessage extends AbstractServerMessageImpl<InternalMessage,
                     {
 
                     }
+
+                    @Override
+                    public boolean unload()
+                    {
+                        return false;
+                    }
                 };
             }
         }
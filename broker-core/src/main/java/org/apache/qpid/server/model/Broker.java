@@ -31,6 +31,7 @@ import java.util.concurrent.TimeUnit;
 import org.apache.qpid.server.configuration.CommonProperties;
 import org.apache.qpid.server.logging.EventLogger;
 import org.apache.qpid.server.logging.EventLoggerProvider;
+import org.apache.qpid.server.message.MessageCompressionExecutor;
 import org.apache.qpid.server.security.auth.SocketConnectionMetaData;
 import org.apache.qpid.server.stats.StatisticsGatherer;
 import org.apache.qpid.server.store.preferences.UserPreferencesCreator;
@@ -168,6 +169,13 @@ public interface Broker<X extends Broker<X>> extends ConfiguredObject<X>, EventL
     @ManagedContextDefault(name = MESSAGE_COMPRESSION_THRESHOLD_SIZE)
     int DEFAULT_MESSAGE_COMPRESSION_THRESHOLD_SIZE = 102400;
 
+    String BROKER_MESSAGE_COMPRESSION_THREAD_COUNT = "broker.messageCompressionThreadCount";
+    @ManagedContextDefault(name = BROKER_MESSAGE_COMPRESSION_THREAD_COUNT,
+            description = "Number of threads compressing message bodies off the IO threads. Only used when the"
+                          + " compression cache of AMQP 0-8..0-9-1 connections is enabled. Zero compresses on the"
+                          + " IO thread.")
+    int DEFAULT_MESSAGE_COMPRESSION_THREAD_COUNT = 0;
+
     String SEND_QUEUE_DELETE_OK_REGARDLESS_CLIENT_VER_REGEXP = "connection.sendQueueDeleteOkRegardlessClientVerRegexp";
     @ManagedContextDefault(name = SEND_QUEUE_DELETE_OK_REGARDLESS_CLIENT_VER_REGEXP)
     String DEFAULT_SEND_QUEUE_DELETE_OK_REGARDLESS_CLIENT_VER_REGEXP = "^0\\..*$";
@@ -180,6 +188,33 @@ public interface Broker<X extends Broker<X>> extends ConfiguredObject<X>, EventL
     @ManagedContextDefault(name = BROKER_DIRECT_BYTE_BUFFER_POOL_SPARSITY_REALLOCATION_FRACTION)
     double DEFAULT_BROKER_DIRECT_BYTE_BUFFER_POOL_SPARSITY_REALLOCATION_FRACTION = 0.5;
 
+    String BROKER_DIRECT_BYTE_BUFFER_POOL_SIZE_CLASSES = "broker.directByteBufferPoolSizeClasses";
+    @ManagedContextDefault(name = BROKER_DIRECT_BYTE_BUFFER_POOL_SIZE_CLASSES,
+            description = "Number of buffer size classes in the direct buffer pool. Each class holds buffers a"
+                          + " quarter the size of the previous one, starting at the network buffer size.")
+    int DEFAULT_BROKER_DIRECT_BYTE_BUFFER_POOL_SIZE_CLASSES = 3;
+
+    String BROKER_DIRECT_BYTE_BUFFER_POOL_THREAD_CACHE_SIZE = "broker.directByteBufferPoolThreadCacheSize";
+    @ManagedContextDefault(name = BROKER_DIRECT_BYTE_BUFFER_POOL_THREAD_CACHE_SIZE,
+            description = "Maximum number of unused direct buffers of each size class cached by each thread in front"
+                          + " of the shared pool. Cached buffers count towards the maximum pool size. Zero"
+                          + " disables the thread caches.")
+    int DEFAULT_BROKER_DIRECT_BYTE_BUFFER_POOL_THREAD_CACHE_SIZE = 16;
+
+    String BROKER_CONVERTED_MESSAGE_CACHE_ENABLED = "broker.convertedMessageCache.enabled";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = BROKER_CONVERTED_MESSAGE_CACHE_ENABLED,
+            description = "If true, a message converted for delivery to a consumer of another protocol keeps the"
+                          + " converted form until the message is deleted, so that further deliveries reuse it.")
+    boolean DEFAULT_BROKER_CONVERTED_MESSAGE_CACHE_ENABLED = false;
+
+    String BROKER_SHORT_STRING_INTERN_CACHE_SIZE = "broker.shortStringInternCacheSize";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = BROKER_SHORT_STRING_INTERN_CACHE_SIZE,
+            description = "Number of entries in the table used to share the exchange names, routing keys and other"
+                          + " short strings read from AMQP 0-8..0-9-1 frames. Zero disables sharing.")
+    int DEFAULT_BROKER_SHORT_STRING_INTERN_CACHE_SIZE = 4096;
+
     @ManagedAttribute(validValues = {"org.apache.qpid.server.model.BrokerImpl#getAvailableConfigurationEncrypters()"})
     String getConfidentialConfigurationEncryptionProvider();
 
@@ -294,12 +329,81 @@ public interface Broker<X extends Broker<X>> extends ConfiguredObject<X>, EventL
             description = "Number of unused direct memory buffers currently in the pool.")
     long getNumberOfBuffersInPool();
 
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE,
+            units = StatisticUnit.COUNT,
+            label = "Buffer Pool Hits",
+            description = "Number of direct memory buffers taken from the pool.")
+    long getBufferPoolHits();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE,
+            units = StatisticUnit.COUNT,
+            label = "Buffer Pool Misses",
+            description = "Number of direct memory buffers newly allocated because the pool was empty.")
+    long getBufferPoolMisses();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE,
+            units = StatisticUnit.COUNT,
+            label = "Buffer Pool Allocations",
+            description = "Number of direct memory buffers and buffer slices handed out by the pool.")
+    long getBufferPoolAllocations();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE,
+            units = StatisticUnit.COUNT,
+            label = "Converted Message Cache Hits",
+            description = "Number of deliveries that reused a message already converted to the consumer's protocol.")
+    long getConvertedMessageCacheHits();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE,
+            units = StatisticUnit.COUNT,
+            label = "Converted Message Cache Misses",
+            description = "Number of deliveries that converted a message to the consumer's protocol.")
+    long getConvertedMessageCacheMisses();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE,
+            units = StatisticUnit.COUNT,
+            label = "Short String Intern Cache Hits",
+            description = "Number of short strings read from AMQP 0-8..0-9-1 frames that reused a shared instance.")
+    long getShortStringInternCacheHits();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE,
+            units = StatisticUnit.COUNT,
+            label = "Short String Intern Cache Misses",
+            description = "Number of short strings read from AMQP 0-8..0-9-1 frames that were not found in the intern"
+                          + " table.")
+    long getShortStringInternCacheMisses();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE,
+            units = StatisticUnit.COUNT,
+            label = "Short String Intern Cache Evictions",
+            description = "Number of short strings displaced from the intern table by a different short string.")
+    long getShortStringInternCacheEvictions();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME,
+            units = StatisticUnit.BYTES,
+            label = "Buffer Pool Bytes Held",
+            description = "Capacity of the unused direct memory buffers currently held by the pool.")
+    long getBufferPoolBytesHeld();
+
     @ManagedOperation(nonModifying = true,
             description = "Restart the broker within the same JVM",
             changesConfiguredObjectState = false,
             log = true)
     void restart();
 
+    @ManagedOperation(nonModifying = true,
+            description = "Returns the statistics of each size class of the direct memory buffer pool",
+            changesConfiguredObjectState = false)
+    Map<String, Map<String, Long>> getBufferPoolSizeClassStatistics();
+
     @ManagedOperation(nonModifying = true,
             description = "Initiates garbage collection",
             changesConfiguredObjectState = false)
@@ -387,6 +491,12 @@ public interface Broker<X extends Broker<X>> extends ConfiguredObject<X>, EventL
 
     ScheduledFuture<?> scheduleTask(long delay, final TimeUnit unit, Runnable task);
 
+    /**
+     * @return the executor compressing message content off the IO threads, or null if content is compressed on the
+     * IO threads
+     */
+    MessageCompressionExecutor getMessageCompressionExecutor();
+
     @DerivedAttribute(description = "Threshold direct memory size (in bytes) at which the Broker will start flowing incoming messages to disk.")
     long getFlowToDiskThreshold();
 
@@ -30,6 +30,7 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +43,7 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
 import java.util.regex.Pattern;
 
 import javax.security.auth.Subject;
@@ -56,18 +58,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.apache.qpid.server.BrokerPrincipal;
+import org.apache.qpid.server.bytebuffer.BufferPoolStatistics;
 import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
 import org.apache.qpid.server.configuration.CommonProperties;
 import org.apache.qpid.server.configuration.IllegalConfigurationException;
 import org.apache.qpid.server.configuration.updater.TaskExecutor;
 import org.apache.qpid.server.configuration.updater.TaskExecutorImpl;
 import org.apache.qpid.server.logging.messages.BrokerMessages;
+import org.apache.qpid.server.message.ConvertedMessageCache;
+import org.apache.qpid.server.message.MessageCompressionExecutor;
 import org.apache.qpid.server.model.preferences.Preference;
 import org.apache.qpid.server.model.preferences.UserPreferences;
 import org.apache.qpid.server.model.preferences.UserPreferencesImpl;
 import org.apache.qpid.server.plugin.QpidServiceLoader;
 import org.apache.qpid.server.plugin.SystemAddressSpaceCreator;
 import org.apache.qpid.server.plugin.SystemNodeCreator;
+import org.apache.qpid.server.protocol.v0_8.AMQShortString;
 import org.apache.qpid.server.security.AccessControl;
 import org.apache.qpid.server.security.CompoundAccessControl;
 import org.apache.qpid.server.security.Result;
@@ -136,6 +142,7 @@ public class BrokerImpl extends AbstractContainer<BrokerImpl> implements Broker<
     private ConfigurationChangeListener _accessControlProviderListener = new AccessControlProviderListener();
     private final AccessControl _accessControl;
     private TaskExecutor _preferenceTaskExecutor;
+    private volatile MessageCompressionExecutor _messageCompressionExecutor;
     private String _documentationUrl;
     private long _compactMemoryThreshold;
     private long _compactMemoryInterval;
@@ -198,8 +205,12 @@ public class BrokerImpl extends AbstractContainer<BrokerImpl> implements Broker<
 
         _sparsityFraction = getContextValue(Double.class, BROKER_DIRECT_BYTE_BUFFER_POOL_SPARSITY_REALLOCATION_FRACTION);
         int poolSize = getContextValue(Integer.class, BROKER_DIRECT_BYTE_BUFFER_POOL_SIZE);
+        int sizeClasses = getContextValue(Integer.class, BROKER_DIRECT_BYTE_BUFFER_POOL_SIZE_CLASSES);
+        int threadCacheSize = getContextValue(Integer.class, BROKER_DIRECT_BYTE_BUFFER_POOL_THREAD_CACHE_SIZE);
 
-        QpidByteBuffer.initialisePool(_networkBufferSize, poolSize, _sparsityFraction);
+        QpidByteBuffer.initialisePool(_networkBufferSize, poolSize, _sparsityFraction, sizeClasses, threadCacheSize);
+        ConvertedMessageCache.setEnabled(getContextValue(Boolean.class, BROKER_CONVERTED_MESSAGE_CACHE_ENABLED));
+        AMQShortString.initialiseInternCache(getContextValue(Integer.class, BROKER_SHORT_STRING_INTERN_CACHE_SIZE));
     }
 
     @Override
@@ -417,6 +428,12 @@ public class BrokerImpl extends AbstractContainer<BrokerImpl> implements Broker<
         _houseKeepingTaskExecutor = new HousekeepingExecutor("broker-" + getName() + "-pool",
                                                              getHousekeepingThreadCount(),
                                                              getSystemTaskSubject("Housekeeping", _principal));
+        final int messageCompressionThreadCount = getContextValue(Integer.class, BROKER_MESSAGE_COMPRESSION_THREAD_COUNT);
+        if (messageCompressionThreadCount > 0)
+        {
+            _messageCompressionExecutor = new MessageCompressionExecutor("broker-" + getName() + "-compression",
+                                                                         messageCompressionThreadCount);
+        }
         initialiseStatisticsReporting();
 
         scheduleDirectMemoryCheck();
@@ -714,6 +731,7 @@ public class BrokerImpl extends AbstractContainer<BrokerImpl> implements Broker<
         }
 
         shutdownHouseKeeping();
+        shutdownMessageCompression();
 
         stopPreferenceTaskExecutor();
         closePreferenceStore();
@@ -893,6 +911,88 @@ public class BrokerImpl extends AbstractContainer<BrokerImpl> implements Broker<
         return QpidByteBuffer.getNumberOfBuffersInPool();
     }
 
+    @Override
+    public long getBufferPoolHits()
+    {
+        return getBufferPoolStatistic(BufferPoolStatistics::getHits);
+    }
+
+    @Override
+    public long getBufferPoolMisses()
+    {
+        return getBufferPoolStatistic(BufferPoolStatistics::getMisses);
+    }
+
+    @Override
+    public long getBufferPoolAllocations()
+    {
+        return getBufferPoolStatistic(BufferPoolStatistics::getAllocations);
+    }
+
+    @Override
+    public long getConvertedMessageCacheHits()
+    {
+        return ConvertedMessageCache.getHits();
+    }
+
+    @Override
+    public long getConvertedMessageCacheMisses()
+    {
+        return ConvertedMessageCache.getMisses();
+    }
+
+    @Override
+    public long getShortStringInternCacheHits()
+    {
+        return AMQShortString.getInternCacheHits();
+    }
+
+    @Override
+    public long getShortStringInternCacheMisses()
+    {
+        return AMQShortString.getInternCacheMisses();
+    }
+
+    @Override
+    public long getShortStringInternCacheEvictions()
+    {
+        return AMQShortString.getInternCacheEvictions();
+    }
+
+    @Override
+    public long getBufferPoolBytesHeld()
+    {
+        return getBufferPoolStatistic(BufferPoolStatistics::getBytesHeld);
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> getBufferPoolSizeClassStatistics()
+    {
+        final Map<String, Map<String, Long>> sizeClassStatistics = new LinkedHashMap<>();
+        for (BufferPoolStatistics statistics : QpidByteBuffer.getBufferPoolStatistics())
+        {
+            final Map<String, Long> values = new LinkedHashMap<>();
+            values.put("hits", statistics.getHits());
+            values.put("threadCacheHits", statistics.getThreadCacheHits());
+            values.put("misses", statistics.getMisses());
+            values.put("allocations", statistics.getAllocations());
+            values.put("buffersHeld", statistics.getBuffersHeld());
+            values.put("bytesHeld", statistics.getBytesHeld());
+            sizeClassStatistics.put(String.valueOf(statistics.getBufferSize()), values);
+        }
+        return sizeClassStatistics;
+    }
+
+    private long getBufferPoolStatistic(final ToLongFunction<BufferPoolStatistics> statistic)
+    {
+        long total = 0;
+        for (BufferPoolStatistics statistics : QpidByteBuffer.getBufferPoolStatistics())
+        {
+            total += statistic.applyAsLong(statistics);
+        }
+        return total;
+    }
+
     @Override
     public long getMessagesIn()
     {
@@ -1115,6 +1215,22 @@ public class BrokerImpl extends AbstractContainer<BrokerImpl> implements Broker<
         }
     }
 
+    private void shutdownMessageCompression()
+    {
+        final MessageCompressionExecutor messageCompressionExecutor = _messageCompressionExecutor;
+        if (messageCompressionExecutor != null)
+        {
+            _messageCompressionExecutor = null;
+            messageCompressionExecutor.shutdown();
+        }
+    }
+
+    @Override
+    public MessageCompressionExecutor getMessageCompressionExecutor()
+    {
+        return _messageCompressionExecutor;
+    }
+
     @Override
     public long getCompactMemoryThreshold()
     {
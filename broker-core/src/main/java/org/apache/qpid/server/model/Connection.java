@@ -142,6 +142,16 @@ public interface Connection<X extends Connection<X>> extends ConfiguredObject<X>
                       description = "Time of last I/O operation performed by this connection.")
     Date getLastIoTime();
 
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.TIME_DURATION, label = "Scheduling wait",
+                      description = "Total time this connection has waited between becoming ready and an IO thread starting work on it.")
+    long getSchedulingWaitTime();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Maximum scheduling wait",
+                      description = "Longest time this connection has waited between becoming ready and an IO thread starting work on it.")
+    long getMaximumSchedulingWaitTime();
+
     @SuppressWarnings("unused")
     @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Sessions",
                       description = "Current number of sessions belonging to this connection.")
@@ -38,6 +38,7 @@ import org.apache.qpid.server.queue.CreatingLinkInfo;
 import org.apache.qpid.server.queue.MessageGroupType;
 import org.apache.qpid.server.queue.NotificationCheck;
 import org.apache.qpid.server.queue.QueueConsumer;
+import org.apache.qpid.server.queue.QueueConsumerManagerType;
 import org.apache.qpid.server.queue.QueueEntry;
 import org.apache.qpid.server.queue.QueueEntryIterator;
 import org.apache.qpid.server.queue.QueueEntryVisitor;
@@ -94,6 +95,49 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>,
     int DEFAULT_QUEUE_SCAVANGE_COUNT = 100;
 
 
+    String QUEUE_DELIVERY_BATCH_SIZE = "qpid.queue.deliveryBatchSize";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault( name = QUEUE_DELIVERY_BATCH_SIZE,
+            description = "The maximum number of messages a consumer with sufficient credit takes from the queue and"
+                          + " sends in a single delivery pass before the output is flushed.")
+    int DEFAULT_QUEUE_DELIVERY_BATCH_SIZE = 1;
+
+    String QUEUE_CONSUMER_MANAGER_TYPE = "qpid.queue.consumerManagerType";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault( name = QUEUE_CONSUMER_MANAGER_TYPE,
+            description = "The implementation used to track consumer interest. LINKED keeps consumers in lock-free"
+                          + " linked lists; STRIPED keeps them in priority bucketed bitsets and is intended for queues"
+                          + " with thousands of competing consumers.")
+    QueueConsumerManagerType DEFAULT_QUEUE_CONSUMER_MANAGER_TYPE = QueueConsumerManagerType.LINKED;
+
+    String QUEUE_CONSUMER_SELECTOR_INDEX_ENABLED = "qpid.queue.consumerSelectorIndex.enabled";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault( name = QUEUE_CONSUMER_SELECTOR_INDEX_ENABLED,
+            description = "If true, consumers are indexed by the values their JMS selectors require of a message"
+                          + " property (e.g. region = 'EMEA' or region IN ('EMEA', 'APAC')) so that a newly enqueued"
+                          + " message is offered only to the consumers whose selectors could match it.")
+    boolean DEFAULT_QUEUE_CONSUMER_SELECTOR_INDEX_ENABLED = true;
+
+    String QUEUE_COMPACT_ENTRY_LIST_IN_MEMORY_WINDOW = "qpid.queue.compactEntryList.inMemoryWindow";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault( name = QUEUE_COMPACT_ENTRY_LIST_IN_MEMORY_WINDOW,
+            description = "If greater than zero, a standard queue holds at most approximately this many entries from"
+                          + " its head in memory. Beyond that, runs of persistent messages that have not yet been"
+                          + " delivered and do not expire are kept as compact off-heap records, and are reloaded from"
+                          + " the message store by the virtual host's housekeeping threads as the head of the queue"
+                          + " approaches them. Not applied to queues using message groups. Intended for very deep"
+                          + " queues.")
+    int DEFAULT_QUEUE_COMPACT_ENTRY_LIST_IN_MEMORY_WINDOW = 0;
+
+    String QUEUE_EXPIRY_INDEX_ENABLED = "qpid.queue.expiryIndex.enabled";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault( name = QUEUE_EXPIRY_INDEX_ENABLED,
+            description = "If true, entries with a time-to-live are indexed by expiration as they are enqueued so that"
+                          + " housekeeping visits only the entries that have become due, rather than every entry on"
+                          + " the queue. The index is bypassed while the queue holds messages back or has overflow"
+                          + " policy checks that need the full walk.")
+    boolean DEFAULT_QUEUE_EXPIRY_INDEX_ENABLED = false;
+
     String MIME_TYPE_TO_FILE_EXTENSION = "qpid.mimeTypeToFileExtension";
     @SuppressWarnings("unused")
     @ManagedContextDefault(name = MIME_TYPE_TO_FILE_EXTENSION, description = "A mapping of MIME types to file extensions.")
@@ -354,6 +398,16 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>,
                       description = "Current number of consumers attached to this queue with credit")
     int getConsumerCountWithCredit();
 
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Consumer state transitions",
+                      description = "Total number of changes in the interest or notification state of this queue's consumers.")
+    long getConsumerStateTransitions();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Contended consumer state transitions",
+                      description = "Total number of retries caused by concurrent updates to the consumer state of this queue.")
+    long getContendedConsumerStateTransitions();
+
     @SuppressWarnings("unused")
     @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.BYTES, label = "Delivered (Persistent)",
                       description = "Total size of all persistent messages delivered by this queue.")
@@ -460,6 +514,26 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>,
                       description = "Current age of oldest message on the queue.")
     long getOldestMessageAge();
 
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.TIME_DURATION, label = "Expiry Sweep Time",
+                      description = "Total time spent by housekeeping checking the queue for expired messages.")
+    long getExpirySweepTime();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Expiry Sweeps",
+                      description = "Number of times housekeeping has checked the queue for expired messages.")
+    long getExpirySweepCount();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Expiry Sweep Entries Visited",
+                      description = "Number of queue entries visited by the last expiry check.")
+    long getExpirySweepEntriesVisited();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.MESSAGES, label = "Expiry Sweep Messages Expired",
+                      description = "Number of messages expired by the last expiry check.")
+    long getExpirySweepMessagesExpired();
+
     @ManagedOperation(description = "move messages from this queue to another", changesConfiguredObjectState = false)
     List<Long> moveMessages(@Param(name = "destination", description = "The queue to which the messages should be moved", mandatory = true) Queue<?> destination,
                             @Param(name = "messageIds", description = "If provided, only messages in the queue whose (internal) message-id is supplied will be considered for moving") List<Long> messageIds,
@@ -552,5 +626,9 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>,
 
     QueueEntry getLeastSignificantOldestEntry();
 
+    /**
+     * Returns an iterator over the entries the queue holds in memory, skipping any the queue holds only in compact
+     * form, whose messages are already on disk.
+     */
     QueueEntryIterator queueEntryIterator();
 }
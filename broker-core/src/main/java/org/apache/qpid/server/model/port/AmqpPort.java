@@ -37,6 +37,7 @@ import org.apache.qpid.server.model.StatisticType;
 import org.apache.qpid.server.model.StatisticUnit;
 import org.apache.qpid.server.model.Transport;
 import org.apache.qpid.server.plugin.ConnectionPropertyEnricher;
+import org.apache.qpid.server.transport.NetworkConnectionSchedulerType;
 
 @ManagedObject( category = false, type = "AMQP", amqpName = "org.apache.qpid.AmqpPort")
 public interface AmqpPort<X extends AmqpPort<X>> extends Port<X>
@@ -57,6 +58,7 @@ public interface AmqpPort<X extends AmqpPort<X>> extends Port<X>
 
     String PORT_AMQP_NUMBER_OF_SELECTORS = "qpid.port.amqp.threadPool.numberOfSelectors";
     String PORT_AMQP_ACCEPT_BACKLOG = "qpid.port.amqp.acceptBacklog";
+    String PORT_AMQP_THREAD_POOL_SCHEDULER_TYPE = "qpid.port.amqp.threadPool.schedulerType";
 
     @ManagedContextDefault(name = DEFAULT_AMQP_PROTOCOLS)
     String INSTALLED_PROTOCOLS = AmqpPortImpl.getInstalledProtocolsAsString();
@@ -78,6 +80,12 @@ public interface AmqpPort<X extends AmqpPort<X>> extends Port<X>
     @ManagedContextDefault(name = PORT_AMQP_NUMBER_OF_SELECTORS)
     long DEFAULT_PORT_AMQP_NUMBER_OF_SELECTORS = Math.max(DEFAULT_PORT_AMQP_THREAD_POOL_SIZE / 8, 1);
 
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = PORT_AMQP_THREAD_POOL_SCHEDULER_TYPE,
+            description = "How the port's IO threads share work: SHARED_QUEUE (a single run-queue) or WORK_STEALING"
+                          + " (a run-queue per thread with work-stealing).")
+    NetworkConnectionSchedulerType DEFAULT_PORT_AMQP_THREAD_POOL_SCHEDULER_TYPE = NetworkConnectionSchedulerType.SHARED_QUEUE;
+
     @SuppressWarnings("unused")
     @ManagedContextDefault(name = PORT_AMQP_ACCEPT_BACKLOG)
     int DEFAULT_PORT_AMQP_ACCEPT_BACKLOG = 1024;
@@ -167,6 +175,56 @@ public interface AmqpPort<X extends AmqpPort<X>> extends Port<X>
                       description = "Current number of connections made through this port")
     int getConnectionCount();
 
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "IO passes",
+                      description = "Total number of passes of IO work performed on connections by the port's IO threads.")
+    long getIoPassCount();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Scheduling delay median (us)",
+                      description = "Median time in microseconds between a connection becoming ready and one of the port's IO threads starting work on it.")
+    long getSchedulingDelayMedian();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Scheduling delay 99th percentile (us)",
+                      description = "99th percentile of the time in microseconds between a connection becoming ready and one of the port's IO threads starting work on it.")
+    long getSchedulingDelay99thPercentile();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Scheduling delay maximum (us)",
+                      description = "Longest time in microseconds between a connection becoming ready and one of the port's IO threads starting work on it.")
+    long getSchedulingDelayMaximum();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "IO pass duration median (us)",
+                      description = "Median duration in microseconds of a pass of IO work on a connection of the port.")
+    long getIoPassDurationMedian();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "IO pass duration 99th percentile (us)",
+                      description = "99th percentile of the duration in microseconds of a pass of IO work on a connection of the port.")
+    long getIoPassDuration99thPercentile();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "IO pass duration maximum (us)",
+                      description = "Longest duration in microseconds of a pass of IO work on a connection of the port.")
+    long getIoPassDurationMaximum();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.BYTES, label = "IO pass bytes median",
+                      description = "Median number of bytes read and written in a pass of IO work on a connection of the port.")
+    long getIoPassBytesMedian();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.BYTES, label = "IO pass bytes 99th percentile",
+                      description = "99th percentile of the number of bytes read and written in a pass of IO work on a connection of the port.")
+    long getIoPassBytes99thPercentile();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.BYTES, label = "IO pass bytes maximum",
+                      description = "Largest number of bytes read and written in a pass of IO work on a connection of the port.")
+    long getIoPassBytesMaximum();
+
     @DerivedAttribute(description = "Maximum time allowed for a new connection to send a protocol header."
                                     + " If the connection does not send a protocol header within this time,"
                                     + " the connection will be aborted.")
@@ -33,6 +33,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSessionContext;
@@ -67,6 +68,7 @@ import org.apache.qpid.server.plugin.ProtocolEngineCreator;
 import org.apache.qpid.server.plugin.QpidServiceLoader;
 import org.apache.qpid.server.plugin.TransportProviderFactory;
 import org.apache.qpid.server.transport.AcceptingTransport;
+import org.apache.qpid.server.transport.NetworkConnectionScheduler;
 import org.apache.qpid.server.transport.PortBindFailureException;
 import org.apache.qpid.server.transport.TransportProvider;
 import org.apache.qpid.server.transport.network.security.ssl.SSLUtil;
@@ -594,6 +596,78 @@ public class AmqpPortImpl extends AbstractPort<AmqpPortImpl> implements AmqpPort
         return _connectionCount.get();
     }
 
+    @Override
+    public long getIoPassCount()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getIoPassDuration().getCount());
+    }
+
+    @Override
+    public long getSchedulingDelayMedian()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getSchedulingDelay().getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getSchedulingDelay99thPercentile()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getSchedulingDelay().getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getSchedulingDelayMaximum()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getSchedulingDelay().getMaximum());
+    }
+
+    @Override
+    public long getIoPassDurationMedian()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getIoPassDuration().getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getIoPassDuration99thPercentile()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getIoPassDuration().getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getIoPassDurationMaximum()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getIoPassDuration().getMaximum());
+    }
+
+    @Override
+    public long getIoPassBytesMedian()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getIoPassBytes().getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getIoPassBytes99thPercentile()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getIoPassBytes().getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getIoPassBytesMaximum()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getIoPassBytes().getMaximum());
+    }
+
+    private long getSchedulerStatistic(final ToLongFunction<NetworkConnectionScheduler> statistic)
+    {
+        final NetworkConnectionScheduler scheduler = getNetworkConnectionScheduler();
+        return scheduler == null ? 0L : statistic.applyAsLong(scheduler);
+    }
+
+    private NetworkConnectionScheduler getNetworkConnectionScheduler()
+    {
+        final AcceptingTransport transport = _transport;
+        return transport == null ? null : transport.getNetworkConnectionScheduler();
+    }
+
     @Override
     public long getProtocolHandshakeTimeout()
     {
@@ -57,6 +57,11 @@ public final class AMQShortString implements Comparable<AMQShortString>
 
     public static final AMQShortString EMPTY_STRING = new AMQShortString((String)null);
 
+    public static final int DEFAULT_INTERN_CACHE_SIZE = 4096;
+
+    private static volatile AMQShortStringInternCache _internCache =
+            new AMQShortStringInternCache(DEFAULT_INTERN_CACHE_SIZE);
+
     public AMQShortString(byte[] data)
     {
         if (data == null)
@@ -151,6 +156,74 @@ public final class AMQShortString implements Comparable<AMQShortString>
     }
 
 
+    /**
+     * Reads a short string in the same way as {@link #readAMQShortString(QpidByteBuffer)}, but returns a
+     * shared instance if a short string with the same bytes has been read recently. Intended for names and
+     * keys that recur across frames, such as exchange names and routing keys.
+     */
+    public static AMQShortString readInternedAMQShortString(QpidByteBuffer buffer)
+    {
+        final AMQShortStringInternCache internCache = _internCache;
+        if (internCache == null)
+        {
+            return readAMQShortString(buffer);
+        }
+
+        int length = buffer.getUnsignedByte();
+        if(length == 0)
+        {
+            return null;
+        }
+        else
+        {
+            if(length > buffer.remaining())
+            {
+                throw new IllegalArgumentException("Cannot create AMQShortString with length "
+                                                   + length + " from a ByteBuffer with only "
+                                                   + buffer.remaining()
+                                                   + " bytes.");
+
+            }
+            return internCache.read(buffer, length);
+        }
+    }
+
+    /**
+     * Replaces the intern table used by {@link #readInternedAMQShortString(QpidByteBuffer)} with one of
+     * the given number of entries (rounded up to a power of two), discarding its statistics. A size of
+     * zero or less disables interning.
+     */
+    public static void initialiseInternCache(final int size)
+    {
+        _internCache = size > 0 ? new AMQShortStringInternCache(size) : null;
+    }
+
+    public static long getInternCacheHits()
+    {
+        final AMQShortStringInternCache internCache = _internCache;
+        return internCache == null ? 0L : internCache.getHits();
+    }
+
+    public static long getInternCacheMisses()
+    {
+        final AMQShortStringInternCache internCache = _internCache;
+        return internCache == null ? 0L : internCache.getMisses();
+    }
+
+    public static long getInternCacheEvictions()
+    {
+        final AMQShortStringInternCache internCache = _internCache;
+        return internCache == null ? 0L : internCache.getEvictions();
+    }
+
+    AMQShortString(final byte[] data, final int hashCode)
+    {
+        _data = data;
+        _offset = 0;
+        _length = data.length;
+        _hashCode = hashCode;
+    }
+
     public AMQShortString(byte[] data, final int offset, final int length)
     {
         if (length > MAX_LENGTH)
@@ -281,6 +354,22 @@ public final class AMQShortString implements Comparable<AMQShortString>
 
     }
 
+    boolean equals(final byte[] data, final int length)
+    {
+        if (length != _length)
+        {
+            return false;
+        }
+        for (int i = 0; i < length; i++)
+        {
+            if (_data[_offset + i] != data[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public int hashCode()
     {
@@ -0,0 +1,118 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.apache.qpid.server.protocol.v0_8;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
+
+/**
+ * Bounded intern table for short strings read from frames, so that the exchange names, routing keys and
+ * other names repeated in every frame of a busy connection share a single {@link AMQShortString} rather
+ * than each allocating a new one.
+ *
+ * The table is direct-mapped on the hash of the encoded bytes: a string whose slot holds a different
+ * string replaces it. Lookups compare the encoded bytes against the cached string so that no object is
+ * created on a hit.
+ */
+final class AMQShortStringInternCache
+{
+    private static final ThreadLocal<byte[]> SCRATCH =
+            ThreadLocal.withInitial(() -> new byte[AMQShortString.MAX_LENGTH]);
+
+    private final AtomicReferenceArray<AMQShortString> _entries;
+    private final int _mask;
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+    private final LongAdder _evictions = new LongAdder();
+
+    AMQShortStringInternCache(final int size)
+    {
+        if (size <= 0)
+        {
+            throw new IllegalArgumentException("Intern cache size must be positive: " + size);
+        }
+        final int capacity = Integer.highestOneBit(Math.min(size, 1 << 30) * 2 - 1);
+        _entries = new AtomicReferenceArray<>(capacity);
+        _mask = capacity - 1;
+    }
+
+    /**
+     * Reads {@code length} bytes from the buffer, returning the cached short string with the same bytes
+     * if there is one.
+     */
+    AMQShortString read(final QpidByteBuffer buffer, final int length)
+    {
+        final byte[] scratch = SCRATCH.get();
+        buffer.get(scratch, 0, length);
+
+        int hash = 0;
+        for (int i = 0; i < length; i++)
+        {
+            hash = (31 * hash) + scratch[i];
+        }
+
+        final int index = spread(hash) & _mask;
+        final AMQShortString cached = _entries.get(index);
+        if (cached != null && cached.hashCode() == hash && cached.equals(scratch, length))
+        {
+            _hits.increment();
+            return cached;
+        }
+
+        _misses.increment();
+        final AMQShortString string = new AMQShortString(Arrays.copyOf(scratch, length), hash);
+        if (cached != null)
+        {
+            _evictions.increment();
+        }
+        _entries.lazySet(index, string);
+        return string;
+    }
+
+    int getCapacity()
+    {
+        return _entries.length();
+    }
+
+    long getHits()
+    {
+        return _hits.sum();
+    }
+
+    long getMisses()
+    {
+        return _misses.sum();
+    }
+
+    long getEvictions()
+    {
+        return _evictions.sum();
+    }
+
+    private static int spread(final int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+}
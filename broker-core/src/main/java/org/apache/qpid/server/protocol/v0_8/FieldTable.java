@@ -21,6 +21,7 @@
 package org.apache.qpid.server.protocol.v0_8;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -43,10 +44,21 @@ public class FieldTable
     private static final Logger LOGGER = LoggerFactory.getLogger(FieldTable.class);
     private static final String STRICT_AMQP_NAME = "STRICT_AMQP";
     private static final boolean STRICT_AMQP = Boolean.valueOf(System.getProperty(STRICT_AMQP_NAME, "false"));
+    private static final String INDEXED_DECODING_NAME = "qpid.fieldtable.indexed_decoding";
+    private static final boolean INDEXED_DECODING =
+            Boolean.valueOf(System.getProperty(INDEXED_DECODING_NAME, "true"));
 
     private QpidByteBuffer _encodedForm;
     private Map<AMQShortString, AMQTypedValue> _properties = null;
     private long _encodedSize;
+
+    // Index over the entries of the encoded form, allowing single properties to be looked up without decoding the
+    // whole table. Only used while the table is clean and no map has been populated.
+    private QpidByteBuffer _indexedForm;
+    private int _indexedEntryCount = -1;
+    private int[] _indexedKeyOffsets;
+    private int[] _indexedKeyHashes;
+    private AMQTypedValue[] _indexedValues;
     private static final int INITIAL_HASHMAP_CAPACITY = 16;
     private final boolean _strictAMQP;
 
@@ -105,6 +117,10 @@ public class FieldTable
                 {
                     return null;
                 }
+                else if (INDEXED_DECODING)
+                {
+                    return getIndexedProperty(findIndexedEntry(string));
+                }
                 else
                 {
                     populateFromBuffer();
@@ -124,6 +140,7 @@ public class FieldTable
 
     private void populateFromBuffer()
     {
+        clearIndex();
         try
         {
             setFromBuffer();
@@ -758,6 +775,13 @@ public class FieldTable
     public boolean itemExists(AMQShortString propertyName)
     {
         checkPropertyName(propertyName);
+        synchronized (this)
+        {
+            if (isIndexable())
+            {
+                return findIndexedEntry(propertyName) >= 0;
+            }
+        }
         initMapIfNecessary();
 
         return _properties.containsKey(propertyName);
@@ -859,6 +883,206 @@ public class FieldTable
 
     }
 
+    private boolean isIndexable()
+    {
+        return INDEXED_DECODING && _properties == null && _encodedForm != null;
+    }
+
+    private void clearIndex()
+    {
+        if (_indexedForm != null)
+        {
+            _indexedForm.dispose();
+            _indexedForm = null;
+        }
+        _indexedEntryCount = -1;
+        _indexedKeyOffsets = null;
+        _indexedKeyHashes = null;
+        _indexedValues = null;
+    }
+
+    /**
+     * Scans the encoded form once, recording where each key starts together with the hash of its bytes as
+     * {@link AMQShortString#hashCode()} would compute it. No keys or values are decoded. The scan works on a
+     * duplicate of the encoded form as the encoded form itself may be shared with copies of this table.
+     */
+    private void buildIndex()
+    {
+        final QpidByteBuffer indexedForm = _encodedForm.duplicate();
+        final int base = indexedForm.position();
+        final int limit = base + indexedForm.remaining();
+        int[] keyOffsets = new int[INITIAL_HASHMAP_CAPACITY];
+        int[] keyHashes = new int[INITIAL_HASHMAP_CAPACITY];
+        int count = 0;
+        try
+        {
+            int position = base;
+            while (position < limit)
+            {
+                final int keyLength = indexedForm.get(position) & 0xFF;
+                int hash = 0;
+                for (int i = 1; i <= keyLength; i++)
+                {
+                    hash = 31 * hash + indexedForm.get(position + i);
+                }
+                if (count == keyOffsets.length)
+                {
+                    keyOffsets = Arrays.copyOf(keyOffsets, count * 2);
+                    keyHashes = Arrays.copyOf(keyHashes, count * 2);
+                }
+                keyOffsets[count] = position;
+                keyHashes[count] = hash;
+                count++;
+
+                final int valuePosition = position + 1 + keyLength;
+                final AMQType type = AMQTypeMap.getType(indexedForm.get(valuePosition));
+                final long nextPosition = (long) valuePosition + 1 + getEncodedValueLength(indexedForm, type, valuePosition + 1);
+                if (nextPosition > limit)
+                {
+                    throw new IllegalArgumentException("Field table entries exceed encoded size of " + (limit - base));
+                }
+                position = (int) nextPosition;
+            }
+        }
+        catch (RuntimeException e)
+        {
+            indexedForm.dispose();
+            throw e;
+        }
+        _indexedForm = indexedForm;
+        _indexedKeyOffsets = keyOffsets;
+        _indexedKeyHashes = keyHashes;
+        _indexedValues = new AMQTypedValue[count];
+        _indexedEntryCount = count;
+    }
+
+    private static long getEncodedValueLength(final QpidByteBuffer buffer, final AMQType type, final int position)
+    {
+        switch (type)
+        {
+            case VOID:
+                return 0;
+            case BOOLEAN:
+            case ASCII_CHARACTER:
+            case BYTE:
+            case UNSIGNED_BYTE:
+                return 1;
+            case SHORT:
+            case UNSIGNED_SHORT:
+                return 2;
+            case INTEGER:
+            case INT:
+            case FLOAT:
+                return 4;
+            case DECIMAL:
+                return 5;
+            case TIMESTAMP:
+            case LONG:
+            case DOUBLE:
+                return 8;
+            default:
+                // strings, binaries, field tables and field arrays are prefixed by their length
+                return 4L + (buffer.getInt(position) & 0xFFFFFFFFL);
+        }
+    }
+
+    /**
+     * Returns the index of the entry with the given name, or -1. Where a name occurs more than once, the last entry
+     * is used, as when the table is decoded into a map.
+     */
+    private int findIndexedEntry(final AMQShortString name)
+    {
+        if (_indexedEntryCount < 0)
+        {
+            buildIndex();
+        }
+        final int hash = name.hashCode();
+        final int length = name.length();
+        for (int entry = _indexedEntryCount - 1; entry >= 0; entry--)
+        {
+            final int keyOffset = _indexedKeyOffsets[entry];
+            if (_indexedKeyHashes[entry] == hash && (_indexedForm.get(keyOffset) & 0xFF) == length)
+            {
+                int i = 0;
+                while (i < length && _indexedForm.get(keyOffset + 1 + i) == (byte) name.charAt(i))
+                {
+                    i++;
+                }
+                if (i == length)
+                {
+                    return entry;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int findIndexedEntry(final String name)
+    {
+        if (_indexedEntryCount < 0)
+        {
+            buildIndex();
+        }
+        final int length = name.length();
+        int hash = 0;
+        for (int i = 0; i < length; i++)
+        {
+            hash = 31 * hash + name.charAt(i);
+        }
+        for (int entry = _indexedEntryCount - 1; entry >= 0; entry--)
+        {
+            final int keyOffset = _indexedKeyOffsets[entry];
+            if (_indexedKeyHashes[entry] == hash && (_indexedForm.get(keyOffset) & 0xFF) == length)
+            {
+                int i = 0;
+                while (i < length && _indexedForm.get(keyOffset + 1 + i) == name.charAt(i))
+                {
+                    i++;
+                }
+                if (i == length)
+                {
+                    return entry;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isAscii(final String name)
+    {
+        final int length = name.length();
+        if (length > 255)
+        {
+            return false;
+        }
+        for (int i = 0; i < length; i++)
+        {
+            if (name.charAt(i) >= 0x80)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private AMQTypedValue getIndexedProperty(final int entry)
+    {
+        if (entry < 0)
+        {
+            return null;
+        }
+        AMQTypedValue value = _indexedValues[entry];
+        if (value == null)
+        {
+            final int keyOffset = _indexedKeyOffsets[entry];
+            final int valuePosition = keyOffset + 1 + (_indexedForm.get(keyOffset) & 0xFF);
+            _indexedForm.position(valuePosition);
+            value = AMQTypedValue.readFromBuffer(_indexedForm);
+            _indexedValues[entry] = value;
+        }
+        return value;
+    }
+
     public long getEncodedSize()
     {
         return _encodedSize;
@@ -961,6 +1185,7 @@ public class FieldTable
                     _properties = Collections.emptyMap();
                 }
             }
+            clearIndex();
 
             if (_encodedForm != null)
             {
@@ -972,7 +1197,12 @@ public class FieldTable
 
     public synchronized void reallocate()
     {
-        _encodedForm = QpidByteBuffer.reallocateIfNecessary(_encodedForm);
+        final QpidByteBuffer encodedForm = QpidByteBuffer.reallocateIfNecessary(_encodedForm);
+        if (encodedForm != _encodedForm)
+        {
+            clearIndex();
+        }
+        _encodedForm = encodedForm;
     }
 
 
@@ -1017,6 +1247,13 @@ public class FieldTable
 
     public boolean containsKey(AMQShortString key)
     {
+        synchronized (this)
+        {
+            if (key != null && isIndexable())
+            {
+                return findIndexedEntry(key) >= 0;
+            }
+        }
         initMapIfNecessary();
 
         return _properties.containsKey(key);
@@ -1024,6 +1261,13 @@ public class FieldTable
 
     public boolean containsKey(String key)
     {
+        synchronized (this)
+        {
+            if (key != null && isIndexable() && isAscii(key))
+            {
+                return findIndexedEntry(key) >= 0;
+            }
+        }
         return containsKey(AMQShortString.valueOf(key));
     }
 
@@ -1047,6 +1291,17 @@ public class FieldTable
 
     public Object get(String key)
     {
+        if (key != null && !key.isEmpty() && !_strictAMQP)
+        {
+            synchronized (this)
+            {
+                if (isIndexable() && isAscii(key))
+                {
+                    final AMQTypedValue value = getIndexedProperty(findIndexedEntry(key));
+                    return value == null ? null : value.getValue();
+                }
+            }
+        }
         return get(AMQShortString.valueOf(key));
     }
 
@@ -1123,10 +1378,7 @@ public class FieldTable
     {
         if (_encodedForm != null)
         {
-            byte[] encodedCopy = new byte[_encodedForm.remaining()];
-            _encodedForm.copyTo(encodedCopy);
-
-            buffer.put(encodedCopy);
+            buffer.putCopyOf(_encodedForm);
         }
         else if (_properties != null)
         {
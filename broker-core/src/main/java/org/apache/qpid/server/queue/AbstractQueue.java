@@ -47,6 +47,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.GZIPInputStream;
@@ -148,7 +149,9 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     private final QueueManagingVirtualHost<?> _virtualHost;
     private final DeletedChildListener _deletedChildListener = new DeletedChildListener();
 
-    private QueueConsumerManagerImpl _queueConsumerManager;
+    private volatile QueueConsumerManager _queueConsumerManager;
+    private volatile ConsumerSelectorIndex _consumerSelectorIndex;
+    private volatile ExpiryTimingWheel _expiryIndex;
 
     @ManagedAttributeField( beforeSet = "preSetAlternateBinding", afterSet = "postSetAlternateBinding")
     private AlternateBinding _alternateBinding;
@@ -268,6 +271,11 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     private long _flowToDiskThreshold;
     private volatile MessageDestination _alternateBindingDestination;
     private volatile MessageConversionExceptionHandlingPolicy _messageConversionExceptionHandlingPolicy;
+    private volatile int _deliveryBatchSize = 1;
+    private volatile long _expirySweepTime;
+    private volatile long _expirySweepCount;
+    private volatile long _expirySweepEntriesVisited;
+    private volatile long _expirySweepMessagesExpired;
 
     private interface HoldMethod
     {
@@ -277,7 +285,6 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     protected AbstractQueue(Map<String, Object> attributes, QueueManagingVirtualHost<?> virtualHost)
     {
         super(virtualHost, attributes);
-        _queueConsumerManager = new QueueConsumerManagerImpl(this);
 
         _virtualHost = virtualHost;
     }
@@ -502,6 +509,16 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
         _mimeTypeToFileExtension = getContextValue(Map.class, MAP_OF_STRING_STRING, MIME_TYPE_TO_FILE_EXTENSION);
         _messageConversionExceptionHandlingPolicy = getContextValue(MessageConversionExceptionHandlingPolicy.class, MESSAGE_CONVERSION_EXCEPTION_HANDLING_POLICY);
+        _deliveryBatchSize = Math.max(1, getContextValue(Integer.class, QUEUE_DELIVERY_BATCH_SIZE));
+        _queueConsumerManager = createQueueConsumerManager();
+        _consumerSelectorIndex = getContextValue(Boolean.class, QUEUE_CONSUMER_SELECTOR_INDEX_ENABLED)
+                ? new ConsumerSelectorIndex()
+                : null;
+        _expiryIndex = getContextValue(Boolean.class, QUEUE_EXPIRY_INDEX_ENABLED)
+                ? new ExpiryTimingWheel(ExpiryTimingWheel.DEFAULT_TICK_MILLIS,
+                                        ExpiryTimingWheel.DEFAULT_WHEEL_SIZE,
+                                        System.currentTimeMillis())
+                : null;
 
         _flowToDiskThreshold = getAncestor(Broker.class).getFlowToDiskThreshold();
 
@@ -1025,6 +1042,10 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         consumer.setQueueContext(queueContext);
 
         _queueConsumerManager.addConsumer(consumer);
+        if (_consumerSelectorIndex != null)
+        {
+            _consumerSelectorIndex.addConsumer(consumer, filters);
+        }
         if (consumer.isNotifyWorkDesired())
         {
             _activeSubscriberCount.incrementAndGet();
@@ -1067,6 +1088,10 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         }
 
         boolean removed = _queueConsumerManager.removeConsumer(consumer);
+        if (_consumerSelectorIndex != null)
+        {
+            _consumerSelectorIndex.removeConsumer(consumer);
+        }
 
         if (removed)
         {
@@ -1254,6 +1279,10 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     {
         final QueueEntry entry = getEntries().add(message, enqueueRecord);
         updateExpiration(entry);
+        if (_expiryIndex != null)
+        {
+            _expiryIndex.add((QueueEntryImpl) entry);
+        }
 
         try
         {
@@ -1427,6 +1456,18 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         return _activeSubscriberCount.get();
     }
 
+    @Override
+    public long getConsumerStateTransitions()
+    {
+        return _queueConsumerManager.getStateTransitionCount();
+    }
+
+    @Override
+    public long getContendedConsumerStateTransitions()
+    {
+        return _queueConsumerManager.getContendedStateTransitionCount();
+    }
+
     @Override
     public boolean isUnused()
     {
@@ -1527,6 +1568,30 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         return oldestMessageArrivalTime == 0 ? 0 : System.currentTimeMillis() - oldestMessageArrivalTime;
     }
 
+    @Override
+    public long getExpirySweepTime()
+    {
+        return _expirySweepTime / 1000000L;
+    }
+
+    @Override
+    public long getExpirySweepCount()
+    {
+        return _expirySweepCount;
+    }
+
+    @Override
+    public long getExpirySweepEntriesVisited()
+    {
+        return _expirySweepEntriesVisited;
+    }
+
+    @Override
+    public long getExpirySweepMessagesExpired()
+    {
+        return _expirySweepMessagesExpired;
+    }
+
     @Override
     public boolean isDeleted()
     {
@@ -1553,7 +1618,7 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     @Override
     public QueueEntryIterator queueEntryIterator()
     {
-        return getEntries().iterator();
+        return getEntries().residentIterator();
     }
 
     @Override
@@ -1580,7 +1645,18 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         return _queueStatistics;
     }
 
-    protected final QueueConsumerManagerImpl getQueueConsumerManager()
+    private QueueConsumerManager createQueueConsumerManager()
+    {
+        final QueueConsumerManagerType type =
+                getContextValue(QueueConsumerManagerType.class, QUEUE_CONSUMER_MANAGER_TYPE);
+        if (type == QueueConsumerManagerType.STRIPED)
+        {
+            return new StripedQueueConsumerManager();
+        }
+        return new QueueConsumerManagerImpl(this);
+    }
+
+    protected final QueueConsumerManager getQueueConsumerManager()
     {
         return _queueConsumerManager;
     }
@@ -1902,24 +1978,49 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
             }
         }
 
-        final Iterator<QueueConsumer<?,?>> interestedIterator = _queueConsumerManager.getInterestedIterator();
-        while (entry.isAvailable() && interestedIterator.hasNext())
+        final Iterator<QueueConsumer<?,?>> candidates =
+                _consumerSelectorIndex == null ? null : _consumerSelectorIndex.getCandidates(entry);
+        if (candidates != null)
         {
-            QueueConsumer<?,?> consumer = interestedIterator.next();
-            if(consumer.hasInterest(entry))
+            // only the consumers whose selectors could match the entry need be considered
+            while (entry.isAvailable() && candidates.hasNext())
             {
-                if(notifyConsumer(consumer))
+                QueueConsumer<?,?> consumer = candidates.next();
+                if (_queueConsumerManager.isInterested(consumer) && notifyInterestedConsumer(consumer, entry))
                 {
                     break;
                 }
-                else if(!noHigherPriorityWithCredit(consumer, entry))
-                {
-                    // there exists a higher priority consumer that would take this message, therefore no point in
-                    // continuing to loop
-                    break;
-                }
+            }
+            return;
+        }
+
+        final Iterator<QueueConsumer<?,?>> interestedIterator = _queueConsumerManager.getInterestedIterator();
+        while (entry.isAvailable() && interestedIterator.hasNext())
+        {
+            QueueConsumer<?,?> consumer = interestedIterator.next();
+            if (notifyInterestedConsumer(consumer, entry))
+            {
+                break;
+            }
+        }
+    }
+
+    private boolean notifyInterestedConsumer(final QueueConsumer<?,?> consumer, final QueueEntry entry)
+    {
+        if(consumer.hasInterest(entry))
+        {
+            if(notifyConsumer(consumer))
+            {
+                return true;
+            }
+            else if(!noHigherPriorityWithCredit(consumer, entry))
+            {
+                // there exists a higher priority consumer that would take this message, therefore no point in
+                // continuing to loop
+                return true;
             }
         }
+        return false;
     }
 
     void notifyOtherConsumers(final QueueConsumer<?,?> excludedConsumer)
@@ -1985,6 +2086,11 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         return messageContainer;
     }
 
+    int getDeliveryBatchSize()
+    {
+        return _deliveryBatchSize;
+    }
+
     private boolean hasAvailableMessages()
     {
         return _queueStatistics.getAvailableCount() != 0;
@@ -2133,8 +2239,7 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     @Override
     public void checkMessageStatus()
     {
-        QueueEntryIterator queueListIterator = getEntries().iterator();
-
+        final long sweepStartTime = System.nanoTime();
         final Set<NotificationCheck> perMessageChecks = new HashSet<>();
         final Set<NotificationCheck> queueLevelChecks = new HashSet<>();
 
@@ -2152,38 +2257,66 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         QueueNotificationListener listener = _notificationListener;
         final long currentTime = System.currentTimeMillis();
         final long thresholdTime = currentTime - getAlertRepeatGap();
+        long entriesVisited = 0;
+        long messagesExpired = 0;
 
-        while (!_stopped.get() && queueListIterator.advance())
+        if (_expiryIndex != null && perMessageChecks.isEmpty() && _holdMethods.isEmpty())
         {
-            final QueueEntry node = queueListIterator.getNode();
-            // Only process nodes that are not currently deleted and not dequeued
-            if (!node.isDeleted())
+            // expiry is the only per-entry check, so only the entries the index holds as due need be visited
+            for (final QueueEntryImpl node : _expiryIndex.removeDue(currentTime))
             {
-                // If the node has expired then acquire it
-                if (node.expired())
+                if (!node.isDeleted())
                 {
-                    deleteEntry(node, () -> _queueStatistics.addToExpired(node.getSizeWithHeader()));
+                    entriesVisited++;
+                    if (node.expired())
+                    {
+                        deleteEntry(node, () -> _queueStatistics.addToExpired(node.getSizeWithHeader()));
+                        messagesExpired++;
+                    }
+                    else
+                    {
+                        _expiryIndex.reschedule(node);
+                    }
                 }
-                else
+            }
+        }
+        else
+        {
+            QueueEntryIterator queueListIterator = getEntries().residentIterator();
+            while (!_stopped.get() && queueListIterator.advance())
+            {
+                final QueueEntry node = queueListIterator.getNode();
+                entriesVisited++;
+                // Only process nodes that are not currently deleted and not dequeued
+                if (!node.isDeleted())
                 {
-                    node.checkHeld(currentTime);
-
-                    // There is a chance that the node could be deleted by
-                    // the time the check actually occurs. So verify we
-                    // can actually get the message to perform the check.
-                    ServerMessage msg = node.getMessage();
-                    if (msg != null)
+                    // If the node has expired then acquire it
+                    if (node.expired())
                     {
-                        try (MessageReference messageReference = msg.newReference())
+                        deleteEntry(node, () -> _queueStatistics.addToExpired(node.getSizeWithHeader()));
+                        messagesExpired++;
+                    }
+                    else
+                    {
+                        node.checkHeld(currentTime);
+
+                        // There is a chance that the node could be deleted by
+                        // the time the check actually occurs. So verify we
+                        // can actually get the message to perform the check.
+                        ServerMessage msg = node.getMessage();
+                        if (msg != null)
                         {
-                            for(NotificationCheck check : perMessageChecks)
+                            try (MessageReference messageReference = msg.newReference())
                             {
-                                checkForNotification(msg, listener, currentTime, thresholdTime, check);
+                                for(NotificationCheck check : perMessageChecks)
+                                {
+                                    checkForNotification(msg, listener, currentTime, thresholdTime, check);
+                                }
+                            }
+                            catch(MessageDeletedException e)
+                            {
+                                // Ignore
                             }
-                        }
-                        catch(MessageDeletedException e)
-                        {
-                            // Ignore
                         }
                     }
                 }
@@ -2195,12 +2328,16 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
             checkForNotification(null, listener, currentTime, thresholdTime, check);
         }
 
+        _expirySweepEntriesVisited = entriesVisited;
+        _expirySweepMessagesExpired = messagesExpired;
+        _expirySweepTime += System.nanoTime() - sweepStartTime;
+        _expirySweepCount++;
     }
 
     @Override
     public void reallocateMessages()
     {
-        QueueEntryIterator queueListIterator = getEntries().iterator();
+        QueueEntryIterator queueListIterator = getEntries().residentIterator();
 
         while (!_stopped.get() && queueListIterator.advance())
         {
@@ -3450,6 +3587,25 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         }
     }
 
+    /**
+     * Runs a task for this queue on the housekeeping threads of its virtual host.
+     *
+     * @return false if the virtual host is no longer accepting tasks
+     */
+    boolean executeHousekeepingTask(final String name, final Runnable task)
+    {
+        try
+        {
+            _virtualHost.executeTask(name, task, getSystemTaskControllerContext(name, _virtualHost.getPrincipal()));
+            return true;
+        }
+        catch (RejectedExecutionException e)
+        {
+            LOGGER.debug("Housekeeping task '{}' rejected", name, e);
+            return false;
+        }
+    }
+
     private class AdvanceConsumersTask extends HouseKeepingTask
     {
 
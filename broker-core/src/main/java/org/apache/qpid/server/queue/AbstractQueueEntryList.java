@@ -43,6 +43,12 @@ abstract class AbstractQueueEntryList implements QueueEntryList
     }
 
 
+    @Override
+    public QueueEntryIterator residentIterator()
+    {
+        return iterator();
+    }
+
     void updateStatsOnEnqueue(QueueEntry entry)
     {
         final long sizeWithHeader = entry.getSizeWithHeader();
@@ -56,6 +62,15 @@ abstract class AbstractQueueEntryList implements QueueEntryList
         }
     }
 
+    void updateStatsOnEntryLost(final long sizeWithHeader)
+    {
+        final QueueStatistics queueStatistics = _queueStatistics;
+        queueStatistics.removeFromAvailable(sizeWithHeader);
+        queueStatistics.removeFromQueue(sizeWithHeader);
+        queueStatistics.addToDequeued(sizeWithHeader);
+        _queue.checkCapacity();
+    }
+
     @Override
     public void updateStatsOnStateChange(QueueEntry entry, QueueEntry.EntryState fromState, QueueEntry.EntryState toState)
     {
@@ -0,0 +1,138 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.store.MessageEnqueueRecord;
+
+public class CompactQueueEntry extends StandardQueueEntry
+{
+    protected CompactQueueEntry(final CompactQueueEntryList queueEntryList)
+    {
+        super(queueEntryList);
+    }
+
+    public CompactQueueEntry(final CompactQueueEntryList queueEntryList,
+                             final ServerMessage message,
+                             final MessageEnqueueRecord messageEnqueueRecord)
+    {
+        super(queueEntryList, message, messageEnqueueRecord);
+    }
+
+    /**
+     * Returns the next entry that has not been deleted.  A segment that has not yet been materialised ends the
+     * traversal for now: its materialisation is left to the housekeeping of the list, which requeues the recreated
+     * entries, so that consumers never wait on the message store.
+     */
+    @Override
+    public OrderedQueueEntry getNextValidEntry()
+    {
+        return getNextValidEntry(false);
+    }
+
+    /**
+     * As {@link #getNextValidEntry()}, but materialises any segment reached on the calling thread if asked to.
+     */
+    OrderedQueueEntry getNextValidEntry(final boolean materialize)
+    {
+        OrderedQueueEntry next = getNextNode();
+        while(next != null)
+        {
+            if(next instanceof CompactQueueEntrySegment)
+            {
+                final CompactQueueEntrySegment segment = (CompactQueueEntrySegment) next;
+                if(!isMaterialized(segment, materialize))
+                {
+                    return null;
+                }
+                OrderedQueueEntryList._nextUpdater.compareAndSet(this, segment, segment.successorOf(getEntryId()));
+                next = getNextNode();
+            }
+            else if(next.isDeleted())
+            {
+                final OrderedQueueEntry newNext = next.getNextNode();
+                if(newNext != null)
+                {
+                    OrderedQueueEntryList._nextUpdater.compareAndSet(this, next, newNext);
+                    next = getNextNode();
+                }
+                else
+                {
+                    next = null;
+                }
+            }
+            else if(next.isClaimedForCompaction(CompactQueueEntryList.COMPACTED_STATE)
+                    && next.getNextNode() instanceof CompactQueueEntrySegment)
+            {
+                // a compacted entry still linked from here has not been seen: carry on from its replacement
+                final CompactQueueEntrySegment segment = (CompactQueueEntrySegment) next.getNextNode();
+                if(!isMaterialized(segment, materialize))
+                {
+                    return null;
+                }
+                OrderedQueueEntryList._nextUpdater.compareAndSet(this, next, segment.successorOf(next.getEntryId() - 1));
+                next = getNextNode();
+            }
+            else
+            {
+                break;
+            }
+        }
+        return next;
+    }
+
+    private static boolean isMaterialized(final CompactQueueEntrySegment segment, final boolean materialize)
+    {
+        if(materialize)
+        {
+            segment.materialize();
+        }
+        else if(!segment.isMaterialized())
+        {
+            segment.requestMaterialization();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the node following this one without materialising a segment that has not yet been materialised.
+     */
+    OrderedQueueEntry getNextResidentNode()
+    {
+        OrderedQueueEntry next = getNextNode();
+        while(next instanceof CompactQueueEntrySegment && ((CompactQueueEntrySegment) next).isMaterialized())
+        {
+            final OrderedQueueEntry successor = ((CompactQueueEntrySegment) next).successorOf(getEntryId());
+            if(this instanceof CompactQueueEntrySegment)
+            {
+                // the successor of an unmaterialised segment is only ever changed by its list
+                next = successor;
+            }
+            else
+            {
+                OrderedQueueEntryList._nextUpdater.compareAndSet(this, next, successor);
+                next = getNextNode();
+            }
+        }
+        return next;
+    }
+}
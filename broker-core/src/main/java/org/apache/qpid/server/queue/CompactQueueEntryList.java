@@ -0,0 +1,472 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.qpid.server.message.MessageInstance;
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.store.MessageEnqueueRecord;
+
+/**
+ * A {@link StandardQueueEntryList} for very deep queues.  Once more than the configured in-memory window of entries
+ * is held, runs of entries beyond the window are replaced by {@link CompactQueueEntrySegment}s, dropping the entry,
+ * message and metadata objects of each from the heap in favour of a small off-heap record.  An entry is only
+ * compacted while it is available and has never been offered to a consumer, and only if its persistent message has
+ * been recorded in the store and is referenced by this queue alone, so that it can be recreated from the store.
+ * Entries that expire, or whose size would raise an alert, are left resident for the housekeeping of the queue.
+ * <p>
+ * Compaction, and the materialisation of segments as the head of the queue approaches them, run as housekeeping
+ * tasks of the queue rather than on the threads that publish or consume.  Only {@link #iterator()}, which serves
+ * management operations, materialises segments on the calling thread.
+ */
+public class CompactQueueEntryList extends StandardQueueEntryList
+{
+    static final int SEGMENT_SIZE = 1024;
+    static final int MINIMUM_SEGMENT_SIZE = 16;
+
+    static final MessageInstance.EntryState COMPACTED_STATE = new MessageInstance.EntryState()
+    {
+        @Override
+        public MessageInstance.State getState()
+        {
+            return MessageInstance.State.ACQUIRED;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "COMPACTED";
+        }
+    };
+
+    private static final HeadCreator HEAD_CREATOR = new HeadCreator()
+    {
+        @Override
+        public CompactQueueEntry createHead(final QueueEntryList list)
+        {
+            return new CompactQueueEntry((CompactQueueEntryList) list);
+        }
+    };
+
+    private final StandardQueueImpl _queue;
+    private final int _inMemoryWindow;
+    private final long _windowCheckInterval;
+    private final AtomicLong _residentEntries = new AtomicLong();
+    private final AtomicLong _compactedEntries = new AtomicLong();
+    private final AtomicLong _deletedEntries = new AtomicLong();
+    private final AtomicBoolean _housekeepingScheduled = new AtomicBoolean();
+    private final ConcurrentLinkedQueue<CompactQueueEntrySegment> _materializationRequests =
+            new ConcurrentLinkedQueue<>();
+    private final Lock _housekeepingLock = new ReentrantLock();
+    private volatile long _compactionThreshold;
+    private volatile long _materializedEntryId = Long.MIN_VALUE;
+    private volatile CompactQueueEntrySegment _lastSegment;
+
+    public CompactQueueEntryList(final StandardQueueImpl queue,
+                                 final QueueStatistics queueStatistics,
+                                 final int inMemoryWindow)
+    {
+        super(queue, queueStatistics, HEAD_CREATOR);
+        _queue = queue;
+        _inMemoryWindow = inMemoryWindow;
+        _windowCheckInterval = Math.max(1, inMemoryWindow / 2);
+        _compactionThreshold = (long) inMemoryWindow + 2 * SEGMENT_SIZE;
+    }
+
+    @Override
+    protected CompactQueueEntry createQueueEntry(final ServerMessage<?> message,
+                                                 final MessageEnqueueRecord enqueueRecord)
+    {
+        return new CompactQueueEntry(this, message, enqueueRecord);
+    }
+
+    @Override
+    public QueueEntry add(final ServerMessage message, final MessageEnqueueRecord enqueueRecord)
+    {
+        final QueueEntry entry = super.add(message, enqueueRecord);
+        if (_residentEntries.incrementAndGet() > _compactionThreshold)
+        {
+            scheduleHousekeeping();
+        }
+        return entry;
+    }
+
+    @Override
+    public void entryDeleted(final QueueEntry queueEntry)
+    {
+        _residentEntries.decrementAndGet();
+        super.entryDeleted(queueEntry);
+        if (_compactedEntries.get() != 0 && _deletedEntries.incrementAndGet() % _windowCheckInterval == 0)
+        {
+            // refill the window ahead of the consumers so that they seldom reach a segment before it is materialised
+            scheduleHousekeeping();
+        }
+    }
+
+    @Override
+    public QueueEntryIterator iterator()
+    {
+        return new MaterializingEntryIterator((CompactQueueEntry) getHead());
+    }
+
+    @Override
+    public QueueEntryIterator residentIterator()
+    {
+        return new ResidentEntryIterator((CompactQueueEntry) getHead());
+    }
+
+    long getResidentEntryCount()
+    {
+        return _residentEntries.get();
+    }
+
+    long getCompactedEntryCount()
+    {
+        return _compactedEntries.get();
+    }
+
+    void segmentMaterialized(final CompactQueueEntrySegment segment, final int materialized, final long lastEntryId)
+    {
+        _compactedEntries.addAndGet(-segment.getRecordCount());
+        _residentEntries.addAndGet(materialized);
+        if (lastEntryId > _materializedEntryId)
+        {
+            _materializedEntryId = lastEntryId;
+        }
+    }
+
+    void materializationRequested(final CompactQueueEntrySegment segment)
+    {
+        _materializationRequests.add(segment);
+        scheduleHousekeeping();
+    }
+
+    private void scheduleHousekeeping()
+    {
+        if (_housekeepingScheduled.compareAndSet(false, true)
+            && !_queue.executeHousekeepingTask("Queue Compaction: " + _queue.getName(), this::performHousekeeping))
+        {
+            _housekeepingScheduled.set(false);
+        }
+    }
+
+    /**
+     * Materialises the segments that consumers have reached and those within the in-memory window of the head, then
+     * compacts entries beyond the window if enough have been added since it last did.
+     */
+    void performHousekeeping()
+    {
+        _housekeepingScheduled.set(false);
+        _housekeepingLock.lock();
+        try
+        {
+            CompactQueueEntrySegment segment;
+            while ((segment = _materializationRequests.poll()) != null)
+            {
+                segment.materialize();
+            }
+            materializeWindow();
+            if (_residentEntries.get() > _compactionThreshold)
+            {
+                compact();
+            }
+        }
+        finally
+        {
+            _housekeepingLock.unlock();
+        }
+    }
+
+    private void materializeWindow()
+    {
+        CompactQueueEntry node = (CompactQueueEntry) getHead();
+        long windowed = 0;
+        OrderedQueueEntry next;
+        while (windowed < _inMemoryWindow
+               && _compactedEntries.get() != 0
+               && (next = node.getNextResidentNode()) != null)
+        {
+            if (next instanceof CompactQueueEntrySegment)
+            {
+                // once materialised the segment is passed over by the next step
+                ((CompactQueueEntrySegment) next).materialize();
+            }
+            else
+            {
+                if (!next.isDeleted())
+                {
+                    windowed++;
+                }
+                node = (CompactQueueEntry) next;
+            }
+        }
+    }
+
+    private void compact()
+    {
+        // entries close to the tail are left alone: they may still be in the midst of being enqueued
+        final long lastCompactableEntryId = ((QueueEntryImpl) getTail()).getEntryId() - SEGMENT_SIZE;
+
+        // entries recreated from a segment stay resident until consumed
+        final long materializedEntryId = _materializedEntryId;
+
+        // everything after a segment that has not yet been materialised lies beyond the window
+        final CompactQueueEntrySegment lastSegment = _lastSegment;
+        CompactQueueEntry previous;
+        long windowed;
+        if (lastSegment != null && !lastSegment.isMaterialized())
+        {
+            previous = lastSegment;
+            windowed = _inMemoryWindow;
+        }
+        else
+        {
+            previous = (CompactQueueEntry) getHead();
+            windowed = 0;
+        }
+
+        final List<CompactQueueEntry> runNodes = new ArrayList<>();
+        final List<CompactQueueEntry> runEntries = new ArrayList<>(SEGMENT_SIZE);
+        CompactQueueEntry runPredecessor = null;
+        long skipped = 0;
+        OrderedQueueEntry next;
+        while ((next = previous.getNextResidentNode()) != null)
+        {
+            final CompactQueueEntry current = (CompactQueueEntry) next;
+            if (current instanceof CompactQueueEntrySegment)
+            {
+                closeRun(runPredecessor, runNodes, runEntries);
+                windowed = _inMemoryWindow;
+            }
+            else if (current.isDeleted())
+            {
+                if (!runNodes.isEmpty())
+                {
+                    runNodes.add(current);
+                }
+            }
+            else if (windowed < _inMemoryWindow || current.getEntryId() <= materializedEntryId)
+            {
+                windowed++;
+            }
+            else if (runNodes.isEmpty() && current.getEntryId() + SEGMENT_SIZE > lastCompactableEntryId)
+            {
+                break;
+            }
+            else if (isCompactable(current)
+                     // a compacted entry is recreated from the store, so the message is flowed to disk first: this
+                     // makes sure the store holds its content and frees the copy which would otherwise stay in memory
+                     && (!current.getMessage().getStoredMessage().isInMemory()
+                         || (current.getMessage().getStoredMessage().flowToDisk()
+                             && !current.getMessage().getStoredMessage().isInMemory()))
+                     && current.claimForCompaction(COMPACTED_STATE))
+            {
+                if (runNodes.isEmpty())
+                {
+                    runPredecessor = previous;
+                }
+                runNodes.add(current);
+                runEntries.add(current);
+                if (runEntries.size() == SEGMENT_SIZE)
+                {
+                    closeRun(runPredecessor, runNodes, runEntries);
+                }
+            }
+            else
+            {
+                closeRun(runPredecessor, runNodes, runEntries);
+                skipped++;
+            }
+            previous = current;
+        }
+        closeRun(runPredecessor, runNodes, runEntries);
+
+        // an entry that could not be compacted is not looked at again until as many more have been added
+        _compactionThreshold = _residentEntries.get() + Math.max(SEGMENT_SIZE, skipped);
+    }
+
+    private boolean isCompactable(final CompactQueueEntry entry)
+    {
+        final ServerMessage<?> message = entry.getMessage();
+        final long alertThresholdMessageSize = _queue.getAlertThresholdMessageSize();
+        return message != null
+               && entry.getEnqueueRecord() != null
+               && entry.getExpiration() == 0
+               && (alertThresholdMessageSize == 0 || entry.getSizeWithHeader() < alertThresholdMessageSize)
+               && message.isPersistent()
+               && message.isReferencedOnlyBy(_queue);
+    }
+
+    private void closeRun(final CompactQueueEntry predecessor,
+                          final List<CompactQueueEntry> runNodes,
+                          final List<CompactQueueEntry> runEntries)
+    {
+        if (runNodes.isEmpty())
+        {
+            return;
+        }
+        try
+        {
+            if (runEntries.size() < MINIMUM_SEGMENT_SIZE || !replaceRun(predecessor, runNodes, runEntries))
+            {
+                for (CompactQueueEntry entry : runEntries)
+                {
+                    entry.unclaimForCompaction(COMPACTED_STATE);
+                }
+            }
+        }
+        finally
+        {
+            runNodes.clear();
+            runEntries.clear();
+        }
+    }
+
+    private boolean replaceRun(final CompactQueueEntry predecessor,
+                               final List<CompactQueueEntry> runNodes,
+                               final List<CompactQueueEntry> runEntries)
+    {
+        final CompactQueueEntry first = runNodes.get(0);
+        final CompactQueueEntry last = runNodes.get(runNodes.size() - 1);
+        final CompactQueueEntrySegment segment = new CompactQueueEntrySegment(this, runEntries);
+        _nextUpdater.set(segment, last.getNextNode());
+
+        final boolean linked;
+        if (predecessor instanceof CompactQueueEntrySegment)
+        {
+            // materialisation links the recreated entries to whatever follows the segment at the time
+            synchronized (predecessor)
+            {
+                linked = !((CompactQueueEntrySegment) predecessor).isMaterialized()
+                         && _nextUpdater.compareAndSet(predecessor, first, segment);
+            }
+        }
+        else
+        {
+            linked = _nextUpdater.compareAndSet(predecessor, first, segment);
+        }
+
+        if (linked)
+        {
+            // traversals positioned within the run carry on through the segment
+            for (CompactQueueEntry node : runNodes)
+            {
+                OrderedQueueEntry next;
+                do
+                {
+                    next = node.getNextNode();
+                }
+                while (!_nextUpdater.compareAndSet(node, next, segment));
+            }
+            for (CompactQueueEntry entry : runEntries)
+            {
+                entry.releaseCompactedMessage();
+            }
+            _residentEntries.addAndGet(-runEntries.size());
+            _compactedEntries.addAndGet(runEntries.size());
+            _lastSegment = segment;
+        }
+        return linked;
+    }
+
+    private static class MaterializingEntryIterator implements QueueEntryIterator
+    {
+        private CompactQueueEntry _lastNode;
+
+        MaterializingEntryIterator(final CompactQueueEntry startNode)
+        {
+            _lastNode = startNode;
+        }
+
+        @Override
+        public boolean atTail()
+        {
+            return _lastNode.getNextValidEntry(true) == null;
+        }
+
+        @Override
+        public QueueEntry getNode()
+        {
+            return _lastNode;
+        }
+
+        @Override
+        public boolean advance()
+        {
+            final CompactQueueEntry next = (CompactQueueEntry) _lastNode.getNextValidEntry(true);
+            if (next != null)
+            {
+                _lastNode = next;
+            }
+            return next != null;
+        }
+    }
+
+    private static class ResidentEntryIterator implements QueueEntryIterator
+    {
+        private CompactQueueEntry _lastNode;
+
+        ResidentEntryIterator(final CompactQueueEntry startNode)
+        {
+            _lastNode = startNode;
+        }
+
+        @Override
+        public boolean atTail()
+        {
+            return nextResidentEntry(_lastNode) == null;
+        }
+
+        @Override
+        public QueueEntry getNode()
+        {
+            return _lastNode;
+        }
+
+        @Override
+        public boolean advance()
+        {
+            final CompactQueueEntry next = nextResidentEntry(_lastNode);
+            if (next != null)
+            {
+                _lastNode = next;
+            }
+            return next != null;
+        }
+
+        private static CompactQueueEntry nextResidentEntry(final CompactQueueEntry node)
+        {
+            OrderedQueueEntry next = node.getNextResidentNode();
+            while (next != null && next.isDeleted())
+            {
+                next = ((CompactQueueEntry) next).getNextResidentNode();
+            }
+            return (CompactQueueEntry) next;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.plugin.MessageMetaDataType;
+import org.apache.qpid.server.store.MessageEnqueueRecord;
+import org.apache.qpid.server.store.MessageStore;
+import org.apache.qpid.server.store.StoredMessage;
+
+/**
+ * Stands in a {@link CompactQueueEntryList} for a run of compacted entries.  Each entry is reduced to a fixed size
+ * record in a direct buffer (message id, entry id and size) plus the enqueue record of the message store; the
+ * entries, and the messages they reference, are recreated from the store by the housekeeping of the list, either as
+ * the head of the queue approaches the segment or once a consumer has reached it.
+ */
+final class CompactQueueEntrySegment extends CompactQueueEntry
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompactQueueEntrySegment.class);
+
+    private static final int MESSAGE_ID_OFFSET = 0;
+    private static final int ENTRY_ID_OFFSET = 8;
+    private static final int SIZE_OFFSET = 16;
+    static final int RECORD_SIZE = 24;
+
+    private final CompactQueueEntryList _queueEntryList;
+    private final int _recordCount;
+    private ByteBuffer _records;
+    private MessageEnqueueRecord[] _enqueueRecords;
+    private final AtomicBoolean _materializationRequested = new AtomicBoolean();
+    private volatile CompactQueueEntry[] _entries;
+
+    CompactQueueEntrySegment(final CompactQueueEntryList queueEntryList, final List<CompactQueueEntry> entries)
+    {
+        super(queueEntryList);
+        _queueEntryList = queueEntryList;
+        _recordCount = entries.size();
+        _records = ByteBuffer.allocateDirect(_recordCount * RECORD_SIZE);
+        _enqueueRecords = new MessageEnqueueRecord[_recordCount];
+        int index = 0;
+        for (CompactQueueEntry entry : entries)
+        {
+            final int offset = index * RECORD_SIZE;
+            _records.putLong(offset + MESSAGE_ID_OFFSET, entry.getMessage().getMessageNumber());
+            _records.putLong(offset + ENTRY_ID_OFFSET, entry.getEntryId());
+            _records.putLong(offset + SIZE_OFFSET, entry.getSizeWithHeader());
+            _enqueueRecords[index++] = entry.getEnqueueRecord();
+        }
+        setEntryId(entries.get(0).getEntryId());
+    }
+
+    int getRecordCount()
+    {
+        return _recordCount;
+    }
+
+    boolean isMaterialized()
+    {
+        return _entries != null;
+    }
+
+    /**
+     * Asks the housekeeping of the list to materialise this segment, unless it has been asked already.
+     */
+    void requestMaterialization()
+    {
+        if (_materializationRequested.compareAndSet(false, true))
+        {
+            _queueEntryList.materializationRequested(this);
+        }
+    }
+
+    void materialize()
+    {
+        final CompactQueueEntry first;
+        synchronized (this)
+        {
+            if (_entries != null)
+            {
+                return;
+            }
+            first = recreateEntries();
+        }
+
+        // consumers that went past the compacted entries before the segment replaced them need to look back
+        if (first != null)
+        {
+            _queueEntryList.getQueue().requeue(first);
+        }
+    }
+
+    private CompactQueueEntry recreateEntries()
+    {
+        final ByteBuffer records = _records;
+        final CompactQueueEntry[] entries = new CompactQueueEntry[_recordCount];
+        int materialized = 0;
+        final MessageStore.MessageStoreReader reader =
+                _queueEntryList.getQueue().getVirtualHost().getMessageStore().newMessageStoreReader();
+        try
+        {
+            for (int index = 0; index < _recordCount; index++)
+            {
+                final int offset = index * RECORD_SIZE;
+                final long messageId = records.getLong(offset + MESSAGE_ID_OFFSET);
+                final StoredMessage<?> storedMessage = reader.getMessage(messageId);
+                if (storedMessage == null)
+                {
+                    LOGGER.warn("Message {} compacted on queue '{}' is no longer in the message store",
+                                messageId, _queueEntryList.getQueue().getName());
+                    _queueEntryList.updateStatsOnEntryLost(records.getLong(offset + SIZE_OFFSET));
+                    continue;
+                }
+
+                final CompactQueueEntry entry =
+                        _queueEntryList.createQueueEntry(createMessage(storedMessage), _enqueueRecords[index]);
+                entry.setEntryId(records.getLong(offset + ENTRY_ID_OFFSET));
+                if (materialized != 0)
+                {
+                    OrderedQueueEntryList._nextUpdater.set(entries[materialized - 1], entry);
+                }
+                entries[materialized++] = entry;
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+
+        if (materialized != 0)
+        {
+            OrderedQueueEntryList._nextUpdater.set(entries[materialized - 1], getNextNode());
+        }
+        final long lastEntryId = records.getLong((_recordCount - 1) * RECORD_SIZE + ENTRY_ID_OFFSET);
+        _records = null;
+        _enqueueRecords = null;
+        _entries = materialized == _recordCount ? entries : Arrays.copyOf(entries, materialized);
+        _queueEntryList.segmentMaterialized(this, materialized, lastEntryId);
+        return materialized == 0 ? null : entries[0];
+    }
+
+    /**
+     * Returns the first materialised entry positioned after the given entry id, or the node following the segment if
+     * there is none.  Both the node that links to the segment and the compacted entries, which were redirected to it,
+     * resume from here.
+     */
+    OrderedQueueEntry successorOf(final long entryId)
+    {
+        final CompactQueueEntry[] entries = _entries;
+        int low = 0;
+        int high = entries.length;
+        while (low < high)
+        {
+            final int mid = (low + high) >>> 1;
+            if (entries[mid].getEntryId() <= entryId)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return low < entries.length ? entries[low] : getNextNode();
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static ServerMessage<?> createMessage(final StoredMessage<?> storedMessage)
+    {
+        final MessageMetaDataType type = storedMessage.getMetaData().getType();
+        return type.createMessage(storedMessage);
+    }
+}
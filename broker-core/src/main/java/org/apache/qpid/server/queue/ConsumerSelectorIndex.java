@@ -0,0 +1,286 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.qpid.server.filter.FilterManager;
+import org.apache.qpid.server.filter.PropertyEqualityConstraint;
+import org.apache.qpid.server.message.MessageReference;
+
+/**
+ * Indexes the acquiring consumers of a queue by the string values their selectors require of a single message
+ * property, so that a newly enqueued entry need only be offered to the consumers whose selectors could match it.
+ * <p>
+ * The property indexed is the one constrained by the greatest number of consumers. Consumers without a constraint
+ * on that property are candidates for every entry. The candidates for a given value are held in consumer priority
+ * order, and each lookup starts at the next consumer within each priority so that consumers whose selectors match
+ * the same entries are offered them in turn.
+ * <p>
+ * Consumers are added and removed under the index's lock and a new immutable snapshot is published each time;
+ * lookups read the current snapshot without locking.
+ */
+final class ConsumerSelectorIndex
+{
+    private static final Comparator<QueueConsumer<?,?>> HIGHEST_PRIORITY_FIRST =
+            new Comparator<QueueConsumer<?,?>>()
+            {
+                @Override
+                public int compare(final QueueConsumer<?,?> o1, final QueueConsumer<?,?> o2)
+                {
+                    return Integer.compare(o2.getPriority(), o1.getPriority());
+                }
+            };
+
+    private final Map<QueueConsumer<?,?>, PropertyEqualityConstraint> _consumers = new LinkedHashMap<>();
+    private volatile Snapshot _snapshot;
+
+    synchronized void addConsumer(final QueueConsumer<?,?> consumer, final FilterManager filters)
+    {
+        if (consumer.acquires())
+        {
+            _consumers.put(consumer, filters == null ? null : filters.getPropertyEqualityConstraint());
+            rebuild();
+        }
+    }
+
+    synchronized void removeConsumer(final QueueConsumer<?,?> consumer)
+    {
+        if (_consumers.containsKey(consumer))
+        {
+            _consumers.remove(consumer);
+            rebuild();
+        }
+    }
+
+    /**
+     * Returns the consumers, highest priority first, whose selectors could match the given entry, or null if
+     * the index cannot narrow the consumers down and each interested consumer must be considered.
+     */
+    Iterator<QueueConsumer<?,?>> getCandidates(final QueueEntry entry)
+    {
+        final Snapshot snapshot = _snapshot;
+        if (snapshot == null)
+        {
+            return null;
+        }
+
+        final MessageReference<?> reference = entry.newMessageReference();
+        if (reference == null)
+        {
+            return null;
+        }
+        try
+        {
+            final Object value = snapshot._constraint.evaluateProperty(entry.asFilterable());
+            if (value == null)
+            {
+                return snapshot._unconstrained.iterator();
+            }
+            else if (value instanceof String)
+            {
+                final Candidates candidates = snapshot._candidatesByValue.get(value);
+                return candidates == null ? snapshot._unconstrained.iterator() : candidates.iterator();
+            }
+            return null;
+        }
+        catch (RuntimeException e)
+        {
+            return null;
+        }
+        finally
+        {
+            reference.release();
+        }
+    }
+
+    String getIndexedPropertyName()
+    {
+        final Snapshot snapshot = _snapshot;
+        return snapshot == null ? null : snapshot._constraint.getPropertyName();
+    }
+
+    private void rebuild()
+    {
+        final PropertyEqualityConstraint representative = chooseIndexedProperty();
+        if (representative == null)
+        {
+            _snapshot = null;
+            return;
+        }
+
+        final String propertyName = representative.getPropertyName();
+        final List<QueueConsumer<?,?>> unconstrained = new ArrayList<>();
+        final Map<String, List<QueueConsumer<?,?>>> constrainedByValue = new HashMap<>();
+        for (Map.Entry<QueueConsumer<?,?>, PropertyEqualityConstraint> entry : _consumers.entrySet())
+        {
+            final PropertyEqualityConstraint constraint = entry.getValue();
+            if (constraint == null || !constraint.getPropertyName().equals(propertyName))
+            {
+                unconstrained.add(entry.getKey());
+            }
+            else
+            {
+                for (String value : constraint.getValues())
+                {
+                    List<QueueConsumer<?,?>> consumers = constrainedByValue.get(value);
+                    if (consumers == null)
+                    {
+                        consumers = new ArrayList<>();
+                        constrainedByValue.put(value, consumers);
+                    }
+                    consumers.add(entry.getKey());
+                }
+            }
+        }
+
+        final Map<String, Candidates> candidatesByValue = new HashMap<>();
+        for (Map.Entry<String, List<QueueConsumer<?,?>>> entry : constrainedByValue.entrySet())
+        {
+            final List<QueueConsumer<?,?>> candidates = new ArrayList<>(entry.getValue());
+            candidates.addAll(unconstrained);
+            candidatesByValue.put(entry.getKey(), new Candidates(candidates));
+        }
+        _snapshot = new Snapshot(representative, candidatesByValue, new Candidates(unconstrained));
+    }
+
+    private PropertyEqualityConstraint chooseIndexedProperty()
+    {
+        final Map<String, Integer> counts = new HashMap<>();
+        PropertyEqualityConstraint chosen = null;
+        int chosenCount = 0;
+        for (PropertyEqualityConstraint constraint : _consumers.values())
+        {
+            if (constraint != null)
+            {
+                final Integer previous = counts.get(constraint.getPropertyName());
+                final int count = previous == null ? 1 : previous + 1;
+                counts.put(constraint.getPropertyName(), count);
+                if (count > chosenCount)
+                {
+                    chosen = constraint;
+                    chosenCount = count;
+                }
+            }
+        }
+        return chosen;
+    }
+
+    private static final class Snapshot
+    {
+        private final PropertyEqualityConstraint _constraint;
+        private final Map<String, Candidates> _candidatesByValue;
+        private final Candidates _unconstrained;
+
+        private Snapshot(final PropertyEqualityConstraint constraint,
+                         final Map<String, Candidates> candidatesByValue,
+                         final Candidates unconstrained)
+        {
+            _constraint = constraint;
+            _candidatesByValue = candidatesByValue;
+            _unconstrained = unconstrained;
+        }
+    }
+
+    private static final class Candidates
+    {
+        private final QueueConsumer<?,?>[] _consumers;
+        // the position after the last consumer of each priority, highest priority first
+        private final int[] _priorityEnds;
+        private final AtomicInteger _turn = new AtomicInteger();
+
+        private Candidates(final List<QueueConsumer<?,?>> consumers)
+        {
+            Collections.sort(consumers, HIGHEST_PRIORITY_FIRST);
+            _consumers = consumers.toArray(new QueueConsumer<?,?>[consumers.size()]);
+
+            final List<Integer> priorityEnds = new ArrayList<>();
+            for (int i = 1; i <= _consumers.length; i++)
+            {
+                if (i == _consumers.length || _consumers[i].getPriority() != _consumers[i - 1].getPriority())
+                {
+                    priorityEnds.add(i);
+                }
+            }
+            _priorityEnds = new int[priorityEnds.size()];
+            for (int i = 0; i < _priorityEnds.length; i++)
+            {
+                _priorityEnds[i] = priorityEnds.get(i);
+            }
+        }
+
+        private Iterator<QueueConsumer<?,?>> iterator()
+        {
+            return new CandidateIterator(_consumers, _priorityEnds, _turn.getAndIncrement());
+        }
+    }
+
+    private static final class CandidateIterator implements Iterator<QueueConsumer<?,?>>
+    {
+        private final QueueConsumer<?,?>[] _consumers;
+        private final int[] _priorityEnds;
+        private final int _turn;
+        private int _priorityIndex;
+        private int _priorityStart;
+        private int _visited;
+
+        private CandidateIterator(final QueueConsumer<?,?>[] consumers, final int[] priorityEnds, final int turn)
+        {
+            _consumers = consumers;
+            _priorityEnds = priorityEnds;
+            _turn = turn;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return _priorityIndex < _priorityEnds.length;
+        }
+
+        @Override
+        public QueueConsumer<?,?> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            final int priorityEnd = _priorityEnds[_priorityIndex];
+            final int count = priorityEnd - _priorityStart;
+            final QueueConsumer<?,?> consumer = _consumers[_priorityStart + Math.floorMod(_turn + _visited, count)];
+            if (++_visited == count)
+            {
+                _priorityIndex++;
+                _priorityStart = priorityEnd;
+                _visited = 0;
+            }
+            return consumer;
+        }
+    }
+}
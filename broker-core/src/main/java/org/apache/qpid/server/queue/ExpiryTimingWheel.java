@@ -0,0 +1,269 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Indexes the entries of a queue by expiration so that housekeeping visits only the entries that are due rather than
+ * walking the queue.  This is a hashed timing wheel: each slot holds the entries expiring within one tick, and
+ * entries expiring beyond a revolution of the wheel wait in an overflow slot that is redistributed once per
+ * revolution.  Slots are doubly linked lists so that an entry leaving the queue before it expires is unlinked in
+ * constant time.
+ */
+final class ExpiryTimingWheel
+{
+    static final long DEFAULT_TICK_MILLIS = 1000L;
+    static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final long _tickMillis;
+    private final Slot[] _slots;
+    private final Slot _overflow = new Slot();
+    private final Slot _due = new Slot();
+    private volatile long _processedTick;
+
+    ExpiryTimingWheel(final long tickMillis, final int wheelSize, final long currentTime)
+    {
+        _tickMillis = tickMillis;
+        _slots = new Slot[wheelSize];
+        for (int i = 0; i < wheelSize; i++)
+        {
+            _slots[i] = new Slot();
+        }
+        _processedTick = currentTime / tickMillis - 1;
+    }
+
+    void add(final QueueEntryImpl entry)
+    {
+        final long expiration = entry.getExpiration();
+        if (expiration != 0L)
+        {
+            final Node node = new Node(entry, expiration / _tickMillis);
+            entry.setExpiryNode(node);
+            schedule(node);
+        }
+    }
+
+    /**
+     * Puts an entry returned by {@link #removeDue(long)} back into the index, to be returned again by the next call.
+     */
+    void reschedule(final QueueEntryImpl entry)
+    {
+        final Node node = entry.getExpiryNode();
+        if (node != null)
+        {
+            schedule(node);
+        }
+    }
+
+    /**
+     * Removes and returns the entries expiring in ticks that have ended by the given time, together with those
+     * rescheduled since the last call.  An entry that expires later within the current tick may be among them.
+     */
+    List<QueueEntryImpl> removeDue(final long currentTime)
+    {
+        final List<QueueEntryImpl> due = new ArrayList<>();
+        final long currentTick = currentTime / _tickMillis;
+        long processedTick = _processedTick;
+        if (currentTick - processedTick >= _slots.length)
+        {
+            // more than a revolution has passed since the last call: everything in the wheel is due
+            _processedTick = currentTick;
+            for (Slot slot : _slots)
+            {
+                slot.drainTo(due);
+            }
+            redistributeOverflow();
+        }
+        else
+        {
+            while (processedTick < currentTick)
+            {
+                // the tick is marked as processed before its slot is drained; see schedule
+                _processedTick = ++processedTick;
+                _slots[slot(processedTick)].drainTo(due);
+                if (slot(processedTick) == 0)
+                {
+                    redistributeOverflow();
+                }
+            }
+        }
+        _due.drainTo(due);
+        return due;
+    }
+
+    private void redistributeOverflow()
+    {
+        for (Node node : _overflow.drainNodes())
+        {
+            schedule(node);
+        }
+    }
+
+    private void schedule(final Node node)
+    {
+        Slot slot = targetSlot(node._tick);
+        slot.link(node);
+
+        // if the wheel moved on while the node was being linked, its slot may already have been drained: move it
+        // on unless it has been drained along with the slot
+        Slot target;
+        while ((target = targetSlot(node._tick)) != slot && slot.unlink(node))
+        {
+            target.link(node);
+            slot = target;
+        }
+    }
+
+    private Slot targetSlot(final long tick)
+    {
+        final long processedTick = _processedTick;
+        if (tick <= processedTick)
+        {
+            return _due;
+        }
+        else if (tick - processedTick >= _slots.length)
+        {
+            return _overflow;
+        }
+        else
+        {
+            return _slots[slot(tick)];
+        }
+    }
+
+    private int slot(final long tick)
+    {
+        return (int) (tick % _slots.length);
+    }
+
+    int size()
+    {
+        int size = _overflow.size() + _due.size();
+        for (Slot slot : _slots)
+        {
+            size += slot.size();
+        }
+        return size;
+    }
+
+    static final class Node
+    {
+        private final QueueEntryImpl _entry;
+        private final long _tick;
+        private volatile Slot _slot;
+        private Node _previous;
+        private Node _next;
+
+        private Node(final QueueEntryImpl entry, final long tick)
+        {
+            _entry = entry;
+            _tick = tick;
+        }
+
+        void cancel()
+        {
+            Slot slot;
+            while ((slot = _slot) != null && !slot.unlink(this))
+            {
+                // moved to another slot concurrently
+            }
+        }
+    }
+
+    private static final class Slot
+    {
+        private Node _head;
+        private int _size;
+
+        synchronized void link(final Node node)
+        {
+            node._previous = null;
+            node._next = _head;
+            if (_head != null)
+            {
+                _head._previous = node;
+            }
+            _head = node;
+            _size++;
+            node._slot = this;
+        }
+
+        synchronized boolean unlink(final Node node)
+        {
+            if (node._slot != this)
+            {
+                return false;
+            }
+            if (node._previous == null)
+            {
+                _head = node._next;
+            }
+            else
+            {
+                node._previous._next = node._next;
+            }
+            if (node._next != null)
+            {
+                node._next._previous = node._previous;
+            }
+            node._previous = null;
+            node._next = null;
+            node._slot = null;
+            _size--;
+            return true;
+        }
+
+        synchronized void drainTo(final List<QueueEntryImpl> entries)
+        {
+            for (Node node = _head; node != null; node = node._next)
+            {
+                node._slot = null;
+                entries.add(node._entry);
+            }
+            clear();
+        }
+
+        synchronized List<Node> drainNodes()
+        {
+            final List<Node> nodes = new ArrayList<>(_size);
+            for (Node node = _head; node != null; node = node._next)
+            {
+                node._slot = null;
+                nodes.add(node);
+            }
+            clear();
+            return nodes;
+        }
+
+        synchronized int size()
+        {
+            return _size;
+        }
+
+        private void clear()
+        {
+            _head = null;
+            _size = 0;
+        }
+    }
+}
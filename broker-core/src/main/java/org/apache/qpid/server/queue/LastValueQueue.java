@@ -23,7 +23,10 @@ package org.apache.qpid.server.queue;
 import org.apache.qpid.server.model.ManagedAttribute;
 import org.apache.qpid.server.model.ManagedContextDefault;
 import org.apache.qpid.server.model.ManagedObject;
+import org.apache.qpid.server.model.ManagedStatistic;
 import org.apache.qpid.server.model.Queue;
+import org.apache.qpid.server.model.StatisticType;
+import org.apache.qpid.server.model.StatisticUnit;
 
 @ManagedObject( category = false, type= LastValueQueue.LAST_VALUE_QUEUE_TYPE,
         amqpName = "org.apache.qpid.LastValueQueue")
@@ -35,6 +38,34 @@ public interface LastValueQueue<X extends LastValueQueue<X>> extends Queue<X>
     String DEFAULT_LVQ_KEY = "qpid.LVQ_key";
     String LAST_VALUE_QUEUE_TYPE = "lvq";
 
+    String LVQ_RETAINED_CONSUMED_KEYS = "qpid.lvq.retainedConsumedKeys";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault( name = LVQ_RETAINED_CONSUMED_KEYS,
+            description = "The number of conflation keys whose latest message has been consumed that are kept for reuse"
+                          + " by the next message with the same key, the least recently consumed being evicted first."
+                          + " If zero, a key is forgotten as soon as its latest message is consumed.")
+    int DEFAULT_LVQ_RETAINED_CONSUMED_KEYS = 0;
+
     @ManagedAttribute(defaultValue = "${queue.lvqKey}")
     String getLvqKey();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT,
+                      label = "Conflation Keys",
+                      description = "Number of conflation keys currently held by this queue, including retained keys"
+                                    + " whose latest message has been consumed.")
+    long getConflationKeyCount();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.BYTES,
+                      label = "Conflation Key Table Size",
+                      description = "Estimated heap memory used by the conflation keys currently held by this queue.")
+    long getConflationKeyTableSize();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT,
+                      label = "Conflation Keys Evicted",
+                      description = "Total number of retained conflation keys evicted to keep within the configured"
+                                    + " number of retained keys.")
+    long getConflationKeysEvicted();
 }
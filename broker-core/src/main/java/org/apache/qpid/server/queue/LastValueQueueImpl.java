@@ -58,4 +58,22 @@ public class LastValueQueueImpl extends AbstractQueue<LastValueQueueImpl> implem
     {
         return _lvqKey;
     }
+
+    @Override
+    public long getConflationKeyCount()
+    {
+        return _entries == null ? 0L : _entries.getConflationKeyCount();
+    }
+
+    @Override
+    public long getConflationKeyTableSize()
+    {
+        return _entries == null ? 0L : _entries.getConflationKeyTableSize();
+    }
+
+    @Override
+    public long getConflationKeysEvicted()
+    {
+        return _entries == null ? 0L : _entries.getConflationKeysEvicted();
+    }
 }
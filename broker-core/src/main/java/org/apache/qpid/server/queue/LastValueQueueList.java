@@ -21,10 +21,15 @@
 
 package org.apache.qpid.server.queue;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
@@ -50,17 +55,27 @@ public class LastValueQueueList extends OrderedQueueEntryList
         }
     };
 
+    /** Approximate size of a map node and a {@link LatestValueReference}, assuming compressed references. */
+    private static final int KEY_MAPPING_OVERHEAD = 56;
+
     private final String _conflationKey;
-    private final ConcurrentMap<Object, AtomicReference<ConflationQueueEntry>> _latestValuesMap =
-        new ConcurrentHashMap<Object, AtomicReference<ConflationQueueEntry>>();
+    private final ConcurrentMap<Object, LatestValueReference> _latestValuesMap = new ConcurrentHashMap<>();
 
     private final ConflationQueueEntry _deleteInProgress = new ConflationQueueEntry(this);
     private final ConflationQueueEntry _newerEntryAlreadyBeenAndGone = new ConflationQueueEntry(this);
+    private final ConflationQueueEntry _consumed = new ConflationQueueEntry(this);
+
+    private final int _maximumRetainedKeys;
+    private final Queue<RetainedKey> _retainedKeys = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger _retainedKeyCount = new AtomicInteger();
+    private final AtomicLong _keyTableSize = new AtomicLong();
+    private final AtomicLong _keysEvicted = new AtomicLong();
 
     public LastValueQueueList(LastValueQueue<?> queue, QueueStatistics queueStatistics)
     {
         super(queue, queueStatistics, HEAD_CREATOR);
         _conflationKey = queue.getLvqKey();
+        _maximumRetainedKeys = queue.getContextValue(Integer.class, LastValueQueue.LVQ_RETAINED_CONSUMED_KEYS);
     }
 
     private ConflationQueueEntry createHead()
@@ -85,21 +100,23 @@ public class LastValueQueueList extends OrderedQueueEntryList
     {
         final ConflationQueueEntry addedEntry = (ConflationQueueEntry) super.add(message, enqueueRecord);
 
-        final Object keyValue = message.getMessageHeader().getHeader(_conflationKey);
-        if (keyValue != null)
+        final Object headerValue = message.getMessageHeader().getHeader(_conflationKey);
+        if (headerValue != null)
         {
+            final Object keyValue = compactKey(headerValue);
             if(LOGGER.isDebugEnabled())
             {
                 LOGGER.debug("Adding entry " + addedEntry + " for message " + message.getMessageNumber() + " with conflation key " + keyValue);
             }
 
-            final AtomicReference<ConflationQueueEntry> referenceToEntry = new AtomicReference<ConflationQueueEntry>(addedEntry);
-            AtomicReference<ConflationQueueEntry> entryReferenceFromMap;
+            final LatestValueReference referenceToEntry = new LatestValueReference(keyValue, addedEntry);
+            LatestValueReference entryReferenceFromMap;
             ConflationQueueEntry entryFromMap;
 
             // Iterate until we have got a valid atomic reference object and either the referent is newer than the current
             // entry, or the current entry has replaced it in the reference. Note that the _deletedEntryPlaceholder is a special value
-            // indicating that the reference object is no longer valid (it is being removed from the map).
+            // indicating that the reference object is no longer valid (it is being removed from the map), whereas _consumed
+            // indicates a retained key whose latest entry has been consumed, which the current entry may simply replace.
             boolean keepTryingToUpdateEntryReference;
             do
             {
@@ -131,7 +148,7 @@ public class LastValueQueueList extends OrderedQueueEntryList
                 }
                 discardEntry(addedEntry);
             }
-            else if (entryFromMap.compareTo(addedEntry) < 0)
+            else if (entryFromMap != _consumed && entryFromMap.compareTo(addedEntry) < 0)
             {
                 if(LOGGER.isDebugEnabled())
                 {
@@ -162,21 +179,118 @@ public class LastValueQueueList extends OrderedQueueEntryList
      * adds and removes during execution of this method.</li>
      * </ul>
      */
-    private AtomicReference<ConflationQueueEntry> getOrPutIfAbsent(final Object key, final AtomicReference<ConflationQueueEntry> referenceToAddedValue)
+    private LatestValueReference getOrPutIfAbsent(final Object key, final LatestValueReference referenceToAddedValue)
     {
-        AtomicReference<ConflationQueueEntry> latestValueReference = _latestValuesMap.putIfAbsent(key, referenceToAddedValue);
+        LatestValueReference latestValueReference = _latestValuesMap.putIfAbsent(key, referenceToAddedValue);
 
         if(latestValueReference == null)
         {
+            _keyTableSize.addAndGet(estimateKeySize(key));
             latestValueReference = _latestValuesMap.get(key);
             if(latestValueReference == null)
             {
-                return new AtomicReference<ConflationQueueEntry>(_newerEntryAlreadyBeenAndGone);
+                return new LatestValueReference(key, _newerEntryAlreadyBeenAndGone);
             }
         }
         return latestValueReference;
     }
 
+    private void removeKey(final LatestValueReference reference)
+    {
+        if(_latestValuesMap.remove(reference.getKey(), reference))
+        {
+            _keyTableSize.addAndGet(-estimateKeySize(reference.getKey()));
+        }
+    }
+
+    /**
+     * Keeps the key of a reference whose latest entry has been consumed, so that the next message with that key
+     * reuses it, evicting the least recently consumed keys beyond the configured number.
+     */
+    private void retainKey(final LatestValueReference reference)
+    {
+        final RetainedKey retainedKey = new RetainedKey(reference);
+        reference.setRetainedKey(retainedKey);
+        _retainedKeys.add(retainedKey);
+        _retainedKeyCount.incrementAndGet();
+
+        RetainedKey leastRecentlyConsumed;
+        while(_retainedKeyCount.get() > _maximumRetainedKeys && (leastRecentlyConsumed = _retainedKeys.poll()) != null)
+        {
+            _retainedKeyCount.decrementAndGet();
+            final LatestValueReference evictionCandidate = leastRecentlyConsumed.getReference();
+
+            // the key may have been reused, or consumed again and so retained afresh, since it was queued here
+            if(evictionCandidate.getRetainedKey() == leastRecentlyConsumed
+               && evictionCandidate.compareAndSet(_consumed, _deleteInProgress))
+            {
+                removeKey(evictionCandidate);
+                _keysEvicted.incrementAndGet();
+            }
+        }
+    }
+
+    long getConflationKeyCount()
+    {
+        return _latestValuesMap.size();
+    }
+
+    long getConflationKeyTableSize()
+    {
+        return _keyTableSize.get();
+    }
+
+    long getConflationKeysEvicted()
+    {
+        return _keysEvicted.get();
+    }
+
+    /**
+     * Returns the form in which a conflation key value is held in the key table.  Strings of ISO-8859-1 characters,
+     * which include the ticker-like identifiers commonly used as keys, are held at one byte per character.
+     */
+    static Object compactKey(final Object keyValue)
+    {
+        if(keyValue instanceof String)
+        {
+            final String string = (String) keyValue;
+            final int length = string.length();
+            final byte[] bytes = new byte[length];
+            for(int i = 0; i < length; i++)
+            {
+                final char c = string.charAt(i);
+                if(c > 0xFF)
+                {
+                    return string;
+                }
+                bytes[i] = (byte) c;
+            }
+            return new CompactStringKey(bytes);
+        }
+        return keyValue;
+    }
+
+    static long estimateKeySize(final Object key)
+    {
+        if(key instanceof CompactStringKey)
+        {
+            return KEY_MAPPING_OVERHEAD + 24 + align(16 + ((CompactStringKey) key).length());
+        }
+        else if(key instanceof String)
+        {
+            return KEY_MAPPING_OVERHEAD + 24 + align(16 + 2 * ((String) key).length());
+        }
+        else
+        {
+            return KEY_MAPPING_OVERHEAD + 16;
+        }
+    }
+
+    private static long align(final long size)
+    {
+        return (size + 7) & ~7L;
+    }
+
     private void discardEntry(final QueueEntry entry)
     {
         if(entry.acquire())
@@ -203,7 +317,7 @@ public class LastValueQueueList extends OrderedQueueEntryList
     final class ConflationQueueEntry extends OrderedQueueEntry
     {
 
-        private AtomicReference<ConflationQueueEntry> _latestValueReference;
+        private LatestValueReference _latestValueReference;
 
         private ConflationQueueEntry(final LastValueQueueList queueEntryList)
         {
@@ -236,15 +350,24 @@ public class LastValueQueueList extends OrderedQueueEntryList
         @Override
         protected void onDelete()
         {
-            if(_latestValueReference != null && _latestValueReference.compareAndSet(this, _deleteInProgress))
+            if(_latestValueReference != null)
             {
-                Object key = getMessage().getMessageHeader().getHeader(_conflationKey);
-                _latestValuesMap.remove(key,_latestValueReference);
+                if(_maximumRetainedKeys > 0)
+                {
+                    if(_latestValueReference.compareAndSet(this, _consumed))
+                    {
+                        retainKey(_latestValueReference);
+                    }
+                }
+                else if(_latestValueReference.compareAndSet(this, _deleteInProgress))
+                {
+                    removeKey(_latestValueReference);
+                }
             }
 
         }
 
-        public void setLatestValueReference(final AtomicReference<ConflationQueueEntry> latestValueReference)
+        public void setLatestValueReference(final LatestValueReference latestValueReference)
         {
             _latestValueReference = latestValueReference;
         }
@@ -262,6 +385,88 @@ public class LastValueQueueList extends OrderedQueueEntryList
 
     }
 
+    static final class LatestValueReference extends AtomicReference<ConflationQueueEntry>
+    {
+        private final Object _key;
+        private volatile RetainedKey _retainedKey;
+
+        private LatestValueReference(final Object key, final ConflationQueueEntry entry)
+        {
+            super(entry);
+            _key = key;
+        }
+
+        private Object getKey()
+        {
+            return _key;
+        }
+
+        private RetainedKey getRetainedKey()
+        {
+            return _retainedKey;
+        }
+
+        private void setRetainedKey(final RetainedKey retainedKey)
+        {
+            _retainedKey = retainedKey;
+        }
+    }
+
+    private static final class RetainedKey
+    {
+        private final LatestValueReference _reference;
+
+        private RetainedKey(final LatestValueReference reference)
+        {
+            _reference = reference;
+        }
+
+        private LatestValueReference getReference()
+        {
+            return _reference;
+        }
+    }
+
+    static final class CompactStringKey
+    {
+        private final byte[] _bytes;
+        private final int _hashCode;
+
+        private CompactStringKey(final byte[] bytes)
+        {
+            _bytes = bytes;
+            _hashCode = Arrays.hashCode(bytes);
+        }
+
+        int length()
+        {
+            return _bytes.length;
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            return this == o || (o instanceof CompactStringKey && Arrays.equals(_bytes, ((CompactStringKey) o)._bytes));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return _hashCode;
+        }
+
+        @Override
+        public String toString()
+        {
+            final char[] chars = new char[_bytes.length];
+            for(int i = 0; i < _bytes.length; i++)
+            {
+                chars[i] = (char) (_bytes[i] & 0xFF);
+            }
+            return new String(chars);
+        }
+    }
+
     /**
      * Exposed purposes of unit test only.
      */
@@ -20,6 +20,8 @@
 */
 package org.apache.qpid.server.queue;
 
+import java.util.concurrent.atomic.AtomicLongArray;
+
 import org.apache.qpid.server.message.ServerMessage;
 import org.apache.qpid.server.store.MessageEnqueueRecord;
 
@@ -54,6 +56,13 @@ abstract public class PriorityQueueList extends OrderedQueueEntryList
         private final int _priorities;
         private final int _priorityOffset;
 
+        /**
+         * One bit per priority level, clear only if the level has been seen to hold no undeleted entries since the
+         * last entry was added to it, so that scans pass over drained levels without walking them.  An add sets
+         * the bit after linking its entry; a scan that finds a level empty clears the bit and then looks again.
+         */
+        private final AtomicLongArray _nonEmptyLevels;
+
         public PriorityQueueMasterList(PriorityQueueImpl queue, int priorities)
         {
             super(queue, DUMMY_HEAD_CREATOR);
@@ -61,12 +70,75 @@ abstract public class PriorityQueueList extends OrderedQueueEntryList
             _priorityLists = new PriorityQueueEntrySubList[priorities];
             _priorities = priorities;
             _priorityOffset = 5-((priorities + 1)/2);
+            _nonEmptyLevels = new AtomicLongArray((priorities + 63) / 64);
             for(int i = 0; i < priorities; i++)
             {
                 _priorityLists[i] = new PriorityQueueEntrySubList(queue, i);
             }
         }
 
+        private void markNonEmpty(final int level)
+        {
+            final int word = level >>> 6;
+            final long bit = 1L << level;
+            long bits;
+            while(((bits = _nonEmptyLevels.get(word)) & bit) == 0L
+                  && !_nonEmptyLevels.compareAndSet(word, bits, bits | bit))
+            {
+                // retry
+            }
+        }
+
+        private void markEmpty(final int level)
+        {
+            final int word = level >>> 6;
+            final long bit = 1L << level;
+            long bits;
+            while(((bits = _nonEmptyLevels.get(word)) & bit) != 0L
+                  && !_nonEmptyLevels.compareAndSet(word, bits, bits & ~bit))
+            {
+                // retry
+            }
+        }
+
+        /**
+         * Returns the highest level below the given one that may hold undeleted entries, or -1 if there is none.
+         */
+        private int nextNonEmptyLevel(final int level)
+        {
+            if(level <= 0)
+            {
+                return -1;
+            }
+            int word = (level - 1) >>> 6;
+            long bits = _nonEmptyLevels.get(word) & (-1L >>> (63 - ((level - 1) & 63)));
+            while(bits == 0L)
+            {
+                if(word == 0)
+                {
+                    return -1;
+                }
+                bits = _nonEmptyLevels.get(--word);
+            }
+            return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+        }
+
+        private PriorityQueueEntry firstEntry(final int level)
+        {
+            final QueueEntry head = _priorityLists[level].getHead();
+            PriorityQueueEntry first = (PriorityQueueEntry) head.getNextValidEntry();
+            if(first == null)
+            {
+                markEmpty(level);
+                first = (PriorityQueueEntry) head.getNextValidEntry();
+                if(first != null)
+                {
+                    markNonEmpty(level);
+                }
+            }
+            return first;
+        }
+
         @Override
         public int getPriorities()
         {
@@ -91,7 +163,9 @@ abstract public class PriorityQueueList extends OrderedQueueEntryList
             {
                 index = 0;
             }
-            return (PriorityQueueEntry) _priorityLists[index].add(message, enqueueRecord);
+            final PriorityQueueEntry entry = (PriorityQueueEntry) _priorityLists[index].add(message, enqueueRecord);
+            markNonEmpty(index);
+            return entry;
 
         }
 
@@ -109,17 +183,11 @@ abstract public class PriorityQueueList extends OrderedQueueEntryList
 
             if(next == null)
             {
-                final PriorityQueueList nodeEntryList = (PriorityQueueList) ((PriorityQueueEntry)node).getQueueEntryList();
-                int index;
-                for(index = _priorityLists.length-1; _priorityLists[index] != nodeEntryList; index--)
-                {
-                    // do nothing loop is just to find the index
-                }
+                int index = ((PriorityQueueEntrySubList) ((PriorityQueueEntry)node).getQueueEntryList()).getListPriority();
 
-                while(next == null && index != 0)
+                while(next == null && (index = nextNonEmptyLevel(index)) >= 0)
                 {
-                    index--;
-                    next = (PriorityQueueEntry) _priorityLists[index].getHead().getNextValidEntry();
+                    next = firstEntry(index);
                 }
 
             }
@@ -143,7 +211,7 @@ abstract public class PriorityQueueList extends OrderedQueueEntryList
             @Override
             public boolean atTail()
             {
-                for(int i = 0; i < _iterators.length; i++)
+                for(int i = nextNonEmptyLevel(_iterators.length); i >= 0; i = nextNonEmptyLevel(i))
                 {
                     if(!_iterators[i].atTail())
                     {
@@ -162,7 +230,7 @@ abstract public class PriorityQueueList extends OrderedQueueEntryList
             @Override
             public boolean advance()
             {
-                for(int i = _iterators.length-1; i >= 0; i--)
+                for(int i = nextNonEmptyLevel(_iterators.length); i >= 0; i = nextNonEmptyLevel(i))
                 {
                     if(_iterators[i].advance())
                     {
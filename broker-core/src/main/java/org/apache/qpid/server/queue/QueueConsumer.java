@@ -41,7 +41,7 @@ public interface QueueConsumer<X extends QueueConsumer<X,T>, T extends ConsumerT
 
     void acquisitionRemoved(QueueEntry node);
 
-    QueueConsumerNode getQueueConsumerNode();
+    QueueConsumerManagerNode getQueueConsumerNode();
 
     void queueDeleted();
 
@@ -57,7 +57,7 @@ public interface QueueConsumer<X extends QueueConsumer<X,T>, T extends ConsumerT
 
     void notifyWork();
 
-    void setQueueConsumerNode(QueueConsumerNode node);
+    void setQueueConsumerNode(QueueConsumerManagerNode node);
 
     @Override
     AMQPSession<?,?> getSession();
@@ -101,7 +101,7 @@ class QueueConsumerImpl<T extends ConsumerTarget>
 
     private final String _linkName;
 
-    private QueueConsumerNode _queueConsumerNode;
+    private QueueConsumerManagerNode _queueConsumerNode;
 
     QueueConsumerImpl(final AbstractQueue<?> queue,
                       T target,
@@ -271,13 +271,13 @@ class QueueConsumerImpl<T extends ConsumerTarget>
     }
 
     @Override
-    public void setQueueConsumerNode(final QueueConsumerNode node)
+    public void setQueueConsumerNode(final QueueConsumerManagerNode node)
     {
         _queueConsumerNode = node;
     }
 
     @Override
-    public QueueConsumerNode getQueueConsumerNode()
+    public QueueConsumerManagerNode getQueueConsumerNode()
     {
         return _queueConsumerNode;
     }
@@ -343,6 +343,12 @@ class QueueConsumerImpl<T extends ConsumerTarget>
         return messageContainer;
     }
 
+    @Override
+    public int getDeliveryBatchSize()
+    {
+        return _queue.getDeliveryBatchSize();
+    }
+
     @Override
     public void setNotifyWorkDesired(final boolean desired)
     {
@@ -28,6 +28,7 @@ public interface QueueConsumerManager
     boolean removeConsumer(QueueConsumer<?,?> consumer);
     boolean setInterest(QueueConsumer<?,?> consumer, boolean interested);
     boolean setNotified(QueueConsumer<?,?> consumer, boolean notified);
+    boolean isInterested(QueueConsumer<?,?> consumer);
 
     Iterator<QueueConsumer<?,?>> getInterestedIterator();
     Iterator<QueueConsumer<?,?>> getAllIterator();
@@ -35,4 +36,7 @@ public interface QueueConsumerManager
 
     int getAllSize();
     int getHighestNotifiedPriority();
+
+    long getStateTransitionCount();
+    long getContendedStateTransitionCount();
 }
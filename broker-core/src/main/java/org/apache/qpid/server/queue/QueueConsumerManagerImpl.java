@@ -26,6 +26,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 public class QueueConsumerManagerImpl implements QueueConsumerManager
 {
@@ -48,6 +49,9 @@ public class QueueConsumerManagerImpl implements QueueConsumerManager
 
     private final List<PriorityConsumerListPair> _allConsumers;
 
+    private final LongAdder _stateTransitions = new LongAdder();
+    private final LongAdder _contendedInserts = new LongAdder();
+
     private volatile int _count;
 
     enum NodeState
@@ -62,10 +66,10 @@ public class QueueConsumerManagerImpl implements QueueConsumerManager
     public QueueConsumerManagerImpl(final AbstractQueue<?> queue)
     {
         _queue = queue;
-        _notInterested = new QueueConsumerNodeList(queue);
+        _notInterested = new QueueConsumerNodeList(queue, _contendedInserts);
         _interested = new CopyOnWriteArrayList<>();
         _notified = new CopyOnWriteArrayList<>();
-        _nonAcquiring = new QueueConsumerNodeList(queue);
+        _nonAcquiring = new QueueConsumerNodeList(queue, _contendedInserts);
         _allConsumers = new CopyOnWriteArrayList<>();
     }
 
@@ -100,7 +104,7 @@ public class QueueConsumerManagerImpl implements QueueConsumerManager
     public boolean removeConsumer(final QueueConsumer<?,?> consumer)
     {
         removeFromAll(consumer);
-        QueueConsumerNode node = consumer.getQueueConsumerNode();
+        QueueConsumerNode node = (QueueConsumerNode) consumer.getQueueConsumerNode();
 
         if (node.moveFromTo(STATES_OTHER_THAN_REMOVED, NodeState.REMOVED))
         {
@@ -114,7 +118,7 @@ public class QueueConsumerManagerImpl implements QueueConsumerManager
     @Override
     public boolean setInterest(final QueueConsumer<?,?> consumer, final boolean interested)
     {
-        QueueConsumerNode node = consumer.getQueueConsumerNode();
+        QueueConsumerNode node = (QueueConsumerNode) consumer.getQueueConsumerNode();
         if (interested)
         {
             if (consumer.acquires())
@@ -143,7 +147,7 @@ public class QueueConsumerManagerImpl implements QueueConsumerManager
     @Override
     public boolean setNotified(final QueueConsumer<?,?> consumer, final boolean notified)
     {
-        QueueConsumerNode node = consumer.getQueueConsumerNode();
+        QueueConsumerNode node = (QueueConsumerNode) consumer.getQueueConsumerNode();
         if (consumer.acquires())
         {
             if (notified)
@@ -161,6 +165,13 @@ public class QueueConsumerManagerImpl implements QueueConsumerManager
         }
     }
 
+    @Override
+    public boolean isInterested(final QueueConsumer<?,?> consumer)
+    {
+        QueueConsumerNode node = (QueueConsumerNode) consumer.getQueueConsumerNode();
+        return node != null && node.getState() == NodeState.INTERESTED;
+    }
+
     @Override
     public Iterator<QueueConsumer<?,?>> getInterestedIterator()
     {
@@ -201,6 +212,27 @@ public class QueueConsumerManagerImpl implements QueueConsumerManager
         }
     }
 
+    @Override
+    public long getStateTransitionCount()
+    {
+        return _stateTransitions.sum();
+    }
+
+    /**
+     * Transitions of this implementation are serialised on the consumer node, so contention is reported as
+     * the number of retried inserts into the lock-free lists backing the interest states.
+     */
+    @Override
+    public long getContendedStateTransitionCount()
+    {
+        return _contendedInserts.sum();
+    }
+
+    void stateTransitioned()
+    {
+        _stateTransitions.increment();
+    }
+
     QueueConsumerNodeListEntry addNodeToInterestList(final QueueConsumerNode queueConsumerNode)
     {
         QueueConsumerNodeListEntry newListEntry;
@@ -298,7 +330,7 @@ public class QueueConsumerManagerImpl implements QueueConsumerManager
 
     private void removeFromAll(final QueueConsumer<?,?> consumer)
     {
-        final QueueConsumerNode node = consumer.getQueueConsumerNode();
+        final QueueConsumerNode node = (QueueConsumerNode) consumer.getQueueConsumerNode();
         int consumerPriority = consumer.getPriority();
         for (int i = 0; i < _allConsumers.size(); ++i)
         {
@@ -330,7 +362,7 @@ public class QueueConsumerManagerImpl implements QueueConsumerManager
         private PriorityConsumerListPair(final int priority)
         {
             _priority = priority;
-            _consumers = new QueueConsumerNodeList(_queue);
+            _consumers = new QueueConsumerNodeList(_queue, _contendedInserts);
         }
     }
 
@@ -22,7 +22,7 @@ package org.apache.qpid.server.queue;
 
 import java.util.Collection;
 
-final class QueueConsumerNode
+final class QueueConsumerNode implements QueueConsumerManagerNode
 {
     private final QueueConsumerManagerImpl _queueConsumerManager;
     private final QueueConsumer<?,?> _queueConsumer;
@@ -36,6 +36,7 @@ final class QueueConsumerNode
         _queueConsumer = queueConsumer;
     }
 
+    @Override
     public QueueConsumer<?,?> getQueueConsumer()
     {
         return _queueConsumer;
@@ -57,6 +58,7 @@ final class QueueConsumerNode
             }
             _state = toState;
             _listEntry = _queueConsumerManager.addNodeToInterestList(this);
+            _queueConsumerManager.stateTransitioned();
             return true;
         }
         else
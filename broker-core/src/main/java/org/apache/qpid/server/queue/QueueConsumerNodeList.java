@@ -24,6 +24,7 @@ import static org.apache.qpid.server.model.Queue.QUEUE_SCAVANGE_COUNT;
 
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.qpid.server.model.Queue;
 
@@ -35,18 +36,27 @@ class QueueConsumerNodeList
     private final AtomicInteger _size = new AtomicInteger();
     private final AtomicInteger _scavengeCount = new AtomicInteger();
     private final int _scavengeCountThreshold;
+    private final LongAdder _contendedInserts;
 
-    QueueConsumerNodeList(final Queue<?> queue)
+    QueueConsumerNodeList(final Queue<?> queue, final LongAdder contendedInserts)
     {
         _head = new QueueConsumerNodeListEntry(this);
         _tail = new AtomicReference<>(_head);
         _scavengeCountThreshold = queue.getContextValue(Integer.class, QUEUE_SCAVANGE_COUNT);
+        _contendedInserts = contendedInserts;
     }
 
     private void insert(final QueueConsumerNodeListEntry node, final boolean count)
     {
+        boolean contended = false;
         for (;;)
         {
+            if (contended)
+            {
+                _contendedInserts.increment();
+            }
+            contended = true;
+
             QueueConsumerNodeListEntry tail = _tail.get();
             QueueConsumerNodeListEntry next = tail.nextNode();
             if (tail == _tail.get())
@@ -114,6 +114,7 @@ public abstract class QueueEntryImpl implements QueueEntry
 
     private final MessageEnqueueRecord _enqueueRecord;
 
+    private volatile ExpiryTimingWheel.Node _expiryNode;
 
     QueueEntryImpl(QueueEntryList queueEntryList)
     {
@@ -170,6 +171,61 @@ public abstract class QueueEntryImpl implements QueueEntry
         return new EntryInstanceProperties();
     }
 
+    long getExpiration()
+    {
+        return _expiration;
+    }
+
+    ExpiryTimingWheel.Node getExpiryNode()
+    {
+        return _expiryNode;
+    }
+
+    void setExpiryNode(final ExpiryTimingWheel.Node expiryNode)
+    {
+        _expiryNode = expiryNode;
+    }
+
+    /**
+     * Claims an available entry that has never been offered to a consumer on behalf of its list, which may then
+     * replace the entry with a compact record of it.  No state change is notified: as far as the queue is concerned
+     * the message remains available throughout.
+     */
+    boolean claimForCompaction(final EntryState compactedState)
+    {
+        return _stateChangeListeners == null
+               && _rejectedBy == null
+               && _deliveryCount == -1
+               && _expiryNode == null
+               && (_flags & REDELIVERED_FLAG) == 0
+               && _stateUpdater.compareAndSet(this, AVAILABLE_STATE, compactedState);
+    }
+
+    boolean isClaimedForCompaction(final EntryState compactedState)
+    {
+        return _state == compactedState;
+    }
+
+    void unclaimForCompaction(final EntryState compactedState)
+    {
+        if(_stateUpdater.compareAndSet(this, compactedState, AVAILABLE_STATE))
+        {
+            getQueue().requeue(this);
+        }
+    }
+
+    /**
+     * Releases the reference of a compacted entry to its message, unloading the stored message first so that the
+     * release leaves it in the store.  The reference is kept if the store cannot unload the message.
+     */
+    void releaseCompactedMessage()
+    {
+        if (_message.getMessage().getStoredMessage().unload())
+        {
+            _message.release();
+        }
+    }
+
     void setEntryId(long entryId)
     {
         _entryIdUpdater.set(this, entryId);
@@ -301,31 +357,24 @@ public abstract class QueueEntryImpl implements QueueEntry
 
     private boolean acquire(final EntryState state)
     {
-        boolean acquired = false;
-
-        EntryState currentState;
-
-        while((currentState = _state).equals(AVAILABLE_STATE))
+        // the shared AVAILABLE_STATE instance is the only state from which an entry may be acquired, so the
+        // test is an identity comparison and the claim a single compare-and-set against that instance
+        while(_state == AVAILABLE_STATE)
         {
-            if(acquired = _stateUpdater.compareAndSet(this, currentState, state))
+            if(_stateUpdater.compareAndSet(this, AVAILABLE_STATE, state))
             {
-                break;
+                notifyStateChange(AVAILABLE_STATE, state);
+                return true;
             }
         }
-
-        if(acquired)
-        {
-            notifyStateChange(AVAILABLE_STATE, state);
-        }
-
-        return acquired;
+        return false;
     }
 
     @Override
     public boolean acquire(MessageInstanceConsumer<?> consumer)
     {
         final boolean acquired = acquire(((QueueConsumer<?,?>) consumer).getOwningState().getUnstealableState());
-        if(acquired)
+        if(acquired && _deliveryCount == -1)
         {
             _deliveryCountUpdater.compareAndSet(this,-1,0);
         }
@@ -432,7 +481,9 @@ public abstract class QueueEntryImpl implements QueueEntry
     public void release(MessageInstanceConsumer<?> consumer)
     {
         EntryState state = _state;
-        if(isAcquiredBy(consumer) && _stateUpdater.compareAndSet(this, state, AVAILABLE_STATE))
+        if(state instanceof ConsumerAcquiredState
+           && ((ConsumerAcquiredState) state).getConsumer() == consumer
+           && _stateUpdater.compareAndSet(this, state, AVAILABLE_STATE))
         {
             postRelease(state);
         }
@@ -553,6 +604,11 @@ public abstract class QueueEntryImpl implements QueueEntry
         {
             notifyStateChange(state, DELETED_STATE);
             _queueEntryList.entryDeleted(this);
+            final ExpiryTimingWheel.Node expiryNode = _expiryNode;
+            if (expiryNode != null)
+            {
+                expiryNode.cancel();
+            }
             onDelete();
             _message.release();
 
@@ -690,8 +746,12 @@ public abstract class QueueEntryImpl implements QueueEntry
     @Override
     public void incrementDeliveryCount()
     {
-        _deliveryCountUpdater.compareAndSet(this,-1,0);
-        _deliveryCountUpdater.incrementAndGet(this);
+        int deliveryCount;
+        do
+        {
+            deliveryCount = _deliveryCount;
+        }
+        while(!_deliveryCountUpdater.compareAndSet(this, deliveryCount, deliveryCount == -1 ? 1 : deliveryCount + 1));
     }
 
     @Override
@@ -34,6 +34,13 @@ interface QueueEntryList
 
     QueueEntryIterator iterator();
 
+    /**
+     * Returns an iterator over the entries the list currently holds in memory.  Lists that keep part of their
+     * content in a compact form skip that part rather than materialise it; for all others this is
+     * {@link #iterator()}.
+     */
+    QueueEntryIterator residentIterator();
+
     QueueEntry getHead();
 
     QueueEntry getTail();
@@ -21,6 +21,7 @@
 package org.apache.qpid.server.queue;
 
 import org.apache.qpid.server.model.ManagedAttribute;
+import org.apache.qpid.server.model.ManagedContextDefault;
 import org.apache.qpid.server.model.ManagedObject;
 import org.apache.qpid.server.model.Queue;
 
@@ -31,6 +32,14 @@ public interface SortedQueue<X extends SortedQueue<X>> extends Queue<X>
     String SORT_KEY = "sortKey";
     String SORTED_QUEUE_TYPE = "sorted";
 
+    String SORTED_QUEUE_CONCURRENT_ENTRY_LIST_ENABLED = "qpid.sortedQueue.concurrentEntryList.enabled";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault( name = SORTED_QUEUE_CONCURRENT_ENTRY_LIST_ENABLED,
+            description = "If true, a sorted queue holds its entries in a concurrent skip list rather than a"
+                          + " red-black tree, so that publishers insert in parallel rather than one at a time and"
+                          + " consumers iterate without taking a lock.")
+    boolean DEFAULT_SORTED_QUEUE_CONCURRENT_ENTRY_LIST_ENABLED = false;
+
     @ManagedAttribute( mandatory = true )
     String getSortKey();
 
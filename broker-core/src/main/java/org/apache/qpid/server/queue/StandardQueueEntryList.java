@@ -40,6 +40,13 @@ public class StandardQueueEntryList extends OrderedQueueEntryList
         super(queue, queueStatistics, HEAD_CREATOR);
     }
 
+    protected StandardQueueEntryList(final StandardQueue<?> queue,
+                                     final QueueStatistics queueStatistics,
+                                     final HeadCreator headCreator)
+    {
+        super(queue, queueStatistics, headCreator);
+    }
+
 
     @Override
     protected StandardQueueEntry createQueueEntry(ServerMessage<?> message,
@@ -39,7 +39,11 @@ public class StandardQueueImpl extends AbstractQueue<StandardQueueImpl> implemen
     protected void onOpen()
     {
         super.onOpen();
-        _entries = new StandardQueueEntryList(this, getQueueStatistics());
+        final int inMemoryWindow = getContextValue(Integer.class, QUEUE_COMPACT_ENTRY_LIST_IN_MEMORY_WINDOW);
+        // message groups look through the whole queue from consumer threads, which would materialise compacted entries
+        _entries = inMemoryWindow > 0 && getMessageGroupType() == MessageGroupType.NONE
+                ? new CompactQueueEntryList(this, getQueueStatistics(), inMemoryWindow)
+                : new StandardQueueEntryList(this, getQueueStatistics());
     }
 
     @Override
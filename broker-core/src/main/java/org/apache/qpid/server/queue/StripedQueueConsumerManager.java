@@ -0,0 +1,504 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.qpid.server.queue.QueueConsumerManagerImpl.NodeState;
+
+/**
+ * A {@link QueueConsumerManager} intended for queues with very large numbers of competing consumers.
+ * <p>
+ * Consumers are grouped into buckets by priority. Each bucket is made of fixed size segments in which every
+ * consumer owns a slot; the interested, notified and non-acquiring sets are bitsets over those slots. A change
+ * of interest is a CAS on the consumer's state followed by flipping a single bit, so no list entries are created
+ * or scavenged. Consecutive slots are spread over different words of the bitsets to reduce CAS contention
+ * between consumers added at the same time.
+ */
+class StripedQueueConsumerManager implements QueueConsumerManager
+{
+    static final int STRIPES = 16;
+    static final int SLOTS_PER_STRIPE = Long.SIZE;
+    static final int SEGMENT_SIZE = STRIPES * SLOTS_PER_STRIPE;
+
+    private static final int OCCUPIED = 0;
+    private static final int INTERESTED = 1;
+    private static final int NOTIFIED = 2;
+    private static final int NON_ACQUIRING = 3;
+    private static final int SET_COUNT = 4;
+
+    private static final int REMOVED_MASK = mask(NodeState.REMOVED);
+    private static final int STATES_OTHER_THAN_REMOVED_MASK = ~REMOVED_MASK;
+    private static final int NOT_INTERESTED_MASK = mask(NodeState.NOT_INTERESTED);
+    private static final int EITHER_INTERESTED_OR_NOTIFIED_MASK = mask(NodeState.INTERESTED) | mask(NodeState.NOTIFIED);
+    private static final int NON_ACQUIRING_MASK = mask(NodeState.NON_ACQUIRING);
+    private static final int INTERESTED_MASK = mask(NodeState.INTERESTED);
+    private static final int NOTIFIED_MASK = mask(NodeState.NOTIFIED);
+
+    private static final NodeState[] NODE_STATES = NodeState.values();
+
+    private final List<PriorityBucket> _buckets = new CopyOnWriteArrayList<>();
+    private final LongAdder _stateTransitions = new LongAdder();
+    private final LongAdder _contendedStateTransitions = new LongAdder();
+
+    private volatile int _count;
+
+    // Always in the config thread
+    @Override
+    public synchronized void addConsumer(final QueueConsumer<?,?> consumer)
+    {
+        final PriorityBucket bucket = getOrCreateBucket(consumer.getPriority());
+        final StripedQueueConsumerNode node = bucket.allocate(consumer);
+
+        consumer.setQueueConsumerNode(node);
+        if (consumer.isNotifyWorkDesired())
+        {
+            if (consumer.acquires())
+            {
+                node.moveFromTo(REMOVED_MASK, NodeState.INTERESTED);
+            }
+            else
+            {
+                node.moveFromTo(REMOVED_MASK, NodeState.NON_ACQUIRING);
+            }
+        }
+        else
+        {
+            node.moveFromTo(REMOVED_MASK, NodeState.NOT_INTERESTED);
+        }
+        _count++;
+    }
+
+    // Always in the config thread
+    @Override
+    public synchronized boolean removeConsumer(final QueueConsumer<?,?> consumer)
+    {
+        final StripedQueueConsumerNode node = (StripedQueueConsumerNode) consumer.getQueueConsumerNode();
+
+        if (node.moveFromTo(STATES_OTHER_THAN_REMOVED_MASK, NodeState.REMOVED))
+        {
+            final PriorityBucket bucket = node._bucket;
+            bucket.release(node);
+            if (bucket.isEmpty())
+            {
+                _buckets.remove(bucket);
+            }
+            _count--;
+            return true;
+        }
+        return false;
+    }
+
+    // Set by the consumer always in the IO thread
+    @Override
+    public boolean setInterest(final QueueConsumer<?,?> consumer, final boolean interested)
+    {
+        final StripedQueueConsumerNode node = (StripedQueueConsumerNode) consumer.getQueueConsumerNode();
+        if (interested)
+        {
+            if (consumer.acquires())
+            {
+                return node.moveFromTo(NOT_INTERESTED_MASK, NodeState.INTERESTED);
+            }
+            else
+            {
+                return node.moveFromTo(NOT_INTERESTED_MASK, NodeState.NON_ACQUIRING);
+            }
+        }
+        else
+        {
+            if (consumer.acquires())
+            {
+                return node.moveFromTo(EITHER_INTERESTED_OR_NOTIFIED_MASK, NodeState.NOT_INTERESTED);
+            }
+            else
+            {
+                return node.moveFromTo(NON_ACQUIRING_MASK, NodeState.NOT_INTERESTED);
+            }
+        }
+    }
+
+    // Set by the Queue any IO thread
+    @Override
+    public boolean setNotified(final QueueConsumer<?,?> consumer, final boolean notified)
+    {
+        final StripedQueueConsumerNode node = (StripedQueueConsumerNode) consumer.getQueueConsumerNode();
+        if (consumer.acquires())
+        {
+            if (notified)
+            {
+                return node.moveFromTo(INTERESTED_MASK, NodeState.NOTIFIED);
+            }
+            else
+            {
+                return node.moveFromTo(NOTIFIED_MASK, NodeState.INTERESTED);
+            }
+        }
+        else
+        {
+            return true;
+        }
+    }
+
+    @Override
+    public boolean isInterested(final QueueConsumer<?,?> consumer)
+    {
+        final StripedQueueConsumerNode node = (StripedQueueConsumerNode) consumer.getQueueConsumerNode();
+        return node != null && node.getState() == NodeState.INTERESTED;
+    }
+
+    @Override
+    public Iterator<QueueConsumer<?,?>> getInterestedIterator()
+    {
+        return new SlotSetIterator(INTERESTED, NodeState.INTERESTED, true);
+    }
+
+    @Override
+    public Iterator<QueueConsumer<?,?>> getAllIterator()
+    {
+        return new SlotSetIterator(OCCUPIED, null, false);
+    }
+
+    @Override
+    public Iterator<QueueConsumer<?,?>> getNonAcquiringIterator()
+    {
+        return new SlotSetIterator(NON_ACQUIRING, NodeState.NON_ACQUIRING, false);
+    }
+
+    @Override
+    public int getAllSize()
+    {
+        return _count;
+    }
+
+    @Override
+    public int getHighestNotifiedPriority()
+    {
+        final Iterator<QueueConsumer<?,?>> notifiedIterator = new SlotSetIterator(NOTIFIED, NodeState.NOTIFIED, false);
+        if (notifiedIterator.hasNext())
+        {
+            return notifiedIterator.next().getPriority();
+        }
+        else
+        {
+            return Integer.MIN_VALUE;
+        }
+    }
+
+    @Override
+    public long getStateTransitionCount()
+    {
+        return _stateTransitions.sum();
+    }
+
+    @Override
+    public long getContendedStateTransitionCount()
+    {
+        return _contendedStateTransitions.sum();
+    }
+
+    private PriorityBucket getOrCreateBucket(final int priority)
+    {
+        int i;
+        for (i = 0; i < _buckets.size(); ++i)
+        {
+            final PriorityBucket bucket = _buckets.get(i);
+            if (bucket._priority == priority)
+            {
+                return bucket;
+            }
+            else if (bucket._priority < priority)
+            {
+                break;
+            }
+        }
+        final PriorityBucket bucket = new PriorityBucket(priority);
+        _buckets.add(i, bucket);
+        return bucket;
+    }
+
+    private static int mask(final NodeState state)
+    {
+        return 1 << state.ordinal();
+    }
+
+    private final class PriorityBucket
+    {
+        private final int _priority;
+        private final List<Segment> _segments = new CopyOnWriteArrayList<>();
+        private final Deque<Integer> _freeSlots = new ArrayDeque<>();
+        private final AtomicInteger _startStripe = new AtomicInteger();
+        private int _size;
+
+        private PriorityBucket(final int priority)
+        {
+            _priority = priority;
+        }
+
+        private StripedQueueConsumerNode allocate(final QueueConsumer<?,?> consumer)
+        {
+            if (_freeSlots.isEmpty())
+            {
+                final Segment segment = new Segment(_segments.size() * SEGMENT_SIZE);
+                for (int i = 0; i < SEGMENT_SIZE; i++)
+                {
+                    _freeSlots.add(segment._base + i);
+                }
+                _segments.add(segment);
+            }
+            final int slot = _freeSlots.poll();
+            final Segment segment = _segments.get(slot / SEGMENT_SIZE);
+            final StripedQueueConsumerNode node = new StripedQueueConsumerNode(consumer, this, segment, slot % SEGMENT_SIZE);
+            segment._nodes.set(node._index, node);
+            segment.update(OCCUPIED, node._stripe, node._bit, true);
+            _size++;
+            return node;
+        }
+
+        private void release(final StripedQueueConsumerNode node)
+        {
+            final Segment segment = node._segment;
+            segment.update(OCCUPIED, node._stripe, node._bit, false);
+            segment._nodes.set(node._index, null);
+            _freeSlots.addFirst(segment._base + node._index);
+            _size--;
+        }
+
+        private boolean isEmpty()
+        {
+            return _size == 0;
+        }
+    }
+
+    private final class Segment
+    {
+        private final AtomicLongArray[] _sets = new AtomicLongArray[SET_COUNT];
+        private final AtomicReferenceArray<StripedQueueConsumerNode> _nodes = new AtomicReferenceArray<>(SEGMENT_SIZE);
+        private final int _base;
+
+        private Segment(final int base)
+        {
+            _base = base;
+            for (int i = 0; i < SET_COUNT; i++)
+            {
+                _sets[i] = new AtomicLongArray(STRIPES);
+            }
+        }
+
+        private void update(final int set, final int stripe, final long bit, final boolean value)
+        {
+            final AtomicLongArray words = _sets[set];
+            while (true)
+            {
+                final long current = words.get(stripe);
+                final long updated = value ? current | bit : current & ~bit;
+                if (current == updated || words.compareAndSet(stripe, current, updated))
+                {
+                    return;
+                }
+                _contendedStateTransitions.increment();
+            }
+        }
+    }
+
+    final class StripedQueueConsumerNode implements QueueConsumerManagerNode
+    {
+        private final QueueConsumer<?,?> _queueConsumer;
+        private final PriorityBucket _bucket;
+        private final Segment _segment;
+        private final int _index;
+        private final int _stripe;
+        private final long _bit;
+        volatile int _state = NodeState.REMOVED.ordinal();
+
+        private StripedQueueConsumerNode(final QueueConsumer<?,?> queueConsumer,
+                                         final PriorityBucket bucket,
+                                         final Segment segment,
+                                         final int index)
+        {
+            _queueConsumer = queueConsumer;
+            _bucket = bucket;
+            _segment = segment;
+            _index = index;
+            _stripe = index % STRIPES;
+            _bit = 1L << (index / STRIPES);
+        }
+
+        @Override
+        public QueueConsumer<?,?> getQueueConsumer()
+        {
+            return _queueConsumer;
+        }
+
+        NodeState getState()
+        {
+            return NODE_STATES[_state];
+        }
+
+        private boolean moveFromTo(final int fromStatesMask, final NodeState toState)
+        {
+            while (true)
+            {
+                final int current = _state;
+                if ((fromStatesMask & (1 << current)) == 0)
+                {
+                    return false;
+                }
+                if (STATE_UPDATER.compareAndSet(this, current, toState.ordinal()))
+                {
+                    _stateTransitions.increment();
+                    publishState();
+                    return true;
+                }
+                _contendedStateTransitions.increment();
+            }
+        }
+
+        /**
+         * Makes the bits of this node's slot reflect its state. Racing publishers may interleave, so the bits are
+         * rewritten until the state is seen unchanged afterwards; if the slot was reused meanwhile the new
+         * occupant's bits are republished in case they were overwritten by this (removed) node.
+         */
+        private void publishState()
+        {
+            int state;
+            do
+            {
+                state = _state;
+                _segment.update(INTERESTED, _stripe, _bit, state == NodeState.INTERESTED.ordinal());
+                _segment.update(NOTIFIED, _stripe, _bit, state == NodeState.NOTIFIED.ordinal());
+                _segment.update(NON_ACQUIRING, _stripe, _bit, state == NodeState.NON_ACQUIRING.ordinal());
+            }
+            while (state != _state);
+
+            final StripedQueueConsumerNode occupant = _segment._nodes.get(_index);
+            if (occupant != null && occupant != this)
+            {
+                occupant.publishState();
+            }
+        }
+    }
+
+    private static final AtomicIntegerFieldUpdater<StripedQueueConsumerNode> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(StripedQueueConsumerNode.class, "_state");
+
+    /**
+     * Iterates the consumers whose slot bit is set in the given set, in descending priority order. Bits may be
+     * momentarily stale, so where a required state is given the node state is rechecked before it is returned.
+     * When rotating, each traversal of a bucket starts from a different stripe so that equal priority consumers
+     * are offered work in turn.
+     */
+    private final class SlotSetIterator implements Iterator<QueueConsumer<?,?>>
+    {
+        private final int _set;
+        private final NodeState _requiredState;
+        private final boolean _rotate;
+        private final Iterator<PriorityBucket> _bucketIterator;
+
+        private List<Segment> _segments;
+        private int _segmentIndex;
+        private Segment _segment;
+        private int _startStripe;
+        private int _stripeCount = STRIPES;
+        private long _pendingBits;
+        private int _pendingStripe;
+
+        private StripedQueueConsumerNode _next;
+
+        private SlotSetIterator(final int set, final NodeState requiredState, final boolean rotate)
+        {
+            _set = set;
+            _requiredState = requiredState;
+            _rotate = rotate;
+            _bucketIterator = _buckets.iterator();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            while (_next == null)
+            {
+                if (_pendingBits != 0L)
+                {
+                    final long lowestBit = Long.lowestOneBit(_pendingBits);
+                    _pendingBits &= ~lowestBit;
+                    final int index = Long.numberOfTrailingZeros(lowestBit) * STRIPES + _pendingStripe;
+                    final StripedQueueConsumerNode node = _segment._nodes.get(index);
+                    if (node != null && (_requiredState == null || node.getState() == _requiredState))
+                    {
+                        _next = node;
+                    }
+                }
+                else if (_segments != null && _stripeCount < STRIPES)
+                {
+                    _pendingStripe = (_startStripe + _stripeCount++) % STRIPES;
+                    _pendingBits = _segment._sets[_set].get(_pendingStripe);
+                }
+                else if (_segments != null && _segmentIndex + 1 < _segments.size())
+                {
+                    _segment = _segments.get(++_segmentIndex);
+                    _stripeCount = 0;
+                }
+                else if (_bucketIterator.hasNext())
+                {
+                    final PriorityBucket bucket = _bucketIterator.next();
+                    _segments = bucket._segments;
+                    _segmentIndex = -1;
+                    _stripeCount = STRIPES;
+                    _startStripe = _rotate ? (bucket._startStripe.getAndIncrement() & Integer.MAX_VALUE) % STRIPES : 0;
+                }
+                else
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public QueueConsumer<?,?> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            final StripedQueueConsumerNode node = _next;
+            _next = null;
+            return node.getQueueConsumer();
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
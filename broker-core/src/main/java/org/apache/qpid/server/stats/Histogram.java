@@ -0,0 +1,114 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent histogram of non-negative long values using log-linear buckets in the style of HdrHistogram.
+ * <p>
+ * Values below {@link #SUB_BUCKET_COUNT} are counted exactly; above that each power of two range is divided into
+ * {@link #SUB_BUCKET_COUNT} equal buckets, so a reported percentile is at most 1/{@value #SUB_BUCKET_COUNT}
+ * above the true value. Recording is a single atomic increment and never allocates.
+ */
+public final class Histogram
+{
+    static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray _counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong _totalCount = new AtomicLong();
+    private final AtomicLong _maximum = new AtomicLong();
+
+    public void record(final long value)
+    {
+        final long v = Math.max(value, 0L);
+        _counts.incrementAndGet(bucketIndex(v));
+        _totalCount.incrementAndGet();
+        long max;
+        while (v > (max = _maximum.get()) && !_maximum.compareAndSet(max, v))
+        {
+            // retry
+        }
+    }
+
+    public long getCount()
+    {
+        return _totalCount.get();
+    }
+
+    public long getMaximum()
+    {
+        return _maximum.get();
+    }
+
+    /**
+     * @param percentile percentile in the range 0 to 100
+     * @return the highest value equivalent to the bucket holding the given percentile, never more than the
+     * maximum recorded value, or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(final double percentile)
+    {
+        final long totalCount = _totalCount.get();
+        if (totalCount == 0)
+        {
+            return 0L;
+        }
+        final long countAtPercentile =
+                Math.max(1L, (long) Math.ceil(Math.min(Math.max(percentile, 0.0), 100.0) / 100.0 * totalCount));
+        long cumulativeCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            cumulativeCount += _counts.get(i);
+            if (cumulativeCount >= countAtPercentile)
+            {
+                return Math.min(highestEquivalentValue(i), getMaximum());
+            }
+        }
+        return getMaximum();
+    }
+
+    static int bucketIndex(final long value)
+    {
+        if (value < SUB_BUCKET_COUNT)
+        {
+            return (int) value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long highestEquivalentValue(final int index)
+    {
+        if (index < SUB_BUCKET_COUNT)
+        {
+            return index;
+        }
+        final int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        final int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        final long lowest = ((long) (SUB_BUCKET_COUNT + subBucket)) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
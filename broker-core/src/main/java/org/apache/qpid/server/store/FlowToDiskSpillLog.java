@@ -0,0 +1,473 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
+
+/**
+ * Append-only log of memory mapped segment files into which the content of in-memory messages is evacuated
+ * when the virtual host is over its target size. Content is appended sequentially to the current segment and
+ * copied back on demand, so that evacuated messages hold neither heap nor direct memory.
+ * <p>
+ * A segment file is deleted as soon as none of its entries remain live. When a new segment is started, at most
+ * one sealed segment whose live content has fallen below the compaction threshold has its surviving entries
+ * relocated into the new segment so that a few long-lived messages cannot pin many mostly empty segments.
+ * <p>
+ * Reads take only a lock on the segment they read from, so reads of different segments and appends proceed
+ * concurrently. A segment is unmapped as soon as it is released, once no read of it is in progress, so that
+ * neither its address space nor the disk blocks of its deleted file are held until the next garbage collection.
+ * <p>
+ * The log is not recoverable: its directory is cleared when the log is opened and when it is closed.
+ */
+public class FlowToDiskSpillLog
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlowToDiskSpillLog.class);
+    private static final String SEGMENT_FILE_PREFIX = "spill-";
+    private static final String SEGMENT_FILE_SUFFIX = ".seg";
+    private static final Unmapper UNMAPPER = createUnmapper();
+
+    private final File _directory;
+    private final int _segmentSize;
+    private final int _compactionThreshold;
+    private final Object _lock = new Object();
+    private final Map<Long, Segment> _segments = new LinkedHashMap<>();
+
+    private final AtomicLong _bytesSpilled = new AtomicLong();
+    private final AtomicLong _liveBytes = new AtomicLong();
+    private final AtomicLong _bytesRelocated = new AtomicLong();
+    private final AtomicLong _segmentsReleased = new AtomicLong();
+
+    private long _nextSegmentId;
+    private Segment _currentSegment;
+    private volatile boolean _closed;
+
+    /**
+     * @param directory directory holding the segment files, created if necessary
+     * @param segmentSize size in bytes of each mapped segment
+     * @param compactionThreshold percentage of live content below which a sealed segment is compacted
+     */
+    public FlowToDiskSpillLog(final File directory, final int segmentSize, final int compactionThreshold)
+    {
+        if (segmentSize <= 0)
+        {
+            throw new IllegalArgumentException("Segment size must be positive: " + segmentSize);
+        }
+        _directory = directory;
+        _segmentSize = segmentSize;
+        _compactionThreshold = Math.max(0, Math.min(100, compactionThreshold));
+
+        if (!_directory.isDirectory() && !_directory.mkdirs())
+        {
+            throw new StoreException("Cannot create flow to disk spill directory " + _directory.getAbsolutePath());
+        }
+        deleteSegmentFiles();
+    }
+
+    /**
+     * Copies the remaining bytes of the given content into the log. The content buffer is left unchanged.
+     */
+    public Entry append(final QpidByteBuffer content)
+    {
+        final int length = content.remaining();
+        synchronized (_lock)
+        {
+            checkOpen();
+            final Segment segment = segmentWithCapacity(length);
+            final Entry entry = new Entry(segment, segment._writePosition, length);
+            final ByteBuffer target = segment._buffer.duplicate();
+            target.position(segment._writePosition);
+            content.copyTo(target);
+            segment.add(entry);
+            _bytesSpilled.addAndGet(length);
+            _liveBytes.addAndGet(length);
+            return entry;
+        }
+    }
+
+    /**
+     * Returns a buffer holding a copy of length bytes of the entry beginning from the given offset. If length
+     * is {@link Integer#MAX_VALUE}, length is not constrained.
+     */
+    public QpidByteBuffer read(final Entry entry, final int offset, final int length)
+    {
+        while (true)
+        {
+            checkOpen();
+            final Segment segment = entry._segment;
+            if (segment == null)
+            {
+                throw new IllegalStateException("Spill log entry has been released");
+            }
+            segment._accessLock.readLock().lock();
+            try
+            {
+                // the entry may have been relocated, or the log closed, before the segment lock was taken
+                if (entry._segment == segment && !segment._unmapped)
+                {
+                    final int available = Math.max(0, entry._length - offset);
+                    final int size = length == Integer.MAX_VALUE ? available : Math.min(length, available);
+                    if (size == 0)
+                    {
+                        return QpidByteBuffer.emptyQpidByteBuffer();
+                    }
+                    final ByteBuffer source = segment._buffer.duplicate();
+                    source.position(entry._position + offset);
+                    source.limit(entry._position + offset + size);
+                    final QpidByteBuffer data = QpidByteBuffer.allocateDirect(size);
+                    data.put(source);
+                    data.flip();
+                    return data;
+                }
+            }
+            finally
+            {
+                segment._accessLock.readLock().unlock();
+            }
+        }
+    }
+
+    public void release(final Entry entry)
+    {
+        synchronized (_lock)
+        {
+            final Segment segment = entry._segment;
+            if (segment != null)
+            {
+                entry._segment = null;
+                segment.remove(entry);
+                _liveBytes.addAndGet(-entry._length);
+                if (segment._entries.isEmpty() && segment != _currentSegment)
+                {
+                    releaseSegment(segment);
+                }
+            }
+        }
+    }
+
+    public void close()
+    {
+        synchronized (_lock)
+        {
+            if (!_closed)
+            {
+                _closed = true;
+                for (Segment segment : new ArrayList<>(_segments.values()))
+                {
+                    for (Entry entry : segment._entries)
+                    {
+                        entry._segment = null;
+                    }
+                    releaseSegment(segment);
+                }
+                _currentSegment = null;
+                _liveBytes.set(0);
+            }
+        }
+    }
+
+    public File getDirectory()
+    {
+        return _directory;
+    }
+
+    public long getBytesSpilled()
+    {
+        return _bytesSpilled.get();
+    }
+
+    public long getLiveBytes()
+    {
+        return _liveBytes.get();
+    }
+
+    public long getBytesRelocated()
+    {
+        return _bytesRelocated.get();
+    }
+
+    public long getSegmentsReleased()
+    {
+        return _segmentsReleased.get();
+    }
+
+    public int getSegmentCount()
+    {
+        synchronized (_lock)
+        {
+            return _segments.size();
+        }
+    }
+
+    private Segment segmentWithCapacity(final int length)
+    {
+        if (_currentSegment != null && _currentSegment.remaining() >= length)
+        {
+            return _currentSegment;
+        }
+
+        if (length > _segmentSize)
+        {
+            // oversized content gets a segment of its own, sealed as soon as it is written
+            return createSegment(length);
+        }
+
+        final Segment previous = _currentSegment;
+        _currentSegment = createSegment(_segmentSize);
+        if (previous != null && previous._entries.isEmpty())
+        {
+            releaseSegment(previous);
+        }
+        compactOneSegment();
+        return _currentSegment.remaining() >= length ? _currentSegment : createSegment(length);
+    }
+
+    private void compactOneSegment()
+    {
+        for (Segment segment : _segments.values())
+        {
+            if (segment != _currentSegment
+                && segment._liveBytes * 100L < (long) segment._buffer.capacity() * _compactionThreshold
+                && segment._liveBytes <= _currentSegment.remaining())
+            {
+                relocate(segment);
+                return;
+            }
+        }
+    }
+
+    private void relocate(final Segment segment)
+    {
+        final ByteBuffer target = _currentSegment._buffer.duplicate();
+        segment._accessLock.writeLock().lock();
+        try
+        {
+            for (Entry entry : new ArrayList<>(segment._entries))
+            {
+                final ByteBuffer source = segment._buffer.duplicate();
+                source.position(entry._position);
+                source.limit(entry._position + entry._length);
+                target.position(_currentSegment._writePosition);
+                target.put(source);
+
+                segment.remove(entry);
+                entry._position = _currentSegment._writePosition;
+                entry._segment = _currentSegment;
+                _currentSegment.add(entry);
+                _bytesRelocated.addAndGet(entry._length);
+            }
+        }
+        finally
+        {
+            segment._accessLock.writeLock().unlock();
+        }
+        releaseSegment(segment);
+    }
+
+    private Segment createSegment(final int size)
+    {
+        final long id = _nextSegmentId++;
+        final File file = new File(_directory, SEGMENT_FILE_PREFIX + id + SEGMENT_FILE_SUFFIX);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+             FileChannel channel = randomAccessFile.getChannel())
+        {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            final Segment segment = new Segment(id, file, buffer);
+            _segments.put(id, segment);
+            return segment;
+        }
+        catch (IOException e)
+        {
+            throw new StoreException("Cannot create flow to disk spill segment " + file.getAbsolutePath(), e);
+        }
+    }
+
+    private void releaseSegment(final Segment segment)
+    {
+        _segments.remove(segment._id);
+        _segmentsReleased.incrementAndGet();
+        segment._accessLock.writeLock().lock();
+        try
+        {
+            segment._unmapped = true;
+            UNMAPPER.unmap(segment._buffer);
+        }
+        finally
+        {
+            segment._accessLock.writeLock().unlock();
+        }
+        if (!segment._file.delete())
+        {
+            LOGGER.warn("Cannot delete flow to disk spill segment {}", segment._file.getAbsolutePath());
+        }
+    }
+
+    private void deleteSegmentFiles()
+    {
+        final File[] files = _directory.listFiles((dir, name) -> name.startsWith(SEGMENT_FILE_PREFIX)
+                                                                 && name.endsWith(SEGMENT_FILE_SUFFIX));
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                if (!file.delete())
+                {
+                    LOGGER.warn("Cannot delete stale flow to disk spill segment {}", file.getAbsolutePath());
+                }
+            }
+        }
+    }
+
+    private void checkOpen()
+    {
+        if (_closed)
+        {
+            throw new StoreException("Flow to disk spill log " + _directory.getAbsolutePath() + " is closed");
+        }
+    }
+
+    private static Unmapper createUnmapper()
+    {
+        try
+        {
+            // Java 9 and later
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            final Object unsafe = theUnsafe.get(null);
+            return buffer -> invokeCleaner.invoke(unsafe, buffer);
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            LOGGER.debug("Cannot use sun.misc.Unsafe#invokeCleaner to unmap spill segments: " + e);
+        }
+        try
+        {
+            final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return buffer -> clean.invoke(cleaner.invoke(buffer));
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            LOGGER.debug("Cannot use sun.misc.Cleaner to unmap spill segments: " + e);
+        }
+        LOGGER.warn("Flow to disk spill segments cannot be unmapped explicitly and will be released by garbage collection");
+        return buffer -> { };
+    }
+
+    private interface Unmapper
+    {
+        void unmapBuffer(MappedByteBuffer buffer) throws ReflectiveOperationException;
+
+        default void unmap(MappedByteBuffer buffer)
+        {
+            try
+            {
+                unmapBuffer(buffer);
+            }
+            catch (InvocationTargetException e)
+            {
+                LOGGER.warn("Cannot unmap flow to disk spill segment", e.getCause());
+            }
+            catch (ReflectiveOperationException | RuntimeException e)
+            {
+                LOGGER.warn("Cannot unmap flow to disk spill segment", e);
+            }
+        }
+    }
+
+    public static final class Entry
+    {
+        private final int _length;
+        private volatile Segment _segment;
+        private volatile int _position;
+
+        private Entry(final Segment segment, final int position, final int length)
+        {
+            _segment = segment;
+            _position = position;
+            _length = length;
+        }
+
+        public int getLength()
+        {
+            return _length;
+        }
+    }
+
+    private static final class Segment
+    {
+        private final long _id;
+        private final File _file;
+        private final MappedByteBuffer _buffer;
+        private final ReadWriteLock _accessLock = new ReentrantReadWriteLock();
+        private final Set<Entry> _entries = new HashSet<>();
+        private int _writePosition;
+        private long _liveBytes;
+        private volatile boolean _unmapped;
+
+        private Segment(final long id, final File file, final MappedByteBuffer buffer)
+        {
+            _id = id;
+            _file = file;
+            _buffer = buffer;
+        }
+
+        private int remaining()
+        {
+            return _buffer.capacity() - _writePosition;
+        }
+
+        private void add(final Entry entry)
+        {
+            _entries.add(entry);
+            _writePosition = Math.max(_writePosition, entry._position + entry._length);
+            _liveBytes += entry._length;
+        }
+
+        private void remove(final Entry entry)
+        {
+            _entries.remove(entry);
+            _liveBytes -= entry._length;
+        }
+    }
+}
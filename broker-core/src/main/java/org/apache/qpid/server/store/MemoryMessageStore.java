@@ -37,10 +37,12 @@ import com.google.common.util.concurrent.ListenableFuture;
 
 import org.apache.qpid.server.message.EnqueueableMessage;
 import org.apache.qpid.server.model.ConfiguredObject;
+import org.apache.qpid.server.model.VirtualHost;
 import org.apache.qpid.server.store.handler.DistributedTransactionHandler;
 import org.apache.qpid.server.store.handler.MessageHandler;
 import org.apache.qpid.server.store.handler.MessageInstanceHandler;
 import org.apache.qpid.server.txn.Xid;
+import org.apache.qpid.server.virtualhost.QueueManagingVirtualHost;
 
 /** A simple message store that stores the messages in a thread-safe structure in memory. */
 public class MemoryMessageStore implements MessageStore
@@ -54,7 +56,9 @@ public class MemoryMessageStore implements MessageStore
     private final Map<UUID, Set<Long>> _messageInstances = new HashMap<UUID, Set<Long>>();
     private final Map<Xid, DistributedTransactionRecords> _distributedTransactions = new HashMap<Xid, DistributedTransactionRecords>();
     private final AtomicLong _inMemorySize = new AtomicLong();
+    private final AtomicLong _bytesEvacuatedFromMemory = new AtomicLong();
     private final Set<MessageDeleteListener> _messageDeleteListeners = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private volatile FlowToDiskSpillLog _spillLog;
 
 
 
@@ -270,6 +274,23 @@ public class MemoryMessageStore implements MessageStore
     @Override
     public void openMessageStore(final ConfiguredObject<?> parent)
     {
+        if (Boolean.TRUE.equals(parent.getContextValue(Boolean.class,
+                                                        QueueManagingVirtualHost.FLOW_TO_DISK_SPILL_LOG_ENABLED)))
+        {
+            final String workDir = parent.getContextValue(String.class, VirtualHost.VIRTUALHOST_WORK_DIR_VAR);
+            final Integer segmentSize =
+                    parent.getContextValue(Integer.class, QueueManagingVirtualHost.FLOW_TO_DISK_SPILL_LOG_SEGMENT_SIZE);
+            final Integer compactionThreshold =
+                    parent.getContextValue(Integer.class,
+                                           QueueManagingVirtualHost.FLOW_TO_DISK_SPILL_LOG_COMPACTION_THRESHOLD);
+            _spillLog = new FlowToDiskSpillLog(new File(workDir, "flowToDiskSpill"),
+                                               segmentSize == null
+                                                       ? QueueManagingVirtualHost.DEFAULT_FLOW_TO_DISK_SPILL_LOG_SEGMENT_SIZE
+                                                       : segmentSize,
+                                               compactionThreshold == null
+                                                       ? QueueManagingVirtualHost.DEFAULT_FLOW_TO_DISK_SPILL_LOG_COMPACTION_THRESHOLD
+                                                       : compactionThreshold);
+        }
     }
 
     @Override
@@ -295,7 +316,7 @@ public class MemoryMessageStore implements MessageStore
     {
         long id = getNextMessageId();
 
-        StoredMemoryMessage<T> storedMemoryMessage = new StoredMemoryMessage<T>(id, metaData)
+        StoredMemoryMessage<T> storedMemoryMessage = new StoredMemoryMessage<T>(id, metaData, _spillLog)
         {
 
             @Override
@@ -306,12 +327,29 @@ public class MemoryMessageStore implements MessageStore
                 return storedMessage;
             }
 
+            @Override
+            public synchronized boolean flowToDisk()
+            {
+                final boolean wasInMemory = isInMemory();
+                final boolean flowed = super.flowToDisk();
+                if (wasInMemory && !isInMemory())
+                {
+                    _inMemorySize.addAndGet(-getContentSize());
+                    _bytesEvacuatedFromMemory.addAndGet(getContentSize());
+                }
+                return flowed;
+            }
+
             @Override
             public void remove()
             {
                 _messages.remove(getMessageNumber());
-                int bytesCleared = metaData.getStorableSize() + metaData.getContentSize();
-                super.remove();
+                final int bytesCleared;
+                synchronized (this)
+                {
+                    bytesCleared = metaData.getStorableSize() + (isInMemory() ? metaData.getContentSize() : 0);
+                    super.remove();
+                }
                 _inMemorySize.addAndGet(-bytesCleared);
                 if (!_messageDeleteListeners.isEmpty())
                 {
@@ -350,7 +388,7 @@ public class MemoryMessageStore implements MessageStore
     @Override
     public long getBytesEvacuatedFromMemory()
     {
-        return 0L;
+        return _bytesEvacuatedFromMemory.get();
     }
 
     @Override
@@ -368,6 +406,11 @@ public class MemoryMessageStore implements MessageStore
         }
         _messages.clear();
         _inMemorySize.set(0);
+        if (_spillLog != null)
+        {
+            _spillLog.close();
+            _spillLog = null;
+        }
         synchronized (_transactionLock)
         {
             _messageInstances.clear();
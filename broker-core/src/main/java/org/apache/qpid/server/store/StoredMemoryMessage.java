@@ -28,12 +28,21 @@ public class StoredMemoryMessage<T extends StorableMessageMetaData> implements S
     private final long _messageNumber;
     private final int _contentSize;
     private final int _metadataSize;
+    private final FlowToDiskSpillLog _spillLog;
     private QpidByteBuffer _content = null;
+    private FlowToDiskSpillLog.Entry _spilledContent;
+    private boolean _allContentAdded;
     private volatile T _metaData;
 
     public StoredMemoryMessage(long messageNumber, T metaData)
+    {
+        this(messageNumber, metaData, null);
+    }
+
+    public StoredMemoryMessage(long messageNumber, T metaData, FlowToDiskSpillLog spillLog)
     {
         _messageNumber = messageNumber;
+        _spillLog = spillLog;
         _metaData = metaData;
         _contentSize = _metaData.getContentSize();
         _metadataSize = _metaData.getStorableSize();
@@ -64,6 +73,7 @@ public class StoredMemoryMessage<T extends StorableMessageMetaData> implements S
     @Override
     public synchronized StoredMessage<T> allContentAdded()
     {
+        _allContentAdded = true;
         return this;
     }
 
@@ -71,6 +81,10 @@ public class StoredMemoryMessage<T extends StorableMessageMetaData> implements S
     @Override
     public synchronized QpidByteBuffer getContent(int offset, int length)
     {
+        if (_spilledContent != null)
+        {
+            return _spillLog.read(_spilledContent, offset, length);
+        }
         if (_content == null)
         {
             return QpidByteBuffer.emptyQpidByteBuffer();
@@ -114,18 +128,33 @@ public class StoredMemoryMessage<T extends StorableMessageMetaData> implements S
             _content.dispose();
             _content = null;
         }
+        if (_spilledContent != null)
+        {
+            _spillLog.release(_spilledContent);
+            _spilledContent = null;
+        }
     }
 
     @Override
-    public boolean isInMemory()
+    public synchronized boolean isInMemory()
     {
-        return true;
+        return _spilledContent == null;
     }
 
     @Override
-    public boolean flowToDisk()
+    public synchronized boolean flowToDisk()
     {
-        return false;
+        if (_spillLog == null || !_allContentAdded || _metaData == null)
+        {
+            return false;
+        }
+        if (_content != null)
+        {
+            _spilledContent = _spillLog.append(_content);
+            _content.dispose();
+            _content = null;
+        }
+        return true;
     }
 
     @Override
@@ -135,6 +164,13 @@ public class StoredMemoryMessage<T extends StorableMessageMetaData> implements S
         _content = QpidByteBuffer.reallocateIfNecessary(_content);
     }
 
+    @Override
+    public boolean unload()
+    {
+        // the handle is the only copy of the message
+        return false;
+    }
+
     public void clear()
     {
         remove();
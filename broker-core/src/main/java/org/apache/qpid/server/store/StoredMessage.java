@@ -46,4 +46,14 @@ public interface StoredMessage<M extends StorableMessageMetaData>
     boolean flowToDisk();
 
     void reallocate();
+
+    /**
+     * Drops the in-memory state of a message that is held in the store, and the store's record of this handle,
+     * without removing the message from the store; it can be read again through
+     * {@link MessageStore.MessageStoreReader#getMessage(long)}.  Once unloaded, {@link #remove()} releases only what
+     * this handle holds.
+     *
+     * @return false, changing nothing, if the message is not held in the store independently of this handle
+     */
+    boolean unload();
 }
@@ -262,6 +262,18 @@ public abstract class AbstractAMQPConnection<C extends AbstractAMQPConnection<C,
         return new Date(Math.max(getLastReadTime(), getLastWriteTime()));
     }
 
+    @Override
+    public final long getSchedulingWaitTime()
+    {
+        return _network.getSchedulingWaitTime();
+    }
+
+    @Override
+    public final long getMaximumSchedulingWaitTime()
+    {
+        return _network.getMaximumSchedulingWaitTime();
+    }
+
     @Override
     public final long getLastReadTime()
     {
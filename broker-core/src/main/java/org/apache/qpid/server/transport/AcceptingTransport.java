@@ -27,4 +27,9 @@ public interface AcceptingTransport
     void close();
 
     int getAcceptingPort();
+
+    /**
+     * @return the scheduler serving the transport's connections, or null if the transport does not use one
+     */
+    NetworkConnectionScheduler getNetworkConnectionScheduler();
 }
@@ -33,6 +33,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.stats.Histogram;
 
 public class NetworkConnectionScheduler
 {
@@ -45,13 +46,25 @@ public class NetworkConnectionScheduler
     private final long _threadKeepAliveTimeout;
     private final String _name;
     private final int _numberOfSelectors;
+    private final NetworkConnectionSchedulerType _type;
     private SelectorThread _selectorThread;
+    private final Histogram _schedulingDelay = new Histogram();
+    private final Histogram _ioPassDuration = new Histogram();
+    private final Histogram _ioPassBytes = new Histogram();
 
     public NetworkConnectionScheduler(final String name,
                                       final int numberOfSelectors, int threadPoolSize,
                                       long threadKeepAliveTimeout)
     {
-        this(name, numberOfSelectors, threadPoolSize, threadKeepAliveTimeout, new ThreadFactory()
+        this(name, numberOfSelectors, threadPoolSize, threadKeepAliveTimeout, NetworkConnectionSchedulerType.SHARED_QUEUE);
+    }
+
+    public NetworkConnectionScheduler(final String name,
+                                      final int numberOfSelectors, int threadPoolSize,
+                                      long threadKeepAliveTimeout,
+                                      final NetworkConnectionSchedulerType type)
+    {
+        this(name, numberOfSelectors, threadPoolSize, threadKeepAliveTimeout, type, new ThreadFactory()
                                     {
                                         final AtomicInteger _count = new AtomicInteger();
 
@@ -76,6 +89,7 @@ public class NetworkConnectionScheduler
                ", _threadKeepAliveTimeout=" + _threadKeepAliveTimeout +
                ", _name='" + _name + '\'' +
                ", _numberOfSelectors=" + _numberOfSelectors +
+               ", _type=" + _type +
                ", _selectorThread=" + _selectorThread +
                '}';
     }
@@ -84,8 +98,19 @@ public class NetworkConnectionScheduler
                                       final int numberOfSelectors, int threadPoolSize,
                                       long threadKeepAliveTimeout,
                                       ThreadFactory factory)
+    {
+        this(name, numberOfSelectors, threadPoolSize, threadKeepAliveTimeout,
+             NetworkConnectionSchedulerType.SHARED_QUEUE, factory);
+    }
+
+    public NetworkConnectionScheduler(String name,
+                                      final int numberOfSelectors, int threadPoolSize,
+                                      long threadKeepAliveTimeout,
+                                      NetworkConnectionSchedulerType type,
+                                      ThreadFactory factory)
     {
         _name = name;
+        _type = type;
         _poolSize = threadPoolSize;
         _threadKeepAliveTimeout = threadKeepAliveTimeout;
         _factory = factory;
@@ -126,12 +151,18 @@ public class NetworkConnectionScheduler
     void processConnection(final NonBlockingConnection connection)
     {
         Thread.currentThread().setName(connection.getThreadName());
+        final long schedulingWaitNanos = System.nanoTime() - connection.getScheduledNanoTime();
+        connection.recordSchedulingWait(schedulingWaitNanos);
+        _schedulingDelay.record(TimeUnit.NANOSECONDS.toMicros(schedulingWaitNanos));
         connection.doPreWork();
         boolean rerun;
         do
         {
             rerun = false;
+            final long passStartTime = System.nanoTime();
             boolean closed = connection.doWork();
+            _ioPassDuration.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - passStartTime));
+            _ioPassBytes.record(connection.getBytesTransferredInPass());
             if (!closed && connection.getScheduler() == this)
             {
 
@@ -230,6 +261,35 @@ public class NetworkConnectionScheduler
         return _poolSize;
     }
 
+    NetworkConnectionSchedulerType getType()
+    {
+        return _type;
+    }
+
+    /**
+     * @return delays in microseconds between a connection becoming ready and an IO thread starting work on it
+     */
+    public Histogram getSchedulingDelay()
+    {
+        return _schedulingDelay;
+    }
+
+    /**
+     * @return durations in microseconds of each pass of IO work on a connection
+     */
+    public Histogram getIoPassDuration()
+    {
+        return _ioPassDuration;
+    }
+
+    /**
+     * @return number of bytes read and written in each pass of IO work on a connection
+     */
+    public Histogram getIoPassBytes()
+    {
+        return _ioPassBytes;
+    }
+
     public void schedule(final NonBlockingConnection connection)
     {
         _selectorThread.addToWork(connection);
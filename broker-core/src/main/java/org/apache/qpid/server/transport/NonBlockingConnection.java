@@ -33,6 +33,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -67,6 +68,11 @@ public class NonBlockingConnection implements ServerNetworkConnection, ByteBuffe
     private final AmqpPort _port;
     private final AtomicBoolean _scheduled = new AtomicBoolean();
     private volatile long _scheduledTime;
+    private volatile long _scheduledNanoTime;
+    private long _bytesTransferredInPass;
+    private volatile int _schedulingAffinity = -1;
+    private volatile long _schedulingWaitTime;
+    private volatile long _maximumSchedulingWaitTime;
     private volatile boolean _unexpectedByteBufferSizeReported;
     private final String _threadName;
     private volatile SelectorThread.SelectionTask _selectionTask;
@@ -247,6 +253,7 @@ public class NonBlockingConnection implements ServerNetworkConnection, ByteBuffe
 
     public boolean doWork()
     {
+        _bytesTransferredInPass = 0;
         _protocolEngine.clearWork();
         if (!_closed.get())
         {
@@ -509,6 +516,7 @@ public class NonBlockingConnection implements ServerNetworkConnection, ByteBuffe
     long writeToTransport(Collection<QpidByteBuffer> buffers) throws IOException
     {
         long written  = QpidByteBuffer.write(_socketChannel, buffers);
+        _bytesTransferredInPass += written;
         if (LOGGER.isDebugEnabled())
         {
             LOGGER.debug("Written " + written + " bytes");
@@ -545,6 +553,10 @@ public class NonBlockingConnection implements ServerNetworkConnection, ByteBuffe
         }
 
         _partialRead = read != 0;
+        if (read > 0)
+        {
+            _bytesTransferredInPass += read;
+        }
 
         if (LOGGER.isDebugEnabled())
         {
@@ -644,6 +656,7 @@ public class NonBlockingConnection implements ServerNetworkConnection, ByteBuffe
         if (scheduled)
         {
             _scheduledTime = System.currentTimeMillis();
+            _scheduledNanoTime = System.nanoTime();
         }
         return scheduled;
     }
@@ -660,6 +673,51 @@ public class NonBlockingConnection implements ServerNetworkConnection, ByteBuffe
         return _scheduledTime;
     }
 
+    long getScheduledNanoTime()
+    {
+        return _scheduledNanoTime;
+    }
+
+    /**
+     * @return number of bytes read from and written to the network during the most recent {@link #doWork()}
+     */
+    long getBytesTransferredInPass()
+    {
+        return _bytesTransferredInPass;
+    }
+
+    /** Called by the thread which has just been given the connection to process, and so never concurrently. */
+    void recordSchedulingWait(final long waitTimeNanos)
+    {
+        _schedulingWaitTime += waitTimeNanos;
+        if (waitTimeNanos > _maximumSchedulingWaitTime)
+        {
+            _maximumSchedulingWaitTime = waitTimeNanos;
+        }
+    }
+
+    @Override
+    public long getSchedulingWaitTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(_schedulingWaitTime);
+    }
+
+    @Override
+    public long getMaximumSchedulingWaitTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(_maximumSchedulingWaitTime);
+    }
+
+    int getSchedulingAffinity()
+    {
+        return _schedulingAffinity;
+    }
+
+    void setSchedulingAffinity(final int schedulingAffinity)
+    {
+        _schedulingAffinity = schedulingAffinity;
+    }
+
     void reportUnexpectedByteBufferSizeUsage()
     {
         if (!_unexpectedByteBufferSizeReported)
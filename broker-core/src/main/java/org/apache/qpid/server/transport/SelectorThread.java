@@ -34,11 +34,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -64,7 +62,7 @@ class SelectorThread extends Thread
     private final AtomicBoolean _closed = new AtomicBoolean();
     private final NetworkConnectionScheduler _scheduler;
 
-    private final BlockingQueue<Runnable> _workQueue = new LinkedBlockingQueue<>();
+    private final SchedulerWorkQueue _workQueue;
     private final  AtomicInteger _nextSelectorTaskIndex = new AtomicInteger();
 
     public final class SelectionTask implements Runnable
@@ -415,6 +413,9 @@ class SelectorThread extends Thread
     SelectorThread(final NetworkConnectionScheduler scheduler, final int numberOfSelectors) throws IOException
     {
         _scheduler = scheduler;
+        _workQueue = scheduler.getType() == NetworkConnectionSchedulerType.WORK_STEALING
+                ? new WorkStealingSchedulerWorkQueue(scheduler.getPoolSize())
+                : new SharedSchedulerWorkQueue();
         _selectionTasks = new SelectionTask[numberOfSelectors];
         for(int i = 0; i < numberOfSelectors; i++)
         {
@@ -541,7 +542,7 @@ class SelectorThread extends Thread
 
     }
 
-    private static final class ConnectionProcessor implements Runnable
+    static final class ConnectionProcessor implements Runnable
     {
 
         private final NetworkConnectionScheduler _scheduler;
@@ -554,6 +555,11 @@ class SelectorThread extends Thread
             _connection = connection;
         }
 
+        NonBlockingConnection getConnection()
+        {
+            return _connection;
+        }
+
         @Override
         public void run()
         {
@@ -693,7 +699,7 @@ class SelectorThread extends Thread
         int count = _scheduler.getPoolSize();
         while(count-- > 0)
         {
-            _workQueue.offer(goodNight);
+            _workQueue.add(goodNight);
         }
 
         for(SelectionTask task : _selectionTasks)
@@ -27,6 +27,16 @@ public interface ServerNetworkConnection extends NetworkConnection
 
     long getScheduledTime();
 
+    /**
+     * @return total time in milliseconds this connection has waited to be picked up by an IO thread
+     */
+    long getSchedulingWaitTime();
+
+    /**
+     * @return longest time in milliseconds this connection has waited to be picked up by an IO thread
+     */
+    long getMaximumSchedulingWaitTime();
+
     void addSchedulingDelayNotificationListeners(SchedulingDelayNotificationListener listener);
 
     void removeSchedulingDelayNotificationListeners(SchedulingDelayNotificationListener listener);
@@ -72,8 +72,12 @@ class TCPandSSLTransport implements AcceptingTransport
 
         long threadPoolKeepAliveTimeout = _port.getContextValue(Long.class, AmqpPort.PORT_AMQP_THREAD_POOL_KEEP_ALIVE_TIMEOUT);
 
+        NetworkConnectionSchedulerType schedulerType =
+                _port.getContextValue(NetworkConnectionSchedulerType.class, AmqpPort.PORT_AMQP_THREAD_POOL_SCHEDULER_TYPE);
+
         _scheduler = new NetworkConnectionScheduler("Port-"+_port.getName(), _port.getNumberOfSelectors(),
-                                                    _port.getThreadPoolSize(), threadPoolKeepAliveTimeout);
+                                                    _port.getThreadPoolSize(), threadPoolKeepAliveTimeout,
+                                                    schedulerType);
         _scheduler.start();
         _networkTransport = new NonBlockingNetworkTransport(protocolEngineFactory,
                                                             encryptionSet, _scheduler, _port);
@@ -86,6 +90,12 @@ class TCPandSSLTransport implements AcceptingTransport
         return _networkTransport.getAcceptingPort();
     }
 
+    @Override
+    public NetworkConnectionScheduler getNetworkConnectionScheduler()
+    {
+        return _scheduler;
+    }
+
     @Override
     public void close()
     {
@@ -0,0 +1,189 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.transport;
+
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link SchedulerWorkQueue} giving each IO thread its own run-queue.
+ * <p>
+ * Work submitted by an IO thread of the pool is placed on that thread's own run-queue. Work for a connection
+ * submitted from elsewhere is placed on the run-queue of the thread which last processed the connection, so
+ * that connections tend to stay on the same thread. A thread whose run-queue is empty steals from the tail of
+ * the others before parking.
+ */
+class WorkStealingSchedulerWorkQueue implements SchedulerWorkQueue
+{
+    private final Deque<Runnable>[] _runQueues;
+    private final ThreadLocal<Worker> _currentWorker = new ThreadLocal<>();
+    private final AtomicInteger _workerCount = new AtomicInteger();
+    private final AtomicInteger _nextRunQueue = new AtomicInteger();
+    private final Queue<Worker> _idleWorkers = new ConcurrentLinkedQueue<>();
+
+    @SuppressWarnings("unchecked")
+    WorkStealingSchedulerWorkQueue(final int poolSize)
+    {
+        _runQueues = new Deque[Math.max(poolSize, 1)];
+        for (int i = 0; i < _runQueues.length; i++)
+        {
+            _runQueues[i] = new ConcurrentLinkedDeque<>();
+        }
+    }
+
+    @Override
+    public void add(final Runnable task)
+    {
+        _runQueues[chooseRunQueue(task)].addLast(task);
+        wakeIdleWorker();
+    }
+
+    @Override
+    public void addAll(final Collection<? extends Runnable> tasks)
+    {
+        for (Runnable task : tasks)
+        {
+            add(task);
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException
+    {
+        Worker worker = _currentWorker.get();
+        if (worker == null)
+        {
+            worker = new Worker(Thread.currentThread(), _workerCount.getAndIncrement() % _runQueues.length);
+            _currentWorker.set(worker);
+        }
+
+        while (true)
+        {
+            Runnable task = poll(worker);
+            if (task != null)
+            {
+                clearIdle(worker);
+                return task;
+            }
+
+            if (worker._idle.compareAndSet(false, true))
+            {
+                _idleWorkers.add(worker);
+            }
+
+            // re-check after advertising as idle so that a task added concurrently cannot be missed
+            task = poll(worker);
+            if (task != null)
+            {
+                clearIdle(worker);
+                return task;
+            }
+
+            LockSupport.park(this);
+            if (Thread.interrupted())
+            {
+                clearIdle(worker);
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private void clearIdle(final Worker worker)
+    {
+        if (worker._idle.get() && worker._idle.compareAndSet(true, false))
+        {
+            _idleWorkers.remove(worker);
+        }
+    }
+
+    private Runnable poll(final Worker worker)
+    {
+        Runnable task = _runQueues[worker._runQueue].pollFirst();
+        if (task == null && _runQueues.length > 1)
+        {
+            final int offset = ThreadLocalRandom.current().nextInt(_runQueues.length);
+            for (int i = 0; i < _runQueues.length && task == null; i++)
+            {
+                final int victim = (offset + i) % _runQueues.length;
+                if (victim != worker._runQueue)
+                {
+                    task = _runQueues[victim].pollLast();
+                }
+            }
+        }
+        if (task instanceof SelectorThread.ConnectionProcessor)
+        {
+            ((SelectorThread.ConnectionProcessor) task).getConnection().setSchedulingAffinity(worker._runQueue);
+        }
+        return task;
+    }
+
+    private int chooseRunQueue(final Runnable task)
+    {
+        final Worker worker = _currentWorker.get();
+        if (worker != null)
+        {
+            return worker._runQueue;
+        }
+        if (task instanceof SelectorThread.ConnectionProcessor)
+        {
+            final int affinity = ((SelectorThread.ConnectionProcessor) task).getConnection().getSchedulingAffinity();
+            if (affinity >= 0 && affinity < _runQueues.length)
+            {
+                return affinity;
+            }
+        }
+        return (_nextRunQueue.getAndIncrement() & Integer.MAX_VALUE) % _runQueues.length;
+    }
+
+    private void wakeIdleWorker()
+    {
+        Worker idleWorker;
+        while ((idleWorker = _idleWorkers.poll()) != null)
+        {
+            if (idleWorker._idle.compareAndSet(true, false))
+            {
+                LockSupport.unpark(idleWorker._thread);
+                return;
+            }
+        }
+    }
+
+    private static final class Worker
+    {
+        private final Thread _thread;
+        private final int _runQueue;
+        private final AtomicBoolean _idle = new AtomicBoolean();
+
+        private Worker(final Thread thread, final int runQueue)
+        {
+            _thread = thread;
+            _runQueue = runQueue;
+        }
+    }
+}
@@ -152,6 +152,12 @@ public abstract class AbstractSystemMessageSource implements MessageSource
             return _target;
         }
 
+        @Override
+        public int getDeliveryBatchSize()
+        {
+            return 1;
+        }
+
         @Override
         public MessageContainer pullMessage()
         {
@@ -60,6 +60,7 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -137,6 +138,7 @@ import org.apache.qpid.server.store.preferences.PreferencesRoot;
 import org.apache.qpid.server.store.serializer.MessageStoreSerializer;
 import org.apache.qpid.server.transport.AMQPConnection;
 import org.apache.qpid.server.transport.NetworkConnectionScheduler;
+import org.apache.qpid.server.transport.NetworkConnectionSchedulerType;
 import org.apache.qpid.server.txn.AutoCommitTransaction;
 import org.apache.qpid.server.txn.DtxRegistry;
 import org.apache.qpid.server.txn.LocalTransaction;
@@ -268,7 +270,7 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
     private MessageDestination _defaultDestination;
 
     private MessageStore _messageStore;
-    private MessageStoreRecoverer _messageStoreRecoverer;
+    private volatile MessageStoreRecoverer _messageStoreRecoverer;
     private final FileSystemSpaceChecker _fileSystemSpaceChecker;
     private int _fileSystemMaxUsagePercent;
     private Collection<VirtualHostLogger> _virtualHostLoggersToClose;
@@ -2258,6 +2260,93 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
         return _connections.size();
     }
 
+    @Override
+    public int getRecoveringQueueCount()
+    {
+        final MessageStoreRecoverer messageStoreRecoverer = _messageStoreRecoverer;
+        return messageStoreRecoverer == null ? 0 : messageStoreRecoverer.getRecoveringQueueCount();
+    }
+
+    @Override
+    public long getRecoveredMessageInstanceCount()
+    {
+        final MessageStoreRecoverer messageStoreRecoverer = _messageStoreRecoverer;
+        return messageStoreRecoverer == null ? 0L : messageStoreRecoverer.getRecoveredMessageInstanceCount();
+    }
+
+    @Override
+    public long getRecoveryDuration()
+    {
+        final MessageStoreRecoverer messageStoreRecoverer = _messageStoreRecoverer;
+        return messageStoreRecoverer == null ? 0L : messageStoreRecoverer.getRecoveryDuration();
+    }
+
+    @Override
+    public long getIoPassCount()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getIoPassDuration().getCount());
+    }
+
+    @Override
+    public long getSchedulingDelayMedian()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getSchedulingDelay().getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getSchedulingDelay99thPercentile()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getSchedulingDelay().getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getSchedulingDelayMaximum()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getSchedulingDelay().getMaximum());
+    }
+
+    @Override
+    public long getIoPassDurationMedian()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getIoPassDuration().getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getIoPassDuration99thPercentile()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getIoPassDuration().getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getIoPassDurationMaximum()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getIoPassDuration().getMaximum());
+    }
+
+    @Override
+    public long getIoPassBytesMedian()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getIoPassBytes().getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getIoPassBytes99thPercentile()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getIoPassBytes().getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getIoPassBytesMaximum()
+    {
+        return getSchedulerStatistic(scheduler -> scheduler.getIoPassBytes().getMaximum());
+    }
+
+    private long getSchedulerStatistic(final ToLongFunction<NetworkConnectionScheduler> statistic)
+    {
+        final NetworkConnectionScheduler scheduler = _networkConnectionScheduler;
+        return scheduler == null ? 0L : statistic.applyAsLong(scheduler);
+    }
+
     @Override
     public int getHousekeepingThreadCount()
     {
@@ -2552,6 +2641,8 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
                                                                      getNumberOfSelectors(),
                                                                      getConnectionThreadPoolSize(),
                                                                      threadPoolKeepAliveTimeout,
+                                                                     getContextValue(NetworkConnectionSchedulerType.class,
+                                                                                     VIRTUALHOST_CONNECTION_THREAD_POOL_SCHEDULER_TYPE),
                                                                      connectionThreadFactory);
         _networkConnectionScheduler.start();
 
@@ -2607,7 +2698,13 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
 
     private void postCreateDefaultExchangeTasks()
     {
-        if(getContextValue(Boolean.class, USE_ASYNC_RECOVERY))
+        if(getContextValue(Boolean.class, PARALLEL_MESSAGE_STORE_RECOVERY_ENABLED))
+        {
+            final int parallelism = getContextValue(Integer.class, PARALLEL_MESSAGE_STORE_RECOVERY_PARALLELISM);
+            _messageStoreRecoverer = new AsynchronousMessageStoreRecoverer(
+                    parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        }
+        else if(getContextValue(Boolean.class, USE_ASYNC_RECOVERY))
         {
             _messageStoreRecoverer = new AsynchronousMessageStoreRecoverer();
         }
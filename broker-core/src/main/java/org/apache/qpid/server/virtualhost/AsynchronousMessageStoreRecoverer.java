@@ -22,16 +22,20 @@ package org.apache.qpid.server.virtualhost;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -68,12 +72,27 @@ import org.apache.qpid.server.util.ServerScopedRuntimeException;
 public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(AsynchronousMessageStoreRecoverer.class);
-    private AsynchronousRecoverer _asynchronousRecoverer;
+    private final int _parallelism;
+    private volatile AsynchronousRecoverer _asynchronousRecoverer;
+
+    public AsynchronousMessageStoreRecoverer()
+    {
+        this(0);
+    }
+
+    /**
+     * @param parallelism if positive, the number of fork-join worker threads the per queue recovery work
+     *                    is spread across; otherwise every queue is recovered on a thread of its own
+     */
+    public AsynchronousMessageStoreRecoverer(final int parallelism)
+    {
+        _parallelism = parallelism;
+    }
 
     @Override
     public ListenableFuture<Void> recover(final QueueManagingVirtualHost<?> virtualHost)
     {
-        _asynchronousRecoverer = new AsynchronousRecoverer(virtualHost);
+        _asynchronousRecoverer = new AsynchronousRecoverer(virtualHost, _parallelism);
 
         return _asynchronousRecoverer.recover();
     }
@@ -87,6 +106,27 @@ public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
         }
     }
 
+    @Override
+    public int getRecoveringQueueCount()
+    {
+        final AsynchronousRecoverer asynchronousRecoverer = _asynchronousRecoverer;
+        return asynchronousRecoverer == null ? 0 : asynchronousRecoverer.getRecoveringQueueCount();
+    }
+
+    @Override
+    public long getRecoveredMessageInstanceCount()
+    {
+        final AsynchronousRecoverer asynchronousRecoverer = _asynchronousRecoverer;
+        return asynchronousRecoverer == null ? 0L : asynchronousRecoverer.getRecoveredMessageInstanceCount();
+    }
+
+    @Override
+    public long getRecoveryDuration()
+    {
+        final AsynchronousRecoverer asynchronousRecoverer = _asynchronousRecoverer;
+        return asynchronousRecoverer == null ? 0L : asynchronousRecoverer.getRecoveryDuration();
+    }
+
     private static class AsynchronousRecoverer
     {
 
@@ -98,20 +138,36 @@ public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
         private final long _maxMessageId;
         private final Set<Queue<?>> _recoveringQueues = new CopyOnWriteArraySet<>();
         private final AtomicBoolean _recoveryComplete = new AtomicBoolean();
-        private final Map<Long, MessageReference<? extends ServerMessage<?>>> _recoveredMessages = new HashMap<>();
-        private final ListeningExecutorService _queueRecoveryExecutor =
-                MoreExecutors.listeningDecorator(new ThreadPoolExecutor(0,
-                                                                        Integer.MAX_VALUE,
-                                                                        60L,
-                                                                        TimeUnit.SECONDS,
-                                                                        new SynchronousQueue<>(),
-                                                                        QpidByteBuffer.createQpidByteBufferTrackingThreadFactory(Executors.defaultThreadFactory())));
+        private final ConcurrentMap<Long, MessageReference<? extends ServerMessage<?>>> _recoveredMessages =
+                new ConcurrentHashMap<>();
+        private final ListeningExecutorService _queueRecoveryExecutor;
+        private final LongAdder _recoveredMessageInstanceCount = new LongAdder();
+        private final long _recoveryStartTime = System.currentTimeMillis();
+        private volatile long _recoveryDuration = -1L;
 
         private final MessageStore.MessageStoreReader _storeReader;
         private AtomicBoolean _continueRecovery = new AtomicBoolean(true);
 
-        private AsynchronousRecoverer(final QueueManagingVirtualHost<?> virtualHost)
+        private AsynchronousRecoverer(final QueueManagingVirtualHost<?> virtualHost, final int parallelism)
         {
+            if (parallelism > 0)
+            {
+                _queueRecoveryExecutor = MoreExecutors.listeningDecorator(
+                        new ForkJoinPool(parallelism,
+                                         QpidByteBuffer.createQpidByteBufferTrackingForkJoinWorkerThreadFactory(),
+                                         null,
+                                         false));
+            }
+            else
+            {
+                _queueRecoveryExecutor =
+                        MoreExecutors.listeningDecorator(new ThreadPoolExecutor(0,
+                                                                                Integer.MAX_VALUE,
+                                                                                60L,
+                                                                                TimeUnit.SECONDS,
+                                                                                new SynchronousQueue<>(),
+                                                                                QpidByteBuffer.createQpidByteBufferTrackingThreadFactory(Executors.defaultThreadFactory())));
+            }
             _virtualHost = virtualHost;
             _eventLogger = virtualHost.getEventLogger();
             _store = virtualHost.getMessageStore();
@@ -165,6 +221,22 @@ public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
             return _logSubject;
         }
 
+        int getRecoveringQueueCount()
+        {
+            return _recoveringQueues.size();
+        }
+
+        long getRecoveredMessageInstanceCount()
+        {
+            return _recoveredMessageInstanceCount.sum();
+        }
+
+        long getRecoveryDuration()
+        {
+            final long recoveryDuration = _recoveryDuration;
+            return recoveryDuration >= 0L ? recoveryDuration : System.currentTimeMillis() - _recoveryStartTime;
+        }
+
         private boolean isRecovering(Queue<?> queue)
         {
             return _recoveringQueues.contains(queue);
@@ -195,11 +267,13 @@ public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
         private synchronized void completeRecovery()
         {
             // at this point nothing should be writing to the map of recovered messages
+            final Set<Long> recoveredMessageIds = new HashSet<>(_recoveredMessages.size());
             for (Map.Entry<Long,MessageReference<? extends ServerMessage<?>>> entry : _recoveredMessages.entrySet())
             {
+                recoveredMessageIds.add(entry.getKey());
                 entry.getValue().release();
-                entry.setValue(null); // free up any memory associated with the reference object
             }
+            _recoveredMessages.clear(); // free up any memory associated with the reference objects
             final List<StoredMessage<?>> messagesToDelete = new ArrayList<>();
             getStoreReader().visitMessages(new MessageHandler()
             {
@@ -209,7 +283,7 @@ public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
                     long messageNumber = storedMessage.getMessageNumber();
                     if ( _continueRecovery.get() && messageNumber < _maxMessageId)
                     {
-                        if (!_recoveredMessages.containsKey(messageNumber))
+                        if (!recoveredMessageIds.contains(messageNumber))
                         {
                             messagesToDelete.add(storedMessage);
                         }
@@ -235,32 +309,40 @@ public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
             }
 
             messagesToDelete.clear();
-            _recoveredMessages.clear();
+            recoveredMessageIds.clear();
             _storeReader.close();
             _queueRecoveryExecutor.shutdown();
+            _recoveryDuration = System.currentTimeMillis() - _recoveryStartTime;
         }
 
-        private synchronized ServerMessage<?> getRecoveredMessage(final long messageId)
+        private ServerMessage<?> getRecoveredMessage(final long messageId)
         {
             MessageReference<? extends ServerMessage<?>> ref = _recoveredMessages.get(messageId);
             if (ref == null)
             {
-                StoredMessage<?> message = _storeReader.getMessage(messageId);
-                if(message != null)
-                {
-                    StorableMessageMetaData metaData = message.getMetaData();
+                // a message shared by several queues is loaded once by whichever queue reaches it first; only its
+                // metadata is read here, content is left in the store until the message is first delivered
+                ref = _recoveredMessages.computeIfAbsent(messageId, this::loadMessage);
+            }
+            return ref == null ? null : ref.getMessage();
+        }
 
-                    @SuppressWarnings("rawtypes")
-                    MessageMetaDataType type = metaData.getType();
+        private MessageReference<? extends ServerMessage<?>> loadMessage(final long messageId)
+        {
+            StoredMessage<?> message = _storeReader.getMessage(messageId);
+            if(message != null)
+            {
+                StorableMessageMetaData metaData = message.getMetaData();
 
-                    @SuppressWarnings("unchecked")
-                    ServerMessage<?> serverMessage = type.createMessage(message);
+                @SuppressWarnings("rawtypes")
+                MessageMetaDataType type = metaData.getType();
 
-                    ref = serverMessage.newReference();
-                    _recoveredMessages.put(messageId, ref);
-                }
+                @SuppressWarnings("unchecked")
+                ServerMessage<?> serverMessage = type.createMessage(message);
+
+                return serverMessage.newReference();
             }
-            return ref == null ? null : ref.getMessage();
+            return null;
         }
 
         public void cancel()
@@ -540,6 +622,7 @@ public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
 
                         _queue.recover(message, record);
                         _recoveredCount++;
+                        _recoveredMessageInstanceCount.increment();
                     }
                     else
                     {
@@ -31,4 +31,19 @@ public interface MessageStoreRecoverer
      * completed, this method call has no effect.
      */
     void cancel();
+
+    /**
+     * @return number of queues whose message instances have not yet been fully recovered
+     */
+    int getRecoveringQueueCount();
+
+    /**
+     * @return number of message instances restored onto queues so far
+     */
+    long getRecoveredMessageInstanceCount();
+
+    /**
+     * @return time in milliseconds taken by recovery so far, or in total once it has completed
+     */
+    long getRecoveryDuration();
 }
@@ -52,6 +52,7 @@ import org.apache.qpid.server.stats.StatisticsGatherer;
 import org.apache.qpid.server.store.DurableConfigurationStore;
 import org.apache.qpid.server.store.EventListener;
 import org.apache.qpid.server.store.preferences.UserPreferencesCreator;
+import org.apache.qpid.server.transport.NetworkConnectionSchedulerType;
 
 public interface QueueManagingVirtualHost<X extends QueueManagingVirtualHost<X>> extends VirtualHost<X>,
                                                                                          EventListener,
@@ -81,6 +82,39 @@ public interface QueueManagingVirtualHost<X extends QueueManagingVirtualHost<X>>
     @ManagedContextDefault(name = FLOW_TO_DISK_CHECK_PERIOD)
     long DEFAULT_FLOW_TO_DISK_CHECK_PERIOD = 30000L;
 
+    String FLOW_TO_DISK_SPILL_LOG_ENABLED = "virtualhost.flowToDiskSpillLog.enabled";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = FLOW_TO_DISK_SPILL_LOG_ENABLED,
+            description = "If true, message content held only in memory (for instance by the Memory message store)"
+                          + " is evacuated into memory mapped spill files under the virtual host work directory"
+                          + " when flowing to disk")
+    boolean DEFAULT_FLOW_TO_DISK_SPILL_LOG_ENABLED = false;
+
+    String FLOW_TO_DISK_SPILL_LOG_SEGMENT_SIZE = "virtualhost.flowToDiskSpillLog.segmentSize";
+    @ManagedContextDefault(name = FLOW_TO_DISK_SPILL_LOG_SEGMENT_SIZE,
+            description = "Size in bytes of each memory mapped flow to disk spill file")
+    int DEFAULT_FLOW_TO_DISK_SPILL_LOG_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    String FLOW_TO_DISK_SPILL_LOG_COMPACTION_THRESHOLD = "virtualhost.flowToDiskSpillLog.compactionThreshold";
+    @ManagedContextDefault(name = FLOW_TO_DISK_SPILL_LOG_COMPACTION_THRESHOLD,
+            description = "Percentage of live content below which the remaining content of a flow to disk spill"
+                          + " file is relocated so that the file can be deleted")
+    int DEFAULT_FLOW_TO_DISK_SPILL_LOG_COMPACTION_THRESHOLD = 25;
+
+    String PARALLEL_MESSAGE_STORE_RECOVERY_ENABLED = "virtualhost.parallelMessageStoreRecovery.enabled";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = PARALLEL_MESSAGE_STORE_RECOVERY_ENABLED,
+            description = "If true, messages are recovered from the store in the background with the queues"
+                          + " partitioned across a bounded pool of recovery threads")
+    boolean DEFAULT_PARALLEL_MESSAGE_STORE_RECOVERY_ENABLED = false;
+
+    String PARALLEL_MESSAGE_STORE_RECOVERY_PARALLELISM = "virtualhost.parallelMessageStoreRecovery.parallelism";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = PARALLEL_MESSAGE_STORE_RECOVERY_PARALLELISM,
+            description = "Number of threads recovering queues in parallel message store recovery,"
+                          + " or zero for the number of available processors")
+    int DEFAULT_PARALLEL_MESSAGE_STORE_RECOVERY_PARALLELISM = 0;
+
     String CONNECTION_THREAD_POOL_KEEP_ALIVE_TIMEOUT = "connectionThreadPoolKeepAliveTimeout";
     @SuppressWarnings("unused")
     @ManagedContextDefault(name = QueueManagingVirtualHost.CONNECTION_THREAD_POOL_KEEP_ALIVE_TIMEOUT)
@@ -166,6 +200,14 @@ public interface QueueManagingVirtualHost<X extends QueueManagingVirtualHost<X>>
     @ManagedAttribute( defaultValue = "${" + QueueManagingVirtualHost.VIRTUALHOST_CONNECTION_THREAD_POOL_NUMBER_OF_SELECTORS + "}")
     int getNumberOfSelectors();
 
+    String VIRTUALHOST_CONNECTION_THREAD_POOL_SCHEDULER_TYPE = "virtualhost.connectionThreadPool.schedulerType";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault( name = VIRTUALHOST_CONNECTION_THREAD_POOL_SCHEDULER_TYPE,
+            description = "How the virtual host's IO threads share work: SHARED_QUEUE (a single run-queue) or"
+                          + " WORK_STEALING (a run-queue per thread with work-stealing).")
+    NetworkConnectionSchedulerType DEFAULT_VIRTUALHOST_CONNECTION_THREAD_POOL_SCHEDULER_TYPE =
+            NetworkConnectionSchedulerType.SHARED_QUEUE;
+
 
 
     @ManagedAttribute( defaultValue = "${virtualhost.housekeepingThreadCount}")
@@ -210,6 +252,71 @@ public interface QueueManagingVirtualHost<X extends QueueManagingVirtualHost<X>>
                       description = "Current number of messaging connections made to this virtualhost.")
     long getConnectionCount();
 
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "IO passes",
+                      description = "Total number of passes of IO work performed on connections by the virtualhost's IO threads.")
+    long getIoPassCount();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Scheduling delay median (us)",
+                      description = "Median time in microseconds between a connection becoming ready and one of the virtualhost's IO threads starting work on it.")
+    long getSchedulingDelayMedian();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Scheduling delay 99th percentile (us)",
+                      description = "99th percentile of the time in microseconds between a connection becoming ready and one of the virtualhost's IO threads starting work on it.")
+    long getSchedulingDelay99thPercentile();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Scheduling delay maximum (us)",
+                      description = "Longest time in microseconds between a connection becoming ready and one of the virtualhost's IO threads starting work on it.")
+    long getSchedulingDelayMaximum();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "IO pass duration median (us)",
+                      description = "Median duration in microseconds of a pass of IO work on a connection of the virtualhost.")
+    long getIoPassDurationMedian();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "IO pass duration 99th percentile (us)",
+                      description = "99th percentile of the duration in microseconds of a pass of IO work on a connection of the virtualhost.")
+    long getIoPassDuration99thPercentile();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "IO pass duration maximum (us)",
+                      description = "Longest duration in microseconds of a pass of IO work on a connection of the virtualhost.")
+    long getIoPassDurationMaximum();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.BYTES, label = "IO pass bytes median",
+                      description = "Median number of bytes read and written in a pass of IO work on a connection of the virtualhost.")
+    long getIoPassBytesMedian();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.BYTES, label = "IO pass bytes 99th percentile",
+                      description = "99th percentile of the number of bytes read and written in a pass of IO work on a connection of the virtualhost.")
+    long getIoPassBytes99thPercentile();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.BYTES, label = "IO pass bytes maximum",
+                      description = "Largest number of bytes read and written in a pass of IO work on a connection of the virtualhost.")
+    long getIoPassBytesMaximum();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Recovering queues",
+                      description = "Current number of queues whose messages are still being recovered from the message store.")
+    int getRecoveringQueueCount();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.MESSAGES, label = "Recovered messages",
+                      description = "Total number of message instances restored onto queues from the message store by the last recovery.")
+    long getRecoveredMessageInstanceCount();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Recovery duration",
+                      description = "Time in milliseconds taken by the last message store recovery, or taken so far if it is still in progress.")
+    long getRecoveryDuration();
+
     @SuppressWarnings("unused")
     @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.BYTES, label = "Inbound",
                       description = "Total size of all messages received by this virtualhost.")
@@ -59,10 +59,17 @@ import org.apache.qpid.server.util.ServerScopedRuntimeException;
 public class SynchronousMessageStoreRecoverer implements MessageStoreRecoverer
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(SynchronousMessageStoreRecoverer.class);
+    private volatile int _recoveringQueueCount;
+    private volatile long _recoveredMessageInstanceCount;
+    private volatile long _recoveryStartTime;
+    private volatile long _recoveryDuration = -1L;
 
     @Override
     public ListenableFuture<Void> recover(QueueManagingVirtualHost<?> virtualHost)
     {
+        _recoveryStartTime = System.currentTimeMillis();
+        _recoveringQueueCount = virtualHost.getChildren(Queue.class).size();
+
         EventLogger eventLogger = virtualHost.getEventLogger();
         MessageStore store = virtualHost.getMessageStore();
         MessageStore.MessageStoreReader storeReader = store.newMessageStoreReader();
@@ -113,6 +120,7 @@ public class SynchronousMessageStoreRecoverer implements MessageStoreRecoverer
         {
             Queue<?> queue = entry.getKey();
             Integer deliveredCount = entry.getValue();
+            _recoveredMessageInstanceCount += deliveredCount;
             eventLogger.message(logSubject, TransactionLogMessages.RECOVERED(deliveredCount, queue.getName()));
             eventLogger.message(logSubject, TransactionLogMessages.RECOVERY_COMPLETE(queue.getName(), true));
             queue.completeRecovery();
@@ -147,6 +155,8 @@ public class SynchronousMessageStoreRecoverer implements MessageStoreRecoverer
                              MessageStoreMessages.RECOVERED(recoveredMessages.size() - unusedMessages.size()));
         eventLogger.message(logSubject, MessageStoreMessages.RECOVERY_COMPLETE());
 
+        _recoveringQueueCount = 0;
+        _recoveryDuration = System.currentTimeMillis() - _recoveryStartTime;
         return Futures.immediateFuture(null);
     }
 
@@ -156,6 +166,29 @@ public class SynchronousMessageStoreRecoverer implements MessageStoreRecoverer
         // No-op
     }
 
+    @Override
+    public int getRecoveringQueueCount()
+    {
+        return _recoveringQueueCount;
+    }
+
+    @Override
+    public long getRecoveredMessageInstanceCount()
+    {
+        return _recoveredMessageInstanceCount;
+    }
+
+    @Override
+    public long getRecoveryDuration()
+    {
+        final long recoveryDuration = _recoveryDuration;
+        if (recoveryDuration >= 0L)
+        {
+            return recoveryDuration;
+        }
+        return _recoveryStartTime == 0L ? 0L : System.currentTimeMillis() - _recoveryStartTime;
+    }
+
     private static class MessageVisitor implements MessageHandler
     {
 
@@ -0,0 +1,148 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.bytebuffer;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class BufferPoolTest extends QpidTestCase
+{
+    private static final int BUFFER_SIZE = 4096;
+    private static final int MAX_POOL_SIZE = 2;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        QpidByteBuffer.deinitialisePool();
+    }
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        try
+        {
+            super.tearDown();
+        }
+        finally
+        {
+            QpidByteBuffer.deinitialisePool();
+        }
+    }
+
+    public void testThreadCacheServesReturnedBuffer()
+    {
+        final BufferPool pool = new BufferPool(BUFFER_SIZE, MAX_POOL_SIZE, 1);
+        final ByteBuffer buffer = pool.getBuffer();
+        assertEquals("Unexpected misses", 1, pool.getStatistics().getMisses());
+
+        pool.returnBuffer(buffer);
+        assertEquals("Buffer should be held in the thread cache only", 0, pool.size());
+        assertEquals("Unexpected buffers held", 1, pool.getBuffersHeld());
+
+        assertSame("Expected buffer from thread cache", buffer, pool.getBuffer());
+        final BufferPoolStatistics statistics = pool.getStatistics();
+        assertEquals("Unexpected hits", 1, statistics.getHits());
+        assertEquals("Unexpected thread cache hits", 1, statistics.getThreadCacheHits());
+        assertEquals("Unexpected allocations", 2, statistics.getAllocations());
+        assertEquals("Unexpected buffers held", 0, statistics.getBuffersHeld());
+    }
+
+    public void testThreadCachedBuffersCountTowardsMaxPoolSize()
+    {
+        final BufferPool pool = new BufferPool(BUFFER_SIZE, MAX_POOL_SIZE, 1);
+        final ByteBuffer[] buffers = new ByteBuffer[4];
+        for (int i = 0; i < buffers.length; i++)
+        {
+            buffers[i] = pool.getBuffer();
+        }
+        for (ByteBuffer buffer : buffers)
+        {
+            pool.returnBuffer(buffer);
+        }
+
+        assertEquals("Unexpected shared pool size", MAX_POOL_SIZE - 1, pool.size());
+        assertEquals("Unexpected buffers held", MAX_POOL_SIZE, pool.getBuffersHeld());
+        assertEquals("Unexpected bytes held", MAX_POOL_SIZE * BUFFER_SIZE, pool.getStatistics().getBytesHeld());
+    }
+
+    public void testReleaseThreadCacheReturnsBuffersToSharedPool() throws Exception
+    {
+        final BufferPool pool = new BufferPool(BUFFER_SIZE, MAX_POOL_SIZE, 1);
+        final Thread thread = new Thread(() ->
+                                         {
+                                             pool.returnBuffer(pool.getBuffer());
+                                             pool.releaseThreadCache();
+                                         });
+        thread.start();
+        thread.join();
+
+        assertEquals("Unexpected shared pool size", 1, pool.size());
+        assertEquals("Unexpected buffers held", 1, pool.getBuffersHeld());
+        pool.getBuffer();
+        assertEquals("Unexpected hits", 1, pool.getStatistics().getHits());
+        assertEquals("Unexpected thread cache hits", 0, pool.getStatistics().getThreadCacheHits());
+    }
+
+    public void testCacheOfTerminatedThreadReclaimedBySharedPool() throws Exception
+    {
+        final BufferPool pool = new BufferPool(BUFFER_SIZE, MAX_POOL_SIZE, 1);
+        final ByteBuffer[] cached = new ByteBuffer[1];
+        final Thread thread = new Thread(() ->
+                                         {
+                                             cached[0] = pool.getBuffer();
+                                             pool.returnBuffer(cached[0]);
+                                         });
+        thread.start();
+        thread.join();
+
+        assertEquals("Buffer should be held in the terminated thread's cache", 0, pool.size());
+        assertEquals("Unexpected buffers held", 1, pool.getBuffersHeld());
+
+        assertSame("Expected buffer reclaimed from terminated thread", cached[0], pool.getBuffer());
+        assertEquals("Unexpected hits", 1, pool.getStatistics().getHits());
+        assertEquals("Unexpected misses", 1, pool.getStatistics().getMisses());
+        assertEquals("Unexpected buffers held", 0, pool.getBuffersHeld());
+    }
+
+    public void testSmallAllocationsUseSmallerSizeClass()
+    {
+        QpidByteBuffer.initialisePool(BUFFER_SIZE * 4, MAX_POOL_SIZE, 0.5, 2, 0);
+
+        final List<BufferPoolStatistics> statistics = QpidByteBuffer.getBufferPoolStatistics();
+        assertEquals("Unexpected number of size classes", 2, statistics.size());
+        assertEquals("Unexpected size of first class", BUFFER_SIZE * 4, statistics.get(0).getBufferSize());
+        assertEquals("Unexpected size of second class", BUFFER_SIZE, statistics.get(1).getBufferSize());
+
+        try (QpidByteBuffer small = QpidByteBuffer.allocateDirect(100);
+             QpidByteBuffer whole = QpidByteBuffer.allocateDirect(BUFFER_SIZE))
+        {
+            assertEquals("Unexpected direct memory", BUFFER_SIZE * 2, QpidByteBuffer.getAllocatedDirectMemorySize());
+            final BufferPoolStatistics smallClass = QpidByteBuffer.getBufferPoolStatistics().get(1);
+            assertEquals("Unexpected allocations", 3, smallClass.getAllocations());
+            assertEquals("Unexpected misses", 2, smallClass.getMisses());
+            assertEquals("First class should not be used",
+                         0, QpidByteBuffer.getBufferPoolStatistics().get(0).getAllocations());
+        }
+    }
+}
@@ -57,6 +57,7 @@ public class AbstractConsumerTargetTest extends QpidTestCase
     private AMQPConnection<?> _connection = mock(AMQPConnection.class);
     private AMQPSession<?,TestAbstractConsumerTarget> _session = mock(AMQPSession.class);
     private MessageInstance _messageInstance;
+    private MessageContainer _messageContainer;
 
     @Override
     public void setUp() throws Exception
@@ -70,9 +71,8 @@ public class AbstractConsumerTargetTest extends QpidTestCase
         when(_messageSource.getMessageConversionExceptionHandlingPolicy()).thenReturn(MessageSource.MessageConversionExceptionHandlingPolicy.CLOSE);
         _messageInstance = mock(MessageInstance.class);
         when(_messageInstance.getOwningResource()).thenReturn(_messageSource);
-        final MessageContainer messageContainer =
-                new MessageContainer(_messageInstance, mock(MessageReference.class));
-        when(_consumer.pullMessage()).thenReturn(messageContainer);
+        _messageContainer = new MessageContainer(_messageInstance, mock(MessageReference.class));
+        when(_consumer.pullMessage()).thenReturn(_messageContainer);
         _consumerTarget = new TestAbstractConsumerTarget();
         _consumerTarget.consumerAdded(_consumer);
     }
@@ -216,6 +216,32 @@ public class AbstractConsumerTargetTest extends QpidTestCase
         verify(_messageInstance, never()).routeToAlternate(any(Action.class), any(ServerTransaction.class));
     }
 
+    public void testSendNextMessageSendsBatch() throws Exception
+    {
+        configureBehaviour(true, MessageSource.MessageConversionExceptionHandlingPolicy.REJECT);
+        when(_consumer.getDeliveryBatchSize()).thenReturn(3);
+
+        assertTrue("message not sent", _consumerTarget.sendNextMessage());
+
+        verify(_consumer, times(3)).pullMessage();
+        verify(_messageInstance, times(3)).reject(_consumer);
+        assertEquals("Unexpected number of batched sends", 2, _consumerTarget.getBatchedSendCount());
+        assertEquals("Unexpected number of flushes", 1, _consumerTarget.getFlushCount());
+    }
+
+    public void testSendNextMessageBatchEndsWhenNoMoreMessages() throws Exception
+    {
+        configureBehaviour(true, MessageSource.MessageConversionExceptionHandlingPolicy.REJECT);
+        when(_consumer.getDeliveryBatchSize()).thenReturn(3);
+        when(_consumer.pullMessage()).thenReturn(_messageContainer, (MessageContainer) null);
+
+        assertTrue("message not sent", _consumerTarget.sendNextMessage());
+
+        verify(_consumer, times(2)).pullMessage();
+        verify(_messageInstance, times(1)).reject(_consumer);
+        assertEquals("Unexpected number of flushes", 1, _consumerTarget.getFlushCount());
+    }
+
     private void configureBehaviour(final boolean acquires,
                                     final MessageSource.MessageConversionExceptionHandlingPolicy exceptionHandlingPolicy)
     {
@@ -226,6 +252,8 @@ public class AbstractConsumerTargetTest extends QpidTestCase
     private class TestAbstractConsumerTarget extends AbstractConsumerTarget<TestAbstractConsumerTarget>
     {
         private boolean _creditRestored;
+        private int _batchedSendCount;
+        private int _flushCount;
 
         TestAbstractConsumerTarget()
         {
@@ -235,6 +263,10 @@ public class AbstractConsumerTargetTest extends QpidTestCase
         @Override
         protected void doSend(final MessageInstanceConsumer consumer, final MessageInstance entry, final boolean batch)
         {
+            if (batch)
+            {
+                _batchedSendCount++;
+            }
             throw new MessageConversionException("testException");
         }
 
@@ -259,7 +291,7 @@ public class AbstractConsumerTargetTest extends QpidTestCase
         @Override
         public void flushBatched()
         {
-
+            _flushCount++;
         }
 
         @Override
@@ -284,5 +316,15 @@ public class AbstractConsumerTargetTest extends QpidTestCase
         {
             return _creditRestored;
         }
+
+        public int getBatchedSendCount()
+        {
+            return _batchedSendCount;
+        }
+
+        public int getFlushCount()
+        {
+            return _flushCount;
+        }
     }
 }
@@ -0,0 +1,268 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.exchange;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.qpid.server.message.AMQMessageHeader;
+import org.apache.qpid.server.message.MessageDestination;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class HeadersBindingIndexTest extends QpidTestCase
+{
+    private static final String[] NAMES = {"A", "B", "C", "D"};
+    private static final Object[] VALUES = {null, "", "x", "y", 1};
+
+    private HeadersBindingIndex _index;
+    private MessageDestination _destination;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _index = new HeadersBindingIndex();
+        _destination = mock(MessageDestination.class);
+    }
+
+    public void testOnlyBindingsSharingAHeaderAreCandidates()
+    {
+        final HeadersBinding allA = createBinding("allA", "A", "x");
+        final HeadersBinding allB = createBinding("allB", "B", "x");
+        final HeadersBinding anyAB = createBinding("anyAB", "X-match", "any", "A", "y", "B", null);
+        final HeadersBinding unconditional = createBinding("unconditional");
+        _index.add(allA);
+        _index.add(allB);
+        _index.add(anyAB);
+        _index.add(unconditional);
+
+        assertEquals("Unexpected size", 4, _index.size());
+        assertCandidates(_index.getCandidates(new MapHeader("A", "x")), allA, unconditional);
+        assertCandidates(_index.getCandidates(new MapHeader("A", "y")), anyAB, unconditional);
+        assertCandidates(_index.getCandidates(new MapHeader("B", "z")), anyAB, unconditional);
+        assertCandidates(_index.getCandidates(new MapHeader("C", "x")), unconditional);
+        assertCandidates(_index.getCandidates(null), unconditional);
+    }
+
+    public void testReplaceAndRemoveBinding()
+    {
+        _index.add(createBinding("binding", "A", "x"));
+        _index.add(createBinding("binding", "A", "y"));
+
+        assertEquals("Unexpected size", 1, _index.size());
+        assertTrue("Replaced binding is still a candidate", _index.getCandidates(new MapHeader("A", "x")).isEmpty());
+        assertEquals("Unexpected number of candidates", 1, _index.getCandidates(new MapHeader("A", "y")).size());
+
+        _index.remove(new AbstractExchange.BindingIdentifier("binding", _destination));
+        assertEquals("Unexpected size", 0, _index.size());
+        assertTrue("Removed binding is still a candidate", _index.getCandidates(new MapHeader("A", "y")).isEmpty());
+    }
+
+    public void testCandidatesIncludeEveryMatchingBinding()
+    {
+        final Random random = new Random(0);
+        final Set<HeadersBinding> bindings = new HashSet<>();
+        for (int i = 0; i < 200; i++)
+        {
+            final HeadersBinding binding = createBinding("binding" + i, createArguments(random, random.nextBoolean()));
+            bindings.add(binding);
+            _index.add(binding);
+        }
+
+        for (int i = 0; i < 500; i++)
+        {
+            final MapHeader header = new MapHeader(createArguments(random, false));
+            final Collection<HeadersBinding> candidates = _index.getCandidates(header);
+            for (HeadersBinding binding : bindings)
+            {
+                if (binding.matches(header))
+                {
+                    assertTrue("Matching binding " + binding.getBinding().getBindingKey() + " is not a candidate for "
+                               + header._headers, candidates.contains(binding));
+                }
+            }
+        }
+    }
+
+    private Map<String, Object> createArguments(final Random random, final boolean matchAny)
+    {
+        final Map<String, Object> arguments = new HashMap<>();
+        final int count = random.nextInt(NAMES.length);
+        for (int i = 0; i < count; i++)
+        {
+            arguments.put(NAMES[random.nextInt(NAMES.length)], VALUES[random.nextInt(VALUES.length)]);
+        }
+        if (matchAny)
+        {
+            arguments.put("x-match", "any");
+        }
+        return arguments;
+    }
+
+    private void assertCandidates(final Collection<HeadersBinding> actual, final HeadersBinding... expected)
+    {
+        final Set<HeadersBinding> expectedSet = new HashSet<>();
+        for (HeadersBinding binding : expected)
+        {
+            expectedSet.add(binding);
+        }
+        assertEquals("Unexpected candidates", expectedSet, new HashSet<>(actual));
+    }
+
+    private HeadersBinding createBinding(final String bindingKey, final Object... arguments)
+    {
+        final Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < arguments.length; i += 2)
+        {
+            map.put((String) arguments[i], arguments[i + 1]);
+        }
+        return createBinding(bindingKey, map);
+    }
+
+    private HeadersBinding createBinding(final String bindingKey, final Map<String, Object> arguments)
+    {
+        return new HeadersBinding(new AbstractExchange.BindingIdentifier(bindingKey, _destination), arguments);
+    }
+
+    private static class MapHeader implements AMQMessageHeader
+    {
+        private final Map<String, Object> _headers;
+
+        private MapHeader(final String name, final Object value)
+        {
+            _headers = new HashMap<>();
+            _headers.put(name, value);
+        }
+
+        private MapHeader(final Map<String, Object> headers)
+        {
+            _headers = headers;
+        }
+
+        @Override
+        public String getCorrelationId()
+        {
+            return null;
+        }
+
+        @Override
+        public long getExpiration()
+        {
+            return 0;
+        }
+
+        @Override
+        public String getUserId()
+        {
+            return null;
+        }
+
+        @Override
+        public String getAppId()
+        {
+            return null;
+        }
+
+        @Override
+        public String getGroupId()
+        {
+            return null;
+        }
+
+        @Override
+        public String getMessageId()
+        {
+            return null;
+        }
+
+        @Override
+        public String getMimeType()
+        {
+            return null;
+        }
+
+        @Override
+        public String getEncoding()
+        {
+            return null;
+        }
+
+        @Override
+        public byte getPriority()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getTimestamp()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getNotValidBefore()
+        {
+            return 0;
+        }
+
+        @Override
+        public String getType()
+        {
+            return null;
+        }
+
+        @Override
+        public String getReplyTo()
+        {
+            return null;
+        }
+
+        @Override
+        public Object getHeader(final String name)
+        {
+            return _headers.get(name);
+        }
+
+        @Override
+        public boolean containsHeaders(final Set<String> names)
+        {
+            return _headers.keySet().containsAll(names);
+        }
+
+        @Override
+        public boolean containsHeader(final String name)
+        {
+            return _headers.containsKey(name);
+        }
+
+        @Override
+        public Collection<String> getHeaderNames()
+        {
+            return _headers.keySet();
+        }
+    }
+}
@@ -189,6 +189,20 @@ public class HeadersExchangeTest extends QpidTestCase
     }
 
 
+    public void testOnlyBindingsSharingAHeaderAreEvaluated() throws Exception
+    {
+        Queue<?> q1 = createAndBind("Q1", "F0000=Aardvark");
+        createAndBind("Q2", "F0001=Bear");
+        createAndBind("Q3", "F0002");
+
+        routeAndTest(createTestMessage(getArgsMapFromStrings("F0000=Aardvark")), q1);
+        assertEquals("Unexpected number of bindings evaluated", 1, _exchange.getBindingsEvaluated());
+
+        routeAndTest(createTestMessage(getArgsMapFromStrings("F0003")));
+        assertEquals("Unexpected number of bindings evaluated", 1, _exchange.getBindingsEvaluated());
+        assertEquals("Unexpected bindings evaluated per message", 0.5, _exchange.getBindingsEvaluatedPerMessage(), 0.0);
+    }
+
     public void testWithSelectors() throws Exception
     {
         Queue<?> q1 = _virtualHost.createChild(Queue.class, Collections.singletonMap(Queue.NAME, "Q1"));
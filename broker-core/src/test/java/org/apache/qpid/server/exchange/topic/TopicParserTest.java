@@ -0,0 +1,203 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.exchange.topic;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class TopicParserTest extends QpidTestCase
+{
+    private final TopicParser _parser = new TopicParser();
+    private final Map<String, TopicMatcherResult> _results = new HashMap<>();
+
+    public void testExactMatch()
+    {
+        addBinding("a.b.c");
+
+        assertMatches("a.b.c", "a.b.c");
+        assertMatches("a.b");
+        assertMatches("a.b.c.d");
+        assertMatches("x.b.c");
+    }
+
+    public void testAnyWord()
+    {
+        addBinding("a.*.c");
+        addBinding("*");
+
+        assertMatches("a.b.c", "a.*.c");
+        assertMatches("a.unknown.c", "a.*.c");
+        assertMatches("a", "*");
+        assertMatches("", "*");
+        assertMatches("a.c");
+    }
+
+    public void testWildcard()
+    {
+        addBinding("a.#");
+        addBinding("#.z");
+        addBinding("#");
+
+        assertMatches("a", "a.#", "#");
+        assertMatches("a.b.c", "a.#", "#");
+        assertMatches("a.z", "a.#", "#.z", "#");
+        assertMatches("z", "#.z", "#");
+        assertMatches("b.c", "#");
+    }
+
+    public void testEmptyAndTrailingWords()
+    {
+        addBinding("a.b");
+        addBinding("a..b");
+        addBinding("");
+
+        assertMatches("a.b", "a.b");
+        assertMatches("a.b.", "a.b");
+        assertMatches("a.b...", "a.b");
+        assertMatches("a..b", "a..b");
+        assertMatches("", "");
+        assertMatches("a");
+    }
+
+    public void testMatchesAgreeWithReferenceMatcher()
+    {
+        final String[] words = {"a", "b", "c", "d", "*", "#"};
+        final Random random = new Random(42);
+        for (int i = 0; i < 200; i++)
+        {
+            addBinding(randomKey(random, words));
+        }
+
+        final String[] routingWords = {"a", "b", "c", "d", "e"};
+        for (int i = 0; i < 2000; i++)
+        {
+            final String routingKey = randomKey(random, routingWords);
+            final Set<String> expected = new HashSet<>();
+            for (String bindingKey : _results.keySet())
+            {
+                if (matches(bindingKey.split("\\."), 0, routingKey.split("\\."), 0))
+                {
+                    expected.add(bindingKey);
+                }
+            }
+            assertEquals("Unexpected matches for routing key '" + routingKey + "'", expected, match(routingKey));
+            assertEquals("Unexpected cached matches for routing key '" + routingKey + "'", expected, match(routingKey));
+        }
+    }
+
+    public void testCacheDiscardedWhenBindingAdded()
+    {
+        addBinding("a.b");
+        assertMatches("a.b", "a.b");
+
+        addBinding("a.*");
+        assertMatches("a.b", "a.b", "a.*");
+    }
+
+    public void testCacheDisabled()
+    {
+        _parser.setRoutingKeyCacheSize(0);
+        addBinding("a.#");
+
+        assertMatches("a.b", "a.#");
+        assertMatches("b.a");
+    }
+
+    private String randomKey(final Random random, final String[] words)
+    {
+        final int length = 1 + random.nextInt(4);
+        final StringBuilder key = new StringBuilder();
+        for (int i = 0; i < length; i++)
+        {
+            if (i > 0)
+            {
+                key.append('.');
+            }
+            key.append(words[random.nextInt(words.length)]);
+        }
+        return key.toString();
+    }
+
+    private boolean matches(final String[] pattern, final int patternIndex, final String[] words, final int wordIndex)
+    {
+        if (patternIndex == pattern.length)
+        {
+            return wordIndex == words.length;
+        }
+        final String patternWord = pattern[patternIndex];
+        if ("#".equals(patternWord))
+        {
+            for (int i = wordIndex; i <= words.length; i++)
+            {
+                if (matches(pattern, patternIndex + 1, words, i))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return wordIndex < words.length
+               && ("*".equals(patternWord) || patternWord.equals(words[wordIndex]))
+               && matches(pattern, patternIndex + 1, words, wordIndex + 1);
+    }
+
+    private void addBinding(final String bindingKey)
+    {
+        if (!_results.containsKey(bindingKey))
+        {
+            final TopicMatcherResult result = new TopicMatcherResult()
+            {
+                @Override
+                public String toString()
+                {
+                    return bindingKey;
+                }
+            };
+            _results.put(bindingKey, result);
+            _parser.addBinding(bindingKey, result);
+        }
+    }
+
+    private Set<String> match(final String routingKey)
+    {
+        final Collection<TopicMatcherResult> results = _parser.parse(routingKey);
+        final Set<String> matched = new HashSet<>();
+        for (TopicMatcherResult result : results)
+        {
+            matched.add(result.toString());
+        }
+        return matched;
+    }
+
+    private void assertMatches(final String routingKey, final String... bindingKeys)
+    {
+        final List<String> expected = Arrays.asList(bindingKeys);
+        assertEquals("Unexpected matches for routing key '" + routingKey + "'", new HashSet<>(expected), match(routingKey));
+    }
+}
@@ -18,6 +18,10 @@
  */
 package org.apache.qpid.server.filter;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
 import org.apache.qpid.test.utils.QpidTestCase;
 
 public class JMSSelectorFilterTest extends QpidTestCase
@@ -37,6 +41,38 @@ public class JMSSelectorFilterTest extends QpidTestCase
         assertNotEqual(filter1, differentFilter);
     }
 
+    public void testPropertyEqualityConstraintOfEquality() throws Exception
+    {
+        PropertyEqualityConstraint constraint =
+                new JMSSelectorFilter("region = 'EMEA'").getPropertyEqualityConstraint();
+        assertNotNull("Expected constraint", constraint);
+        assertEquals("region", constraint.getPropertyName());
+        assertEquals(Collections.singleton("EMEA"), constraint.getValues());
+
+        constraint = new JMSSelectorFilter("'EMEA' = region").getPropertyEqualityConstraint();
+        assertNotNull("Expected constraint", constraint);
+        assertEquals("region", constraint.getPropertyName());
+    }
+
+    public void testPropertyEqualityConstraintOfConjunction() throws Exception
+    {
+        PropertyEqualityConstraint constraint =
+                new JMSSelectorFilter("price > 10 AND region IN ('EMEA', 'APAC')").getPropertyEqualityConstraint();
+        assertNotNull("Expected constraint", constraint);
+        assertEquals("region", constraint.getPropertyName());
+        assertEquals(new HashSet<>(Arrays.asList("EMEA", "APAC")), constraint.getValues());
+    }
+
+    public void testNoPropertyEqualityConstraint() throws Exception
+    {
+        assertNull(new JMSSelectorFilter("region = 'EMEA' OR price > 10").getPropertyEqualityConstraint());
+        assertNull(new JMSSelectorFilter("NOT region = 'EMEA'").getPropertyEqualityConstraint());
+        assertNull(new JMSSelectorFilter("region <> 'EMEA'").getPropertyEqualityConstraint());
+        assertNull(new JMSSelectorFilter("region NOT IN ('EMEA', 'APAC')").getPropertyEqualityConstraint());
+        assertNull(new JMSSelectorFilter("price = 10").getPropertyEqualityConstraint());
+        assertNull(new JMSSelectorFilter("region IS NULL").getPropertyEqualityConstraint());
+    }
+
     private void assertEqualsAndHashCodeMatch(JMSSelectorFilter filter1, JMSSelectorFilter filter2)
     {
         String message = filter1 + " and " + filter2 + " should be equal";
@@ -0,0 +1,169 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.qpid.server.filter.selector.SelectorParser;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class SelectorCompilerTest extends QpidTestCase
+{
+    private static final PropertyExpressionFactory<Map<String, Object>> MAP_PROPERTY_FACTORY =
+            new PropertyExpressionFactory<Map<String, Object>>()
+            {
+                @Override
+                public PropertyExpression<Map<String, Object>> createPropertyExpression(final String name)
+                {
+                    return new PropertyExpression<Map<String, Object>>()
+                    {
+                        @Override
+                        public Object evaluate(final Map<String, Object> message)
+                        {
+                            return message.get(name);
+                        }
+
+                        @Override
+                        public String toString()
+                        {
+                            return name;
+                        }
+                    };
+                }
+            };
+
+    private static final String[] SELECTORS = {
+            "a = 1",
+            "a <> 1",
+            "a > 1",
+            "a >= 2",
+            "a < 2.5",
+            "a <= 3000000000",
+            "a BETWEEN 1 AND 3",
+            "a NOT BETWEEN 1 AND 3",
+            "a = 2.0",
+            "s = 'x'",
+            "s <> 'x'",
+            "a IS NULL",
+            "a IS NOT NULL",
+            "flag",
+            "NOT flag",
+            "flag AND a > 1",
+            "a > 1 AND flag",
+            "a > 1 OR s = 'x'",
+            "s = 'x' OR a > 1",
+            "NOT (a > 1 OR b < 0)",
+            "(a > 1 AND b < 0) OR (s = 'y' AND NOT flag)",
+            "a + b > 2",
+            "a * 2 = b",
+            "s LIKE 'x%' AND a > 0",
+            "s IN ('x', 'y') OR a = 3",
+            "1 < a",
+            "TRUE AND a > 1",
+            "FALSE OR a > 1"};
+
+    private static final Object[] VALUES =
+            {null, (byte) 2, (short) 2, 1, 2, 3, 2L, 3000000000L, 2.0f, 2.5f, 2.0d, 2.5d, "x", "y", true, false};
+
+    public void testCompiledSelectorsAgreeWithInterpreter() throws Exception
+    {
+        final List<Map<String, Object>> messages = createMessages();
+        for (String selector : SELECTORS)
+        {
+            final BooleanExpression<Map<String, Object>> interpreted = parse(selector);
+            final BooleanExpression<Map<String, Object>> compiled = SelectorCompiler.compile(parse(selector));
+
+            for (Map<String, Object> message : messages)
+            {
+                final String description = "Selector '" + selector + "' on " + message;
+                Object expected;
+                try
+                {
+                    expected = interpreted.evaluate(message);
+                }
+                catch (RuntimeException e)
+                {
+                    expected = e.getClass();
+                }
+                Object actual;
+                try
+                {
+                    actual = compiled.evaluate(message);
+                }
+                catch (RuntimeException e)
+                {
+                    actual = e.getClass();
+                }
+                assertEquals(description, expected, actual);
+                if (!(expected instanceof Class))
+                {
+                    assertEquals(description, interpreted.matches(message), compiled.matches(message));
+                }
+            }
+        }
+    }
+
+    public void testUnsupportedExpressionIsLeftToInterpreter() throws Exception
+    {
+        final BooleanExpression<Map<String, Object>> expression = parse("s LIKE 'x%'");
+        assertSame(expression, SelectorCompiler.compile(expression));
+    }
+
+    public void testCompiledExpressionKeepsSelectorText() throws Exception
+    {
+        final BooleanExpression<Map<String, Object>> expression = parse("a > 1 AND s = 'x'");
+        final BooleanExpression<Map<String, Object>> compiled = SelectorCompiler.compile(expression);
+        assertNotSame(expression, compiled);
+        assertEquals(expression.toString(), compiled.toString());
+        assertSame(compiled, SelectorCompiler.compile(compiled));
+    }
+
+    private BooleanExpression<Map<String, Object>> parse(final String selector) throws Exception
+    {
+        final SelectorParser<Map<String, Object>> parser = new SelectorParser<>();
+        parser.setPropertyExpressionFactory(MAP_PROPERTY_FACTORY);
+        return parser.parse(selector);
+    }
+
+    private List<Map<String, Object>> createMessages()
+    {
+        final List<Map<String, Object>> messages = new ArrayList<>();
+        final List<Object> values = Arrays.asList(VALUES);
+        for (Object a : values)
+        {
+            for (Object other : values)
+            {
+                final Map<String, Object> message = new HashMap<>();
+                message.put("a", a);
+                message.put("b", other);
+                message.put("s", other);
+                message.put("flag", other instanceof Boolean ? other : a);
+                messages.add(Collections.unmodifiableMap(message));
+            }
+        }
+        return messages;
+    }
+}
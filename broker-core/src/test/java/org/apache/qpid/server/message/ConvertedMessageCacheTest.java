@@ -0,0 +1,259 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.message;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.qpid.server.model.NamedAddressSpace;
+import org.apache.qpid.server.plugin.MessageConverter;
+import org.apache.qpid.server.store.StorableMessageMetaData;
+import org.apache.qpid.server.store.StoredMessage;
+import org.apache.qpid.server.store.TransactionLogResource;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class ConvertedMessageCacheTest extends QpidTestCase
+{
+    private final NamedAddressSpace _addressSpace = mock(NamedAddressSpace.class);
+    private TestConverter _converter;
+    private TestMessage _message;
+    private MessageReference<TestMessage> _reference;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        ConvertedMessageCache.setEnabled(true);
+        _converter = new TestConverter();
+        _message = new TestMessage(mock(StoredMessage.class));
+        _reference = _message.newReference();
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        try
+        {
+            ConvertedMessageCache.setEnabled(false);
+        }
+        finally
+        {
+            super.tearDown();
+        }
+    }
+
+    public void testConversionSharedBetweenDeliveries()
+    {
+        long hits = ConvertedMessageCache.getHits();
+        long misses = ConvertedMessageCache.getMisses();
+
+        ConvertedMessageCache.Conversion<ServerMessage> first = ConvertedMessageCache.convert(_converter, _message, _addressSpace);
+        ConvertedMessageCache.Conversion<ServerMessage> second = ConvertedMessageCache.convert(_converter, _message, _addressSpace);
+
+        assertSame("Unexpected conversion", first.getMessage(), second.getMessage());
+        assertEquals("Unexpected number of conversions", 1, _converter.getConverted().size());
+        assertEquals("Unexpected number of hits", hits + 1, ConvertedMessageCache.getHits());
+        assertEquals("Unexpected number of misses", misses + 1, ConvertedMessageCache.getMisses());
+
+        first.release();
+        second.release();
+        assertTrue("Conversion disposed while message is not deleted", _converter.getDisposed().isEmpty());
+
+        _reference.release();
+        assertEquals("Conversion not disposed after message deleted", _converter.getConverted(), _converter.getDisposed());
+    }
+
+    public void testConversionInUseDisposedWhenReleased()
+    {
+        ConvertedMessageCache.Conversion<ServerMessage> conversion = ConvertedMessageCache.convert(_converter, _message, _addressSpace);
+
+        _reference.release();
+        assertTrue("Conversion disposed while in use", _converter.getDisposed().isEmpty());
+
+        conversion.release();
+        assertEquals("Conversion not disposed after release", _converter.getConverted(), _converter.getDisposed());
+    }
+
+    public void testConversionForOtherAddressSpaceNotShared()
+    {
+        ConvertedMessageCache.Conversion<ServerMessage> first = ConvertedMessageCache.convert(_converter, _message, _addressSpace);
+        ConvertedMessageCache.Conversion<ServerMessage> second = ConvertedMessageCache.convert(_converter, _message, mock(NamedAddressSpace.class));
+
+        assertNotSame("Unexpected conversion", first.getMessage(), second.getMessage());
+
+        second.release();
+        assertEquals("Unshared conversion not disposed after release", 1, _converter.getDisposed().size());
+        assertSame("Unexpected conversion disposed", second.getMessage(), _converter.getDisposed().get(0));
+
+        first.release();
+        _reference.release();
+        assertEquals("Unexpected number of conversions disposed", 2, _converter.getDisposed().size());
+    }
+
+    public void testDisabledCacheConvertsEachDelivery()
+    {
+        ConvertedMessageCache.setEnabled(false);
+
+        ConvertedMessageCache.Conversion<ServerMessage> first = ConvertedMessageCache.convert(_converter, _message, _addressSpace);
+        ConvertedMessageCache.Conversion<ServerMessage> second = ConvertedMessageCache.convert(_converter, _message, _addressSpace);
+
+        assertNotSame("Unexpected conversion", first.getMessage(), second.getMessage());
+
+        first.release();
+        second.release();
+        assertEquals("Conversions not disposed after release", _converter.getConverted(), _converter.getDisposed());
+    }
+
+    public void testRepresentationRetainedOnlyIfAccepted()
+    {
+        List<String> disposed = new ArrayList<>();
+
+        ConvertedMessageCache.Conversion<String> rejected =
+                ConvertedMessageCache.getOrCreate(_message, "key", () -> "rejected", value -> false, disposed::add);
+        assertEquals("Unexpected representation", "rejected", rejected.getMessage());
+        assertNull("Rejected representation retained", ConvertedMessageCache.getIfPresent(_message, "key"));
+        rejected.release();
+        assertEquals("Rejected representation not disposed after release", 1, disposed.size());
+
+        ConvertedMessageCache.Conversion<String> accepted =
+                ConvertedMessageCache.getOrCreate(_message, "key", () -> "accepted", value -> true, disposed::add);
+        ConvertedMessageCache.Conversion<String> cached = ConvertedMessageCache.getIfPresent(_message, "key");
+        assertNotNull("Accepted representation not retained", cached);
+        assertSame("Unexpected representation", accepted.getMessage(), cached.getMessage());
+
+        accepted.release();
+        cached.release();
+        assertEquals("Representation disposed while message is not deleted", 1, disposed.size());
+
+        _reference.release();
+        assertEquals("Representation not disposed after message deleted", 2, disposed.size());
+    }
+
+    public void testRepresentationNotCreatedForDeletedMessage()
+    {
+        _reference.release();
+
+        ConvertedMessageCache.Conversion<String> conversion =
+                ConvertedMessageCache.getOrCreate(_message, "key", () -> "value", value -> true, value -> {});
+        assertNull("Representation retained for deleted message", ConvertedMessageCache.getIfPresent(_message, "key"));
+        conversion.release();
+    }
+
+    private static class TestConverter implements MessageConverter<ServerMessage, ServerMessage>
+    {
+        private final List<ServerMessage> _converted = new ArrayList<>();
+        private final List<ServerMessage> _disposed = new ArrayList<>();
+
+        @Override
+        public Class<ServerMessage> getInputClass()
+        {
+            return ServerMessage.class;
+        }
+
+        @Override
+        public Class<ServerMessage> getOutputClass()
+        {
+            return ServerMessage.class;
+        }
+
+        @Override
+        public ServerMessage convert(final ServerMessage message, final NamedAddressSpace addressSpace)
+        {
+            ServerMessage converted = mock(ServerMessage.class);
+            _converted.add(converted);
+            return converted;
+        }
+
+        @Override
+        public void dispose(final ServerMessage message)
+        {
+            _disposed.add(message);
+        }
+
+        @Override
+        public String getType()
+        {
+            return "test";
+        }
+
+        List<ServerMessage> getConverted()
+        {
+            return _converted;
+        }
+
+        List<ServerMessage> getDisposed()
+        {
+            return _disposed;
+        }
+    }
+
+    private static class TestMessage extends AbstractServerMessageImpl<TestMessage, StorableMessageMetaData>
+    {
+        TestMessage(final StoredMessage<StorableMessageMetaData> handle)
+        {
+            super(handle, null);
+        }
+
+        @Override
+        public String getInitialRoutingAddress()
+        {
+            return "";
+        }
+
+        @Override
+        public String getTo()
+        {
+            return null;
+        }
+
+        @Override
+        public AMQMessageHeader getMessageHeader()
+        {
+            return null;
+        }
+
+        @Override
+        public long getExpiration()
+        {
+            return 0;
+        }
+
+        @Override
+        public String getMessageType()
+        {
+            return "test";
+        }
+
+        @Override
+        public long getArrivalTime()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean isResourceAcceptable(final TransactionLogResource resource)
+        {
+            return true;
+        }
+    }
+}
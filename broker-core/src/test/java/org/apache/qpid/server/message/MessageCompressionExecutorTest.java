@@ -0,0 +1,142 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.message;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class MessageCompressionExecutorTest extends QpidTestCase
+{
+    private MessageCompressionExecutor _executor;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        _executor = new MessageCompressionExecutor("test-compression", 1);
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        try
+        {
+            _executor.shutdown();
+        }
+        finally
+        {
+            super.tearDown();
+        }
+    }
+
+    public void testMessageReferencedUntilTaskCompletes() throws Exception
+    {
+        final MessageReference<?> reference = mock(MessageReference.class);
+        final ServerMessage<?> message = createMessage(reference);
+        final CountDownLatch proceed = new CountDownLatch(1);
+
+        _executor.execute(message, () -> awaitQuietly(proceed));
+
+        verify(reference, never()).release();
+        proceed.countDown();
+        awaitDrained();
+        verify(reference).release();
+    }
+
+    public void testOnlyOneTaskPendingPerMessage() throws Exception
+    {
+        final ServerMessage<?> message = createMessage(mock(MessageReference.class));
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+
+        _executor.execute(message, () ->
+        {
+            awaitQuietly(proceed);
+            runs.incrementAndGet();
+        });
+        _executor.execute(message, runs::incrementAndGet);
+        proceed.countDown();
+
+        awaitDrained();
+        assertEquals("Unexpected number of tasks run for the message", 1, runs.get());
+    }
+
+    public void testShutdownReleasesReferencesOfQueuedTasks() throws Exception
+    {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        _executor.execute(createMessage(mock(MessageReference.class)), () ->
+        {
+            started.countDown();
+            awaitQuietly(proceed);
+        });
+        assertTrue("Task did not start", started.await(5, TimeUnit.SECONDS));
+
+        final MessageReference<?> queuedReference = mock(MessageReference.class);
+        final AtomicInteger runs = new AtomicInteger();
+        _executor.execute(createMessage(queuedReference), runs::incrementAndGet);
+
+        _executor.shutdown();
+        assertTrue("Executor not shut down", _executor.isShutdown());
+        verify(queuedReference).release();
+
+        final MessageReference<?> rejectedReference = mock(MessageReference.class);
+        _executor.execute(createMessage(rejectedReference), runs::incrementAndGet);
+        verify(rejectedReference).release();
+        assertEquals("Queued or rejected task run", 0, runs.get());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private ServerMessage<?> createMessage(final MessageReference<?> reference)
+    {
+        final ServerMessage message = mock(ServerMessage.class);
+        when(message.newReference()).thenReturn(reference);
+        return message;
+    }
+
+    /** The executor has a single thread, so once this task has run every earlier task has completed. */
+    private void awaitDrained() throws InterruptedException
+    {
+        final CountDownLatch drained = new CountDownLatch(1);
+        _executor.execute(createMessage(mock(MessageReference.class)), drained::countDown);
+        assertTrue("Executor did not drain", drained.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch)
+    {
+        try
+        {
+            latch.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
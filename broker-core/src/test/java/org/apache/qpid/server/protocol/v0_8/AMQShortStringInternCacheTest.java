@@ -0,0 +1,115 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.apache.qpid.server.protocol.v0_8;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class AMQShortStringInternCacheTest extends QpidTestCase
+{
+    public void testRepeatedStringIsShared()
+    {
+        final AMQShortStringInternCache cache = new AMQShortStringInternCache(16);
+        final QpidByteBuffer buffer = encode("amq.direct", "amq.direct", "routing.key");
+
+        final AMQShortString first = read(cache, buffer);
+        final AMQShortString second = read(cache, buffer);
+        final AMQShortString third = read(cache, buffer);
+
+        assertEquals(new AMQShortString("amq.direct"), first);
+        assertSame("Repeated short string not shared", first, second);
+        assertEquals(new AMQShortString("routing.key"), third);
+        assertEquals("Unexpected hash code", new AMQShortString("routing.key").hashCode(), third.hashCode());
+        assertEquals("Buffer not fully read", 0, buffer.remaining());
+
+        assertEquals("Unexpected hits", 1, cache.getHits());
+        assertEquals("Unexpected misses", 2, cache.getMisses());
+        buffer.dispose();
+    }
+
+    public void testDifferentStringInSameSlotIsEvicted()
+    {
+        final AMQShortStringInternCache cache = new AMQShortStringInternCache(1);
+        assertEquals("Unexpected capacity", 1, cache.getCapacity());
+        final QpidByteBuffer buffer = encode("a", "b", "b", "a");
+
+        final AMQShortString a = read(cache, buffer);
+        final AMQShortString b = read(cache, buffer);
+        assertSame(b, read(cache, buffer));
+        final AMQShortString secondA = read(cache, buffer);
+
+        assertEquals(a, secondA);
+        assertNotSame("Evicted short string unexpectedly returned", a, secondA);
+        assertEquals("Unexpected hits", 1, cache.getHits());
+        assertEquals("Unexpected misses", 3, cache.getMisses());
+        assertEquals("Unexpected evictions", 2, cache.getEvictions());
+        buffer.dispose();
+    }
+
+    public void testCapacityRoundedToPowerOfTwo()
+    {
+        assertEquals(8, new AMQShortStringInternCache(5).getCapacity());
+        assertEquals(8, new AMQShortStringInternCache(8).getCapacity());
+    }
+
+    public void testReadInternedAMQShortString()
+    {
+        final QpidByteBuffer buffer = encode("", "exchange");
+        try
+        {
+            AMQShortString.initialiseInternCache(AMQShortString.DEFAULT_INTERN_CACHE_SIZE);
+            assertNull("Empty short string should be read as null", AMQShortString.readInternedAMQShortString(buffer));
+            assertEquals(new AMQShortString("exchange"), AMQShortString.readInternedAMQShortString(buffer));
+            assertEquals(1, AMQShortString.getInternCacheMisses());
+
+            AMQShortString.initialiseInternCache(0);
+            buffer.position(0);
+            assertNull(AMQShortString.readInternedAMQShortString(buffer));
+            assertEquals(new AMQShortString("exchange"), AMQShortString.readInternedAMQShortString(buffer));
+            assertEquals(0, AMQShortString.getInternCacheMisses());
+        }
+        finally
+        {
+            AMQShortString.initialiseInternCache(AMQShortString.DEFAULT_INTERN_CACHE_SIZE);
+            buffer.dispose();
+        }
+    }
+
+    private AMQShortString read(final AMQShortStringInternCache cache, final QpidByteBuffer buffer)
+    {
+        return cache.read(buffer, buffer.getUnsignedByte());
+    }
+
+    private QpidByteBuffer encode(final String... strings)
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String string : strings)
+        {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.write(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+        return QpidByteBuffer.wrap(out.toByteArray());
+    }
+}
@@ -21,6 +21,7 @@
 package org.apache.qpid.server.protocol.v0_8;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -931,6 +932,86 @@ public class FieldTableTest extends QpidTestCase
         assertTrue("unexpected property value", destinationTable.getBoolean(myBooleanTestProperty));
     }
 
+    public void testLookupFromEncodedFormKeepsTableClean()
+    {
+        FieldTable nested = new FieldTable();
+        nested.setString("nested-string", "inner");
+
+        FieldTable table = new FieldTable();
+        table.setBoolean("bool", true);
+        table.setByte("byte", Byte.MAX_VALUE);
+        table.setBytes("bytes", new byte[] { 1, 2, 3 });
+        table.setChar("char", 'c');
+        table.setDecimal(AMQShortString.valueOf("decimal"), new BigDecimal("1234"));
+        table.setDouble("double", Double.MAX_VALUE);
+        table.setFieldArray("array", Arrays.asList(1, 2, 3));
+        table.setFieldTable("table", nested);
+        table.setFloat("float", Float.MAX_VALUE);
+        table.setInteger("int", Integer.MAX_VALUE);
+        table.setLong("long", Long.MAX_VALUE);
+        table.setShort("short", Short.MAX_VALUE);
+        table.setString("string", "hello");
+        table.setTimestamp(AMQShortString.valueOf("timestamp"), 1234L);
+        table.setVoid(AMQShortString.valueOf("void"));
+
+        byte[] data = table.getDataAsBytes();
+        FieldTable tableFromBytes = new FieldTable(QpidByteBuffer.wrap(data));
+
+        assertEquals("hello", tableFromBytes.getString("string"));
+        assertEquals(Long.valueOf(Long.MAX_VALUE), tableFromBytes.getLong("long"));
+        assertEquals("hello", tableFromBytes.get("string"));
+        assertEquals(Long.valueOf(1234L), tableFromBytes.getTimestamp(AMQShortString.valueOf("timestamp")));
+        assertEquals(new BigDecimal("1234"), tableFromBytes.getDecimal(AMQShortString.valueOf("decimal")));
+        assertEquals("inner", tableFromBytes.getFieldTable("table").getString("nested-string"));
+        assertEquals(Float.valueOf(Float.MAX_VALUE), tableFromBytes.getFloat("float"));
+        assertTrue(tableFromBytes.containsKey("void"));
+        assertTrue(tableFromBytes.containsKey(AMQShortString.valueOf("array")));
+        assertFalse(tableFromBytes.containsKey("missing"));
+        assertNull(tableFromBytes.get("missing"));
+        assertNull(tableFromBytes.getString("missing"));
+
+        assertTrue("Lookups should not decode the table", tableFromBytes.isClean());
+        assertBytesEqual(data, tableFromBytes.getDataAsBytes());
+
+        assertEquals(table.keys(), tableFromBytes.keys());
+        tableFromBytes.dispose();
+    }
+
+    public void testLookupFromEncodedFormUsesLastDuplicateEntry()
+    {
+        FieldTable first = new FieldTable();
+        first.setString("key", "first");
+        first.setString("other", "value");
+        FieldTable second = new FieldTable();
+        second.setString("key", "second");
+
+        byte[] firstData = first.getDataAsBytes();
+        byte[] secondData = second.getDataAsBytes();
+        byte[] data = Arrays.copyOf(firstData, firstData.length + secondData.length);
+        System.arraycopy(secondData, 0, data, firstData.length, secondData.length);
+
+        FieldTable tableFromBytes = new FieldTable(QpidByteBuffer.wrap(data));
+        assertEquals("second", tableFromBytes.getString("key"));
+        assertEquals("second", tableFromBytes.get("key"));
+        assertEquals("value", tableFromBytes.getString("other"));
+
+        tableFromBytes.clearEncodedForm();
+        assertEquals("second", tableFromBytes.getString("key"));
+        assertEquals(2, tableFromBytes.size());
+    }
+
+    public void testLookupFromEncodedFormWithNonAsciiName()
+    {
+        FieldTable table = new FieldTable();
+        table.setString("cl\u00e9", "value");
+
+        FieldTable tableFromBytes = new FieldTable(QpidByteBuffer.wrap(table.getDataAsBytes()));
+        assertTrue(tableFromBytes.containsKey("cl\u00e9"));
+        assertEquals("value", tableFromBytes.get("cl\u00e9"));
+        assertEquals("value", tableFromBytes.getString(AMQShortString.valueOf("cl\u00e9")));
+        assertFalse(tableFromBytes.containsKey("cle"));
+    }
+
     private void assertBytesEqual(byte[] expected, byte[] actual)
     {
         Assert.assertEquals(expected.length, actual.length);
@@ -0,0 +1,289 @@
+/*
+*
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements.  See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership.  The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License.  You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*
+*/
+package org.apache.qpid.server.queue;
+
+import static org.apache.qpid.server.model.Queue.QUEUE_SCAVANGE_COUNT;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.apache.qpid.server.message.AMQMessageHeader;
+import org.apache.qpid.server.message.MessageReference;
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.plugin.MessageMetaDataType;
+import org.apache.qpid.server.store.MessageEnqueueRecord;
+import org.apache.qpid.server.store.MessageStore;
+import org.apache.qpid.server.store.StorableMessageMetaData;
+import org.apache.qpid.server.store.StoredMessage;
+import org.apache.qpid.server.store.TransactionLogResource;
+import org.apache.qpid.server.virtualhost.QueueManagingVirtualHost;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class CompactQueueEntryListTest extends QpidTestCase
+{
+    private static final int IN_MEMORY_WINDOW = 10;
+    private static final int NUMBER_OF_MESSAGES = 4 * CompactQueueEntryList.SEGMENT_SIZE;
+
+    private final Map<Long, StoredMessage<?>> _storedMessages = new HashMap<>();
+    private final AtomicInteger _releasedReferences = new AtomicInteger();
+    private StandardQueueImpl _queue;
+    private CompactQueueEntryList _list;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        _queue = mock(StandardQueueImpl.class);
+        when(_queue.getContextValue(Integer.class, QUEUE_SCAVANGE_COUNT)).thenReturn(9);
+
+        final MessageStore.MessageStoreReader reader = mock(MessageStore.MessageStoreReader.class);
+        when(reader.getMessage(anyLong())).then(new Answer<StoredMessage<?>>()
+        {
+            @Override
+            public StoredMessage<?> answer(final InvocationOnMock invocation) throws Throwable
+            {
+                return _storedMessages.get((Long) invocation.getArguments()[0]);
+            }
+        });
+        final MessageStore messageStore = mock(MessageStore.class);
+        when(messageStore.newMessageStoreReader()).thenReturn(reader);
+        final QueueManagingVirtualHost virtualHost = mock(QueueManagingVirtualHost.class);
+        when(virtualHost.getMessageStore()).thenReturn(messageStore);
+        when(_queue.getVirtualHost()).thenReturn(virtualHost);
+
+        _list = new CompactQueueEntryList(_queue, new QueueStatistics(), IN_MEMORY_WINDOW);
+    }
+
+    public void testEntriesBeyondWindowCompactedAndMaterialisedInOrder()
+    {
+        for (long i = 1; i <= NUMBER_OF_MESSAGES; i++)
+        {
+            _list.add(createMessage(i, true), mock(MessageEnqueueRecord.class));
+        }
+        assertEquals("Entries should not be compacted by the publisher", 0, _list.getCompactedEntryCount());
+        _list.performHousekeeping();
+
+        final long compacted = _list.getCompactedEntryCount();
+        assertTrue("Entries beyond the window should have been compacted", compacted > 0);
+        assertEquals("Unexpected number of entries", NUMBER_OF_MESSAGES, _list.getResidentEntryCount() + compacted);
+        assertEquals("Resident iterator should not materialise compacted entries",
+                     _list.getResidentEntryCount(), countEntries(_list.residentIterator()));
+        assertEquals("Unexpected number of compacted entries after resident iteration",
+                     compacted, _list.getCompactedEntryCount());
+
+        final QueueEntryIterator iterator = _list.iterator();
+        long expectedMessageNumber = 1;
+        while (iterator.advance())
+        {
+            assertEquals("Unexpected message", expectedMessageNumber++, iterator.getNode().getMessage().getMessageNumber());
+            assertTrue("Entry should be available", iterator.getNode().isAvailable());
+        }
+        assertEquals("Unexpected number of entries", NUMBER_OF_MESSAGES, expectedMessageNumber - 1);
+        assertEquals("All entries should have been materialised", 0, _list.getCompactedEntryCount());
+        assertEquals("Unexpected number of resident entries", NUMBER_OF_MESSAGES, _list.getResidentEntryCount());
+    }
+
+    public void testConsumersLeaveMaterialisationToHousekeeping()
+    {
+        for (long i = 1; i <= NUMBER_OF_MESSAGES; i++)
+        {
+            _list.add(createMessage(i, true), mock(MessageEnqueueRecord.class));
+        }
+        _list.performHousekeeping();
+        assertTrue("Entries beyond the window should have been compacted", _list.getCompactedEntryCount() > 0);
+
+        int housekeepingRuns = 0;
+        for (long expectedMessageNumber = 1; expectedMessageNumber <= NUMBER_OF_MESSAGES; expectedMessageNumber++)
+        {
+            QueueEntry entry = _list.getOldestEntry();
+            if (entry == null)
+            {
+                final long compacted = _list.getCompactedEntryCount();
+                assertTrue("Consumer should only wait for compacted entries", compacted > 0);
+                assertNull("Reaching a segment should not materialise it", _list.getOldestEntry());
+                assertEquals("Unexpected number of compacted entries", compacted, _list.getCompactedEntryCount());
+
+                _list.performHousekeeping();
+                housekeepingRuns++;
+                entry = _list.getOldestEntry();
+            }
+            assertNotNull("Expected an entry", entry);
+            assertEquals("Unexpected message", expectedMessageNumber, entry.getMessage().getMessageNumber());
+            assertTrue("Entry should have been acquired", entry.acquire());
+            entry.delete();
+        }
+        assertNull("List should be empty", _list.getOldestEntry());
+        assertEquals("Unexpected number of compacted entries", 0, _list.getCompactedEntryCount());
+        assertTrue("Housekeeping should have been needed to materialise entries", housekeepingRuns > 0);
+    }
+
+    public void testHousekeepingMaterialisesEntriesWithinWindow()
+    {
+        for (long i = 1; i <= NUMBER_OF_MESSAGES; i++)
+        {
+            _list.add(createMessage(i, true), mock(MessageEnqueueRecord.class));
+        }
+        _list.performHousekeeping();
+        final long compacted = _list.getCompactedEntryCount();
+        assertTrue("Entries beyond the window should have been compacted", compacted > 0);
+
+        for (int i = 0; i < IN_MEMORY_WINDOW / 2; i++)
+        {
+            final QueueEntry entry = _list.getOldestEntry();
+            assertTrue("Entry should have been acquired", entry.acquire());
+            entry.delete();
+        }
+        assertEquals("Unexpected number of compacted entries", compacted, _list.getCompactedEntryCount());
+
+        _list.performHousekeeping();
+        assertTrue("Segment within the window should have been materialised",
+                   _list.getCompactedEntryCount() < compacted);
+    }
+
+    public void testIteratorWithinCompactedRunResumesAfterItsPosition()
+    {
+        final int positionedAt = CompactQueueEntryList.SEGMENT_SIZE / 2;
+        for (long i = 1; i <= positionedAt * 3; i++)
+        {
+            _list.add(createMessage(i, true), mock(MessageEnqueueRecord.class));
+        }
+        final QueueEntryIterator iterator = _list.iterator();
+        for (int i = 0; i < positionedAt; i++)
+        {
+            iterator.advance();
+        }
+        assertEquals("Unexpected message", positionedAt, iterator.getNode().getMessage().getMessageNumber());
+
+        for (long i = positionedAt * 3 + 1; i <= NUMBER_OF_MESSAGES; i++)
+        {
+            _list.add(createMessage(i, true), mock(MessageEnqueueRecord.class));
+        }
+        _list.performHousekeeping();
+        assertTrue("Entries beyond the window should have been compacted", _list.getCompactedEntryCount() > 0);
+
+        long expectedMessageNumber = positionedAt + 1;
+        while (iterator.advance())
+        {
+            assertEquals("Unexpected message", expectedMessageNumber++, iterator.getNode().getMessage().getMessageNumber());
+        }
+        assertEquals("Unexpected last message", NUMBER_OF_MESSAGES, expectedMessageNumber - 1);
+    }
+
+    public void testMessagesInMemoryNotCompacted()
+    {
+        for (long i = 1; i <= NUMBER_OF_MESSAGES; i++)
+        {
+            _list.add(createMessage(i, false), mock(MessageEnqueueRecord.class));
+        }
+        _list.performHousekeeping();
+        assertEquals("Unexpected number of compacted entries", 0, _list.getCompactedEntryCount());
+        assertEquals("Unexpected number of entries", NUMBER_OF_MESSAGES, countEntries(_list.residentIterator()));
+    }
+
+    public void testExpiringMessagesNotCompacted()
+    {
+        final long expiration = System.currentTimeMillis() + 60000L;
+        for (long i = 1; i <= NUMBER_OF_MESSAGES; i++)
+        {
+            final ServerMessage message = createMessage(i, true);
+            when(message.getExpiration()).thenReturn(expiration);
+            _list.add(message, mock(MessageEnqueueRecord.class));
+        }
+        _list.performHousekeeping();
+        assertEquals("Unexpected number of compacted entries", 0, _list.getCompactedEntryCount());
+        assertEquals("Unexpected number of entries", NUMBER_OF_MESSAGES, countEntries(_list.residentIterator()));
+    }
+
+    public void testCompactionReleasesMessageReferences()
+    {
+        for (long i = 1; i <= NUMBER_OF_MESSAGES; i++)
+        {
+            _list.add(createMessage(i, true), mock(MessageEnqueueRecord.class));
+        }
+        _list.performHousekeeping();
+
+        final long compacted = _list.getCompactedEntryCount();
+        assertTrue("Entries beyond the window should have been compacted", compacted > 0);
+        assertEquals("References of compacted entries should have been released",
+                     compacted, _releasedReferences.get());
+    }
+
+    private int countEntries(final QueueEntryIterator iterator)
+    {
+        int count = 0;
+        while (iterator.advance())
+        {
+            count++;
+        }
+        return count;
+    }
+
+    private ServerMessage createMessage(final long number, final boolean flowedToDisk)
+    {
+        final ServerMessage message = mock(ServerMessage.class);
+        when(message.getMessageNumber()).thenReturn(number);
+        when(message.isPersistent()).thenReturn(true);
+        when(message.isReferencedOnlyBy(any(TransactionLogResource.class))).thenReturn(true);
+        when(message.getMessageHeader()).thenReturn(mock(AMQMessageHeader.class));
+        final MessageReference reference = new MessageReference()
+        {
+            @Override
+            public ServerMessage getMessage()
+            {
+                return message;
+            }
+
+            @Override
+            public void release()
+            {
+                _releasedReferences.incrementAndGet();
+            }
+
+            @Override
+            public void close()
+            {
+                release();
+            }
+        };
+        when(message.newReference()).thenReturn(reference);
+        when(message.newReference(any(TransactionLogResource.class))).thenReturn(reference);
+
+        final StoredMessage storedMessage = mock(StoredMessage.class);
+        when(storedMessage.isInMemory()).thenReturn(!flowedToDisk);
+        when(storedMessage.unload()).thenReturn(true);
+        final StorableMessageMetaData metaData = mock(StorableMessageMetaData.class);
+        final MessageMetaDataType type = mock(MessageMetaDataType.class);
+        when(storedMessage.getMetaData()).thenReturn(metaData);
+        when(metaData.getType()).thenReturn(type);
+        when(type.createMessage(storedMessage)).thenReturn(message);
+        when(message.getStoredMessage()).thenReturn(storedMessage);
+        _storedMessages.put(number, storedMessage);
+        return message;
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.server.message.AMQMessageHeader;
+import org.apache.qpid.server.message.MessageReference;
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.model.BrokerTestHelper;
+import org.apache.qpid.server.model.LifetimePolicy;
+import org.apache.qpid.server.model.Queue;
+import org.apache.qpid.server.store.TransactionLogResource;
+import org.apache.qpid.server.virtualhost.QueueManagingVirtualHost;
+
+public class ConcurrentSortedQueueEntryListTest extends QueueEntryListTestBase
+{
+    private static final String[] KEYS = SortedQueueEntryListTest.keys;
+
+    private final String[] _keysSorted = KEYS.clone();
+    private SortedQueueImpl _testQueue;
+    private ConcurrentSortedQueueEntryList _list;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        Map<String,Object> attributes = new HashMap<>();
+        attributes.put(Queue.ID, UUID.randomUUID());
+        attributes.put(Queue.NAME, getName());
+        attributes.put(Queue.DURABLE, false);
+        attributes.put(Queue.LIFETIME_POLICY, LifetimePolicy.PERMANENT);
+        attributes.put(SortedQueue.SORT_KEY, "KEY");
+        attributes.put(Queue.CONTEXT,
+                       Collections.singletonMap(SortedQueue.SORTED_QUEUE_CONCURRENT_ENTRY_LIST_ENABLED, "true"));
+
+        final QueueManagingVirtualHost virtualHost = BrokerTestHelper.createVirtualHost("testVH");
+        _testQueue = new SortedQueueImpl(attributes, virtualHost);
+        _testQueue.open();
+        _list = (ConcurrentSortedQueueEntryList) _testQueue.getEntries();
+
+        super.setUp();
+
+        Arrays.sort(_keysSorted);
+
+        long messageId = 0L;
+        for(final String key : KEYS)
+        {
+            _list.add(generateTestMessage(messageId++, key), null);
+        }
+    }
+
+    @Override
+    public ConcurrentSortedQueueEntryList getTestList()
+    {
+        return getTestList(false);
+    }
+
+    @Override
+    public ConcurrentSortedQueueEntryList getTestList(boolean newList)
+    {
+        if(newList)
+        {
+            return new ConcurrentSortedQueueEntryList(_testQueue, _testQueue.getQueueStatistics());
+        }
+        else
+        {
+            return _list;
+        }
+    }
+
+    @Override
+    public int getExpectedListLength()
+    {
+        return KEYS.length;
+    }
+
+    @Override
+    public long getExpectedFirstMsgId()
+    {
+        return 67L;
+    }
+
+    @Override
+    public ServerMessage getTestMessageToAdd()
+    {
+        return generateTestMessage(1, "test value");
+    }
+
+    @Override
+    protected SortedQueueImpl getTestQueue()
+    {
+        return _testQueue;
+    }
+
+    @Override
+    public void testIterator() throws Exception
+    {
+        super.testIterator();
+
+        final QueueEntryIterator iter = getTestList().iterator();
+        int count = 0;
+        while(iter.advance())
+        {
+            assertEquals("Sorted queue entry value does not match sorted key array",
+                         _keysSorted[count++], getSortedKeyValue(iter));
+        }
+    }
+
+    public void testNonUniqueAndNullSortKeys() throws Exception
+    {
+        final ConcurrentSortedQueueEntryList list = getTestList(true);
+        for (long messageId = 0; messageId < 200; messageId++)
+        {
+            list.add(generateTestMessage(messageId, messageId % 2 == 0 ? null : "samekey"), null);
+        }
+
+        final QueueEntryIterator iter = list.iterator();
+        for (long expected = 0; expected < 200; expected += 2)
+        {
+            assertTrue("Iterator should have advanced", iter.advance());
+            assertNull("Sorted queue entry value is not as expected", getSortedKeyValue(iter));
+            assertEquals("Message id not as expected", Long.valueOf(expected), getMessageId(iter));
+        }
+        for (long expected = 1; expected < 200; expected += 2)
+        {
+            assertTrue("Iterator should have advanced", iter.advance());
+            assertEquals("Sorted queue entry value is not as expected", "samekey", getSortedKeyValue(iter));
+            assertEquals("Message id not as expected", Long.valueOf(expected), getMessageId(iter));
+        }
+        assertFalse("Iterator should be at the tail", iter.advance());
+    }
+
+    public void testIteratorResumesAfterDeletedPosition() throws Exception
+    {
+        final ConcurrentSortedQueueEntryList list = getTestList(true);
+        list.add(generateTestMessage(1, "A"), null);
+        final QueueEntry b = list.add(generateTestMessage(2, "B"), null);
+        list.add(generateTestMessage(3, "D"), null);
+
+        final QueueEntryIterator iter = list.iterator();
+        assertTrue(iter.advance());
+        assertTrue(iter.advance());
+        assertSame("Unexpected entry", b, iter.getNode());
+
+        b.acquire();
+        b.delete();
+        list.add(generateTestMessage(4, "C"), null);
+
+        assertTrue("Iterator should have advanced", iter.advance());
+        assertEquals("Unexpected entry after deleted position", "C", getSortedKeyValue(iter));
+        assertTrue("Iterator should have advanced", iter.advance());
+        assertEquals("Unexpected entry", "D", getSortedKeyValue(iter));
+        assertSame("Unexpected tail", iter.getNode(), list.getTail());
+        assertFalse("Iterator should be at the tail", iter.advance());
+    }
+
+    public void testConcurrentAdds() throws Exception
+    {
+        final ConcurrentSortedQueueEntryList list = getTestList(true);
+        final int numberOfThreads = 4;
+        final int messagesPerThread = 1000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numberOfThreads; t++)
+        {
+            final int thread = t;
+            final List<ServerMessage> messages = new ArrayList<>();
+            for (int i = 0; i < messagesPerThread; i++)
+            {
+                final long messageId = thread * messagesPerThread + i;
+                messages.add(generateTestMessage(messageId, String.format("%05d", (messageId * 7919) % 10000)));
+            }
+            threads.add(new Thread(() ->
+                                   {
+                                       try
+                                       {
+                                           start.await(10, TimeUnit.SECONDS);
+                                       }
+                                       catch (InterruptedException e)
+                                       {
+                                           Thread.currentThread().interrupt();
+                                       }
+                                       for (ServerMessage message : messages)
+                                       {
+                                           list.add(message, null);
+                                       }
+                                   }));
+        }
+        for (Thread thread : threads)
+        {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads)
+        {
+            thread.join(10000L);
+        }
+
+        final QueueEntryIterator iter = list.iterator();
+        String previousKey = null;
+        int count = 0;
+        while (iter.advance())
+        {
+            final String key = (String) getSortedKeyValue(iter);
+            assertTrue("Entries out of order: " + previousKey + " before " + key,
+                       previousKey == null || previousKey.compareTo(key) <= 0);
+            previousKey = key;
+            count++;
+        }
+        assertEquals("Unexpected number of entries", numberOfThreads * messagesPerThread, count);
+    }
+
+    private Object getSortedKeyValue(QueueEntryIterator iter)
+    {
+        return (iter.getNode()).getMessage().getMessageHeader().getHeader("KEY");
+    }
+
+    private Long getMessageId(QueueEntryIterator iter)
+    {
+        return (iter.getNode()).getMessage().getMessageNumber();
+    }
+
+    private ServerMessage generateTestMessage(final long id, final String keyValue)
+    {
+        final ServerMessage message = mock(ServerMessage.class);
+        AMQMessageHeader hdr = mock(AMQMessageHeader.class);
+        when(message.getMessageHeader()).thenReturn(hdr);
+        when(hdr.getHeader(eq("KEY"))).thenReturn(keyValue);
+        when(hdr.containsHeader(eq("KEY"))).thenReturn(true);
+        when(hdr.getHeaderNames()).thenReturn(Collections.singleton("KEY"));
+        MessageReference ref = mock(MessageReference.class);
+        when(ref.getMessage()).thenReturn(message);
+        when(message.newReference()).thenReturn(ref);
+        when(message.newReference(any(TransactionLogResource.class))).thenReturn(ref);
+        when(message.getMessageNumber()).thenReturn(id);
+
+        return message;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.qpid.server.filter.FilterManager;
+import org.apache.qpid.server.filter.Filterable;
+import org.apache.qpid.server.filter.JMSSelectorFilter;
+import org.apache.qpid.server.message.MessageReference;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class ConsumerSelectorIndexTest extends QpidTestCase
+{
+    private ConsumerSelectorIndex _index;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _index = new ConsumerSelectorIndex();
+    }
+
+    public void testNoIndexWithoutConstrainedConsumers() throws Exception
+    {
+        _index.addConsumer(createConsumer(0, true), null);
+        _index.addConsumer(createConsumer(0, true), createFilters("price > 10"));
+
+        assertNull("Unexpected indexed property", _index.getIndexedPropertyName());
+        assertNull("Index should not narrow candidates", _index.getCandidates(createEntry("region", "EMEA")));
+    }
+
+    public void testCandidatesSelectedByPropertyValue() throws Exception
+    {
+        final QueueConsumer<?,?> emea = createConsumer(0, true);
+        final QueueConsumer<?,?> apac = createConsumer(0, true);
+        final QueueConsumer<?,?> both = createConsumer(0, true);
+        final QueueConsumer<?,?> unconstrained = createConsumer(0, true);
+        _index.addConsumer(emea, createFilters("region = 'EMEA' AND price > 10"));
+        _index.addConsumer(apac, createFilters("region = 'APAC'"));
+        _index.addConsumer(both, createFilters("region IN ('EMEA', 'APAC')"));
+        _index.addConsumer(unconstrained, createFilters("price > 10"));
+
+        assertEquals("Unexpected indexed property", "region", _index.getIndexedPropertyName());
+        assertCandidates(_index.getCandidates(createEntry("region", "EMEA")), emea, both, unconstrained);
+        assertCandidates(_index.getCandidates(createEntry("region", "APAC")), apac, both, unconstrained);
+        assertCandidates(_index.getCandidates(createEntry("region", "AMER")), unconstrained);
+        assertCandidates(_index.getCandidates(createEntry("other", "EMEA")), unconstrained);
+        assertNull("Non-string property values should not narrow candidates",
+                   _index.getCandidates(createEntry("region", 1)));
+    }
+
+    public void testCandidatesOrderedByPriority() throws Exception
+    {
+        final QueueConsumer<?,?> low = createConsumer(1, true);
+        final QueueConsumer<?,?> high = createConsumer(10, true);
+        final QueueConsumer<?,?> unconstrained = createConsumer(5, true);
+        _index.addConsumer(low, createFilters("region = 'EMEA'"));
+        _index.addConsumer(unconstrained, null);
+        _index.addConsumer(high, createFilters("region = 'EMEA'"));
+
+        final List<QueueConsumer<?,?>> candidates = toList(_index.getCandidates(createEntry("region", "EMEA")));
+        assertEquals("Unexpected candidates", Arrays.asList(high, unconstrained, low), candidates);
+    }
+
+    public void testCandidatesOfSamePriorityOfferedInTurn() throws Exception
+    {
+        final QueueConsumer<?,?> high = createConsumer(10, true);
+        final QueueConsumer<?,?> first = createConsumer(0, true);
+        final QueueConsumer<?,?> second = createConsumer(0, true);
+        _index.addConsumer(first, createFilters("region = 'EMEA'"));
+        _index.addConsumer(high, createFilters("region = 'EMEA'"));
+        _index.addConsumer(second, createFilters("region = 'EMEA'"));
+
+        final List<QueueConsumer<?,?>> firstLookup = toList(_index.getCandidates(createEntry("region", "EMEA")));
+        final List<QueueConsumer<?,?>> secondLookup = toList(_index.getCandidates(createEntry("region", "EMEA")));
+        final List<QueueConsumer<?,?>> thirdLookup = toList(_index.getCandidates(createEntry("region", "EMEA")));
+
+        assertEquals("Unexpected number of candidates", 3, firstLookup.size());
+        assertSame("Highest priority consumer should be offered the entry first", high, firstLookup.get(0));
+        assertSame("Highest priority consumer should be offered the entry first", high, secondLookup.get(0));
+        assertEquals("Consumers of the same priority should both be candidates",
+                     new HashSet<>(Arrays.asList(first, second)),
+                     new HashSet<>(firstLookup.subList(1, 3)));
+        assertEquals("Consumers of the same priority should take turns to be offered the entry first",
+                     Arrays.asList(firstLookup.get(2), firstLookup.get(1)),
+                     secondLookup.subList(1, 3));
+        assertEquals("Unexpected candidate order after each consumer has had a turn",
+                     firstLookup, thirdLookup);
+    }
+
+    public void testMostCommonPropertyIsIndexed() throws Exception
+    {
+        final QueueConsumer<?,?> byColour = createConsumer(0, true);
+        _index.addConsumer(byColour, createFilters("colour = 'red'"));
+        _index.addConsumer(createConsumer(0, true), createFilters("region = 'EMEA'"));
+        _index.addConsumer(createConsumer(0, true), createFilters("region = 'APAC'"));
+
+        assertEquals("Unexpected indexed property", "region", _index.getIndexedPropertyName());
+        assertCandidates(_index.getCandidates(createEntry("region", "AMER")), byColour);
+    }
+
+    public void testRemoveConsumer() throws Exception
+    {
+        final QueueConsumer<?,?> emea = createConsumer(0, true);
+        final QueueConsumer<?,?> apac = createConsumer(0, true);
+        _index.addConsumer(emea, createFilters("region = 'EMEA'"));
+        _index.addConsumer(apac, createFilters("region = 'APAC'"));
+
+        _index.removeConsumer(emea);
+        assertCandidates(_index.getCandidates(createEntry("region", "EMEA")));
+        assertCandidates(_index.getCandidates(createEntry("region", "APAC")), apac);
+
+        _index.removeConsumer(apac);
+        assertNull("Unexpected indexed property", _index.getIndexedPropertyName());
+    }
+
+    public void testNonAcquiringConsumersAreNotIndexed() throws Exception
+    {
+        _index.addConsumer(createConsumer(0, false), createFilters("region = 'EMEA'"));
+        assertNull("Unexpected indexed property", _index.getIndexedPropertyName());
+    }
+
+    private void assertCandidates(final Iterator<QueueConsumer<?,?>> candidates, final QueueConsumer<?,?>... expected)
+    {
+        assertNotNull("Index should narrow candidates", candidates);
+        final List<QueueConsumer<?,?>> actual = toList(candidates);
+        assertEquals("Unexpected candidates",
+                     new HashSet<>(Arrays.asList(expected)),
+                     new HashSet<>(actual));
+        assertEquals("Unexpected number of candidates", expected.length, actual.size());
+    }
+
+    private List<QueueConsumer<?,?>> toList(final Iterator<QueueConsumer<?,?>> candidates)
+    {
+        final List<QueueConsumer<?,?>> list = new ArrayList<>();
+        while (candidates.hasNext())
+        {
+            list.add(candidates.next());
+        }
+        return list;
+    }
+
+    private FilterManager createFilters(final String selector) throws Exception
+    {
+        final FilterManager filters = new FilterManager();
+        filters.add("selector", new JMSSelectorFilter(selector));
+        return filters;
+    }
+
+    private QueueConsumer<?,?> createConsumer(final int priority, final boolean acquires)
+    {
+        final QueueConsumer<?,?> consumer = mock(QueueConsumer.class);
+        when(consumer.getPriority()).thenReturn(priority);
+        when(consumer.acquires()).thenReturn(acquires);
+        return consumer;
+    }
+
+    private QueueEntry createEntry(final String propertyName, final Object propertyValue)
+    {
+        final Filterable filterable = mock(Filterable.class);
+        when(filterable.getHeader(propertyName)).thenReturn(propertyValue);
+        final QueueEntry entry = mock(QueueEntry.class);
+        when(entry.newMessageReference()).thenReturn(mock(MessageReference.class));
+        when(entry.asFilterable()).thenReturn(filterable);
+        return entry;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+*
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements.  See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership.  The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License.  You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*
+*/
+package org.apache.qpid.server.queue;
+
+import static org.apache.qpid.server.model.Queue.QUEUE_SCAVANGE_COUNT;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.qpid.server.message.AMQMessageHeader;
+import org.apache.qpid.server.message.MessageReference;
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.store.MessageEnqueueRecord;
+import org.apache.qpid.server.store.TransactionLogResource;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class ExpiryTimingWheelTest extends QpidTestCase
+{
+    private static final long TICK = 1000L;
+    private static final int WHEEL_SIZE = 8;
+    private static final long START_TIME = 100 * TICK;
+
+    private StandardQueueEntryList _list;
+    private ExpiryTimingWheel _wheel;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        final StandardQueueImpl queue = mock(StandardQueueImpl.class);
+        when(queue.getContextValue(Integer.class, QUEUE_SCAVANGE_COUNT)).thenReturn(9);
+        _list = new StandardQueueEntryList(queue, new QueueStatistics());
+        _wheel = new ExpiryTimingWheel(TICK, WHEEL_SIZE, START_TIME);
+    }
+
+    public void testEntryReturnedOnceItsTickHasEnded()
+    {
+        final QueueEntryImpl entry = addEntry(START_TIME + 2 * TICK + TICK / 2);
+
+        assertEquals("Entry should not be due yet", Collections.emptyList(), _wheel.removeDue(START_TIME + TICK));
+        assertEquals("Entry should not be due yet", Collections.emptyList(), _wheel.removeDue(START_TIME + 2 * TICK - 1));
+        assertEquals("Entry should be due", Collections.singletonList(entry), _wheel.removeDue(START_TIME + 2 * TICK));
+        assertEquals("Entry should have been removed", 0, _wheel.size());
+        assertEquals("Entry should be returned only once", Collections.emptyList(), _wheel.removeDue(START_TIME + 3 * TICK));
+    }
+
+    public void testRescheduledEntryReturnedByNextCall()
+    {
+        final QueueEntryImpl entry = addEntry(START_TIME + TICK / 2);
+
+        assertEquals("Entry should be due", Collections.singletonList(entry), _wheel.removeDue(START_TIME));
+        _wheel.reschedule(entry);
+        assertEquals("Rescheduled entry should be due", Collections.singletonList(entry), _wheel.removeDue(START_TIME));
+    }
+
+    public void testDeletedEntryNotReturned()
+    {
+        final QueueEntryImpl entry = addEntry(START_TIME + TICK);
+        final QueueEntryImpl other = addEntry(START_TIME + TICK);
+        assertEquals("Unexpected number of indexed entries", 2, _wheel.size());
+
+        assertTrue("Entry should have been acquired", entry.acquire());
+        entry.delete();
+
+        assertEquals("Deleted entry should have been removed", 1, _wheel.size());
+        assertEquals("Unexpected due entries", Collections.singletonList(other), _wheel.removeDue(START_TIME + 2 * TICK));
+    }
+
+    public void testEntryBeyondWheelReturnedOnlyWhenDue()
+    {
+        final long expiration = START_TIME + 3 * WHEEL_SIZE * TICK;
+        final QueueEntryImpl entry = addEntry(expiration);
+
+        for (long time = START_TIME; time < expiration; time += TICK)
+        {
+            assertEquals("Entry should not be due at " + time, Collections.emptyList(), _wheel.removeDue(time));
+        }
+        assertEquals("Entry should be due", Collections.singletonList(entry), _wheel.removeDue(expiration));
+    }
+
+    public void testAllEntriesReturnedAfterClockJump()
+    {
+        final QueueEntryImpl first = addEntry(START_TIME + TICK);
+        final QueueEntryImpl second = addEntry(START_TIME + WHEEL_SIZE * TICK / 2);
+        final QueueEntryImpl third = addEntry(START_TIME + 2 * WHEEL_SIZE * TICK);
+        final QueueEntryImpl notDue = addEntry(START_TIME + 20 * WHEEL_SIZE * TICK);
+
+        final List<QueueEntryImpl> due = _wheel.removeDue(START_TIME + 10 * WHEEL_SIZE * TICK);
+        assertEquals("Unexpected number of due entries", 3, due.size());
+        assertTrue("Unexpected due entries", due.containsAll(Arrays.asList(first, second, third)));
+        assertEquals("Unexpected number of indexed entries", 1, _wheel.size());
+
+        assertEquals("Entry should be due", Collections.singletonList(notDue),
+                     _wheel.removeDue(START_TIME + 20 * WHEEL_SIZE * TICK));
+    }
+
+    public void testEntryWithoutExpirationNotIndexed()
+    {
+        addEntry(0L);
+        assertEquals("Entry should not have been indexed", 0, _wheel.size());
+    }
+
+    private QueueEntryImpl addEntry(final long expiration)
+    {
+        final ServerMessage message = mock(ServerMessage.class);
+        when(message.getExpiration()).thenReturn(expiration);
+        when(message.getMessageHeader()).thenReturn(mock(AMQMessageHeader.class));
+        final MessageReference reference = mock(MessageReference.class);
+        when(reference.getMessage()).thenReturn(message);
+        when(message.newReference()).thenReturn(reference);
+        when(message.newReference(any(TransactionLogResource.class))).thenReturn(reference);
+
+        final QueueEntryImpl entry = (QueueEntryImpl) _list.add(message, mock(MessageEnqueueRecord.class));
+        _wheel.add(entry);
+        return entry;
+    }
+}
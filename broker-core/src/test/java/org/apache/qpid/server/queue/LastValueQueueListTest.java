@@ -24,6 +24,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.security.Principal;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -217,6 +218,78 @@ public class LastValueQueueListTest extends QpidTestCase
         assertEquals("Unexpected last message", entry3,  queueEntryList.getLeastSignificantOldestEntry());
     }
 
+    public void testConflationKeyStatistics()
+    {
+        assertEquals(0, _queue.getConflationKeyCount());
+        assertEquals(0, _queue.getConflationKeyTableSize());
+
+        QueueEntry addedEntry1 = _list.add(createTestServerMessage(TEST_KEY_VALUE1), null);
+        QueueEntry addedEntry2 = _list.add(createTestServerMessage(TEST_KEY_VALUE2), null);
+        _list.add(createTestServerMessage(TEST_KEY_VALUE2), null);
+
+        assertEquals(2, _queue.getConflationKeyCount());
+        assertEquals(2 * LastValueQueueList.estimateKeySize(LastValueQueueList.compactKey(TEST_KEY_VALUE1)),
+                     _queue.getConflationKeyTableSize());
+
+        addedEntry1.acquire();
+        addedEntry1.delete();
+        assertTrue("Superseded entry should have been discarded", addedEntry2.isDeleted());
+
+        assertEquals(1, _queue.getConflationKeyCount());
+        assertEquals(LastValueQueueList.estimateKeySize(LastValueQueueList.compactKey(TEST_KEY_VALUE2)),
+                     _queue.getConflationKeyTableSize());
+    }
+
+    public void testConsumedKeysRetainedUpToLimit() throws Exception
+    {
+        Map<String,Object> queueAttributes = new HashMap<String, Object>();
+        queueAttributes.put(Queue.ID, UUID.randomUUID());
+        queueAttributes.put(Queue.NAME, getName() + "_retaining");
+        queueAttributes.put(LastValueQueue.LVQ_KEY, CONFLATION_KEY);
+        queueAttributes.put(Queue.CONTEXT, Collections.singletonMap(LastValueQueue.LVQ_RETAINED_CONSUMED_KEYS, "1"));
+        LastValueQueueImpl queue = new LastValueQueueImpl(queueAttributes, _queue.getVirtualHost());
+        queue.open();
+        LastValueQueueList list = queue.getEntries();
+
+        QueueEntry addedEntry1 = list.add(createTestServerMessage(TEST_KEY_VALUE1), null);
+        QueueEntry addedEntry2 = list.add(createTestServerMessage(TEST_KEY_VALUE2), null);
+
+        addedEntry1.acquire();
+        addedEntry1.delete();
+        assertEquals("Consumed key should have been retained", 2, list.getLatestValuesMap().size());
+
+        addedEntry2.acquire();
+        addedEntry2.delete();
+        assertEquals("Least recently consumed key should have been evicted", 1, list.getLatestValuesMap().size());
+        assertEquals(1, queue.getConflationKeysEvicted());
+
+        QueueEntry addedEntry3 = list.add(createTestServerMessage(TEST_KEY_VALUE2), null);
+        assertEquals(1, countEntries(list));
+        assertEquals("Retained key should have been reused", 1, list.getLatestValuesMap().size());
+
+        QueueEntry addedEntry4 = list.add(createTestServerMessage(TEST_KEY_VALUE2), null);
+        assertTrue("Superseded entry should have been discarded", addedEntry3.isDeleted());
+        assertEquals(1, countEntries(list));
+
+        addedEntry4.acquire();
+        addedEntry4.delete();
+        assertEquals(0, countEntries(list));
+        assertEquals(1, list.getLatestValuesMap().size());
+        assertEquals(1, queue.getConflationKeysEvicted());
+    }
+
+    public void testCompactKey()
+    {
+        assertEquals(LastValueQueueList.compactKey("ticker"), LastValueQueueList.compactKey("ticker"));
+        assertEquals(LastValueQueueList.compactKey("ticker").hashCode(), LastValueQueueList.compactKey("ticker").hashCode());
+        assertEquals("ticker", LastValueQueueList.compactKey("ticker").toString());
+        assertFalse(LastValueQueueList.compactKey("ticker").equals(LastValueQueueList.compactKey("ticker2")));
+        assertEquals("\u20ac", LastValueQueueList.compactKey("\u20ac"));
+        assertEquals(5L, LastValueQueueList.compactKey(5L));
+        assertTrue(LastValueQueueList.estimateKeySize(LastValueQueueList.compactKey("ticker"))
+                   < LastValueQueueList.estimateKeySize("ticker"));
+    }
+
     private int countEntries(LastValueQueueList list)
     {
         QueueEntryIterator iterator =
@@ -178,4 +178,62 @@ public class PriorityQueueListTest extends QpidTestCase
 
         assertEquals("Unexpected last entry", newEntry, _list.getLeastSignificantOldestEntry());
     }
+
+    public void testNextSkipsDrainedLevels()
+    {
+        final QueueEntry highest = addMessage((byte) 9);
+        final QueueEntry lowest = addMessage((byte) 0);
+
+        assertEquals("Unexpected first entry", highest, _list.next(_list.getHead()));
+        for (QueueEntry entry : new QueueEntry[]{_priority5message1, _priority5message2, _priority4message1, _priority4message2})
+        {
+            assertTrue("Entry should have been acquired", entry.acquire());
+            entry.delete();
+        }
+        assertEquals("Unexpected entry after drained levels", lowest, _list.next(highest));
+
+        final QueueEntry refilled = addMessage((byte) 4);
+        assertEquals("Unexpected entry after refilled level", refilled, _list.next(highest));
+        assertEquals("Unexpected entry after refilled level", lowest, _list.next(refilled));
+    }
+
+    public void testIteratorSkipsDrainedLevels()
+    {
+        for (QueueEntry entry : new QueueEntry[]{_priority5message1, _priority5message2})
+        {
+            assertTrue("Entry should have been acquired", entry.acquire());
+            entry.delete();
+        }
+        final QueueEntry lowest = addMessage((byte) 0);
+
+        final QueueEntryIterator iterator = _list.iterator();
+        assertTrue("Iterator should have advanced", iterator.advance());
+        assertEquals("Unexpected entry", _priority4message1, iterator.getNode());
+
+        final QueueEntry highest = addMessage((byte) 9);
+        assertTrue("Iterator should have advanced", iterator.advance());
+        assertEquals("Unexpected entry", highest, iterator.getNode());
+        assertTrue("Iterator should have advanced", iterator.advance());
+        assertEquals("Unexpected entry", _priority4message2, iterator.getNode());
+        assertTrue("Iterator should have advanced", iterator.advance());
+        assertEquals("Unexpected entry", lowest, iterator.getNode());
+        assertTrue("Iterator should be at tail", iterator.atTail());
+        assertFalse("Iterator should not have advanced", iterator.advance());
+    }
+
+    private QueueEntry addMessage(final byte priority)
+    {
+        ServerMessage<?> message = mock(ServerMessage.class);
+        AMQMessageHeader header = mock(AMQMessageHeader.class);
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        MessageReference<ServerMessage> ref = mock(MessageReference.class);
+
+        when(message.getMessageHeader()).thenReturn(header);
+        when(message.newReference()).thenReturn(ref);
+        when(message.newReference(any(TransactionLogResource.class))).thenReturn(ref);
+        when(ref.getMessage()).thenReturn(message);
+        when(header.getPriority()).thenReturn(priority);
+
+        return _list.add(message, null);
+    }
 }
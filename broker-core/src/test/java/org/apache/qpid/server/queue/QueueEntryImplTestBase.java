@@ -227,6 +227,46 @@ public abstract class QueueEntryImplTestBase extends QpidTestCase
         assertFalse("Queue entry should no longer be acquired by consumer1", _queueEntry.acquiredByConsumer());
     }
 
+    public void testReleaseByConsumerOtherThanOwner()
+    {
+        QueueConsumer consumer1 = newConsumer();
+        QueueConsumer consumer2 = newConsumer();
+
+        _queueEntry.acquire(consumer1);
+        _queueEntry.release(consumer2);
+        assertTrue("Queue entry should still be acquired by consumer1", _queueEntry.isAcquiredBy(consumer1));
+
+        _queueEntry.release(consumer1);
+        assertTrue("Queue entry should be available after release by its owner", _queueEntry.isAvailable());
+        assertTrue("Released queue entry should be able to be acquired by consumer2",
+                   _queueEntry.acquire(consumer2));
+    }
+
+    public void testDeliveryCount()
+    {
+        assertFalse("New queue entry should not have been delivered", _queueEntry.getDeliveredToConsumer());
+        assertEquals("Unexpected delivery count", 0, _queueEntry.getDeliveryCount());
+
+        _queueEntry.incrementDeliveryCount();
+        assertTrue("Queue entry should have been delivered", _queueEntry.getDeliveredToConsumer());
+        assertEquals("Unexpected delivery count", 1, _queueEntry.getDeliveryCount());
+
+        _queueEntry.acquire(newConsumer());
+        assertEquals("Acquisition should not change the delivery count", 1, _queueEntry.getDeliveryCount());
+
+        _queueEntry.incrementDeliveryCount();
+        _queueEntry.decrementDeliveryCount();
+        assertEquals("Unexpected delivery count", 1, _queueEntry.getDeliveryCount());
+    }
+
+    public void testConsumerAcquisitionMarksEntryDelivered()
+    {
+        _queueEntry.acquire(newConsumer());
+        assertTrue("Queue entry acquired by a consumer should be marked delivered",
+                   _queueEntry.getDeliveredToConsumer());
+        assertEquals("Unexpected delivery count", 0, _queueEntry.getDeliveryCount());
+    }
+
     /**
      * A helper method to get entry state
      *
@@ -21,6 +21,7 @@
 package org.apache.qpid.server.queue;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
@@ -186,6 +187,24 @@ public class StandardQueueTest extends AbstractQueueTestBase
         assertEquals(MessageDurability.NEVER, queue.getMessageDurability());
     }
 
+    public void testConsumerManagerTypeSetInQueueContext() throws Exception
+    {
+        getQueue().close();
+        getQueue().delete();
+
+        Map<String,Object> attributes = new HashMap<>();
+        attributes.put(Queue.NAME, getQname());
+        attributes.put(Queue.CONTEXT,
+                       Collections.singletonMap(Queue.QUEUE_CONSUMER_MANAGER_TYPE,
+                                                QueueConsumerManagerType.STRIPED.name()));
+
+        AbstractQueue<?> queue = (AbstractQueue<?>) getVirtualHost().createChild(Queue.class, attributes);
+        setQueue(queue);
+
+        assertTrue("Consumer manager type set in the queue context was not used",
+                   queue.getQueueConsumerManager() instanceof StripedQueueConsumerManager);
+    }
+
     private static class DequeuedQueue extends AbstractQueue
     {
 
@@ -0,0 +1,178 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class StripedQueueConsumerManagerTest extends QpidTestCase
+{
+    private StripedQueueConsumerManager _manager;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _manager = new StripedQueueConsumerManager();
+    }
+
+    public void testAddAndRemoveConsumer()
+    {
+        final QueueConsumer<?,?> consumer = createConsumer(0, true, true);
+        _manager.addConsumer(consumer);
+
+        assertEquals("Unexpected number of consumers", 1, _manager.getAllSize());
+        assertEquals("Unexpected interested consumers", consumer, _manager.getInterestedIterator().next());
+        assertTrue("Unexpected result of removal", _manager.removeConsumer(consumer));
+        assertFalse("Consumer removed twice", _manager.removeConsumer(consumer));
+
+        assertEquals("Unexpected number of consumers", 0, _manager.getAllSize());
+        assertFalse("Unexpected interested consumers", _manager.getInterestedIterator().hasNext());
+        assertFalse("Unexpected consumers", _manager.getAllIterator().hasNext());
+    }
+
+    public void testInterestAndNotification()
+    {
+        final QueueConsumer<?,?> consumer = createConsumer(0, false, true);
+        _manager.addConsumer(consumer);
+        assertFalse("Unexpected interested consumers", _manager.getInterestedIterator().hasNext());
+
+        assertTrue("Unexpected result setting interest", _manager.setInterest(consumer, true));
+        assertFalse("Interest set twice", _manager.setInterest(consumer, true));
+        assertTrue("Consumer should be interested", _manager.getInterestedIterator().hasNext());
+        assertEquals("Unexpected highest notified priority", Integer.MIN_VALUE, _manager.getHighestNotifiedPriority());
+
+        assertTrue("Unexpected result setting notified", _manager.setNotified(consumer, true));
+        assertFalse("Notified consumer should not be interested", _manager.getInterestedIterator().hasNext());
+        assertEquals("Unexpected highest notified priority", 0, _manager.getHighestNotifiedPriority());
+
+        assertTrue("Unexpected result clearing interest", _manager.setInterest(consumer, false));
+        assertEquals("Unexpected highest notified priority", Integer.MIN_VALUE, _manager.getHighestNotifiedPriority());
+        assertEquals("Unexpected number of transitions", 4, _manager.getStateTransitionCount());
+    }
+
+    public void testNonAcquiringConsumer()
+    {
+        final QueueConsumer<?,?> consumer = createConsumer(0, true, false);
+        _manager.addConsumer(consumer);
+
+        assertFalse("Unexpected interested consumers", _manager.getInterestedIterator().hasNext());
+        assertEquals("Unexpected non-acquiring consumer", consumer, _manager.getNonAcquiringIterator().next());
+
+        assertTrue("Unexpected result clearing interest", _manager.setInterest(consumer, false));
+        assertFalse("Unexpected non-acquiring consumers", _manager.getNonAcquiringIterator().hasNext());
+    }
+
+    public void testPriorityOrdering()
+    {
+        final QueueConsumer<?,?> low = createConsumer(1, true, true);
+        final QueueConsumer<?,?> high = createConsumer(10, true, true);
+        final QueueConsumer<?,?> medium = createConsumer(5, true, true);
+        _manager.addConsumer(low);
+        _manager.addConsumer(high);
+        _manager.addConsumer(medium);
+
+        final Iterator<QueueConsumer<?,?>> iterator = _manager.getInterestedIterator();
+        assertEquals("Unexpected first consumer", high, iterator.next());
+        assertEquals("Unexpected second consumer", medium, iterator.next());
+        assertEquals("Unexpected third consumer", low, iterator.next());
+        assertFalse("Unexpected consumer", iterator.hasNext());
+
+        _manager.setNotified(low, true);
+        _manager.setNotified(medium, true);
+        assertEquals("Unexpected highest notified priority", 5, _manager.getHighestNotifiedPriority());
+    }
+
+    public void testManyConsumersSpanningSegments()
+    {
+        final int consumerCount = StripedQueueConsumerManager.SEGMENT_SIZE * 2 + 7;
+        final List<QueueConsumer<?,?>> consumers = new ArrayList<>();
+        for (int i = 0; i < consumerCount; i++)
+        {
+            final QueueConsumer<?,?> consumer = createConsumer(0, true, true);
+            consumers.add(consumer);
+            _manager.addConsumer(consumer);
+        }
+        assertEquals("Unexpected number of interested consumers", consumerCount, count(_manager.getInterestedIterator()));
+
+        for (int i = 0; i < consumerCount; i += 2)
+        {
+            _manager.removeConsumer(consumers.get(i));
+        }
+        assertEquals("Unexpected number of consumers", consumerCount / 2, _manager.getAllSize());
+        assertEquals("Unexpected number of consumers", consumerCount / 2, count(_manager.getAllIterator()));
+        assertEquals("Unexpected number of interested consumers", consumerCount / 2, count(_manager.getInterestedIterator()));
+
+        final QueueConsumer<?,?> replacement = createConsumer(0, false, true);
+        _manager.addConsumer(replacement);
+        assertEquals("Unexpected number of interested consumers", consumerCount / 2, count(_manager.getInterestedIterator()));
+        assertEquals("Unexpected number of consumers", consumerCount / 2 + 1, count(_manager.getAllIterator()));
+    }
+
+    private int count(final Iterator<?> iterator)
+    {
+        int count = 0;
+        while (iterator.hasNext())
+        {
+            iterator.next();
+            count++;
+        }
+        return count;
+    }
+
+    private QueueConsumer<?,?> createConsumer(final int priority, final boolean notifyWorkDesired, final boolean acquires)
+    {
+        final QueueConsumer<?,?> consumer = mock(QueueConsumer.class);
+        final QueueConsumerManagerNode[] node = new QueueConsumerManagerNode[1];
+        when(consumer.getPriority()).thenReturn(priority);
+        when(consumer.isNotifyWorkDesired()).thenReturn(notifyWorkDesired);
+        when(consumer.acquires()).thenReturn(acquires);
+        doAnswer(new Answer<Void>()
+        {
+            @Override
+            public Void answer(final InvocationOnMock invocation)
+            {
+                node[0] = (QueueConsumerManagerNode) invocation.getArguments()[0];
+                return null;
+            }
+        }).when(consumer).setQueueConsumerNode(any(QueueConsumerManagerNode.class));
+        when(consumer.getQueueConsumerNode()).thenAnswer(new Answer<QueueConsumerManagerNode>()
+        {
+            @Override
+            public QueueConsumerManagerNode answer(final InvocationOnMock invocation)
+            {
+                return node[0];
+            }
+        });
+        return consumer;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.stats;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class HistogramTest extends QpidTestCase
+{
+    public void testEmptyHistogram()
+    {
+        final Histogram histogram = new Histogram();
+
+        assertEquals("Unexpected count", 0, histogram.getCount());
+        assertEquals("Unexpected maximum", 0, histogram.getMaximum());
+        assertEquals("Unexpected percentile", 0, histogram.getValueAtPercentile(99.0));
+    }
+
+    public void testSmallValuesAreExact()
+    {
+        final Histogram histogram = new Histogram();
+        for (int i = 1; i <= 4; i++)
+        {
+            histogram.record(i);
+        }
+
+        assertEquals("Unexpected count", 4, histogram.getCount());
+        assertEquals("Unexpected median", 2, histogram.getValueAtPercentile(50.0));
+        assertEquals("Unexpected 100th percentile", 4, histogram.getValueAtPercentile(100.0));
+        assertEquals("Unexpected maximum", 4, histogram.getMaximum());
+    }
+
+    public void testPercentilesWithinPrecision()
+    {
+        final Histogram histogram = new Histogram();
+        for (int i = 1; i <= 10000; i++)
+        {
+            histogram.record(i);
+        }
+
+        assertWithinPrecision(5000, histogram.getValueAtPercentile(50.0));
+        assertWithinPrecision(9900, histogram.getValueAtPercentile(99.0));
+        assertEquals("Unexpected maximum", 10000, histogram.getMaximum());
+        assertEquals("Unexpected 100th percentile", 10000, histogram.getValueAtPercentile(100.0));
+    }
+
+    public void testBucketBoundaries()
+    {
+        for (long value : new long[]{0, 7, 8, 15, 16, 1023, 1024, Long.MAX_VALUE})
+        {
+            final int index = Histogram.bucketIndex(value);
+            assertTrue("Value " + value + " above its bucket", value <= Histogram.highestEquivalentValue(index));
+            if (index > 0)
+            {
+                assertTrue("Value " + value + " below its bucket",
+                           value > Histogram.highestEquivalentValue(index - 1));
+            }
+        }
+    }
+
+    public void testNegativeValuesRecordedAsZero()
+    {
+        final Histogram histogram = new Histogram();
+        histogram.record(-5);
+
+        assertEquals("Unexpected count", 1, histogram.getCount());
+        assertEquals("Unexpected percentile", 0, histogram.getValueAtPercentile(50.0));
+    }
+
+    private void assertWithinPrecision(final long expected, final long actual)
+    {
+        assertTrue(String.format("Value %d not within precision of %d", actual, expected),
+                   actual >= expected && actual <= expected + expected / Histogram.SUB_BUCKET_COUNT);
+    }
+}
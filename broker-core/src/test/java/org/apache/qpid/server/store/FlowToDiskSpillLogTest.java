@@ -0,0 +1,224 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.util.FileUtils;
+import org.apache.qpid.test.utils.QpidTestCase;
+import org.apache.qpid.test.utils.TestFileUtils;
+
+public class FlowToDiskSpillLogTest extends QpidTestCase
+{
+    private static final int SEGMENT_SIZE = 64;
+
+    private File _directory;
+    private FlowToDiskSpillLog _spillLog;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _directory = TestFileUtils.createTestDirectory("spill", true);
+        _spillLog = new FlowToDiskSpillLog(_directory, SEGMENT_SIZE, 50);
+    }
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        try
+        {
+            _spillLog.close();
+            super.tearDown();
+        }
+        finally
+        {
+            FileUtils.delete(_directory, true);
+        }
+    }
+
+    public void testAppendAndRead()
+    {
+        final FlowToDiskSpillLog.Entry first = append("first");
+        final FlowToDiskSpillLog.Entry second = append("second");
+
+        assertEquals("Unexpected content", "first", read(first, 0, Integer.MAX_VALUE));
+        assertEquals("Unexpected content", "second", read(second, 0, Integer.MAX_VALUE));
+        assertEquals("Unexpected partial content", "eco", read(second, 1, 3));
+        assertEquals("Unexpected live bytes", 11, _spillLog.getLiveBytes());
+        assertEquals("Unexpected segment count", 1, _spillLog.getSegmentCount());
+    }
+
+    public void testOversizedContentGetsOwnSegment()
+    {
+        final String content = repeat('x', SEGMENT_SIZE * 2);
+        final FlowToDiskSpillLog.Entry entry = append(content);
+
+        assertEquals("Unexpected content", content, read(entry, 0, Integer.MAX_VALUE));
+
+        _spillLog.release(entry);
+        assertEquals("Unexpected live bytes", 0, _spillLog.getLiveBytes());
+        assertEquals("Oversized segment should have been deleted", 0, _spillLog.getSegmentCount());
+    }
+
+    public void testFullyReleasedSegmentIsDeleted()
+    {
+        final FlowToDiskSpillLog.Entry first = append(repeat('a', 40));
+        final FlowToDiskSpillLog.Entry second = append(repeat('b', 40));
+        assertEquals("Unexpected segment count", 2, _spillLog.getSegmentCount());
+
+        _spillLog.release(first);
+
+        assertEquals("Unexpected segment count", 1, _spillLog.getSegmentCount());
+        assertEquals("Unexpected segments released", 1, _spillLog.getSegmentsReleased());
+        assertEquals("Unexpected content", repeat('b', 40), read(second, 0, Integer.MAX_VALUE));
+    }
+
+    public void testSparseSegmentIsCompactedOnRollover()
+    {
+        final FlowToDiskSpillLog.Entry survivor = append(repeat('s', 10));
+        final FlowToDiskSpillLog.Entry released = append(repeat('r', 50));
+        _spillLog.release(released);
+
+        final FlowToDiskSpillLog.Entry next = append(repeat('n', 30));
+
+        assertEquals("Survivor should have been relocated", 10, _spillLog.getBytesRelocated());
+        assertEquals("Unexpected segment count", 1, _spillLog.getSegmentCount());
+        assertEquals("Unexpected content", repeat('s', 10), read(survivor, 0, Integer.MAX_VALUE));
+        assertEquals("Unexpected content", repeat('n', 30), read(next, 0, Integer.MAX_VALUE));
+    }
+
+    public void testReadsConcurrentWithRelocationAndRelease() throws Exception
+    {
+        final FlowToDiskSpillLog.Entry survivor = append(repeat('s', 10));
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+        {
+            final Thread reader = new Thread(() ->
+                                             {
+                                                 try
+                                                 {
+                                                     while (!done.get())
+                                                     {
+                                                         assertEquals(repeat('s', 10),
+                                                                      read(survivor, 0, Integer.MAX_VALUE));
+                                                     }
+                                                 }
+                                                 catch (Throwable t)
+                                                 {
+                                                     failure.compareAndSet(null, t);
+                                                 }
+                                             });
+            reader.start();
+            readers.add(reader);
+        }
+
+        try
+        {
+            // each released filler leaves the survivor's segment sparse, so rolling over relocates the survivor
+            for (int i = 0; i < 1000; i++)
+            {
+                _spillLog.release(append(repeat('f', 50)));
+                _spillLog.release(append(repeat('g', 50)));
+            }
+        }
+        finally
+        {
+            done.set(true);
+            for (Thread reader : readers)
+            {
+                reader.join(10000);
+            }
+        }
+
+        if (failure.get() != null)
+        {
+            throw new AssertionError("Read failed", failure.get());
+        }
+        assertTrue("Survivor should have been relocated", _spillLog.getBytesRelocated() > 0);
+        assertEquals("Unexpected content", repeat('s', 10), read(survivor, 0, Integer.MAX_VALUE));
+        assertEquals("Unexpected live bytes", 10, _spillLog.getLiveBytes());
+    }
+
+    public void testSpilledMessageContentReloadedLazily()
+    {
+        final TestMessageMetaData metaData = new TestMessageMetaData(1, 5);
+        final StoredMemoryMessage<TestMessageMetaData> message =
+                new StoredMemoryMessage<>(1, metaData, _spillLog);
+        try (QpidByteBuffer content = QpidByteBuffer.wrap("hello".getBytes(StandardCharsets.UTF_8)))
+        {
+            message.addContent(content);
+        }
+        message.allContentAdded();
+
+        assertTrue("Message should flow to disk", message.flowToDisk());
+        assertFalse("Message content should no longer be in memory", message.isInMemory());
+        assertEquals("Unexpected live bytes", 5, _spillLog.getLiveBytes());
+        try (QpidByteBuffer content = message.getContent(0, Integer.MAX_VALUE))
+        {
+            assertEquals("Unexpected content", "hello", toString(content));
+        }
+
+        message.remove();
+        assertEquals("Unexpected live bytes", 0, _spillLog.getLiveBytes());
+    }
+
+    private FlowToDiskSpillLog.Entry append(final String content)
+    {
+        try (QpidByteBuffer buffer = QpidByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)))
+        {
+            return _spillLog.append(buffer);
+        }
+    }
+
+    private String read(final FlowToDiskSpillLog.Entry entry, final int offset, final int length)
+    {
+        try (QpidByteBuffer buffer = _spillLog.read(entry, offset, length))
+        {
+            return toString(buffer);
+        }
+    }
+
+    private static String toString(final QpidByteBuffer buffer)
+    {
+        final byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private static String repeat(final char c, final int count)
+    {
+        final StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++)
+        {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
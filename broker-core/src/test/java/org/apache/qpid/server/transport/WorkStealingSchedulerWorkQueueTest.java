@@ -0,0 +1,123 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.transport;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class WorkStealingSchedulerWorkQueueTest extends QpidTestCase
+{
+    private WorkStealingSchedulerWorkQueue _workQueue;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _workQueue = new WorkStealingSchedulerWorkQueue(2);
+    }
+
+    public void testTaskAddedByNonWorkerIsTaken() throws Exception
+    {
+        final Runnable task = new NoOpTask();
+        _workQueue.add(task);
+
+        assertSame("Unexpected task", task, _workQueue.take());
+    }
+
+    public void testParkedWorkerIsWokenByNewTask() throws Exception
+    {
+        final AtomicReference<Runnable> taken = new AtomicReference<>();
+        final Thread worker = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    taken.set(_workQueue.take());
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        worker.start();
+
+        final Runnable task = new NoOpTask();
+        _workQueue.add(task);
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertFalse("Worker did not complete", worker.isAlive());
+        assertSame("Unexpected task", task, taken.get());
+    }
+
+    public void testIdleWorkerStealsFromBusyWorker() throws Exception
+    {
+        final CountDownLatch busy = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Runnable localTask = new NoOpTask();
+
+        final Thread busyWorker = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    _workQueue.take();
+                    // work added by a worker goes onto its own run-queue
+                    _workQueue.add(localTask);
+                    busy.countDown();
+                    release.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        _workQueue.add(new NoOpTask());
+        busyWorker.start();
+
+        assertTrue("Busy worker did not start", busy.await(10, TimeUnit.SECONDS));
+        try
+        {
+            assertSame("Task was not stolen from busy worker", localTask, _workQueue.take());
+        }
+        finally
+        {
+            release.countDown();
+            busyWorker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private static class NoOpTask implements Runnable
+    {
+        @Override
+        public void run()
+        {
+        }
+    }
+}
@@ -76,6 +76,12 @@ class MockServerMessage implements ServerMessage
         return false;
     }
 
+    @Override
+    public boolean isReferencedOnlyBy(final TransactionLogResource resource)
+    {
+        return false;
+    }
+
     @Override
     public long getSize()
     {
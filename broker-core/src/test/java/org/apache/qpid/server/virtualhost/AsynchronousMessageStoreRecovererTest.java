@@ -31,6 +31,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -153,6 +154,47 @@ public class AsynchronousMessageStoreRecovererTest extends QpidTestCase
         }), same(messageEnqueueRecord));
     }
 
+    public void testParallelRecoveryOfQueuesSharingMessage() throws Exception
+    {
+        final Queue<?> queue1 = mock(Queue.class);
+        when(queue1.getId()).thenReturn(UUID.randomUUID());
+        final Queue<?> queue2 = mock(Queue.class);
+        when(queue2.getId()).thenReturn(UUID.randomUUID());
+        when(_virtualHost.getChildren(eq(Queue.class))).thenReturn(Arrays.asList(queue1, queue2));
+        when(_store.getNextMessageId()).thenReturn(3L);
+
+        final StoredMessage<?> sharedMessage = createTestMessage(1L);
+        final StoredMessage<?> orphanedMessage = createTestMessage(2L);
+        final MessageEnqueueRecord record1 = createEnqueueRecord(queue1.getId(), 1L);
+        final MessageEnqueueRecord record2 = createEnqueueRecord(queue2.getId(), 1L);
+
+        MockStoreReader storeReader = new MockStoreReader(Arrays.asList(record1, record2),
+                                                          Arrays.asList(sharedMessage, orphanedMessage));
+        when(_store.newMessageStoreReader()).thenReturn(storeReader);
+
+        AsynchronousMessageStoreRecoverer recoverer = new AsynchronousMessageStoreRecoverer(2);
+        ListenableFuture<Void> result = recoverer.recover(_virtualHost);
+        assertNull(result.get());
+
+        verify(queue1).recover(any(ServerMessage.class), same(record1));
+        verify(queue2).recover(any(ServerMessage.class), same(record2));
+        verify(queue1).completeRecovery();
+        verify(queue2).completeRecovery();
+        verify(sharedMessage, times(0)).remove();
+        verify(orphanedMessage, times(1)).remove();
+
+        assertEquals("Unexpected recovering queue count", 0, recoverer.getRecoveringQueueCount());
+        assertEquals("Unexpected recovered message instance count", 2, recoverer.getRecoveredMessageInstanceCount());
+    }
+
+    private MessageEnqueueRecord createEnqueueRecord(final UUID queueId, final long messageNumber)
+    {
+        final MessageEnqueueRecord record = mock(MessageEnqueueRecord.class);
+        when(record.getQueueId()).thenReturn(queueId);
+        when(record.getMessageNumber()).thenReturn(messageNumber);
+        return record;
+    }
+
     private StoredMessage<?> createTestMessage(final long messageNumber)
     {
         final StorableMessageMetaData metaData = new TestMessageMetaData(messageNumber, 0);
@@ -195,7 +237,13 @@ public class AsynchronousMessageStoreRecovererTest extends QpidTestCase
         public void visitMessageInstances(final TransactionLogResource queue, final MessageInstanceHandler handler)
                     throws StoreException
         {
-            visitMessageInstances(handler);
+            for(MessageEnqueueRecord record: _messageEnqueueRecords)
+            {
+                if (queue.getId().equals(record.getQueueId()))
+                {
+                    handler.handle(record);
+                }
+            }
         }
 
         @Override
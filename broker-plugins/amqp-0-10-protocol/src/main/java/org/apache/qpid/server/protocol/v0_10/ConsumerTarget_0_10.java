@@ -31,6 +31,7 @@ import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
 import org.apache.qpid.server.consumer.AbstractConsumerTarget;
 import org.apache.qpid.server.logging.EventLogger;
 import org.apache.qpid.server.logging.messages.ChannelMessages;
+import org.apache.qpid.server.message.ConvertedMessageCache;
 import org.apache.qpid.server.message.MessageDestination;
 import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.message.MessageInstance.ConsumerAcquiredState;
@@ -193,7 +194,7 @@ public class ConsumerTarget_0_10 extends AbstractConsumerTarget<ConsumerTarget_0
         MessageProperties messageProps = null;
 
         MessageTransferMessage msg;
-        MessageConverter<? super ServerMessage, MessageTransferMessage> converter = null;
+        ConvertedMessageCache.Conversion<MessageTransferMessage> conversion = null;
 
         if(serverMsg instanceof MessageTransferMessage)
         {
@@ -203,8 +204,10 @@ public class ConsumerTarget_0_10 extends AbstractConsumerTarget<ConsumerTarget_0
         }
         else
         {
-            converter = (MessageConverter<? super ServerMessage, MessageTransferMessage>) MessageConverterRegistry.getConverter(serverMsg.getClass(), MessageTransferMessage.class);
-            msg = converter.convert(serverMsg, _session.getAddressSpace());
+            MessageConverter<? super ServerMessage, MessageTransferMessage> converter =
+                    (MessageConverter<? super ServerMessage, MessageTransferMessage>) MessageConverterRegistry.getConverter(serverMsg.getClass(), MessageTransferMessage.class);
+            conversion = ConvertedMessageCache.convert(converter, serverMsg, _session.getAddressSpace());
+            msg = conversion.getMessage();
         }
 
         DeliveryProperties origDeliveryProps = msg.getHeader() == null ? null : msg.getHeader().getDeliveryProperties();
@@ -257,6 +260,8 @@ public class ConsumerTarget_0_10 extends AbstractConsumerTarget<ConsumerTarget_0
         if(msgCompressed && !compressionSupported && bodyBuffer != null)
         {
             QpidByteBuffer uncompressedBuffer = inflateIfPossible(bodyBuffer);
+            // the properties may be shared with other deliveries of the message, so change a copy
+            messageProps = new MessageProperties(messageProps);
             messageProps.setContentEncoding(null);
             bodyBuffer.dispose();
             bodyBuffer = uncompressedBuffer;
@@ -268,10 +273,7 @@ public class ConsumerTarget_0_10 extends AbstractConsumerTarget<ConsumerTarget_0
                 && bodyBuffer.remaining() > _session.getConnection().getMessageCompressionThreshold())
         {
             QpidByteBuffer compressedBuffers = deflateIfPossible(bodyBuffer);
-            if(messageProps == null)
-            {
-                messageProps = new MessageProperties();
-            }
+            messageProps = messageProps == null ? new MessageProperties() : new MessageProperties(messageProps);
             messageProps.setContentEncoding(GZIPUtils.GZIP_CONTENT_ENCODING);
             bodyBuffer.dispose();
             bodyBuffer = compressedBuffers;
@@ -323,9 +325,9 @@ public class ConsumerTarget_0_10 extends AbstractConsumerTarget<ConsumerTarget_0
 
         _session.sendMessage(xfr, _postIdSettingAction);
         xfr.dispose();
-        if(converter != null)
+        if(conversion != null)
         {
-            converter.dispose(msg);
+            conversion.release();
         }
         _postIdSettingAction.setAction(null);
         _postIdSettingAction.setXfr(null);
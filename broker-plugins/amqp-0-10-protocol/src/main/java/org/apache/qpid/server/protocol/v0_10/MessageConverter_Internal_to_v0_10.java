@@ -145,6 +145,12 @@ public class MessageConverter_Internal_to_v0_10 implements MessageConverter<Inte
                     {
 
                     }
+
+                    @Override
+                    public boolean unload()
+                    {
+                        return false;
+                    }
                 };
     }
 
@@ -121,6 +121,12 @@ public class MessageConverter_v0_10 implements MessageConverter<ServerMessage, M
                     {
 
                     }
+
+                    @Override
+                    public boolean unload()
+                    {
+                        return false;
+                    }
                 };
     }
 
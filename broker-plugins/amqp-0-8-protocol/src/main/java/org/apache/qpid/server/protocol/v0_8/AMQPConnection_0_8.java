@@ -51,6 +51,13 @@ public interface AMQPConnection_0_8<C extends AMQPConnection_0_8<C>> extends AMQ
     @ManagedContextDefault(name= BATCH_LIMIT)
     long DEFAULT_BATCH_LIMIT = 10L;
 
+    String MESSAGE_COMPRESSION_CACHE_MAX_SIZE = "connection.messageCompressionCacheMaxSize";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = MESSAGE_COMPRESSION_CACHE_MAX_SIZE,
+            description = "Maximum size in bytes of a compressed or decompressed message body that is kept with the"
+                          + " message and shared by its deliveries to other consumers. Zero disables the cache.")
+    int DEFAULT_MESSAGE_COMPRESSION_CACHE_MAX_SIZE = 0;
+
     @DerivedAttribute(description = "The actual negotiated value of heartbeat delay.")
     int getHeartbeatDelay();
 
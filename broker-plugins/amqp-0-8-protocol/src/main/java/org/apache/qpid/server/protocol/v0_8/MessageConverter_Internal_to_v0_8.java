@@ -148,6 +148,12 @@ public class MessageConverter_Internal_to_v0_8 implements MessageConverter<Inter
             {
 
             }
+
+            @Override
+            public boolean unload()
+            {
+                return false;
+            }
         };
     }
 
@@ -27,8 +27,11 @@ import org.slf4j.LoggerFactory;
 
 import org.apache.qpid.server.QpidException;
 import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.message.ConvertedMessageCache;
 import org.apache.qpid.server.message.InstanceProperties;
+import org.apache.qpid.server.message.MessageCompressionExecutor;
 import org.apache.qpid.server.message.MessageContentSource;
+import org.apache.qpid.server.message.ServerMessage;
 import org.apache.qpid.server.protocol.v0_8.transport.AMQBody;
 import org.apache.qpid.server.protocol.v0_8.transport.AMQDataBlock;
 import org.apache.qpid.server.protocol.v0_8.transport.AMQFrame;
@@ -49,9 +52,22 @@ public class ProtocolOutputConverterImpl implements ProtocolOutputConverter
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProtocolOutputConverterImpl.class);
 
+    private final int _modifiedContentCacheMaxSize;
+    private final MessageCompressionExecutor _compressionExecutor;
+
+    enum ContentModification
+    {
+        DEFLATE, INFLATE
+    }
+
     public ProtocolOutputConverterImpl(AMQPConnection_0_8Impl connection)
     {
         _connection = connection;
+        _modifiedContentCacheMaxSize =
+                connection.getContextValue(Integer.class, AMQPConnection_0_8.MESSAGE_COMPRESSION_CACHE_MAX_SIZE);
+        _compressionExecutor = _modifiedContentCacheMaxSize > 0
+                ? connection.getBroker().getMessageCompressionExecutor()
+                : null;
     }
 
 
@@ -89,7 +105,7 @@ public class ProtocolOutputConverterImpl implements ProtocolOutputConverter
         long length;
         if(msgCompressed
            && !compressionSupported
-           && (modifiedContent = inflateIfPossible(message)) != null)
+           && (modifiedContent = getModifiedContent(message, ContentModification.INFLATE)) != null)
         {
             BasicContentHeaderProperties modifiedProps =
                     new BasicContentHeaderProperties(contentHeaderBody.getProperties());
@@ -101,7 +117,7 @@ public class ProtocolOutputConverterImpl implements ProtocolOutputConverter
                 && compressionSupported
                 && contentHeaderBody.getProperties().getEncoding()==null
                 && bodySize > _connection.getMessageCompressionThreshold()
-                && (modifiedContent = deflateIfPossible(message)) != null)
+                && (modifiedContent = getModifiedContent(message, ContentModification.DEFLATE)) != null)
         {
             BasicContentHeaderProperties modifiedProps =
                     new BasicContentHeaderProperties(contentHeaderBody.getProperties());
@@ -124,6 +140,72 @@ public class ProtocolOutputConverterImpl implements ProtocolOutputConverter
         return length;
     }
 
+    /**
+     * Returns the content of the message with its encoding changed as requested, or null if it is to be sent as is.
+     * When the modified content cache is enabled, the modified content of a message is shared by all its deliveries
+     * and, if a compression pool is configured, compression of messages small enough to be kept is done off the IO
+     * thread: deliveries made before the compressed content is ready are sent uncompressed.
+     */
+    DisposableMessageContentSource getModifiedContent(final MessageContentSource source,
+                                                      final ContentModification modification)
+    {
+        if (_modifiedContentCacheMaxSize <= 0 || !(source instanceof ServerMessage))
+        {
+            return modifyContent(source, modification);
+        }
+
+        final ServerMessage<?> message = (ServerMessage<?>) source;
+        final ConvertedMessageCache.Conversion<DisposableMessageContentSource> conversion;
+        if (modification == ContentModification.DEFLATE
+            && _compressionExecutor != null
+            && message.getSize() <= _modifiedContentCacheMaxSize)
+        {
+            conversion = ConvertedMessageCache.getIfPresent(message, modification);
+            if (conversion == null)
+            {
+                scheduleCompression(message);
+            }
+        }
+        else
+        {
+            conversion = getOrCreateModifiedContent(message, modification);
+        }
+        return conversion == null ? null : new SharedContentSource(conversion);
+    }
+
+    private ConvertedMessageCache.Conversion<DisposableMessageContentSource> getOrCreateModifiedContent(final ServerMessage<?> message,
+                                                                                                       final ContentModification modification)
+    {
+        // a deflated body is kept whenever the original fits: compression in the background relies on the result
+        // being found by later deliveries, and deflating can add a few bytes to a body that does not compress
+        return ConvertedMessageCache.getOrCreate(message,
+                                                 modification,
+                                                 () -> modifyContent(message, modification),
+                                                 content -> content.getSize() <= _modifiedContentCacheMaxSize
+                                                            || (modification == ContentModification.DEFLATE
+                                                                && message.getSize() <= _modifiedContentCacheMaxSize),
+                                                 DisposableMessageContentSource::dispose);
+    }
+
+    private void scheduleCompression(final ServerMessage<?> message)
+    {
+        _compressionExecutor.execute(message, () ->
+        {
+            final ConvertedMessageCache.Conversion<DisposableMessageContentSource> conversion =
+                    getOrCreateModifiedContent(message, ContentModification.DEFLATE);
+            if (conversion != null)
+            {
+                conversion.release();
+            }
+        });
+    }
+
+    private DisposableMessageContentSource modifyContent(final MessageContentSource source,
+                                                         final ContentModification modification)
+    {
+        return modification == ContentModification.DEFLATE ? deflateIfPossible(source) : inflateIfPossible(source);
+    }
+
     private DisposableMessageContentSource deflateIfPossible(MessageContentSource source)
     {
         try (QpidByteBuffer contentBuffers = source.getContent())
@@ -503,6 +585,40 @@ public class ProtocolOutputConverterImpl implements ProtocolOutputConverter
         }
     }
 
+    private static class SharedContentSource implements DisposableMessageContentSource
+    {
+        private final ConvertedMessageCache.Conversion<DisposableMessageContentSource> _conversion;
+
+        SharedContentSource(final ConvertedMessageCache.Conversion<DisposableMessageContentSource> conversion)
+        {
+            _conversion = conversion;
+        }
+
+        @Override
+        public void dispose()
+        {
+            _conversion.release();
+        }
+
+        @Override
+        public QpidByteBuffer getContent()
+        {
+            return _conversion.getMessage().getContent();
+        }
+
+        @Override
+        public QpidByteBuffer getContent(final int offset, final int length)
+        {
+            return _conversion.getMessage().getContent(offset, length);
+        }
+
+        @Override
+        public long getSize()
+        {
+            return _conversion.getMessage().getSize();
+        }
+    }
+
     private static class ModifiedContentSource implements DisposableMessageContentSource
     {
         private final QpidByteBuffer _buffer;
@@ -23,7 +23,6 @@ package org.apache.qpid.server.protocol.v0_8;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -70,7 +69,20 @@ class UnacknowledgedMessageMapImpl implements UnacknowledgedMessageMap
             return _usesCredit;
         }
     }
-    private final Map<Long, MessageConsumerAssociationImpl> _map;
+    private static final int MAX_INITIAL_CAPACITY = 256;
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 16;
+
+    /*
+     * Deliveries are held in ascending delivery tag order in a ring of two parallel arrays, starting at _head and
+     * occupying _count slots. Delivery tags are allocated in increasing order by the channel, so adding a delivery
+     * appends at the tail. Removing a delivery leaves a tombstone (a null entry keeping its tag, so that the tags
+     * stay sorted for binary search); tombstones are trimmed from either end as they appear, and the ring is
+     * compacted once they outnumber the live deliveries.
+     */
+    private long[] _tags;
+    private MessageConsumerAssociationImpl[] _entries;
+    private int _head;
+    private int _count;
     // we keep this separately as it is accessed by the management thread
     private volatile int _size;
 
@@ -78,7 +90,9 @@ class UnacknowledgedMessageMapImpl implements UnacknowledgedMessageMap
 
     UnacknowledgedMessageMapImpl(int prefetchLimit, CreditRestorer creditRestorer)
     {
-        _map = new LinkedHashMap<>(prefetchLimit);
+        final int capacity = Integer.highestOneBit(Math.max(1, Math.min(prefetchLimit, MAX_INITIAL_CAPACITY)) * 2 - 1);
+        _tags = new long[capacity];
+        _entries = new MessageConsumerAssociationImpl[capacity];
         _creditRestorer = creditRestorer;
     }
 
@@ -87,48 +101,52 @@ class UnacknowledgedMessageMapImpl implements UnacknowledgedMessageMap
     {
         if (multiple)
         {
-            collect(deliveryTag, msgs);
+            final int last = getMultipleLimit(deliveryTag);
+            for (int i = 0; i <= last; i++)
+            {
+                final int slot = slot(i);
+                final MessageConsumerAssociationImpl entry = _entries[slot];
+                if (entry != null)
+                {
+                    msgs.put(_tags[slot], entry);
+                }
+            }
         }
         else
         {
-            final MessageConsumerAssociation messageConsumerAssociation = _map.get(deliveryTag);
-            if(messageConsumerAssociation != null)
+            final int index = indexOf(deliveryTag);
+            if (index >= 0 && _entries[slot(index)] != null)
             {
-                msgs.put(deliveryTag, messageConsumerAssociation);
+                msgs.put(deliveryTag, _entries[slot(index)]);
             }
         }
 
     }
 
-    private void remove(Collection<Long> msgs)
-    {
-        for (Long deliveryTag : msgs)
-        {
-            remove(deliveryTag, true);
-        }
-    }
-
     @Override
     public MessageConsumerAssociation remove(long deliveryTag, final boolean restoreCredit)
     {
-        MessageConsumerAssociationImpl entry = _map.remove(deliveryTag);
-        if(entry != null)
+        final int index = indexOf(deliveryTag);
+        if (index < 0)
         {
-            _size--;
-            if(restoreCredit && entry.isUsesCredit())
-            {
-                _creditRestorer.restoreCredit(entry.getConsumer().getTarget(), 1, entry.getSize());
-            }
+            return null;
         }
+        final MessageConsumerAssociationImpl entry = removeAt(index, restoreCredit);
+        trim();
         return entry;
     }
 
     @Override
     public void visit(Visitor visitor)
     {
-        for (Map.Entry<Long, MessageConsumerAssociationImpl> entry : _map.entrySet())
+        for (int i = 0; i < _count; i++)
         {
-            visitor.callback(entry.getKey(), entry.getValue());
+            final int slot = slot(i);
+            final MessageConsumerAssociationImpl entry = _entries[slot];
+            if (entry != null)
+            {
+                visitor.callback(_tags[slot], entry);
+            }
         }
         visitor.visitComplete();
     }
@@ -136,14 +154,32 @@ class UnacknowledgedMessageMapImpl implements UnacknowledgedMessageMap
     @Override
     public void add(long deliveryTag, MessageInstance message, final MessageInstanceConsumer consumer, final boolean usesCredit)
     {
-        if(_map.put(deliveryTag, new MessageConsumerAssociationImpl(message, consumer, usesCredit)) == null)
+        final MessageConsumerAssociationImpl entry = new MessageConsumerAssociationImpl(message, consumer, usesCredit);
+        if (_count == 0 || deliveryTag > _tags[slot(_count - 1)])
         {
-            _size++;
+            ensureCapacity(_count + 1);
+            final int slot = slot(_count);
+            _tags[slot] = deliveryTag;
+            _entries[slot] = entry;
+            _count++;
         }
         else
         {
-            throw new ConnectionScopedRuntimeException("Unexpected duplicate delivery tag created");
+            final int index = indexOf(deliveryTag);
+            if (index >= 0)
+            {
+                if (_entries[slot(index)] != null)
+                {
+                    throw new ConnectionScopedRuntimeException("Unexpected duplicate delivery tag created");
+                }
+                _entries[slot(index)] = entry;
+            }
+            else
+            {
+                insertAt(-(index + 1), deliveryTag, entry);
+            }
         }
+        _size++;
     }
 
     @Override
@@ -155,7 +191,8 @@ class UnacknowledgedMessageMapImpl implements UnacknowledgedMessageMap
     @Override
     public MessageInstance get(long key)
     {
-        MessageConsumerAssociation association = _map.get(key);
+        final int index = indexOf(key);
+        final MessageConsumerAssociation association = index < 0 ? null : _entries[slot(index)];
         return association == null ? null : association.getMessageInstance();
     }
 
@@ -164,19 +201,29 @@ class UnacknowledgedMessageMapImpl implements UnacknowledgedMessageMap
     {
         if(multiple)
         {
-            Map<Long, MessageConsumerAssociation> ackedMessageMap = new LinkedHashMap<>();
-            collect(deliveryTag, multiple, ackedMessageMap);
-            remove(ackedMessageMap.keySet());
-            List<MessageConsumerAssociation> acknowledged = new ArrayList<>();
-            for (MessageConsumerAssociation messageConsumerAssociation : ackedMessageMap.values())
+            final int last = getMultipleLimit(deliveryTag);
+            final List<MessageConsumerAssociation> removed = new ArrayList<>(Math.min(last + 1, _size));
+            for (int i = 0; i <= last; i++)
+            {
+                final MessageConsumerAssociationImpl entry = removeAt(i, true);
+                if (entry != null)
+                {
+                    removed.add(entry);
+                }
+            }
+            trim();
+
+            int acknowledged = 0;
+            for (int i = 0; i < removed.size(); i++)
             {
+                final MessageConsumerAssociation messageConsumerAssociation = removed.get(i);
                 MessageInstance instance = messageConsumerAssociation.getMessageInstance();
                 if (instance.makeAcquisitionUnstealable(messageConsumerAssociation.getConsumer()))
                 {
-                    acknowledged.add(messageConsumerAssociation);
+                    removed.set(acknowledged++, messageConsumerAssociation);
                 }
             }
-            return acknowledged;
+            return acknowledged == removed.size() ? removed : removed.subList(0, acknowledged);
         }
         else
         {
@@ -193,16 +240,132 @@ class UnacknowledgedMessageMapImpl implements UnacknowledgedMessageMap
         }
     }
 
-    private void collect(long key, Map<Long, MessageConsumerAssociation> msgs)
+    /**
+     * Returns the index of the last slot covered by a multiple acknowledgement of the given tag: the slot holding
+     * the tag if it is outstanding, otherwise the last slot.
+     */
+    private int getMultipleLimit(final long deliveryTag)
+    {
+        final int index = indexOf(deliveryTag);
+        return index >= 0 && _entries[slot(index)] != null ? index : _count - 1;
+    }
+
+    private MessageConsumerAssociationImpl removeAt(final int index, final boolean restoreCredit)
     {
-        for (Map.Entry<Long, MessageConsumerAssociationImpl> entry : _map.entrySet())
+        final int slot = slot(index);
+        final MessageConsumerAssociationImpl entry = _entries[slot];
+        if (entry != null)
         {
-            msgs.put(entry.getKey(), entry.getValue());
-            if (entry.getKey() == key)
+            _entries[slot] = null;
+            _size--;
+            if(restoreCredit && entry.isUsesCredit())
             {
-                break;
+                _creditRestorer.restoreCredit(entry.getConsumer().getTarget(), 1, entry.getSize());
             }
         }
+        return entry;
+    }
+
+    /**
+     * Returns the index of the slot holding the given tag, or {@code -(insertion index + 1)} if there is none.
+     */
+    private int indexOf(final long deliveryTag)
+    {
+        int low = 0;
+        int high = _count - 1;
+        while (low <= high)
+        {
+            final int mid = (low + high) >>> 1;
+            final long tag = _tags[slot(mid)];
+            if (tag < deliveryTag)
+            {
+                low = mid + 1;
+            }
+            else if (tag > deliveryTag)
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void insertAt(final int index, final long deliveryTag, final MessageConsumerAssociationImpl entry)
+    {
+        ensureCapacity(_count + 1);
+        for (int i = _count; i > index; i--)
+        {
+            _tags[slot(i)] = _tags[slot(i - 1)];
+            _entries[slot(i)] = _entries[slot(i - 1)];
+        }
+        _tags[slot(index)] = deliveryTag;
+        _entries[slot(index)] = entry;
+        _count++;
+    }
+
+    private void trim()
+    {
+        while (_count > 0 && _entries[_head] == null)
+        {
+            _head = slot(1);
+            _count--;
+        }
+        while (_count > 0 && _entries[slot(_count - 1)] == null)
+        {
+            _count--;
+        }
+        if (_count == 0)
+        {
+            _head = 0;
+        }
+        else if (_count - _size > Math.max(_size, MIN_TOMBSTONES_TO_COMPACT))
+        {
+            compact();
+        }
+    }
+
+    private void compact()
+    {
+        int live = 0;
+        for (int i = 0; i < _count; i++)
+        {
+            final int slot = slot(i);
+            final MessageConsumerAssociationImpl entry = _entries[slot];
+            if (entry != null)
+            {
+                final int target = slot(live++);
+                _tags[target] = _tags[slot];
+                _entries[slot] = null;
+                _entries[target] = entry;
+            }
+        }
+        _count = live;
+    }
+
+    private void ensureCapacity(final int required)
+    {
+        if (required > _entries.length)
+        {
+            final int capacity = _entries.length << 1;
+            final long[] tags = new long[capacity];
+            final MessageConsumerAssociationImpl[] entries = new MessageConsumerAssociationImpl[capacity];
+            for (int i = 0; i < _count; i++)
+            {
+                tags[i] = _tags[slot(i)];
+                entries[i] = _entries[slot(i)];
+            }
+            _tags = tags;
+            _entries = entries;
+            _head = 0;
+        }
+    }
+
+    private int slot(final int index)
+    {
+        return (_head + index) & (_entries.length - 1);
     }
 
 }
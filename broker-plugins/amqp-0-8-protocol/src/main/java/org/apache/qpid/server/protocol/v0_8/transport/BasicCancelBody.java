@@ -114,7 +114,7 @@ public class BasicCancelBody extends AMQMethodBodyImpl implements EncodableAMQDa
                                final ServerChannelMethodProcessor dispatcher)
     {
 
-        AMQShortString consumerTag = AMQShortString.readAMQShortString(buffer);
+        AMQShortString consumerTag = AMQShortString.readInternedAMQShortString(buffer);
         boolean noWait = (buffer.get() & 0x01) == 0x01;
         if(!dispatcher.ignoreAllButCloseOk())
         {
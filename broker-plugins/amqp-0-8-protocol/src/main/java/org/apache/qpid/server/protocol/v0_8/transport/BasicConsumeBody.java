@@ -194,8 +194,8 @@ public class BasicConsumeBody extends AMQMethodBodyImpl implements EncodableAMQD
     {
 
         int ticket = buffer.getUnsignedShort();
-        AMQShortString queue = AMQShortString.readAMQShortString(buffer);
-        AMQShortString consumerTag = AMQShortString.readAMQShortString(buffer);
+        AMQShortString queue = AMQShortString.readInternedAMQShortString(buffer);
+        AMQShortString consumerTag = AMQShortString.readInternedAMQShortString(buffer);
         byte bitfield = buffer.get();
 
         boolean noLocal = (bitfield & 0x01) == 0x01;
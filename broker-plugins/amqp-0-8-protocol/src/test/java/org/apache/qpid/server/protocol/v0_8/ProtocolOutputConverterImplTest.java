@@ -0,0 +1,132 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.protocol.v0_8;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Random;
+
+import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.message.ConvertedMessageCache;
+import org.apache.qpid.server.message.MessageCompressionExecutor;
+import org.apache.qpid.server.message.MessageReference;
+import org.apache.qpid.server.model.Broker;
+import org.apache.qpid.server.protocol.v0_8.ProtocolOutputConverterImpl.ContentModification;
+import org.apache.qpid.server.protocol.v0_8.ProtocolOutputConverterImpl.DisposableMessageContentSource;
+import org.apache.qpid.server.protocol.v0_8.transport.BasicContentHeaderProperties;
+import org.apache.qpid.server.protocol.v0_8.transport.ContentHeaderBody;
+import org.apache.qpid.server.protocol.v0_8.transport.MessagePublishInfo;
+import org.apache.qpid.server.store.MessageHandle;
+import org.apache.qpid.server.store.TestMemoryMessageStore;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class ProtocolOutputConverterImplTest extends QpidTestCase
+{
+    private static final int CACHE_MAX_SIZE = 1024;
+
+    private TestMemoryMessageStore _store;
+    private MessageCompressionExecutor _compressionExecutor;
+    private ProtocolOutputConverterImpl _converter;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        _store = new TestMemoryMessageStore();
+        _compressionExecutor = new MessageCompressionExecutor("test-compression", 1);
+
+        final Broker<?> broker = mock(Broker.class);
+        when(broker.getMessageCompressionExecutor()).thenReturn(_compressionExecutor);
+        final AMQPConnection_0_8Impl connection = mock(AMQPConnection_0_8Impl.class);
+        when(connection.getContextValue(Integer.class, AMQPConnection_0_8.MESSAGE_COMPRESSION_CACHE_MAX_SIZE))
+                .thenReturn(CACHE_MAX_SIZE);
+        when(connection.getBroker()).thenReturn((Broker) broker);
+        _converter = new ProtocolOutputConverterImpl(connection);
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        try
+        {
+            _compressionExecutor.shutdown();
+        }
+        finally
+        {
+            super.tearDown();
+        }
+    }
+
+    public void testMessageWithinCacheLimitCompressedInBackground() throws Exception
+    {
+        final AMQMessage message = createMessage(new byte[CACHE_MAX_SIZE]);
+        try (MessageReference reference = message.newReference())
+        {
+            assertNull("Delivery before compression completes should be sent as is",
+                       _converter.getModifiedContent(message, ContentModification.DEFLATE));
+
+            DisposableMessageContentSource content = null;
+            final long timeout = System.currentTimeMillis() + 5000L;
+            while (content == null && System.currentTimeMillis() < timeout)
+            {
+                Thread.sleep(10);
+                content = _converter.getModifiedContent(message, ContentModification.DEFLATE);
+            }
+            assertNotNull("Compressed content was not cached", content);
+            assertTrue("Content not compressed", content.getSize() < message.getSize());
+            content.dispose();
+        }
+    }
+
+    public void testMessageOverCacheLimitCompressedOnDelivery()
+    {
+        // random content does not compress, so the deflated body exceeds the cache limit too
+        final byte[] body = new byte[CACHE_MAX_SIZE * 4];
+        new Random().nextBytes(body);
+        final AMQMessage message = createMessage(body);
+        try (MessageReference reference = message.newReference())
+        {
+            for (int i = 0; i < 2; i++)
+            {
+                final DisposableMessageContentSource content =
+                        _converter.getModifiedContent(message, ContentModification.DEFLATE);
+                assertNotNull("Message too large to cache should be compressed on delivery " + i, content);
+                content.dispose();
+            }
+            assertNull("Message too large to cache should not hold its compressed content",
+                       ConvertedMessageCache.getIfPresent(message, ContentModification.DEFLATE));
+        }
+    }
+
+    private AMQMessage createMessage(final byte[] body)
+    {
+        final ContentHeaderBody header = new ContentHeaderBody(new BasicContentHeaderProperties(), body.length);
+        final MessageMetaData metaData =
+                new MessageMetaData(new MessagePublishInfo(null, false, false, null), header);
+        final MessageHandle<MessageMetaData> handle = _store.addMessage(metaData);
+        try (QpidByteBuffer content = QpidByteBuffer.wrap(body))
+        {
+            handle.addContent(content);
+        }
+        return new AMQMessage(handle.allContentAdded());
+    }
+}
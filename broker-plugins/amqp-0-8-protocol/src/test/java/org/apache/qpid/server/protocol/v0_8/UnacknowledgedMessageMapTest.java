@@ -21,9 +21,16 @@
 package org.apache.qpid.server.protocol.v0_8;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Collections2;
@@ -31,6 +38,7 @@ import com.google.common.collect.Collections2;
 import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.message.MessageInstanceConsumer;
 import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.util.ConnectionScopedRuntimeException;
 import org.apache.qpid.test.utils.QpidTestCase;
 
 public class UnacknowledgedMessageMapTest extends QpidTestCase
@@ -82,6 +90,100 @@ public class UnacknowledgedMessageMapTest extends QpidTestCase
 
     }
 
+    public void testMultipleAcknowledgeStopsAtDeliveryTag()
+    {
+        final CreditRestorer creditRestorer = mock(CreditRestorer.class);
+        UnacknowledgedMessageMap map = new UnacknowledgedMessageMapImpl(4, creditRestorer);
+        MessageInstance[] msgs = populateMap(map, 10);
+
+        assertSame(msgs[3], map.acknowledge(3, false).iterator().next().getMessageInstance());
+        assertTrue("Already acknowledged tag acknowledged again", map.acknowledge(3, false).isEmpty());
+
+        Collection<MessageInstance> acknowledgedMessages =
+                Collections2.transform(map.acknowledge(5, true), MESSAGE_INSTANCE_FUNCTION);
+        assertEquals(Arrays.asList(msgs[0], msgs[1], msgs[2], msgs[4], msgs[5]),
+                     new ArrayList<>(acknowledgedMessages));
+        assertEquals(4, map.size());
+        assertNull(map.get(5));
+        assertSame(msgs[6], map.get(6));
+        verify(creditRestorer, times(6)).restoreCredit(null, 1, 0L);
+    }
+
+    public void testSingleAcknowledgementsInAnyOrder()
+    {
+        UnacknowledgedMessageMap map = new UnacknowledgedMessageMapImpl(4, mock(CreditRestorer.class));
+        final int size = 1000;
+        MessageInstance[] msgs = populateMap(map, size);
+
+        for (int i = 1; i < size; i += 2)
+        {
+            assertSame(msgs[i], map.remove(i, true).getMessageInstance());
+        }
+        for (int i = size; i < size + 10; i++)
+        {
+            map.add(i, createMessageInstance(i), _consumer, true);
+        }
+        assertEquals(size / 2 + 10, map.size());
+
+        final List<Long> visited = getDeliveryTags(map);
+        assertEquals(size / 2 + 10, visited.size());
+        for (int i = 0; i < size / 2; i++)
+        {
+            assertEquals(Long.valueOf(i * 2), visited.get(i));
+            assertSame(msgs[i * 2], map.get(i * 2));
+            assertNull(map.get(i * 2 + 1));
+        }
+
+        Map<Long, MessageConsumerAssociation> collected = new LinkedHashMap<>();
+        map.collect(4, true, collected);
+        assertEquals(Arrays.asList(0L, 2L, 4L), new ArrayList<>(collected.keySet()));
+        collected.clear();
+        map.collect(3, false, collected);
+        assertTrue(collected.isEmpty());
+    }
+
+    public void testOutOfOrderAndDuplicateDeliveryTags()
+    {
+        UnacknowledgedMessageMap map = new UnacknowledgedMessageMapImpl(4, mock(CreditRestorer.class));
+        map.add(5, createMessageInstance(5), _consumer, true);
+        map.add(9, createMessageInstance(9), _consumer, true);
+        map.add(7, createMessageInstance(7), _consumer, true);
+        map.add(1, createMessageInstance(1), _consumer, true);
+
+        assertEquals(Arrays.asList(1L, 5L, 7L, 9L), getDeliveryTags(map));
+
+        try
+        {
+            map.add(7, createMessageInstance(7), _consumer, true);
+            fail("Exception not thrown");
+        }
+        catch (ConnectionScopedRuntimeException e)
+        {
+            // pass
+        }
+        assertEquals(4, map.size());
+    }
+
+    private List<Long> getDeliveryTags(final UnacknowledgedMessageMap map)
+    {
+        final List<Long> deliveryTags = new ArrayList<>();
+        map.visit(new UnacknowledgedMessageMap.Visitor()
+        {
+            @Override
+            public boolean callback(final long deliveryTag, final MessageConsumerAssociation messageConsumerPair)
+            {
+                deliveryTags.add(deliveryTag);
+                return false;
+            }
+
+            @Override
+            public void visitComplete()
+            {
+            }
+        });
+        return deliveryTags;
+    }
+
     public MessageInstance[] populateMap(final UnacknowledgedMessageMap map, int size)
     {
         MessageInstance[] msgs = new MessageInstance[size];
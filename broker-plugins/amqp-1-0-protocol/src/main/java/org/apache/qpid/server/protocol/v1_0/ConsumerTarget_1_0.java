@@ -32,6 +32,7 @@ import org.apache.qpid.server.consumer.AbstractConsumerTarget;
 import org.apache.qpid.server.logging.EventLogger;
 import org.apache.qpid.server.logging.LogSubject;
 import org.apache.qpid.server.logging.messages.ChannelMessages;
+import org.apache.qpid.server.message.ConvertedMessageCache;
 import org.apache.qpid.server.message.MessageDestination;
 import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.message.MessageInstanceConsumer;
@@ -126,15 +127,15 @@ class ConsumerTarget_1_0 extends AbstractConsumerTarget<ConsumerTarget_1_0>
     {
         ServerMessage serverMessage = entry.getMessage();
         Message_1_0 message;
-        final MessageConverter<? super ServerMessage, Message_1_0> converter;
+        final ConvertedMessageCache.Conversion<Message_1_0> conversion;
         if(serverMessage instanceof Message_1_0)
         {
-            converter = null;
+            conversion = null;
             message = (Message_1_0) serverMessage;
         }
         else
         {
-            converter =
+            final MessageConverter<? super ServerMessage, Message_1_0> converter =
                     (MessageConverter<? super ServerMessage, Message_1_0>) MessageConverterRegistry.getConverter(serverMessage.getClass(), Message_1_0.class);
             if (converter == null)
             {
@@ -144,7 +145,8 @@ class ConsumerTarget_1_0 extends AbstractConsumerTarget<ConsumerTarget_1_0>
                         serverMessage.getClass(),
                         Message_1_0.class));
             }
-            message = converter.convert(serverMessage, _linkEndpoint.getAddressSpace());
+            conversion = ConvertedMessageCache.convert(converter, serverMessage, _linkEndpoint.getAddressSpace());
+            message = conversion.getMessage();
         }
 
         Transfer transfer = new Transfer();
@@ -300,9 +302,9 @@ class ConsumerTarget_1_0 extends AbstractConsumerTarget<ConsumerTarget_1_0>
         finally
         {
             transfer.dispose();
-            if(converter != null)
+            if(conversion != null)
             {
-                converter.dispose(message);
+                conversion.release();
             }
         }
     }
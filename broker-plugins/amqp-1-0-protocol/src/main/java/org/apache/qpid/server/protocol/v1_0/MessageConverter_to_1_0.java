@@ -460,6 +460,12 @@ public abstract class MessageConverter_to_1_0<M extends ServerMessage> implement
 
         }
 
+        @Override
+        public boolean unload()
+        {
+            return false;
+        }
+
         private void dispose()
         {
             _section.dispose();
@@ -165,6 +165,12 @@ public class MessageConverter_1_0_to_v0_10 implements MessageConverter<Message_1
             {
 
             }
+
+            @Override
+            public boolean unload()
+            {
+                return false;
+            }
         };
     }
 
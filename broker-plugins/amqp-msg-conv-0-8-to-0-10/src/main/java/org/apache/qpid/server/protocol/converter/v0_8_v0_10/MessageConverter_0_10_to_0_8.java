@@ -296,6 +296,12 @@ public class MessageConverter_0_10_to_0_8 implements MessageConverter<MessageTra
             {
 
             }
+
+            @Override
+            public boolean unload()
+            {
+                return false;
+            }
         };
     }
 
@@ -131,6 +131,12 @@ public class MessageConverter_0_8_to_0_10  implements MessageConverter<AMQMessag
             {
 
             }
+
+            @Override
+            public boolean unload()
+            {
+                return false;
+            }
         };
     }
 
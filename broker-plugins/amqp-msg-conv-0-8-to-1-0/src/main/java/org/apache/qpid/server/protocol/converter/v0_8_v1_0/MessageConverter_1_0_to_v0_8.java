@@ -155,6 +155,12 @@ public class MessageConverter_1_0_to_v0_8 implements MessageConverter<Message_1_
             {
 
             }
+
+            @Override
+            public boolean unload()
+            {
+                return false;
+            }
         };
     }
 
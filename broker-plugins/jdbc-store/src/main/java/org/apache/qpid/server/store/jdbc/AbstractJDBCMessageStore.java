@@ -31,6 +31,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -41,8 +42,10 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.google.common.base.Function;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 import org.slf4j.Logger;
 
@@ -81,6 +84,11 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     private static final int DB_VERSION = 8;
 
+    public static final String CONTEXT_JDBCSTORE_BATCH_WRITES_ENABLED = "qpid.jdbcstore.batchWrites.enabled";
+    public static final boolean DEFAULT_JDBCSTORE_BATCH_WRITES_ENABLED = false;
+    public static final String CONTEXT_JDBCSTORE_BATCH_WRITES_MAX_TRANSACTIONS = "qpid.jdbcstore.batchWrites.maxTransactions";
+    public static final int DEFAULT_JDBCSTORE_BATCH_WRITES_MAX_TRANSACTIONS = 256;
+
     private final AtomicLong _messageId = new AtomicLong(0);
 
 
@@ -97,6 +105,7 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     protected abstract void checkMessageStoreOpen();
     private ScheduledThreadPoolExecutor _executor;
+    private volatile JDBCGroupCommitter<BatchedWork> _groupCommitter;
 
     public AbstractJDBCMessageStore()
     {
@@ -220,11 +229,37 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         });
         _executor.prestartAllCoreThreads();
 
+        if (getContextValue(parent, Boolean.class, CONTEXT_JDBCSTORE_BATCH_WRITES_ENABLED,
+                            DEFAULT_JDBCSTORE_BATCH_WRITES_ENABLED))
+        {
+            final int maxTransactions = getContextValue(parent, Integer.class,
+                                                        CONTEXT_JDBCSTORE_BATCH_WRITES_MAX_TRANSACTIONS,
+                                                        DEFAULT_JDBCSTORE_BATCH_WRITES_MAX_TRANSACTIONS);
+            _groupCommitter = new JDBCGroupCommitter<>(parent.getName(), maxTransactions,
+                                                       new JDBCGroupCommitter.GroupWriter<BatchedWork>()
+                                                       {
+                                                           @Override
+                                                           public void write(final List<BatchedWork> group)
+                                                           {
+                                                               writeGroup(group);
+                                                           }
+                                                       });
+            _groupCommitter.start();
+        }
+    }
+
+    private static <T> T getContextValue(final ConfiguredObject<?> parent,
+                                         final Class<T> type,
+                                         final String name,
+                                         final T defaultValue)
+    {
+        return parent.getContextKeys(false).contains(name) ? parent.getContextValue(type, name) : defaultValue;
     }
 
     @Override
     public void closeMessageStore()
     {
+        stopGroupCommitter();
         for (StoredJDBCMessage<?> message : _messages)
         {
             message.clear();
@@ -239,6 +274,19 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     }
 
+    /**
+     * Writes out any transactions already handed to the group commit thread and stops it.
+     */
+    protected void stopGroupCommitter()
+    {
+        final JDBCGroupCommitter<BatchedWork> groupCommitter = _groupCommitter;
+        if (groupCommitter != null)
+        {
+            _groupCommitter = null;
+            groupCommitter.stop();
+        }
+    }
+
     protected abstract Logger getLogger();
 
     protected abstract String getSqlBlobType();
@@ -834,17 +882,7 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         {
             stmt.setLong(1, messageId);
 
-            final int bodySize = 1 + metaData.getStorableSize();
-            byte[] underlying = new byte[bodySize];
-            underlying[0] = (byte) metaData.getType().ordinal();
-            try (QpidByteBuffer buf = QpidByteBuffer.wrap(underlying))
-            {
-                buf.position(1);
-                try (QpidByteBuffer bufSlice = buf.slice())
-                {
-                    metaData.writeToBuffer(buf);
-                }
-            }
+            byte[] underlying = encodeMetaData(metaData);
             try(ByteArrayInputStream bis = new ByteArrayInputStream(underlying))
             {
                 stmt.setBinaryStream(2, bis, underlying.length);
@@ -863,6 +901,230 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     }
 
+    private byte[] encodeMetaData(final StorableMessageMetaData metaData)
+    {
+        final int bodySize = 1 + metaData.getStorableSize();
+        byte[] underlying = new byte[bodySize];
+        underlying[0] = (byte) metaData.getType().ordinal();
+        try (QpidByteBuffer buf = QpidByteBuffer.wrap(underlying))
+        {
+            buf.position(1);
+            try (QpidByteBuffer bufSlice = buf.slice())
+            {
+                metaData.writeToBuffer(buf);
+            }
+        }
+        return underlying;
+    }
+
+    private void writeGroup(final List<BatchedWork> group)
+    {
+        try
+        {
+            writeAndCommit(group);
+            for (BatchedWork work : group)
+            {
+                completeBatchedWork(work);
+            }
+        }
+        catch (SQLException | RuntimeException e)
+        {
+            if (group.size() == 1)
+            {
+                group.get(0).failed(toStoreException(e));
+                return;
+            }
+
+            getLogger().debug("Batched write of {} transactions failed, retrying individually", group.size(), e);
+
+            for (BatchedWork work : group)
+            {
+                try
+                {
+                    writeAndCommit(Collections.singletonList(work));
+                    completeBatchedWork(work);
+                }
+                catch (SQLException | RuntimeException e1)
+                {
+                    work.failed(toStoreException(e1));
+                }
+            }
+        }
+    }
+
+    private void completeBatchedWork(final BatchedWork work)
+    {
+        storedSizeChange(work.getStoreSizeIncrease());
+        work.completed();
+    }
+
+    private StoreException toStoreException(final Exception e)
+    {
+        return e instanceof StoreException
+                ? (StoreException) e
+                : new StoreException("Error committing batched transactions: " + e.getMessage(), e);
+    }
+
+    /**
+     * Writes the message, queue entry insert and queue entry delete rows of the given transactions using one
+     * JDBC batch per statement type, then commits once.  The messages written are only marked as stored once
+     * the commit has succeeded, so that their content is not evicted from memory while it may still be rolled back.
+     */
+    private void writeAndCommit(final List<BatchedWork> group) throws SQLException
+    {
+        final List<StoredJDBCMessage<?>> batchedMessages = new ArrayList<>();
+        boolean committed = false;
+        try (Connection conn = newConnection())
+        {
+            try
+            {
+                writeBatches(conn, group, batchedMessages);
+                conn.commit();
+                committed = true;
+            }
+            catch (SQLException | RuntimeException e)
+            {
+                try
+                {
+                    conn.rollback();
+                }
+                catch (SQLException re)
+                {
+                    getLogger().debug("Failed to rollback batched transactions", re);
+                }
+                throw e;
+            }
+        }
+        finally
+        {
+            for (StoredJDBCMessage<?> message : batchedMessages)
+            {
+                message.batchCompleted(committed);
+            }
+        }
+    }
+
+    private void writeBatches(final Connection conn,
+                              final List<BatchedWork> group,
+                              final List<StoredJDBCMessage<?>> batchedMessages) throws SQLException
+    {
+        final Set<StoredJDBCMessage<?>> messagesInBatch = new HashSet<>();
+        try (PreparedStatement metaDataStmt = conn.prepareStatement("INSERT INTO " + getMetaDataTableName()
+                                                                     + "( message_id , meta_data ) values (?, ?)");
+             PreparedStatement contentStmt = conn.prepareStatement("INSERT INTO " + getMessageContentTableName()
+                                                                    + "( message_id, content ) values (?, ?)"))
+        {
+            for (BatchedWork work : group)
+            {
+                work.resetClaimedMessages();
+                for (StoredJDBCMessage<?> message : work.getMessages())
+                {
+                    if (messagesInBatch.add(message) && message.addToBatch(metaDataStmt, contentStmt))
+                    {
+                        work.claimMessage(message);
+                        batchedMessages.add(message);
+                    }
+                }
+            }
+            if (!messagesInBatch.isEmpty())
+            {
+                metaDataStmt.executeBatch();
+                contentStmt.executeBatch();
+            }
+        }
+
+        try (PreparedStatement insertStmt = conn.prepareStatement("INSERT INTO " + getQueueEntryTableName()
+                                                                   + " (queue_id, message_id) values (?,?)"))
+        {
+            boolean hasInserts = false;
+            for (BatchedWork work : group)
+            {
+                for (JDBCEnqueueRecord record : work.getEnqueues())
+                {
+                    insertStmt.setString(1, record.getQueueId().toString());
+                    insertStmt.setLong(2, record.getMessageNumber());
+                    insertStmt.addBatch();
+                    hasInserts = true;
+                }
+            }
+            if (hasInserts)
+            {
+                insertStmt.executeBatch();
+            }
+        }
+
+        final List<JDBCEnqueueRecord> dequeues = new ArrayList<>();
+        try (PreparedStatement deleteStmt = conn.prepareStatement("DELETE FROM " + getQueueEntryTableName()
+                                                                   + " WHERE queue_id = ? AND message_id =?"))
+        {
+            for (BatchedWork work : group)
+            {
+                for (JDBCEnqueueRecord record : work.getDequeues())
+                {
+                    deleteStmt.setString(1, record.getQueueId().toString());
+                    deleteStmt.setLong(2, record.getMessageNumber());
+                    deleteStmt.addBatch();
+                    dequeues.add(record);
+                }
+            }
+            if (!dequeues.isEmpty())
+            {
+                final int[] results = deleteStmt.executeBatch();
+                for (int i = 0; i < results.length; i++)
+                {
+                    if (results[i] == 0)
+                    {
+                        final JDBCEnqueueRecord record = dequeues.get(i);
+                        throw new StoreException("Unable to find message with id " + record.getMessageNumber()
+                                                 + " on queue with id " + record.getQueueId());
+                    }
+                }
+            }
+        }
+    }
+
+    private final class BatchedWork extends JDBCGroupCommitter.Job
+    {
+        private final List<StoredJDBCMessage<?>> _messages = new ArrayList<>();
+        private final List<JDBCEnqueueRecord> _enqueues = new ArrayList<>();
+        private final List<JDBCEnqueueRecord> _dequeues = new ArrayList<>();
+        private int _storeSizeIncrease;
+
+        List<StoredJDBCMessage<?>> getMessages()
+        {
+            return _messages;
+        }
+
+        List<JDBCEnqueueRecord> getEnqueues()
+        {
+            return _enqueues;
+        }
+
+        List<JDBCEnqueueRecord> getDequeues()
+        {
+            return _dequeues;
+        }
+
+        boolean isEmpty()
+        {
+            return _messages.isEmpty() && _enqueues.isEmpty() && _dequeues.isEmpty();
+        }
+
+        void claimMessage(final StoredJDBCMessage<?> message)
+        {
+            _storeSizeIncrease += message.getContentSize();
+        }
+
+        void resetClaimedMessages()
+        {
+            _storeSizeIncrease = 0;
+        }
+
+        int getStoreSizeIncrease()
+        {
+            return _storeSizeIncrease;
+        }
+    }
 
     private static class RecordImpl implements Transaction.EnqueueRecord, Transaction.DequeueRecord, TransactionLogResource, EnqueueableMessage
     {
@@ -1057,16 +1319,29 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     protected class JDBCTransaction implements Transaction
     {
-        private final ConnectionWrapper _connWrapper;
+        private ConnectionWrapper _connWrapper;
         private int _storeSizeIncrease;
         private final List<Runnable> _preCommitActions = new ArrayList<>();
         private final List<Runnable> _postCommitActions = new ArrayList<>();
+        private BatchedWork _batchedWork;
 
         protected JDBCTransaction()
+        {
+            if (_groupCommitter != null)
+            {
+                _batchedWork = new BatchedWork();
+            }
+            else
+            {
+                _connWrapper = newConnectionWrapper();
+            }
+        }
+
+        private ConnectionWrapper newConnectionWrapper()
         {
             try
             {
-                _connWrapper = new ConnectionWrapper(newConnection());
+                return new ConnectionWrapper(newConnection());
             }
             catch (SQLException e)
             {
@@ -1080,44 +1355,107 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             checkMessageStoreOpen();
 
             final StoredMessage storedMessage = message.getStoredMessage();
-            if(storedMessage instanceof StoredJDBCMessage)
+            if (_batchedWork != null)
             {
-                _preCommitActions.add(new Runnable()
+                if (storedMessage instanceof StoredJDBCMessage)
                 {
-                    @Override
-                    public void run()
-                    {
-                        try
-                        {
-                            ((StoredJDBCMessage) storedMessage).store(_connWrapper.getConnection());
-                            _storeSizeIncrease += storedMessage.getContentSize();
-                        }
-                        catch (SQLException e)
-                        {
-                            throw new StoreException("Exception on enqueuing message into message store" + _messageId,
-                                                     e);
-                        }
-                    }
-                });
+                    _batchedWork.getMessages().add((StoredJDBCMessage<?>) storedMessage);
+                }
+                final JDBCEnqueueRecord record = new JDBCEnqueueRecord(queue.getId(), message.getMessageNumber());
+                _batchedWork.getEnqueues().add(record);
+                return record;
+            }
+
+            if(storedMessage instanceof StoredJDBCMessage)
+            {
+                addStoreMessageAction((StoredJDBCMessage<?>) storedMessage);
             }
             AbstractJDBCMessageStore.this.enqueueMessage(_connWrapper, queue, message.getMessageNumber());
             return new JDBCEnqueueRecord(queue.getId(), message.getMessageNumber());
         }
 
+        private void addStoreMessageAction(final StoredJDBCMessage<?> storedMessage)
+        {
+            _preCommitActions.add(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        storedMessage.store(_connWrapper.getConnection());
+                        _storeSizeIncrease += storedMessage.getContentSize();
+                    }
+                    catch (SQLException e)
+                    {
+                        throw new StoreException("Exception on enqueuing message into message store" + _messageId,
+                                                 e);
+                    }
+                }
+            });
+        }
+
         @Override
         public void dequeueMessage(final MessageEnqueueRecord enqueueRecord)
         {
             checkMessageStoreOpen();
 
+            if (_batchedWork != null)
+            {
+                _batchedWork.getDequeues().add(new JDBCEnqueueRecord(enqueueRecord.getQueueId(),
+                                                                     enqueueRecord.getMessageNumber()));
+                return;
+            }
+
             AbstractJDBCMessageStore.this.dequeueMessage(_connWrapper,
                                                          enqueueRecord.getQueueId(),
                                                          enqueueRecord.getMessageNumber());
         }
 
+        /**
+         * Xid records are written on the transaction's own connection, so any batched work is replayed
+         * onto that connection and the transaction continues without batching.
+         */
+        private void stopBatching()
+        {
+            if (_batchedWork != null)
+            {
+                final BatchedWork batchedWork = _batchedWork;
+                _batchedWork = null;
+                _connWrapper = newConnectionWrapper();
+                for (StoredJDBCMessage<?> message : batchedWork.getMessages())
+                {
+                    addStoreMessageAction(message);
+                }
+                for (JDBCEnqueueRecord record : batchedWork.getEnqueues())
+                {
+                    AbstractJDBCMessageStore.this.enqueueMessage(_connWrapper,
+                                                                 new RecordImpl(record.getQueueId(),
+                                                                                record.getMessageNumber()),
+                                                                 record.getMessageNumber());
+                }
+                for (JDBCEnqueueRecord record : batchedWork.getDequeues())
+                {
+                    AbstractJDBCMessageStore.this.dequeueMessage(_connWrapper,
+                                                                 record.getQueueId(),
+                                                                 record.getMessageNumber());
+                }
+            }
+        }
+
         @Override
         public void commitTran()
         {
             checkMessageStoreOpen();
+            if (_batchedWork != null)
+            {
+                if (!_batchedWork.isEmpty())
+                {
+                    addBatchedWork().awaitCompletion();
+                }
+                doPostCommitActions();
+                return;
+            }
             doPreCommitActions();
             AbstractJDBCMessageStore.this.commitTran(_connWrapper);
             storedSizeChange(_storeSizeIncrease);
@@ -1128,6 +1466,27 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         public <X> ListenableFuture<X> commitTranAsync(final X val)
         {
             checkMessageStoreOpen();
+            if (_batchedWork != null)
+            {
+                final ListenableFuture<X> futureResult;
+                if (_batchedWork.isEmpty())
+                {
+                    futureResult = Futures.immediateFuture(val);
+                }
+                else
+                {
+                    futureResult = Futures.transform(addBatchedWork().getFuture(), new Function<Void, X>()
+                    {
+                        @Override
+                        public X apply(final Void input)
+                        {
+                            return val;
+                        }
+                    }, MoreExecutors.directExecutor());
+                }
+                doPostCommitActions();
+                return futureResult;
+            }
             doPreCommitActions();
             ListenableFuture<X> futureResult = AbstractJDBCMessageStore.this.commitTranAsync(_connWrapper, val);
             storedSizeChange(_storeSizeIncrease);
@@ -1135,6 +1494,19 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             return futureResult;
         }
 
+        private BatchedWork addBatchedWork()
+        {
+            final JDBCGroupCommitter<BatchedWork> groupCommitter = _groupCommitter;
+            if (groupCommitter == null)
+            {
+                throw new StoreException("Message store is closed");
+            }
+            final BatchedWork batchedWork = _batchedWork;
+            _batchedWork = new BatchedWork();
+            groupCommitter.addJob(batchedWork);
+            return batchedWork;
+        }
+
         private void doPreCommitActions()
         {
             for(Runnable action : _preCommitActions)
@@ -1162,6 +1534,11 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         {
             checkMessageStoreOpen();
             _preCommitActions.clear();
+            if (_batchedWork != null)
+            {
+                _batchedWork = new BatchedWork();
+                return;
+            }
             AbstractJDBCMessageStore.this.abortTran(_connWrapper);
         }
 
@@ -1169,6 +1546,7 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         public void removeXid(final StoredXidRecord record)
         {
             checkMessageStoreOpen();
+            stopBatching();
 
             AbstractJDBCMessageStore.this.removeXid(_connWrapper,
                                                     record.getFormat(),
@@ -1184,6 +1562,7 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
                                          DequeueRecord[] dequeues)
         {
             checkMessageStoreOpen();
+            stopBatching();
 
             _postCommitActions.addAll(AbstractJDBCMessageStore.this.recordXid(_connWrapper, format, globalId, branchId, enqueues, dequeues));
             return new JDBCStoredXidRecord(format, globalId, branchId);
@@ -1345,6 +1724,8 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         private final int _metadataSize;
 
         private MessageDataRef<T> _messageDataRef;
+        private boolean _batchPending;
+        private boolean _unloaded;
 
         StoredJDBCMessage(long messageId,
                           T metaData, boolean isRecovered)
@@ -1479,9 +1860,60 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             }
         }
 
+        /**
+         * Adds the metadata and content of this message to the given batches unless it is already stored.  The
+         * message keeps its content in memory until {@link #batchCompleted(boolean)} reports the outcome.
+         */
+        synchronized boolean addToBatch(final PreparedStatement metaDataStmt,
+                                        final PreparedStatement contentStmt) throws SQLException
+        {
+            if (_messageDataRef == null || stored())
+            {
+                return false;
+            }
+            if (_messageDataRef.getMetaData() == null)
+            {
+                throw new StoreException("Message " + _messageId + " was evicted from memory before being stored");
+            }
+
+            final byte[] metaData = encodeMetaData(_messageDataRef.getMetaData());
+            metaDataStmt.setLong(1, _messageId);
+            metaDataStmt.setBinaryStream(2, new ByteArrayInputStream(metaData), metaData.length);
+            metaDataStmt.addBatch();
+
+            // the batch outlives this call so the content is copied rather than streamed from the buffer
+            final QpidByteBuffer data = _messageDataRef.getData();
+            final byte[] content = new byte[data == null ? 0 : data.remaining()];
+            if (data != null)
+            {
+                try (QpidByteBuffer dataDuplicate = data.duplicate())
+                {
+                    dataDuplicate.copyTo(content);
+                }
+            }
+            contentStmt.setLong(1, _messageId);
+            contentStmt.setBinaryStream(2, new ByteArrayInputStream(content), content.length);
+            contentStmt.addBatch();
+
+            getLogger().debug("Batching message {} to store", _messageId);
+
+            _batchPending = true;
+            return true;
+        }
+
+        synchronized void batchCompleted(final boolean committed)
+        {
+            _batchPending = false;
+            if (committed && _messageDataRef != null)
+            {
+                _messageDataRef.setSoft();
+            }
+        }
+
         synchronized ListenableFuture<Void> flushToStore()
         {
-            if (_messageDataRef != null)
+            // a message in a batch still being written is left in memory for the group commit thread to store
+            if (_messageDataRef != null && !_batchPending)
             {
                 if(!stored())
                 {
@@ -1508,7 +1940,7 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
             checkMessageStoreOpen();
             _messages.remove(this);
-            if(stored())
+            if(stored() && !_unloaded)
             {
                 AbstractJDBCMessageStore.this.removeMessage(_messageId);
                 storedSizeChange(-getContentSize());
@@ -1532,7 +1964,7 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             }
             _messageDataRef = null;
             _inMemorySize.addAndGet(-bytesCleared);
-            if (!_messageDeleteListeners.isEmpty())
+            if (!_unloaded && !_messageDeleteListeners.isEmpty())
             {
                 for (final MessageDeleteListener messageDeleteListener : _messageDeleteListeners)
                 {
@@ -1575,6 +2007,23 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             }
         }
 
+        @Override
+        public synchronized boolean unload()
+        {
+            if (!stored())
+            {
+                return false;
+            }
+            if (!_unloaded)
+            {
+                _unloaded = true;
+                _messages.remove(this);
+                final long bytesCleared = _messageDataRef.clear();
+                _inMemorySize.addAndGet(-bytesCleared);
+            }
+            return true;
+        }
+
         public synchronized void clear()
         {
             if (_messageDataRef != null)
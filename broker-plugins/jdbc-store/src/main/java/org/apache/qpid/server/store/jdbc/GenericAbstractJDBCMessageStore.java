@@ -71,6 +71,7 @@ public abstract class GenericAbstractJDBCMessageStore extends AbstractJDBCMessag
         {
             try
             {
+                stopGroupCommitter();
                 while(!_transactions.isEmpty())
                 {
                     RecordedJDBCTransaction txn = _transactions.get(0);
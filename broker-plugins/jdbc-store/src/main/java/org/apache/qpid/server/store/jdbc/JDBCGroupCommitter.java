@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.qpid.server.store.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.server.store.StoreException;
+
+/**
+ * Single thread that drains the work of concurrently committing transactions and hands it to a
+ * {@link GroupWriter} in groups, so that the rows of many transactions are written with a single
+ * round of JDBC batches and a single database commit.
+ */
+final class JDBCGroupCommitter<T extends JDBCGroupCommitter.Job>
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(JDBCGroupCommitter.class);
+    private static final long POLL_INTERVAL_MILLIS = 100L;
+
+    interface GroupWriter<T extends Job>
+    {
+        /**
+         * Writes the given group, completing or failing every job in it before returning.
+         */
+        void write(List<T> group);
+    }
+
+    private final BlockingQueue<T> _jobs = new LinkedBlockingQueue<>();
+    private final GroupWriter<T> _writer;
+    private final int _maxGroupSize;
+    private final Thread _thread;
+    private volatile boolean _stopped;
+
+    JDBCGroupCommitter(final String name, final int maxGroupSize, final GroupWriter<T> writer)
+    {
+        _writer = writer;
+        _maxGroupSize = maxGroupSize <= 0 ? Integer.MAX_VALUE : maxGroupSize;
+        _thread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                processJobs();
+            }
+        }, "Group-Commit-Thread-" + name);
+        _thread.setDaemon(true);
+    }
+
+    void start()
+    {
+        _thread.start();
+    }
+
+    void stop()
+    {
+        _stopped = true;
+        if (Thread.currentThread() != _thread)
+        {
+            try
+            {
+                _thread.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new StoreException("Group commit thread has not shutdown", e);
+            }
+        }
+        final List<T> remaining = new ArrayList<>();
+        _jobs.drainTo(remaining);
+        for (T job : remaining)
+        {
+            job.failed(new StoreException("Message store is closed"));
+        }
+    }
+
+    void addJob(final T job)
+    {
+        if (_stopped)
+        {
+            throw new StoreException("Message store is closed");
+        }
+        _jobs.add(job);
+        // stop() may have drained the queue between the check above and the add; the job must not be left behind
+        if (_stopped && _jobs.remove(job))
+        {
+            throw new StoreException("Message store is closed");
+        }
+    }
+
+    private void processJobs()
+    {
+        final List<T> group = new ArrayList<>();
+        while (!_stopped || !_jobs.isEmpty())
+        {
+            try
+            {
+                final T first = _jobs.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null)
+                {
+                    continue;
+                }
+                group.add(first);
+                _jobs.drainTo(group, _maxGroupSize - 1);
+
+                LOGGER.debug("Writing group of {} transaction(s)", group.size());
+                _writer.write(group);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.error("Unexpected failure writing group of transactions", e);
+                for (T job : group)
+                {
+                    job.failed(e);
+                }
+            }
+            finally
+            {
+                group.clear();
+            }
+        }
+    }
+
+    abstract static class Job
+    {
+        private final SettableFuture<Void> _future = SettableFuture.create();
+
+        void completed()
+        {
+            _future.set(null);
+        }
+
+        void failed(final RuntimeException e)
+        {
+            _future.setException(e);
+        }
+
+        ListenableFuture<Void> getFuture()
+        {
+            return _future;
+        }
+
+        void awaitCompletion()
+        {
+            boolean interrupted = false;
+            try
+            {
+                while (true)
+                {
+                    try
+                    {
+                        _future.get();
+                        return;
+                    }
+                    catch (InterruptedException e)
+                    {
+                        interrupted = true;
+                    }
+                }
+            }
+            catch (ExecutionException e)
+            {
+                if (e.getCause() instanceof RuntimeException)
+                {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new StoreException(e.getCause());
+            }
+            finally
+            {
+                if (interrupted)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.qpid.server.virtualhost.jdbc;
 
 import org.apache.qpid.server.model.ManagedAttribute;
 import org.apache.qpid.server.model.ManagedContextDefault;
+import org.apache.qpid.server.store.jdbc.AbstractJDBCMessageStore;
 import org.apache.qpid.server.store.jdbc.DefaultConnectionProviderFactory;
 import org.apache.qpid.server.store.jdbc.JDBCSettings;
 import org.apache.qpid.server.virtualhost.QueueManagingVirtualHost;
@@ -57,4 +58,14 @@ public interface JDBCVirtualHost<X extends JDBCVirtualHost<X>> extends QueueMana
             immutable = true)
     String getTableNamePrefix();
 
+    @ManagedContextDefault(name = AbstractJDBCMessageStore.CONTEXT_JDBCSTORE_BATCH_WRITES_ENABLED,
+            description = "If true, the enqueues, dequeues and messages of concurrently committing transactions"
+                          + " are written together using JDBC batches and a single database commit")
+    boolean DEFAULT_JDBCSTORE_BATCH_WRITES_ENABLED = AbstractJDBCMessageStore.DEFAULT_JDBCSTORE_BATCH_WRITES_ENABLED;
+
+    @ManagedContextDefault(name = AbstractJDBCMessageStore.CONTEXT_JDBCSTORE_BATCH_WRITES_MAX_TRANSACTIONS,
+            description = "Maximum number of transactions written by a single batched database commit")
+    int DEFAULT_JDBCSTORE_BATCH_WRITES_MAX_TRANSACTIONS =
+            AbstractJDBCMessageStore.DEFAULT_JDBCSTORE_BATCH_WRITES_MAX_TRANSACTIONS;
+
 }
@@ -0,0 +1,211 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store.jdbc;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.message.internal.InternalMessage;
+import org.apache.qpid.server.model.VirtualHost;
+import org.apache.qpid.server.store.MessageEnqueueRecord;
+import org.apache.qpid.server.store.MessageStore;
+import org.apache.qpid.server.store.StoreException;
+import org.apache.qpid.server.store.StoredMessage;
+import org.apache.qpid.server.store.Transaction;
+import org.apache.qpid.server.store.TransactionLogResource;
+
+/**
+ * Runs the JDBC message store tests with transactions written through the group commit thread.
+ */
+public class BatchedWritesJDBCMessageStoreTest extends JDBCMessageStoreTest
+{
+    public void testDequeueOfUnknownRecordFailsCommit() throws Exception
+    {
+        final MessageEnqueueRecord record = mock(MessageEnqueueRecord.class);
+        when(record.getQueueId()).thenReturn(UUID.randomUUID());
+        when(record.getMessageNumber()).thenReturn(Long.MAX_VALUE);
+
+        final Transaction transaction = getStore().newTransaction();
+        transaction.dequeueMessage(record);
+        final ListenableFuture<Void> future = transaction.commitTranAsync(null);
+        try
+        {
+            future.get(1000, TimeUnit.MILLISECONDS);
+            fail("Exception not thrown");
+        }
+        catch (ExecutionException e)
+        {
+            assertTrue("Unexpected cause " + e.getCause(), e.getCause() instanceof StoreException);
+        }
+    }
+
+    public void testMessageContentSurvivesFailedGroup() throws Exception
+    {
+        final GatedJDBCMessageStore store = (GatedJDBCMessageStore) getStore();
+        final TransactionLogResource queue = mockTransactionLogResource(UUID.randomUUID(), getTestName());
+        final InternalMessage blockingMessage = addTestMessage(store, getTestName(), "blocking");
+        final InternalMessage message = addTestMessage(store, getTestName(), "content");
+        final StoredMessage<?> storedMessage = message.getStoredMessage();
+        final byte[] expectedContent = getContent(storedMessage);
+
+        final MessageEnqueueRecord unknownRecord = mock(MessageEnqueueRecord.class);
+        when(unknownRecord.getQueueId()).thenReturn(UUID.randomUUID());
+        when(unknownRecord.getMessageNumber()).thenReturn(Long.MAX_VALUE);
+
+        store.setGated(true);
+        try
+        {
+            // hold the group commit thread on its first group so that the next two transactions form one group
+            final ListenableFuture<Void> blockingFuture = enqueue(store, queue, blockingMessage);
+            store.awaitConnectionRequest();
+
+            final ListenableFuture<Void> enqueueFuture = enqueue(store, queue, message);
+            final Transaction dequeueTransaction = store.newTransaction();
+            dequeueTransaction.dequeueMessage(unknownRecord);
+            final ListenableFuture<Void> dequeueFuture = dequeueTransaction.commitTranAsync(null);
+
+            store.allowConnection();
+            blockingFuture.get(1000, TimeUnit.MILLISECONDS);
+
+            // the group fails on the unknown dequeue; flow the message to disk before it is retried on its own
+            store.awaitConnectionRequest();
+            store.allowConnection();
+            store.awaitConnectionRequest();
+            storedMessage.flowToDisk();
+
+            store.setGated(false);
+            store.allowConnection();
+
+            enqueueFuture.get(1000, TimeUnit.MILLISECONDS);
+            try
+            {
+                dequeueFuture.get(1000, TimeUnit.MILLISECONDS);
+                fail("Exception not thrown");
+            }
+            catch (ExecutionException e)
+            {
+                assertTrue("Unexpected cause " + e.getCause(), e.getCause() instanceof StoreException);
+            }
+        }
+        finally
+        {
+            store.setGated(false);
+            store.allowConnection();
+        }
+
+        storedMessage.flowToDisk();
+        assertTrue("Unexpected message content", Arrays.equals(expectedContent, getContent(storedMessage)));
+    }
+
+    private ListenableFuture<Void> enqueue(final MessageStore store,
+                                           final TransactionLogResource queue,
+                                           final InternalMessage message)
+    {
+        final Transaction transaction = store.newTransaction();
+        transaction.enqueueMessage(queue, message);
+        return transaction.commitTranAsync(null);
+    }
+
+    private byte[] getContent(final StoredMessage<?> storedMessage)
+    {
+        try (QpidByteBuffer content = storedMessage.getContent(0, Integer.MAX_VALUE))
+        {
+            final byte[] bytes = new byte[content.remaining()];
+            content.copyTo(bytes);
+            return bytes;
+        }
+    }
+
+    @Override
+    protected MessageStore createMessageStore()
+    {
+        return new GatedJDBCMessageStore();
+    }
+
+    @Override
+    protected VirtualHost createVirtualHost()
+    {
+        final VirtualHost virtualHost = super.createVirtualHost();
+        when(virtualHost.getContextKeys(false)).thenReturn(
+                Collections.singleton(AbstractJDBCMessageStore.CONTEXT_JDBCSTORE_BATCH_WRITES_ENABLED));
+        when(virtualHost.getContextValue(Boolean.class,
+                                         AbstractJDBCMessageStore.CONTEXT_JDBCSTORE_BATCH_WRITES_ENABLED))
+                .thenReturn(true);
+        return virtualHost;
+    }
+
+    /**
+     * Store whose group commit thread, while gated, waits for the test before each connection it opens.
+     */
+    private static class GatedJDBCMessageStore extends GenericJDBCMessageStore
+    {
+        private final Semaphore _connectionRequests = new Semaphore(0);
+        private final Semaphore _connectionPermits = new Semaphore(0);
+        private volatile boolean _gated;
+
+        void setGated(final boolean gated)
+        {
+            _gated = gated;
+        }
+
+        void awaitConnectionRequest() throws InterruptedException
+        {
+            assertTrue("Group commit thread did not request a connection",
+                       _connectionRequests.tryAcquire(1000, TimeUnit.MILLISECONDS));
+        }
+
+        void allowConnection()
+        {
+            _connectionPermits.release();
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException
+        {
+            if (_gated && Thread.currentThread().getName().startsWith("Group-Commit-Thread"))
+            {
+                _connectionRequests.release();
+                try
+                {
+                    _connectionPermits.acquire();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException(e);
+                }
+            }
+            return super.getConnection();
+        }
+    }
+}
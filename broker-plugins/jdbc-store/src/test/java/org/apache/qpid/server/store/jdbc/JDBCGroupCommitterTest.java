@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.qpid.server.store.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.server.store.StoreException;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class JDBCGroupCommitterTest extends QpidTestCase
+{
+    private static final int ITERATIONS = 20;
+    private static final int ADDING_THREADS = 4;
+
+    public void testJobsAddedWhileStoppingAreCompletedOrFailed() throws Exception
+    {
+        for (int i = 0; i < ITERATIONS; i++)
+        {
+            final JDBCGroupCommitter<TestJob> committer = new JDBCGroupCommitter<>("test", 0, group ->
+            {
+                for (TestJob job : group)
+                {
+                    job.completed();
+                }
+            });
+            committer.start();
+
+            final ConcurrentLinkedQueue<TestJob> acceptedJobs = new ConcurrentLinkedQueue<>();
+            final CountDownLatch adding = new CountDownLatch(ADDING_THREADS);
+            final List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < ADDING_THREADS; t++)
+            {
+                final Thread thread = new Thread(() ->
+                                                 {
+                                                     adding.countDown();
+                                                     while (true)
+                                                     {
+                                                         final TestJob job = new TestJob();
+                                                         try
+                                                         {
+                                                             committer.addJob(job);
+                                                         }
+                                                         catch (StoreException e)
+                                                         {
+                                                             return;
+                                                         }
+                                                         acceptedJobs.add(job);
+                                                     }
+                                                 });
+                threads.add(thread);
+                thread.start();
+            }
+
+            assertTrue("Adding threads did not start", adding.await(5, TimeUnit.SECONDS));
+            committer.stop();
+            for (Thread thread : threads)
+            {
+                thread.join(5000);
+                assertFalse("Adding thread did not observe the stop", thread.isAlive());
+            }
+
+            for (TestJob job : acceptedJobs)
+            {
+                assertTrue("Accepted job was neither written nor failed", job.getFuture().isDone());
+            }
+        }
+    }
+
+    public void testJobRejectedAfterStop()
+    {
+        final JDBCGroupCommitter<TestJob> committer = new JDBCGroupCommitter<>("test", 0, group -> { });
+        committer.start();
+        committer.stop();
+
+        try
+        {
+            committer.addJob(new TestJob());
+            fail("Exception not thrown");
+        }
+        catch (StoreException e)
+        {
+            // pass
+        }
+    }
+
+    private static class TestJob extends JDBCGroupCommitter.Job
+    {
+    }
+}
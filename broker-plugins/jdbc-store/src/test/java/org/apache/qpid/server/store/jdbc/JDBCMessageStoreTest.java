@@ -158,7 +158,7 @@ public class JDBCMessageStoreTest extends MessageStoreTestCase
         assertEquals("Delete action was not invoked", true, deleted.get());
     }
 
-    private InternalMessage addTestMessage(final MessageStore store,
+    protected InternalMessage addTestMessage(final MessageStore store,
                                            final String transactionalLogName,
                                            final String messageContent)
     {
@@ -166,7 +166,7 @@ public class JDBCMessageStoreTest extends MessageStoreTestCase
         return InternalMessage.createMessage(store, amqpHeader, messageContent, true, transactionalLogName);
     }
 
-    private TransactionLogResource mockTransactionLogResource(final UUID transactionalLogId,
+    protected TransactionLogResource mockTransactionLogResource(final UUID transactionalLogId,
                                                               final String transactionalLogName)
     {
         final TransactionLogResource transactionalLog = mock(TransactionLogResource.class);
@@ -80,6 +80,12 @@ class ManagementNodeConsumer<T extends ConsumerTarget> implements MessageInstanc
         return _identifier;
     }
 
+    @Override
+    public int getDeliveryBatchSize()
+    {
+        return 1;
+    }
+
     @Override
     public MessageContainer pullMessage()
     {
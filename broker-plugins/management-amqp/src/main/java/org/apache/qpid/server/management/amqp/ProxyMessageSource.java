@@ -408,6 +408,12 @@ public class ProxyMessageSource implements MessageSource, MessageDestination
             return _underlying.pullMessage();
         }
 
+        @Override
+        public int getDeliveryBatchSize()
+        {
+            return _underlying.getDeliveryBatchSize();
+        }
+
         @Override
         public T getTarget()
         {
@@ -73,6 +73,7 @@ import org.apache.qpid.server.transport.AcceptingTransport;
 import org.apache.qpid.server.transport.ByteBufferSender;
 import org.apache.qpid.server.transport.MultiVersionProtocolEngine;
 import org.apache.qpid.server.transport.MultiVersionProtocolEngineFactory;
+import org.apache.qpid.server.transport.NetworkConnectionScheduler;
 import org.apache.qpid.server.transport.ProtocolEngine;
 import org.apache.qpid.server.transport.SchedulingDelayNotificationListener;
 import org.apache.qpid.server.transport.ServerNetworkConnection;
@@ -295,6 +296,12 @@ class WebSocketProvider implements AcceptingTransport
                 ((ServerConnector) server.getConnectors()[0]).getLocalPort();
     }
 
+    @Override
+    public NetworkConnectionScheduler getNetworkConnectionScheduler()
+    {
+        return null;
+    }
+
     private static class QBBTrackingThreadPool extends QueuedThreadPool
     {
         private final ThreadFactory _threadFactory = QpidByteBuffer.createQpidByteBufferTrackingThreadFactory(r -> QBBTrackingThreadPool.super.newThread(r));
@@ -605,6 +612,18 @@ class WebSocketProvider implements AcceptingTransport
             return 0;
         }
 
+        @Override
+        public long getSchedulingWaitTime()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getMaximumSchedulingWaitTime()
+        {
+            return 0;
+        }
+
         @Override
         public String getSelectedHost()
         {